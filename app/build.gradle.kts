@@ -17,7 +17,13 @@ android {
         targetSdk = 35
         versionCode = 1
         versionName = "1.0"
-        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        testInstrumentationRunner = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
+    }
+
+    // Device benchmarks need a release-like build to report stable numbers:
+    // ./gradlew -Pbenchmark connectedBenchmarkAndroidTest
+    if (project.hasProperty("benchmark")) {
+        testBuildType = "benchmark"
     }
 
     // =========================================================
@@ -35,6 +41,9 @@ android {
                 "src/main/res-graphics/buttons"
             )
         }
+        // Transaction generators and delta replay shared by JVM tests and device benchmarks
+        getByName("test").java.srcDir("src/testShared/java")
+        getByName("androidTest").java.srcDir("src/testShared/java")
     }
 
     buildTypes {
@@ -49,6 +58,12 @@ android {
                 groups = "clg-frnds, family, clg-juniors, ttn-frnds, extras"
             }
         }
+        create("benchmark") {
+            initWith(getByName("release"))
+            signingConfig = signingConfigs.getByName("debug")
+            matchingFallbacks += listOf("release")
+            isDebuggable = false
+        }
     }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_17
@@ -57,6 +72,10 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    testOptions {
+        // JVM tests drive the ViewModels, which log and create Handlers through android.jar
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -93,6 +112,8 @@ dependencies {
 
     // --- Testing ---
     testImplementation("junit:junit:4.13.2")
+    testImplementation("androidx.arch.core:core-testing:2.2.0")
     androidTestImplementation("androidx.test.ext:junit:1.2.1")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.6.1")
+    androidTestImplementation("androidx.benchmark:benchmark-junit4:1.2.4")
 }
\ No newline at end of file
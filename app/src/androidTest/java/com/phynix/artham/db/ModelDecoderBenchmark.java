@@ -0,0 +1,45 @@
+package com.phynix.artham.db;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.phynix.artham.TestTransactions;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+
+/**
+ * Decode of a whole transactions node, as the decoder pool runs it on a cold cashbook load.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ModelDecoderBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void decodeTenThousandRows() {
+        decode(10_000);
+    }
+
+    @Test
+    public void decodeHundredThousandRows() {
+        decode(100_000);
+    }
+
+    private void decode(int rows) {
+        Map<String, Object> raw = TestTransactions.node(rows, new Random(rows), NOW - 365 * DAY, NOW);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            ModelDecoder.decodeTransactions(raw);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.phynix.artham.index;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+
+/**
+ * A type + two categories + payment mode filter over 100k rows, through the bitmaps and through
+ * the stream filter the transaction list used before them.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FilterBitmapIndexBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final FilterQuery query = new FilterQuery(null, 0, 0, "OUT", Arrays.asList("Food", "Travel"),
+            Collections.singletonList("Card"), null, null);
+    private List<TransactionModel> list;
+    private FilterBitmapIndex filters;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(23);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        for (int i = 0; i < 100_000; i++) {
+            index.upsert(TestTransactions.random("t" + i, random, NOW - 90 * DAY, NOW));
+        }
+        list = index.snapshot();
+        filters = new FilterBitmapIndex();
+        filters.reset(list);
+    }
+
+    @Test
+    public void streamFilter() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            list.stream().filter(query::matches).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void bitmapSelect() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            filters.select(filters.criteria(query.getEntryType(), query.getCategories(),
+                    query.getPaymentModes(), query.getParties()));
+        }
+    }
+}
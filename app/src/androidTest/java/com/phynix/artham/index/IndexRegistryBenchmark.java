@@ -0,0 +1,71 @@
+package com.phynix.artham.index;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.InMemoryStore;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+
+/**
+ * Full index build when a screen first observes a cashbook, including the store's copy for the
+ * subscription. The builder and main thread run inline so only the build itself is measured.
+ */
+@RunWith(AndroidJUnit4.class)
+public class IndexRegistryBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void fullBuildOfTenThousandRows() {
+        fullBuild(10_000);
+    }
+
+    @Test
+    public void fullBuildOfAHundredThousandRows() {
+        fullBuild(100_000);
+    }
+
+    private void fullBuild(int rows) {
+        InMemoryStore store = new InMemoryStore();
+        SubscriptionHub hub = new SubscriptionHub(store, store);
+        String[] cashbookId = new String[1];
+        store.createNewCashbook("Benchmark", null, id -> cashbookId[0] = id, null);
+        Random random = new Random(rows);
+        for (int i = 0; i < rows; i++) {
+            store.addTransaction(cashbookId[0], TestTransactions.random(null, random, NOW - 365 * DAY, NOW), null);
+        }
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            IndexRegistry registry = new IndexRegistry(hub, Runnable::run, Runnable::run);
+            Subscription subscription = registry.observe(cashbookId[0], new Discard());
+
+            state.pauseTiming();
+            subscription.unsubscribe();
+            state.resumeTiming();
+        }
+    }
+
+    private static final class Discard implements SubscriptionHub.Observer<CashbookIndexes> {
+        @Override
+        public void onChanged(CashbookIndexes indexes) {
+        }
+
+        @Override
+        public void onError(String error) {
+        }
+    }
+}
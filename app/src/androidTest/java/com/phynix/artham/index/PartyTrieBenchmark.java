@@ -0,0 +1,90 @@
+package com.phynix.artham.index;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+
+/**
+ * Party completions over 100k rows and 5000 parties, as the entry form asks for them while a
+ * name is typed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PartyTrieBenchmark {
+
+    private static final String[] WORDS = {"acme", "apex", "bharat", "bright", "city", "delta", "kumar", "star"};
+    private static final int ROWS = 100_000;
+    private static final int PARTIES = 5000;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final Random random = new Random(31);
+    private SortedTransactionIndex index;
+    private PartyTrie trie;
+
+    @Before
+    public void setUp() {
+        index = new SortedTransactionIndex();
+        for (int i = 0; i < ROWS; i++) index.upsert(transaction("t" + i));
+        trie = new PartyTrie();
+        trie.reset(index.snapshot());
+    }
+
+    @Test
+    public void reset() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            trie.reset(index.snapshot());
+        }
+    }
+
+    @Test
+    public void suggestUnchanged() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            trie.suggest("bh", PartyTrie.TOP_K);
+        }
+    }
+
+    // Each completion follows a delta, so the memos on its path are usually stale
+    @Test
+    public void suggestAfterADelta() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            trie.apply(index.upsert(transaction("t" + random.nextInt(ROWS))));
+            String prefix = prefix();
+            state.resumeTiming();
+
+            trie.suggest(prefix, PartyTrie.TOP_K);
+        }
+    }
+
+    private String prefix() {
+        String word = WORDS[random.nextInt(WORDS.length)];
+        int length = 1 + random.nextInt(word.length() + 2);
+        String name = word + " " + random.nextInt(10);
+        return name.substring(0, Math.min(length, name.length()));
+    }
+
+    private TransactionModel transaction(String id) {
+        TransactionModel transaction = TestTransactions.random(id, random, NOW - 700 * DAY, NOW);
+        int n = random.nextInt(PARTIES);
+        transaction.setPartyName(WORDS[n % WORDS.length] + " " + n);
+        return transaction;
+    }
+}
@@ -0,0 +1,91 @@
+package com.phynix.artham.index;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static com.phynix.artham.TestTransactions.apply;
+
+/**
+ * Cost of one delta on the home summary at growing cashbook sizes; it should not grow with the
+ * row count. The full reset is measured for comparison.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SummaryAggregatorBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void applyDeltaOnAThousandRows() {
+        applyDelta(1_000);
+    }
+
+    @Test
+    public void applyDeltaOnTenThousandRows() {
+        applyDelta(10_000);
+    }
+
+    @Test
+    public void applyDeltaOnAHundredThousandRows() {
+        applyDelta(100_000);
+    }
+
+    @Test
+    public void resetAHundredThousandRows() {
+        List<TransactionModel> list = new ArrayList<>(cashbook(100_000, new Random(21)).snapshot());
+        SummaryAggregator aggregator = new SummaryAggregator();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            aggregator.reset(list, NOW);
+        }
+    }
+
+    private void applyDelta(int rows) {
+        Random random = new Random(rows);
+        SortedTransactionIndex index = cashbook(rows, random);
+        List<TransactionModel> list = new ArrayList<>(index.snapshot());
+        SummaryAggregator aggregator = new SummaryAggregator();
+        aggregator.reset(list, NOW);
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            // Edits, removals and inserts in about the proportions a live cashbook sees
+            state.pauseTiming();
+            String id = "t" + random.nextInt(rows + rows / 10);
+            TransactionDelta delta = index.get(id) != null && random.nextBoolean()
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            apply(list, delta);
+            state.resumeTiming();
+
+            aggregator.apply(delta, list);
+        }
+    }
+
+    private static SortedTransactionIndex cashbook(int rows, Random random) {
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        for (int i = 0; i < rows; i++) index.upsert(transaction("t" + i, random));
+        return index;
+    }
+
+    // Spread over the last few days and the next one, so "today" and the newest rows both change
+    private static TransactionModel transaction(String id, Random random) {
+        return TestTransactions.random(id, random, NOW - 3 * DAY, NOW + DAY);
+    }
+}
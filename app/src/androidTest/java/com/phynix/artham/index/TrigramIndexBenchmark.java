@@ -0,0 +1,93 @@
+package com.phynix.artham.index;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+
+/**
+ * Top-20 fuzzy search over 100k rows of trading-style names, cycling through misspelled queries.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TrigramIndexBenchmark {
+
+    private static final String[] NAMES = {"sharma", "agarwal", "krishna", "traders", "electricals", "medical",
+            "kirana", "stores", "transport", "hardware", "textiles", "enterprises", "motors", "sweets"};
+    private static final String[] REMARKS = {"advance", "balance", "payment", "invoice", "refund", "rent",
+            "salary", "diesel", "groceries", "repairs"};
+    private static final int LIMIT = 20;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final Random random = new Random(47);
+    private SortedTransactionIndex index;
+    private TrigramIndex trigrams;
+
+    @Before
+    public void setUp() {
+        index = new SortedTransactionIndex();
+        for (int i = 0; i < 100_000; i++) index.upsert(transaction("t" + i));
+        trigrams = new TrigramIndex();
+        trigrams.reset(index.snapshot());
+    }
+
+    @Test
+    public void reset() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            trigrams.reset(index.snapshot());
+        }
+    }
+
+    @Test
+    public void searchTopK() {
+        String[] queries = new String[1000];
+        for (int i = 0; i < queries.length; i++) queries[i] = misspelled();
+
+        BenchmarkState state = benchmarkRule.getState();
+        int next = 0;
+        while (state.keepRunning()) {
+            trigrams.search(queries[next], LIMIT, null);
+            next = (next + 1) % queries.length;
+        }
+    }
+
+    // One or two known words with a letter dropped, doubled or swapped
+    private String misspelled() {
+        StringBuilder query = new StringBuilder(typo(NAMES[random.nextInt(NAMES.length)]));
+        if (random.nextBoolean()) query.append(' ').append(typo(REMARKS[random.nextInt(REMARKS.length)]));
+        return query.toString();
+    }
+
+    private String typo(String word) {
+        int at = 1 + random.nextInt(word.length() - 2);
+        switch (random.nextInt(4)) {
+            case 0: return word.substring(0, at) + word.substring(at + 1);
+            case 1: return word.substring(0, at) + word.charAt(at) + word.substring(at);
+            case 2: return word.substring(0, at) + word.charAt(at + 1) + word.charAt(at) + word.substring(at + 2);
+            default: return word;
+        }
+    }
+
+    private TransactionModel transaction(String id) {
+        TransactionModel transaction = TestTransactions.random(id, random, NOW - 700 * DAY, NOW);
+        transaction.setPartyName(NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)]
+                + " " + random.nextInt(300));
+        transaction.setRemark(REMARKS[random.nextInt(REMARKS.length)] + " " + random.nextInt(1000));
+        return transaction;
+    }
+}
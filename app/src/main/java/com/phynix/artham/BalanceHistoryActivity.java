@@ -0,0 +1,176 @@
+package com.phynix.artham;
+
+import android.graphics.Color;
+import android.os.Bundle;
+import android.util.TypedValue;
+import android.view.View;
+import android.widget.ImageButton;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.index.BalanceIndex;
+import com.phynix.artham.index.CashbookIndexes;
+import com.phynix.artham.index.IndexRegistry;
+import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.DateTimeUtils;
+import com.phynix.artham.utils.ThemeManager;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Daily closing balance of a cashbook over the last {@link #HISTORY_DAYS} days up to a date,
+ * read from the cashbook's {@link BalanceIndex}.
+ */
+public class BalanceHistoryActivity extends AppCompatActivity {
+
+    public static final String EXTRA_END_DATE = "end_date";
+
+    private static final int HISTORY_DAYS = 90;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    // UI
+    private LineChart balanceLineChart;
+    private TextView rangeText, openingBalanceText, closingBalanceText, noDataTextView;
+    private ProgressBar loadingProgressBar;
+    private LinearLayout contentLayout;
+
+    private long endDate;
+    private Subscription indexSubscription;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        ThemeManager.applyActivityTheme(this);
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_balance_history);
+
+        if (getSupportActionBar() != null) getSupportActionBar().hide();
+
+        String cashbookId = getIntent().getStringExtra(Constants.EXTRA_CASHBOOK_ID);
+        if (cashbookId == null) {
+            finish();
+            return;
+        }
+        endDate = Math.min(getIntent().getLongExtra(EXTRA_END_DATE, System.currentTimeMillis()), System.currentTimeMillis());
+
+        initializeUI();
+        setupLineChart();
+
+        indexSubscription = IndexRegistry.getInstance(getApplication()).observe(cashbookId,
+                new SubscriptionHub.Observer<CashbookIndexes>() {
+                    @Override
+                    public void onChanged(CashbookIndexes indexes) {
+                        showHistory(indexes);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        loadingProgressBar.setVisibility(View.GONE);
+                        noDataTextView.setText(error);
+                        noDataTextView.setVisibility(View.VISIBLE);
+                    }
+                });
+    }
+
+    private void initializeUI() {
+        balanceLineChart = findViewById(R.id.balanceLineChart);
+        rangeText = findViewById(R.id.rangeText);
+        openingBalanceText = findViewById(R.id.openingBalanceText);
+        closingBalanceText = findViewById(R.id.closingBalanceText);
+        noDataTextView = findViewById(R.id.noDataTextView);
+        loadingProgressBar = findViewById(R.id.loadingProgressBar);
+        contentLayout = findViewById(R.id.contentLayout);
+
+        ImageButton closeButton = findViewById(R.id.closeButton);
+        closeButton.setOnClickListener(v -> finish());
+    }
+
+    private void setupLineChart() {
+        int textColor = getThemeColor(R.attr.chk_textColorSecondary);
+        balanceLineChart.getDescription().setEnabled(false);
+        balanceLineChart.getLegend().setEnabled(false);
+        balanceLineChart.getAxisRight().setEnabled(false);
+        balanceLineChart.getAxisLeft().setTextColor(textColor);
+        balanceLineChart.setNoDataTextColor(textColor);
+
+        XAxis xAxis = balanceLineChart.getXAxis();
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setDrawGridLines(false);
+        xAxis.setTextColor(textColor);
+        xAxis.setGranularity(1f);
+    }
+
+    private void showHistory(CashbookIndexes indexes) {
+        loadingProgressBar.setVisibility(View.GONE);
+        if (indexes.getTransactions().isEmpty()) {
+            contentLayout.setVisibility(View.GONE);
+            noDataTextView.setVisibility(View.VISIBLE);
+            return;
+        }
+        noDataTextView.setVisibility(View.GONE);
+        contentLayout.setVisibility(View.VISIBLE);
+
+        BalanceIndex balance = indexes.getBalance();
+        long toDay = DateTimeUtils.toEpochDay(endDate);
+        long fromDay = toDay - HISTORY_DAYS + 1;
+        double[] closing = balance.getDailyBalances(fromDay, toDay);
+        double opening = balance.getClosingBalance(fromDay - 1);
+
+        long fromMillis = DateTimeUtils.startOfDay(endDate - (HISTORY_DAYS - 1) * DAY_MILLIS);
+        SimpleDateFormat rangeFormat = new SimpleDateFormat("dd MMM yyyy", Locale.getDefault());
+        rangeText.setText(rangeFormat.format(new Date(fromMillis)) + " - " + rangeFormat.format(new Date(endDate)));
+        openingBalanceText.setText("Opening Balance: ₹" + String.format(Locale.US, "%.2f", opening));
+        closingBalanceText.setText("Closing Balance: ₹" + String.format(Locale.US, "%.2f", closing[closing.length - 1]));
+
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < closing.length; i++) {
+            entries.add(new Entry(i, (float) closing[i]));
+        }
+
+        LineDataSet dataSet = new LineDataSet(entries, "Balance");
+        int lineColor = getThemeColor(R.attr.chk_primary_blue);
+        dataSet.setColor(lineColor);
+        dataSet.setFillColor(lineColor);
+        dataSet.setDrawFilled(true);
+        dataSet.setDrawCircles(false);
+        dataSet.setDrawValues(false);
+        dataSet.setLineWidth(2f);
+
+        SimpleDateFormat axisFormat = new SimpleDateFormat("dd MMM", Locale.getDefault());
+        balanceLineChart.getXAxis().setValueFormatter(new ValueFormatter() {
+            @Override
+            public String getFormattedValue(float value) {
+                // Midday of the day, so a DST shift cannot move the label to a neighbouring date
+                return axisFormat.format(new Date(fromMillis + (long) value * DAY_MILLIS + DAY_MILLIS / 2));
+            }
+        });
+        balanceLineChart.setData(new LineData(dataSet));
+        balanceLineChart.invalidate();
+    }
+
+    private int getThemeColor(int attr) {
+        TypedValue typedValue = new TypedValue();
+        if (getTheme().resolveAttribute(attr, typedValue, true)) return typedValue.data;
+        return Color.BLACK;
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (indexSubscription != null) indexSubscription.unsubscribe();
+    }
+}
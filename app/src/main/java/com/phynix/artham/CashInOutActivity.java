@@ -16,6 +16,7 @@ import android.provider.ContactsContract;
 import android.speech.RecognizerIntent;
 import android.text.TextUtils;
 import android.view.View;
+import android.widget.AutoCompleteTextView;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.EditText;
@@ -40,8 +41,11 @@ import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
+import com.phynix.artham.adapters.PartySuggestionAdapter;
+import com.phynix.artham.db.Subscription;
 import com.phynix.artham.models.TransactionModel;
 import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.TagUtils;
 import com.phynix.artham.utils.ThemeManager;
 import com.phynix.artham.viewmodels.CashInOutViewModel;
 
@@ -90,6 +94,10 @@ public class CashInOutActivity extends AppCompatActivity {
 
     private FusedLocationProviderClient fusedLocationClient;
 
+    // Party completion from the cashbook's party index
+    private PartySuggestionAdapter partySuggestions;
+    private Subscription indexSubscription;
+
     // Launchers
     private ActivityResultLauncher<Intent> voiceInputLauncher;
     private ActivityResultLauncher<Intent> categoryLauncher;
@@ -127,6 +135,7 @@ public class CashInOutActivity extends AppCompatActivity {
 
         // 4. Observe ViewModel
         observeViewModel();
+        observePartyIndex();
 
         startRealTimeClock();
     }
@@ -397,7 +406,7 @@ public class CashInOutActivity extends AppCompatActivity {
         transaction.setTimestamp(calendar.getTimeInMillis());
         transaction.setRemark(remarkEditText.getText().toString().trim());
         if (selectedParty != null) transaction.setPartyName(selectedParty);
-        // Add location/tags to model if your TransactionModel supports them
+        transaction.setTags(TagUtils.normalize(tagsEditText.getText().toString()));
 
         isSaveAndNew = addNew;
 
@@ -535,10 +544,18 @@ public class CashInOutActivity extends AppCompatActivity {
         categoryLauncher.launch(intent);
     }
 
+    private void observePartyIndex() {
+        partySuggestions = new PartySuggestionAdapter(this);
+        indexSubscription = partySuggestions.attach(getApplication(), currentCashbookId);
+    }
+
     private void openPartySelector() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        final EditText input = new EditText(this);
+        final AutoCompleteTextView input = new AutoCompleteTextView(this);
         input.setHint("Enter party name");
+        input.setThreshold(1);
+        input.setAdapter(partySuggestions);
+        if (selectedParty != null) input.setText(selectedParty);
         builder.setTitle("Select Party")
                 .setView(input)
                 .setPositiveButton("OK", (dialog, which) -> {
@@ -608,5 +625,6 @@ public class CashInOutActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         timeHandler.removeCallbacks(timeRunnable);
+        if (indexSubscription != null) indexSubscription.unsubscribe();
     }
 }
\ No newline at end of file
@@ -39,16 +39,22 @@ import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 import com.phynix.artham.adapters.CashbookAdapter;
+import com.phynix.artham.db.DataRepository;
+import com.phynix.artham.db.ModelDecoder;
+import com.phynix.artham.index.CashbookSearch;
 import com.phynix.artham.models.CashbookModel;
-import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.models.CashbookSummary;
+import com.phynix.artham.utils.Constants;
 import com.phynix.artham.utils.ErrorHandler;
 import com.phynix.artham.utils.SwipeListener;
 import com.phynix.artham.utils.ThemeManager;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 public class CashbookSwitchActivity extends AppCompatActivity {
 
@@ -78,6 +84,7 @@ public class CashbookSwitchActivity extends AppCompatActivity {
     // Adapter & Data
     private CashbookAdapter cashbookAdapter;
     private final List<CashbookModel> allCashbooks = new ArrayList<>();
+    private final CashbookSearch cashbookSearch = new CashbookSearch(false);
     private String currentFilter = "active";
     private String currentSort = "recent"; // Default sort
     private String currentCashbookId;
@@ -86,6 +93,12 @@ public class CashbookSwitchActivity extends AppCompatActivity {
     private FirebaseAuth mAuth;
     private DatabaseReference userCashbooksRef;
     private ValueEventListener cashbooksListener;
+    private DatabaseReference userSummariesRef;
+    private ValueEventListener summariesListener;
+    private final Map<String, CashbookSummary> summaries = new HashMap<>();
+    private final Set<String> summaryRepairsRequested = new HashSet<>();
+    private boolean summariesLoaded = false;
+    private DataRepository repository;
     private FirebaseUser currentUser;
 
     // State
@@ -116,8 +129,11 @@ public class CashbookSwitchActivity extends AppCompatActivity {
         // Load persisted sort order
         loadSortPreference();
 
-        userCashbooksRef = FirebaseDatabase.getInstance().getReference()
-                .child("users").child(currentUser.getUid()).child("cashbooks");
+        repository = DataRepository.getInstance(getApplication());
+        DatabaseReference userRef = FirebaseDatabase.getInstance().getReference()
+                .child(Constants.NODE_USERS).child(currentUser.getUid());
+        userCashbooksRef = userRef.child(Constants.NODE_CASHBOOKS);
+        userSummariesRef = userRef.child(Constants.NODE_SUMMARIES);
 
         initViews();
         setupRecyclerView();
@@ -285,15 +301,11 @@ public class CashbookSwitchActivity extends AppCompatActivity {
 
                 for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
                     try {
-                        CashbookModel cashbook = snapshot.getValue(CashbookModel.class);
+                        CashbookModel cashbook = ModelDecoder.decodeCashbook(snapshot);
                         if (cashbook != null) {
-                            cashbook.setCashbookId(snapshot.getKey());
                             boolean isCurrent = currentCashbookId != null && currentCashbookId.equals(snapshot.getKey());
                             cashbook.setCurrent(isCurrent);
-
-                            DataSnapshot transactionsSnapshot = snapshot.child("transactions");
-                            calculateStatsForCashbook(cashbook, transactionsSnapshot);
-
+                            applySummary(cashbook);
                             allCashbooks.add(cashbook);
                         }
                     } catch (Exception e) {
@@ -301,6 +313,8 @@ public class CashbookSwitchActivity extends AppCompatActivity {
                     }
                 }
 
+                cashbookSearch.setCashbooks(allCashbooks);
+                repairMissingSummaries();
                 applyFiltersAndSort();
                 showLoading(false);
                 if (swipeRefreshLayout != null) swipeRefreshLayout.setRefreshing(false);
@@ -314,31 +328,65 @@ public class CashbookSwitchActivity extends AppCompatActivity {
             }
         };
         userCashbooksRef.addValueEventListener(cashbooksListener);
+        loadSummaries();
     }
 
-    private void calculateStatsForCashbook(CashbookModel cashbook, DataSnapshot transactionsSnapshot) {
-        double totalIncome = 0;
-        double totalExpense = 0;
-        int count = 0;
-
-        for (DataSnapshot txnSnapshot : transactionsSnapshot.getChildren()) {
-            try {
-                TransactionModel transaction = txnSnapshot.getValue(TransactionModel.class);
-                if (transaction != null) {
-                    count++;
-                    if ("IN".equalsIgnoreCase(transaction.getType())) {
-                        totalIncome += transaction.getAmount();
-                    } else {
-                        totalExpense += transaction.getAmount();
+    // Balances and counts come from the per-cashbook summary node, never from the transactions
+    private void loadSummaries() {
+        if (summariesListener != null) {
+            userSummariesRef.removeEventListener(summariesListener);
+        }
+
+        summariesListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                summaries.clear();
+                for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
+                    try {
+                        CashbookSummary summary = snapshot.getValue(CashbookSummary.class);
+                        if (summary != null) summaries.put(snapshot.getKey(), summary);
+                    } catch (Exception e) {
+                        Log.w(TAG, "Error parsing summary: " + snapshot.getKey(), e);
                     }
                 }
-            } catch (Exception e) {
-                Log.w(TAG, "Error parsing transaction", e);
+                summariesLoaded = true;
+
+                for (CashbookModel cashbook : allCashbooks) {
+                    applySummary(cashbook);
+                }
+                repairMissingSummaries();
+                applyFiltersAndSort();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error loading summaries", error.toException());
             }
+        };
+        userSummariesRef.addValueEventListener(summariesListener);
+    }
+
+    private void applySummary(CashbookModel cashbook) {
+        CashbookSummary summary = summaries.get(cashbook.getCashbookId());
+        if (summary != null) {
+            cashbook.setTotalBalance(summary.getBalance());
+            cashbook.setTransactionCount((int) summary.getCount());
         }
+    }
 
-        cashbook.setTotalBalance(totalIncome - totalExpense);
-        cashbook.setTransactionCount(count);
+    // Cashbooks without a counted summary, or overdue for the periodic recount, are recounted once per screen
+    private void repairMissingSummaries() {
+        if (!summariesLoaded) return;
+
+        long now = System.currentTimeMillis();
+        for (CashbookModel cashbook : allCashbooks) {
+            String cashbookId = cashbook.getCashbookId();
+            CashbookSummary summary = summaries.get(cashbookId);
+            if ((summary == null || summary.needsRecount(now)) && summaryRepairsRequested.add(cashbookId)) {
+                repository.recalculateSummary(cashbookId, null,
+                        error -> Log.w(TAG, "Summary repair failed for " + cashbookId + ": " + error));
+            }
+        }
     }
 
     private void handleAddNewCashbook() {
@@ -399,19 +447,11 @@ public class CashbookSwitchActivity extends AppCompatActivity {
     }
 
     private void createNewCashbook(String name, String description) {
-        String cashbookId = userCashbooksRef.push().getKey();
-        if (cashbookId == null) return;
-
-        CashbookModel newCashbook = new CashbookModel(cashbookId, name);
-        newCashbook.setDescription(description);
-        newCashbook.setUserId(currentUser.getUid());
-        newCashbook.setCreatedDate(System.currentTimeMillis());
-        newCashbook.setLastModified(System.currentTimeMillis());
-        newCashbook.setActive(true);
-
-        userCashbooksRef.child(cashbookId).setValue(newCashbook)
-                .addOnSuccessListener(aVoid -> showSnackbar("Cashbook created successfully!"))
-                .addOnFailureListener(e -> showSnackbar("Failed: " + e.getMessage()));
+        repository.createNewCashbook(name, description,
+                cashbookId -> {
+                    if (cashbookId != null) showSnackbar("Cashbook created successfully!");
+                },
+                error -> showSnackbar("Failed: " + error));
     }
 
     private void updateCashbook(CashbookModel cashbook, String newName, String newDescription) {
@@ -492,8 +532,9 @@ public class CashbookSwitchActivity extends AppCompatActivity {
     }
 
     private void deleteCashbookFromFirebase(CashbookModel cashbook) {
-        userCashbooksRef.child(cashbook.getCashbookId()).removeValue()
-                .addOnSuccessListener(aVoid -> showSnackbar("Cashbook deleted successfully"));
+        repository.deleteCashbook(cashbook.getCashbookId(), success -> {
+            if (success) showSnackbar("Cashbook deleted successfully");
+        }, null);
     }
 
     private void showSortOptionsDialog() {
@@ -559,64 +600,19 @@ public class CashbookSwitchActivity extends AppCompatActivity {
     }
 
     private void applyFiltersAndSort() {
-        List<CashbookModel> filteredList;
         String query = "";
         if (searchEditText != null && searchEditText.getText() != null) {
-            query = searchEditText.getText().toString().toLowerCase().trim();
+            query = searchEditText.getText().toString();
         }
 
-        List<CashbookModel> searchResults;
-        if (query.isEmpty()) {
-            searchResults = new ArrayList<>(allCashbooks);
-        } else {
-            String finalQuery = query;
-            searchResults = allCashbooks.stream()
-                    .filter(c -> (c.getName() != null && c.getName().toLowerCase().contains(finalQuery)))
-                    .collect(Collectors.toList());
-        }
-
-        switch (currentFilter) {
-            case "active":
-                filteredList = searchResults.stream().filter(CashbookModel::isActive).collect(Collectors.toList());
-                break;
-            case "favorites":
-                filteredList = searchResults.stream().filter(CashbookModel::isFavorite).collect(Collectors.toList());
-                break;
-            default:
-                filteredList = searchResults;
-                break;
-        }
-
-        switch (currentSort) {
-            case "name_asc":
-                filteredList.sort((c1, c2) -> c1.getName().compareToIgnoreCase(c2.getName()));
-                break;
-            case "name_desc":
-                filteredList.sort((c1, c2) -> c2.getName().compareToIgnoreCase(c1.getName()));
-                break;
-            case "oldest":
-                filteredList.sort((c1, c2) -> Long.compare(c1.getCreatedDate(), c2.getCreatedDate()));
-                break;
-            case "most_transactions":
-                filteredList.sort((c1, c2) -> Integer.compare(c2.getTransactionCount(), c1.getTransactionCount()));
-                break;
-            case "balance_high":
-                filteredList.sort((c1, c2) -> Double.compare(c2.getTotalBalance(), c1.getTotalBalance()));
-                break;
-            case "balance_low":
-                filteredList.sort((c1, c2) -> Double.compare(c1.getTotalBalance(), c2.getTotalBalance()));
-                break;
-            case "recent":
-            default:
-                filteredList.sort((c1, c2) -> Long.compare(c2.getLastModified(), c1.getLastModified()));
-                break;
+        // Search narrows from the previous keystroke's matches; the chip filter is a flag check
+        List<CashbookModel> filteredList = new ArrayList<>();
+        for (CashbookModel cashbook : cashbookSearch.search(query)) {
+            if ("active".equals(currentFilter) && !cashbook.isActive()) continue;
+            if ("favorites".equals(currentFilter) && !cashbook.isFavorite()) continue;
+            filteredList.add(cashbook);
         }
-
-        Collections.sort(filteredList, (c1, c2) -> {
-            if (c1.isCurrent()) return -1;
-            if (c2.isCurrent()) return 1;
-            return 0;
-        });
+        filteredList.sort(CashbookSearch.comparator(currentSort));
 
         cashbookAdapter.updateCashbooks(filteredList);
 
@@ -671,5 +667,8 @@ public class CashbookSwitchActivity extends AppCompatActivity {
         if (cashbooksListener != null && userCashbooksRef != null) {
             userCashbooksRef.removeEventListener(cashbooksListener);
         }
+        if (summariesListener != null && userSummariesRef != null) {
+            userSummariesRef.removeEventListener(summariesListener);
+        }
     }
 }
\ No newline at end of file
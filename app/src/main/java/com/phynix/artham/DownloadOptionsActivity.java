@@ -15,6 +15,13 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.index.CashbookIndexes;
+import com.phynix.artham.index.IndexRegistry;
+import com.phynix.artham.index.RollupIndex;
+import com.phynix.artham.utils.Constants;
+
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Locale;
@@ -22,7 +29,7 @@ import java.util.Locale;
 public class DownloadOptionsActivity extends AppCompatActivity {
 
     // UI Elements
-    private TextView startDateText, endDateText;
+    private TextView startDateText, endDateText, headerSubtitle;
     private LinearLayout startDateLayout, endDateLayout;
     private Button todayButton, thisWeekButton, thisMonthButton, formatPdfButton, formatExcelButton, downloadActionButton;
     private RadioGroup entryTypeRadioGroup, paymentModeRadioGroup;
@@ -32,6 +39,10 @@ public class DownloadOptionsActivity extends AppCompatActivity {
     private Calendar startCalendar, endCalendar;
     private String selectedFormat = "PDF";
 
+    // Range preview from the cashbook's rollup index
+    private CashbookIndexes cashbookIndexes;
+    private Subscription indexSubscription;
+
     // [FIX] Reference to dialog to prevent WindowLeaked crash
     private DatePickerDialog currentDatePicker;
 
@@ -46,10 +57,43 @@ public class DownloadOptionsActivity extends AppCompatActivity {
         initializeUI();
         initializeDateTime();
         setupClickListeners();
+        observeIndexes();
+    }
+
+    private void observeIndexes() {
+        String cashbookId = getIntent().getStringExtra(Constants.EXTRA_CASHBOOK_ID);
+        if (cashbookId == null) return;
+
+        indexSubscription = IndexRegistry.getInstance(getApplication()).observe(cashbookId,
+                new SubscriptionHub.Observer<CashbookIndexes>() {
+                    @Override
+                    public void onChanged(CashbookIndexes indexes) {
+                        cashbookIndexes = indexes;
+                        updateRangePreview();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        // Keep the plain subtitle
+                    }
+                });
+    }
+
+    /**
+     * Shows how many entries the selected range holds and their totals before exporting.
+     */
+    private void updateRangePreview() {
+        if (headerSubtitle == null || cashbookIndexes == null) return;
+
+        RollupIndex.Totals totals = cashbookIndexes.getRollup()
+                .getRangeMillis(startCalendar.getTimeInMillis(), endCalendar.getTimeInMillis());
+        headerSubtitle.setText(String.format(Locale.US, "%d entries · In ₹%.2f · Out ₹%.2f",
+                totals.getCount(), totals.getTotalIn(), totals.getTotalOut()));
     }
 
     private void initializeUI() {
         backButton = findViewById(R.id.backButton);
+        headerSubtitle = findViewById(R.id.headerSubtitle);
 
         startDateText = findViewById(R.id.startDateText);
         endDateText = findViewById(R.id.endDateText);
@@ -145,6 +189,8 @@ public class DownloadOptionsActivity extends AppCompatActivity {
             endDateText.setText(sdf.format(endCalendar.getTime()));
             endDateText.setTextColor(ThemeUtil.getThemeAttrColor(this, R.attr.chk_textColorPrimary));
         }
+
+        updateRangePreview();
     }
 
     private void setDateRangeToToday() {
@@ -246,6 +292,7 @@ public class DownloadOptionsActivity extends AppCompatActivity {
         if (currentDatePicker != null && currentDatePicker.isShowing()) {
             currentDatePicker.dismiss();
         }
+        if (indexSubscription != null) indexSubscription.unsubscribe();
     }
 
     static class ThemeUtil {
@@ -42,6 +42,7 @@ import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageMetadata;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
+import com.phynix.artham.db.HomeSnapshot;
 import com.phynix.artham.models.Users;
 import com.phynix.artham.utils.ThemeManager;
 
@@ -334,6 +335,7 @@ public class EditProfileActivity extends AppCompatActivity {
     }
 
     private void logoutAndRedirect() {
+        if (mAuth.getCurrentUser() != null) HomeSnapshot.clear(this, mAuth.getCurrentUser().getUid());
         mAuth.signOut();
         getSharedPreferences("AppPrefs", Context.MODE_PRIVATE).edit().clear().apply();
         Intent intent = new Intent(this, SigninActivity.class);
@@ -19,6 +19,7 @@ import android.text.TextUtils;
 import android.util.TypedValue;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.AutoCompleteTextView;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.EditText;
@@ -41,8 +42,11 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
+import com.phynix.artham.adapters.PartySuggestionAdapter;
+import com.phynix.artham.db.Subscription;
 import com.phynix.artham.models.TransactionModel;
 import com.phynix.artham.utils.SnackbarHelper;
+import com.phynix.artham.utils.TagUtils;
 import com.phynix.artham.utils.ThemeManager;
 import com.phynix.artham.viewmodels.TransactionViewModel;
 import com.phynix.artham.viewmodels.TransactionViewModelFactory;
@@ -84,6 +88,10 @@ public class EditTransactionActivity extends AppCompatActivity {
     private String currentCashbookId;
     private Calendar calendar;
 
+    // Party completion from the cashbook's party index
+    private PartySuggestionAdapter partySuggestions;
+    private Subscription indexSubscription;
+
     // --- Activity Launchers ---
 
     private final ActivityResultLauncher<Intent> categoryLauncher = registerForActivityResult(
@@ -147,6 +155,7 @@ public class EditTransactionActivity extends AppCompatActivity {
         initializeUI();
         populateData();
         setupClickListeners();
+        observePartyIndex();
     }
 
     private void initViewModel() {
@@ -235,7 +244,7 @@ public class EditTransactionActivity extends AppCompatActivity {
         if (currentTransaction.getRemark() != null) remarkEditText.setText(currentTransaction.getRemark());
 
         if (currentTransaction.getTags() != null) {
-            tagsEditText.setText(currentTransaction.getTags().toString().replace("[", "").replace("]", ""));
+            tagsEditText.setText(TagUtils.join(currentTransaction.getTagList()));
         }
 
         updateDateText();
@@ -281,13 +290,7 @@ public class EditTransactionActivity extends AppCompatActivity {
         }
 
         if (partySelectorLayout != null) {
-            partySelectorLayout.setOnClickListener(v -> {
-                if (checkContactPermission()) {
-                    openContactPicker();
-                } else {
-                    requestContactPermission();
-                }
-            });
+            partySelectorLayout.setOnClickListener(v -> openPartySelector());
         }
 
         if (taxCheckbox != null) {
@@ -353,8 +356,7 @@ public class EditTransactionActivity extends AppCompatActivity {
 
             currentTransaction.setRemark(remarkEditText.getText().toString().trim());
 
-            String tagsStr = tagsEditText.getText().toString().trim();
-            currentTransaction.setTags(tagsStr);
+            currentTransaction.setTags(TagUtils.normalize(tagsEditText.getText().toString()));
 
             viewModel.updateTransaction(currentTransaction);
 
@@ -437,6 +439,41 @@ public class EditTransactionActivity extends AppCompatActivity {
         }
     }
 
+    private void observePartyIndex() {
+        partySuggestions = new PartySuggestionAdapter(this);
+        indexSubscription = partySuggestions.attach(getApplication(), currentCashbookId);
+    }
+
+    private void openPartySelector() {
+        final AutoCompleteTextView input = new AutoCompleteTextView(this);
+        input.setHint("Enter party name");
+        input.setThreshold(1);
+        input.setAdapter(partySuggestions);
+        String party = currentTransaction.getPartyName();
+        if (party != null) input.setText(party);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Select Party")
+                .setView(input)
+                .setPositiveButton("OK", (dialog, which) -> {
+                    String partyName = input.getText().toString().trim();
+                    if (!partyName.isEmpty()) {
+                        partyTextView.setText(partyName);
+                        partyTextView.setTextColor(getThemeColor(R.attr.chk_primary_blue));
+                        currentTransaction.setPartyName(partyName);
+                    }
+                })
+                .setNeutralButton("Contacts", (dialog, which) -> {
+                    if (checkContactPermission()) {
+                        openContactPicker();
+                    } else {
+                        requestContactPermission();
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     @SuppressLint("Range")
     private void retrieveContactName(Uri contactUri) {
         try (Cursor cursor = getContentResolver().query(contactUri, null, null, null, null)) {
@@ -563,6 +600,12 @@ public class EditTransactionActivity extends AppCompatActivity {
         } catch (Exception e) { Toast.makeText(this, "Calculator not found", Toast.LENGTH_SHORT).show(); }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (indexSubscription != null) indexSubscription.unsubscribe();
+    }
+
     private void showSnackbar(String message) {
         // Anchor snackbar to footer
         SnackbarHelper.show(this, message, findViewById(R.id.footerLayout));
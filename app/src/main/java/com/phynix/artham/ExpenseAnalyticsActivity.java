@@ -27,26 +27,20 @@ import com.github.mikephil.charting.data.PieDataSet;
 import com.github.mikephil.charting.data.PieEntry;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.index.CashbookIndexes;
+import com.phynix.artham.index.IndexRegistry;
+import com.phynix.artham.utils.Constants;
 import com.phynix.artham.utils.ThemeManager;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class ExpenseAnalyticsActivity extends AppCompatActivity {
 
@@ -61,15 +55,13 @@ public class ExpenseAnalyticsActivity extends AppCompatActivity {
     private LinearLayout contentLayout;
 
     // Data
-    private List<TransactionModel> allTransactions = new ArrayList<>();
     private List<MonthlyExpense> monthlyExpenses = new ArrayList<>();
     private MonthlyCardAdapter monthlyAdapter;
     private LegendAdapter legendAdapter;
 
     // Firebase
     private String cashbookId;
-    private DatabaseReference transactionsRef;
-    private ValueEventListener transactionsListener;
+    private Subscription transactionsSubscription;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -90,10 +82,6 @@ public class ExpenseAnalyticsActivity extends AppCompatActivity {
             return;
         }
 
-        transactionsRef = FirebaseDatabase.getInstance().getReference("users")
-                .child(currentUser.getUid()).child("cashbooks")
-                .child(cashbookId).child("transactions");
-
         initializeUI();
         setupRecyclerViews();
         setupPieChart();
@@ -154,95 +142,40 @@ public class ExpenseAnalyticsActivity extends AppCompatActivity {
     private void loadTransactionData() {
         loadingProgressBar.setVisibility(View.VISIBLE);
 
-        transactionsListener = transactionsRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                allTransactions.clear();
-                if (dataSnapshot.exists()) {
-                    for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                        TransactionModel transaction = snapshot.getValue(TransactionModel.class);
-                        if (transaction != null) {
-                            allTransactions.add(transaction);
-                        }
+        // The shared category cube is kept current from deltas; its monthly view is memoized per version
+        transactionsSubscription = IndexRegistry.getInstance(getApplication()).observe(cashbookId,
+                new SubscriptionHub.Observer<CashbookIndexes>() {
+                    @Override
+                    public void onChanged(CashbookIndexes indexes) {
+                        processTransactionData(indexes.getCategories().getMonthlyTotals(Constants.TRANSACTION_TYPE_OUT));
                     }
-                }
-                processTransactionData();
-            }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError databaseError) {
-                loadingProgressBar.setVisibility(View.GONE);
-                Toast.makeText(ExpenseAnalyticsActivity.this, "Failed to load data", Toast.LENGTH_SHORT).show();
-            }
-        });
+                    @Override
+                    public void onError(String error) {
+                        loadingProgressBar.setVisibility(View.GONE);
+                        Toast.makeText(ExpenseAnalyticsActivity.this, "Failed to load data", Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 
-    private void processTransactionData() {
+    private void processTransactionData(Map<String, Map<String, Double>> totalsByMonth) {
         loadingProgressBar.setVisibility(View.GONE);
 
-        // Filter for expenses ("OUT")
-        List<TransactionModel> expenses = new ArrayList<>();
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            expenses = allTransactions.stream()
-                    .filter(t -> "OUT".equalsIgnoreCase(t.getType()))
-                    .collect(Collectors.toList());
-        } else {
-            // Fallback for older devices if streams aren't supported
-            for (TransactionModel t : allTransactions) {
-                if ("OUT".equalsIgnoreCase(t.getType())) {
-                    expenses.add(t);
-                }
-            }
-        }
-
-        if (expenses.isEmpty()) {
+        if (totalsByMonth.isEmpty()) {
             showEmptyState();
             return;
         }
 
         showContentState();
 
-        // Group transactions by month (yyyy-MM)
-        Map<String, List<TransactionModel>> transactionsByMonth = new HashMap<>();
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            transactionsByMonth = expenses.stream()
-                    .collect(Collectors.groupingBy(t -> {
-                        Calendar cal = Calendar.getInstance();
-                        cal.setTimeInMillis(t.getTimestamp());
-                        return new SimpleDateFormat("yyyy-MM", Locale.getDefault()).format(cal.getTime());
-                    }));
-        } else {
-            // Simple fallback
-            for (TransactionModel t : expenses) {
-                Calendar cal = Calendar.getInstance();
-                cal.setTimeInMillis(t.getTimestamp());
-                String monthKey = new SimpleDateFormat("yyyy-MM", Locale.getDefault()).format(cal.getTime());
-                if (!transactionsByMonth.containsKey(monthKey)) {
-                    transactionsByMonth.put(monthKey, new ArrayList<>());
-                }
-                transactionsByMonth.get(monthKey).add(t);
-            }
-        }
-
+        // Months arrive oldest first, so the current month ends up at the last index
         monthlyExpenses.clear();
-        for (Map.Entry<String, List<TransactionModel>> entry : transactionsByMonth.entrySet()) {
+        for (Map.Entry<String, Map<String, Double>> entry : totalsByMonth.entrySet()) {
             double total = 0;
-            if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-                total = entry.getValue().stream().mapToDouble(TransactionModel::getAmount).sum();
-            } else {
-                for (TransactionModel t : entry.getValue()) total += t.getAmount();
-            }
+            for (double amount : entry.getValue().values()) total += amount;
             monthlyExpenses.add(new MonthlyExpense(entry.getKey(), total, entry.getValue()));
         }
 
-        // [FIX] Sort Ascending (Oldest -> Newest).
-        // This puts Oct at index 0, and Jan (Current) at the last index.
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            monthlyExpenses.sort(Comparator.comparing(MonthlyExpense::getMonth));
-        } else {
-            Collections.sort(monthlyExpenses, (o1, o2) -> o1.getMonth().compareTo(o2.getMonth()));
-        }
-
         monthlyAdapter.updateData(monthlyExpenses);
 
         if (!monthlyExpenses.isEmpty()) {
@@ -258,21 +191,7 @@ public class ExpenseAnalyticsActivity extends AppCompatActivity {
     }
 
     private void updatePieChartForMonth(MonthlyExpense monthlyExpense) {
-        // Group by Category
-        Map<String, Double> expenseByCategory;
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            expenseByCategory = monthlyExpense.getTransactions().stream()
-                    .collect(Collectors.groupingBy(
-                            t -> t.getTransactionCategory() != null ? t.getTransactionCategory() : "Others",
-                            Collectors.summingDouble(TransactionModel::getAmount)
-                    ));
-        } else {
-            expenseByCategory = new HashMap<>();
-            for (TransactionModel t : monthlyExpense.getTransactions()) {
-                String cat = t.getTransactionCategory() != null ? t.getTransactionCategory() : "Others";
-                expenseByCategory.put(cat, expenseByCategory.getOrDefault(cat, 0.0) + t.getAmount());
-            }
-        }
+        Map<String, Double> expenseByCategory = monthlyExpense.getCategoryTotals();
 
         ArrayList<PieEntry> entries = new ArrayList<>();
         ArrayList<LegendItem> legendItems = new ArrayList<>();
@@ -363,21 +282,21 @@ public class ExpenseAnalyticsActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (transactionsListener != null && transactionsRef != null) {
-            transactionsRef.removeEventListener(transactionsListener);
+        if (transactionsSubscription != null) {
+            transactionsSubscription.unsubscribe();
         }
     }
 
     // --- Inner Classes ---
 
     static class MonthlyExpense {
-        private String month; private double totalExpense; private List<TransactionModel> transactions;
-        public MonthlyExpense(String month, double totalExpense, List<TransactionModel> transactions) {
-            this.month = month; this.totalExpense = totalExpense; this.transactions = transactions;
+        private String month; private double totalExpense; private Map<String, Double> categoryTotals;
+        public MonthlyExpense(String month, double totalExpense, Map<String, Double> categoryTotals) {
+            this.month = month; this.totalExpense = totalExpense; this.categoryTotals = categoryTotals;
         }
         public String getMonth() { return month; }
         public double getTotalExpense() { return totalExpense; }
-        public List<TransactionModel> getTransactions() { return transactions; }
+        public Map<String, Double> getCategoryTotals() { return categoryTotals; }
     }
 
     static class LegendItem {
@@ -8,10 +8,12 @@ import android.os.Bundle;
 import android.util.Log;
 import android.util.TypedValue;
 import android.view.View;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
+import android.widget.MultiAutoCompleteTextView;
 import android.widget.RadioGroup;
 import android.widget.TextView;
 
@@ -19,12 +21,16 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.phynix.artham.db.DataRepository;
+import com.phynix.artham.models.CashbookFacets;
+import com.phynix.artham.utils.Constants;
 import com.phynix.artham.utils.SnackbarHelper;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
@@ -34,6 +40,7 @@ import java.util.Set;
 public class FiltersActivity extends AppCompatActivity {
 
     private static final String TAG = "FiltersActivity";
+    private static final int MAX_TAG_SUGGESTIONS = 50;
 
     // UI Elements
     private ImageView backButton, resetButton, swapButton;
@@ -41,7 +48,8 @@ public class FiltersActivity extends AppCompatActivity {
     private LinearLayout startDateLayout, endDateLayout;
     private TextView startDateText, endDateText, activeFiltersCount, selectedCategoryTextView;
     private RadioGroup inOutToggle, cashOnlineToggle;
-    private EditText searchTransactionInput, filterTagsInput;
+    private EditText searchTransactionInput;
+    private MultiAutoCompleteTextView filterTagsInput;
     private LinearLayout categorySelectorLayout, partySelectorLayout;
 
     // Filter State
@@ -64,6 +72,7 @@ public class FiltersActivity extends AppCompatActivity {
         receiveInitialFilters();
         setupCategoryLauncher();
         setupClickListeners();
+        setupTagSuggestions();
         updateUIWithCurrentFilters();
     }
 
@@ -206,6 +215,23 @@ public class FiltersActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Suggests the cashbook's tags, most used first, from its facets node rather than its
+     * transactions.
+     */
+    private void setupTagSuggestions() {
+        filterTagsInput.setTokenizer(new MultiAutoCompleteTextView.CommaTokenizer());
+        String cashbookId = getIntent().getStringExtra(Constants.EXTRA_CASHBOOK_ID);
+        if (cashbookId == null) return;
+
+        DataRepository.getInstance(getApplication()).getFacets(cashbookId, facets -> {
+            if (isFinishing() || isDestroyed()) return;
+            List<String> tags = CashbookFacets.mostUsed(facets.getTags());
+            filterTagsInput.setAdapter(new ArrayAdapter<>(this, android.R.layout.simple_dropdown_item_1line,
+                    tags.subList(0, Math.min(MAX_TAG_SUGGESTIONS, tags.size()))));
+        }, error -> Log.w(TAG, "Tag suggestions unavailable: " + error));
+    }
+
     private void showDatePicker(boolean isStartDate) {
         Calendar calendarToShow = isStartDate ? startCalendar : endCalendar;
         if (calendarToShow.getTimeInMillis() == 0) {
@@ -16,15 +16,11 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.db.DataRepository;
+import com.phynix.artham.models.CashbookFacets;
 import com.phynix.artham.utils.ErrorHandler;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -43,7 +39,6 @@ public class PartyFilterFragment extends Fragment {
     private LinearLayout emptyStateLayout;
     private Button addNewPartyButton;
 
-    private DatabaseReference mDatabase;
     private FirebaseUser currentUser;
     private String currentCashbookId;
 
@@ -86,7 +81,6 @@ public class PartyFilterFragment extends Fragment {
 
         // [FIX] Get Firebase user and cashbook ID
         currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        mDatabase = FirebaseDatabase.getInstance().getReference();
         if (getActivity() != null) {
             currentCashbookId = getActivity().getIntent().getStringExtra("cashbook_id");
         }
@@ -139,40 +133,22 @@ public class PartyFilterFragment extends Fragment {
             return;
         }
 
-        DatabaseReference transactionsRef = mDatabase.child("users")
-                .child(currentUser.getUid())
-                .child("cashbooks")
-                .child(currentCashbookId)
-                .child("transactions");
-
-        transactionsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                Set<String> partySet = new HashSet<>();
-                for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                    TransactionModel transaction = snapshot.getValue(TransactionModel.class);
-                    if (transaction != null &&
-                            transaction.getPartyName() != null &&
-                            !transaction.getPartyName().isEmpty() &&
-                            !transaction.getPartyName().equals("Select Party (Customer/Supplier)")) {
-
-                        partySet.add(transaction.getPartyName());
-                    }
-                }
-                allParties.clear();
-                allParties.addAll(partySet);
-                updateUI();
-                // [FIX] If adapter existed, you would update it here:
-                // if (adapter != null) {
-                //     adapter.notifyDataSetChanged();
-                // }
+        // The facets node holds each party name with its use count, so the list costs one small
+        // read instead of the cashbook's whole history; names come back most used first
+        DataRepository.getInstance(requireActivity().getApplication()).getFacets(currentCashbookId, facets -> {
+            if (getView() == null) return;
+            allParties.clear();
+            for (String party : CashbookFacets.mostUsed(facets.getParties())) {
+                if (!party.equals("Select Party (Customer/Supplier)")) allParties.add(party);
             }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError databaseError) {
-                if (getContext() != null) {
-                    ErrorHandler.handleFirebaseError(getContext(), databaseError);
-                }
+            updateUI();
+            // [FIX] If adapter existed, you would update it here:
+            // if (adapter != null) {
+            //     adapter.notifyDataSetChanged();
+            // }
+        }, error -> {
+            if (getContext() != null) {
+                ErrorHandler.showLoadingError(getContext(), "load parties");
             }
         });
     }
@@ -17,6 +17,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.phynix.artham.databinding.ActivitySettingsBinding;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
 import com.phynix.artham.models.CashbookModel;
 import com.phynix.artham.models.Users;
 import com.phynix.artham.utils.ErrorHandler;
@@ -49,7 +51,7 @@ public class SettingsActivity extends AppCompatActivity {
 
     // Listeners
     private ValueEventListener userProfileListener;
-    private ValueEventListener cashbookNameListener;
+    private Subscription cashbookNameSubscription;
 
     // Data
     private String currentCashbookId;
@@ -286,24 +288,24 @@ public class SettingsActivity extends AppCompatActivity {
     private void startListeningForCashbookName(String cashbookId) {
         if (userRef == null) return;
 
-        if (cashbookNameListener != null) {
-            userRef.child("cashbooks").child(cashbookId).removeEventListener(cashbookNameListener);
+        if (cashbookNameSubscription != null) {
+            cashbookNameSubscription.unsubscribe();
         }
 
-        cashbookNameListener = new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                CashbookModel cashbook = dataSnapshot.getValue(CashbookModel.class);
-                if (cashbook != null) {
-                    binding.primarySettingsLayout.activeCashbookName.setText(cashbook.getName());
-                }
-            }
-            @Override
-            public void onCancelled(@NonNull DatabaseError databaseError) {
-                ErrorHandler.handleFirebaseError(SettingsActivity.this, databaseError);
-            }
-        };
-        userRef.child("cashbooks").child(cashbookId).addValueEventListener(cashbookNameListener);
+        cashbookNameSubscription = SubscriptionHub.getInstance(getApplication()).observeCashbook(cashbookId,
+                new SubscriptionHub.Observer<CashbookModel>() {
+                    @Override
+                    public void onChanged(CashbookModel cashbook) {
+                        if (cashbook != null) {
+                            binding.primarySettingsLayout.activeCashbookName.setText(cashbook.getName());
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        ErrorHandler.showLoadingError(SettingsActivity.this, "load cashbook");
+                    }
+                });
     }
 
     private void logoutUser() {
@@ -334,8 +336,9 @@ public class SettingsActivity extends AppCompatActivity {
         if (userProfileListener != null) {
             userRef.removeEventListener(userProfileListener);
         }
-        if (cashbookNameListener != null && currentCashbookId != null) {
-            userRef.child("cashbooks").child(currentCashbookId).removeEventListener(cashbookNameListener);
+        if (cashbookNameSubscription != null) {
+            cashbookNameSubscription.unsubscribe();
+            cashbookNameSubscription = null;
         }
     }
 
@@ -32,9 +32,18 @@ import com.phynix.artham.databinding.LayoutBottomNavigationBinding;
 import com.phynix.artham.databinding.LayoutPieChartBinding;
 import com.phynix.artham.databinding.LayoutSearchBarBinding;
 import com.phynix.artham.databinding.LayoutSummaryCardsBinding;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.index.CashbookIndexes;
+import com.phynix.artham.index.CategoryCube;
+import com.phynix.artham.index.FilterQuery;
+import com.phynix.artham.index.IndexRegistry;
+import com.phynix.artham.index.RollupIndex;
 import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
 import com.phynix.artham.utils.SnackbarHelper;
 import com.phynix.artham.utils.SwipeListener;
+import com.phynix.artham.utils.TagUtils;
 import com.phynix.artham.utils.ThemeManager;
 import com.phynix.artham.viewmodels.TransactionViewModel;
 import com.phynix.artham.viewmodels.TransactionViewModelFactory;
@@ -54,7 +63,7 @@ import java.io.Serializable;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -68,8 +77,19 @@ public class TransactionActivity extends AppCompatActivity {
     private static final String KEY_SHOW_CHART = "show_pie_chart";
 
     private List<TransactionModel> allTransactions = new ArrayList<>();
+    private List<TransactionModel> monthlyTransactions = new ArrayList<>();
     private Calendar currentMonthCalendar;
 
+    // Month totals come from the rollup index when no filter narrows the list. Indexing downloads
+    // the whole cashbook, so until an export needs the balances they are only used when another
+    // screen already keeps them; the loaded month gives the same totals meanwhile.
+    private CashbookIndexes cashbookIndexes;
+    private Subscription indexSubscription;
+    private final List<Runnable> pendingIndexActions = new ArrayList<>();
+
+    // First paint comes from paged history until the full load replaces it
+    private int pagedRowsShown = 0;
+
     private ActivityTransactionBinding binding;
     private LayoutSummaryCardsBinding summaryBinding;
     private LayoutPieChartBinding pieChartBinding;
@@ -132,6 +152,7 @@ public class TransactionActivity extends AppCompatActivity {
         fetchCashbookName();
         initializeUI();
         initViewModel();
+        resetIndexes();
         setupTransactionFragment();
         setupClickListeners();
         setupBottomNavigation();
@@ -204,19 +225,118 @@ public class TransactionActivity extends AppCompatActivity {
     }
 
     private void initViewModel() {
+        // The previous cashbook's ViewModel stays in the store until the activity ends; stop listening to it
+        if (viewModel != null) stopObservingViewModel();
         TransactionViewModelFactory factory = new TransactionViewModelFactory(getApplication(), currentCashbookId);
-        viewModel = new ViewModelProvider(this, factory).get(TransactionViewModel.class);
+        viewModel = new ViewModelProvider(this, factory).get(currentCashbookId, TransactionViewModel.class);
+        pagedRowsShown = 0;
+        if (!viewModel.isRangeLoaded()) viewModel.loadFirstPage();
+        loadCurrentMonth();
+    }
+
+    /**
+     * Asks the ViewModel for just the displayed month; the server filters by timestamp.
+     */
+    private void loadCurrentMonth() {
+        viewModel.setDateRange(getMonthStart(), getMonthEnd());
+    }
+
+    /**
+     * True when the shared indexes are loaded and the list is not narrowed by a filter, so month
+     * figures can come from the indexes instead of the list.
+     */
+    private boolean isIndexed() {
+        return cashbookIndexes != null && viewModel != null && !viewModel.isFiltering();
+    }
+
+    private int getMonthKey() {
+        return CategoryCube.monthKey(currentMonthCalendar.get(Calendar.YEAR), currentMonthCalendar.get(Calendar.MONTH));
+    }
+
+    private long getMonthStart() {
+        Calendar start = (Calendar) currentMonthCalendar.clone();
+        start.set(Calendar.DAY_OF_MONTH, 1);
+        start.set(Calendar.HOUR_OF_DAY, 0);
+        start.set(Calendar.MINUTE, 0);
+        start.set(Calendar.SECOND, 0);
+        start.set(Calendar.MILLISECOND, 0);
+        return start.getTimeInMillis();
+    }
+
+    private long getMonthEnd() {
+        Calendar end = Calendar.getInstance();
+        end.setTimeInMillis(getMonthStart());
+        end.add(Calendar.MONTH, 1);
+        return end.getTimeInMillis() - 1;
+    }
+
+    /**
+     * Drops the indexes of the previous cashbook and shares the current one's if they are already
+     * observed elsewhere.
+     */
+    private void resetIndexes() {
+        if (indexSubscription != null) indexSubscription.unsubscribe();
+        indexSubscription = null;
+        cashbookIndexes = null;
+        pendingIndexActions.clear();
+        if (IndexRegistry.getInstance(getApplication()).isObserved(currentCashbookId)) observeIndexes();
+    }
+
+    /**
+     * Runs the action with the current cashbook's indexes, attaching them first if needed.
+     */
+    private void withIndexes(Runnable action) {
+        if (cashbookIndexes != null) {
+            action.run();
+            return;
+        }
+        pendingIndexActions.add(action);
+        if (indexSubscription == null) observeIndexes();
+    }
+
+    /**
+     * Keeps the shared indexes of the current cashbook; the month totals read from them.
+     */
+    private void observeIndexes() {
+        indexSubscription = IndexRegistry.getInstance(getApplication()).observe(currentCashbookId,
+                new SubscriptionHub.Observer<CashbookIndexes>() {
+                    @Override
+                    public void onChanged(CashbookIndexes indexes) {
+                        cashbookIndexes = indexes;
+                        List<Runnable> actions = new ArrayList<>(pendingIndexActions);
+                        pendingIndexActions.clear();
+                        for (Runnable action : actions) action.run();
+                        updateTotals(monthlyTransactions);
+                        // The chart reads the cube only while unfiltered; otherwise the list update redraws it
+                        if (isIndexed()) setupStyledPieChart(monthlyTransactions);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        // The list totals are still shown; the ViewModel reports the error
+                        if (!pendingIndexActions.isEmpty()) showSnackbar("Failed to load transactions");
+                        pendingIndexActions.clear();
+                    }
+                });
     }
 
     private void observeViewModel() {
         if (viewModel == null) return;
         viewModel.getFilteredTransactions().observe(this, transactions -> {
+            if (!viewModel.isRangeLoaded() && pagedRowsShown > 0) return; // Keep the paged rows until the month arrives
             this.allTransactions = transactions;
+            if (viewModel.isRangeLoaded() && transactionFragment != null) transactionFragment.setHasMoreItems(false);
             displayDataForCurrentMonth();
             binding.swipeRefreshLayout.setRefreshing(false); // Stop refresh animation
         });
+        viewModel.getPagedTransactions().observe(this, this::displayPagedTransactions);
+        viewModel.getHasMorePages().observe(this, hasMore -> {
+            if (transactionFragment != null && !viewModel.isRangeLoaded()) {
+                transactionFragment.setHasMoreItems(Boolean.TRUE.equals(hasMore));
+            }
+        });
         viewModel.getIsLoading().observe(this, isLoading -> {
-            if (transactionFragment != null) transactionFragment.showLoading(isLoading);
+            if (transactionFragment != null) transactionFragment.showLoading(isLoading && pagedRowsShown == 0);
         });
         viewModel.getErrorMessage().observe(this, error -> {
             if (error != null) {
@@ -227,22 +347,23 @@ public class TransactionActivity extends AppCompatActivity {
         });
     }
 
+    private void stopObservingViewModel() {
+        viewModel.getFilteredTransactions().removeObservers(this);
+        viewModel.getPagedTransactions().removeObservers(this);
+        viewModel.getHasMorePages().removeObservers(this);
+        viewModel.getIsLoading().removeObservers(this);
+        viewModel.getErrorMessage().removeObservers(this);
+    }
+
     private void displayDataForCurrentMonth() {
         if (allTransactions == null) return;
 
         SimpleDateFormat sdf = new SimpleDateFormat("MMMM yyyy", Locale.getDefault());
         pieChartBinding.monthTitle.setText(sdf.format(currentMonthCalendar.getTime()));
 
-        List<TransactionModel> monthlyTransactions = allTransactions.stream()
-                .filter(t -> {
-                    Calendar cal = Calendar.getInstance();
-                    cal.setTimeInMillis(t.getTimestamp());
-                    return cal.get(Calendar.YEAR) == currentMonthCalendar.get(Calendar.YEAR) &&
-                            cal.get(Calendar.MONTH) == currentMonthCalendar.get(Calendar.MONTH);
-                }).collect(Collectors.toList());
-
-        // Update the count TextView
-        binding.transactionCountText.setText("(" + monthlyTransactions.size() + ")");
+        monthlyTransactions = allTransactions.stream()
+                .filter(this::isInCurrentMonth)
+                .collect(Collectors.toList());
 
         updateTotals(monthlyTransactions);
         setupStyledPieChart(monthlyTransactions);
@@ -252,26 +373,48 @@ public class TransactionActivity extends AppCompatActivity {
         }
     }
 
-    private void setupStyledPieChart(List<TransactionModel> transactionsForMonth) {
-        Map<String, Float> expenseByCategory = new HashMap<>();
-        float totalExpense = 0f;
-        String highestCategory = "-";
-        float maxExpense = 0f;
+    /**
+     * Shows the newest pages of the current month while the full history is still loading,
+     * so first paint depends on the page size rather than the size of the cashbook.
+     */
+    private void displayPagedTransactions(List<TransactionModel> pages) {
+        if (pages == null || viewModel.isRangeLoaded() || transactionFragment == null) return;
 
-        for (TransactionModel transaction : transactionsForMonth) {
-            if ("OUT".equalsIgnoreCase(transaction.getType())) {
-                String category = transaction.getTransactionCategory() != null ? transaction.getTransactionCategory() : "Other";
-                float amount = (float) transaction.getAmount();
+        List<TransactionModel> newRows = pages.subList(Math.min(pagedRowsShown, pages.size()), pages.size());
+        List<TransactionModel> monthRows = newRows.stream()
+                .filter(this::isInCurrentMonth)
+                .collect(Collectors.toList());
 
-                expenseByCategory.put(category, expenseByCategory.getOrDefault(category, 0f) + amount);
-                totalExpense += amount;
+        if (pagedRowsShown == 0) {
+            transactionFragment.updateTransactions(monthRows);
+        } else {
+            transactionFragment.appendTransactions(monthRows);
+        }
+        pagedRowsShown = pages.size();
 
-                if (expenseByCategory.get(category) > maxExpense) {
-                    maxExpense = expenseByCategory.get(category);
-                    highestCategory = category;
-                }
-            }
+        // Older pages cannot contain rows for this month once we've paged past its start
+        if (!pages.isEmpty() && !isInCurrentMonth(pages.get(pages.size() - 1))) {
+            transactionFragment.setHasMoreItems(false);
         }
+    }
+
+    private boolean isInCurrentMonth(TransactionModel t) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(t.getTimestamp());
+        return cal.get(Calendar.YEAR) == currentMonthCalendar.get(Calendar.YEAR) &&
+                cal.get(Calendar.MONTH) == currentMonthCalendar.get(Calendar.MONTH);
+    }
+
+    private void setupStyledPieChart(List<TransactionModel> transactionsForMonth) {
+        // The month's breakdown is memoized in the category cube; a filtered list is grouped directly
+        Map<String, Double> expenseByCategory = isIndexed()
+                ? cashbookIndexes.getCategories().getCategoryTotals(getMonthKey(), Constants.TRANSACTION_TYPE_OUT)
+                : CategoryCube.categoryTotalsOf(transactionsForMonth, Constants.TRANSACTION_TYPE_OUT);
+
+        float totalExpense = 0f;
+        for (double amount : expenseByCategory.values()) totalExpense += (float) amount;
+        // Largest first
+        String highestCategory = expenseByCategory.isEmpty() ? "-" : expenseByCategory.keySet().iterator().next();
 
         pieChartBinding.categoriesCount.setText(String.valueOf(expenseByCategory.size()));
         pieChartBinding.highestCategory.setText(highestCategory);
@@ -288,12 +431,12 @@ public class TransactionActivity extends AppCompatActivity {
         }
 
         ArrayList<PieEntry> entries = new ArrayList<>();
-        for (Map.Entry<String, Float> entry : expenseByCategory.entrySet()) {
+        for (Map.Entry<String, Double> entry : expenseByCategory.entrySet()) {
             String label = entry.getKey();
             if (label.length() > 5) {
                 label = label.substring(0, 5) + "..";
             }
-            entries.add(new PieEntry(entry.getValue(), label));
+            entries.add(new PieEntry(entry.getValue().floatValue(), label));
         }
 
         ArrayList<Integer> colors = new ArrayList<>();
@@ -347,10 +490,21 @@ public class TransactionActivity extends AppCompatActivity {
     @SuppressLint("SetTextI18n")
     private void updateTotals(List<TransactionModel> transactions) {
         double totalIncome = 0, totalExpense = 0;
-        for (TransactionModel t : transactions) {
-            if ("IN".equalsIgnoreCase(t.getType())) totalIncome += t.getAmount();
-            else totalExpense += t.getAmount();
+        int count;
+        if (isIndexed()) {
+            // Whole month from the rollup: two prefix-sum lookups instead of a pass over the list
+            RollupIndex.Totals totals = cashbookIndexes.getRollup().getRangeMillis(getMonthStart(), getMonthEnd());
+            totalIncome = totals.getTotalIn();
+            totalExpense = totals.getTotalOut();
+            count = totals.getCount();
+        } else {
+            for (TransactionModel t : transactions) {
+                if ("IN".equalsIgnoreCase(t.getType())) totalIncome += t.getAmount();
+                else totalExpense += t.getAmount();
+            }
+            count = transactions.size();
         }
+        binding.transactionCountText.setText("(" + count + ")");
         summaryBinding.incomeText.setText("₹" + String.format(Locale.US, "%.2f", totalIncome));
         summaryBinding.expenseText.setText("₹" + String.format(Locale.US, "%.2f", totalExpense));
         summaryBinding.balanceText.setText("₹" + String.format(Locale.US, "%.2f", totalIncome - totalExpense));
@@ -392,7 +546,7 @@ public class TransactionActivity extends AppCompatActivity {
                 } else {
                     searchBinding.clearSearchButton.setVisibility(View.GONE);
                 }
-                if(viewModel!=null) viewModel.filter(s.toString(), 0,0,"All",null,null);
+                if(viewModel!=null) viewModel.search(s.toString()); // Debounced; filters off the main thread
             }
             @Override public void afterTextChanged(Editable s) {}
         });
@@ -405,14 +559,19 @@ public class TransactionActivity extends AppCompatActivity {
             if (result.getResultCode() == RESULT_OK && result.getData() != null) {
                 Intent data = result.getData();
                 searchBinding.searchEditText.setText(data.getStringExtra("searchQuery"));
-                if(viewModel!=null) viewModel.filter(
+                String paymentMode = data.getStringExtra("paymentMode");
+                List<String> paymentModes = (paymentMode == null || paymentMode.equals("All"))
+                        ? null : Collections.singletonList(paymentMode);
+                if(viewModel!=null) viewModel.filter(new FilterQuery(
                         data.getStringExtra("searchQuery"),
                         data.getLongExtra("startDate", 0),
                         data.getLongExtra("endDate", 0),
                         data.getStringExtra("entryType"),
                         data.getStringArrayListExtra("categories"),
-                        null
-                );
+                        paymentModes,
+                        null,
+                        TagUtils.parse(data.getStringExtra("tagsQuery"))
+                ));
             }
         });
     }
@@ -436,15 +595,33 @@ public class TransactionActivity extends AppCompatActivity {
     }
 
     private void exportReport(long startDate, long endDate, String entryType, String paymentMode) {
-        if (allTransactions.isEmpty()) { showSnackbar("No data"); return; }
-        List<TransactionModel> exportList = allTransactions.stream()
-                .filter(t -> t.getTimestamp() >= startDate && t.getTimestamp() <= endDate)
-                .filter(t -> entryType == null || entryType.equals("All") || t.getType().equalsIgnoreCase(entryType))
-                .filter(t -> paymentMode == null || paymentMode.equals("All") || t.getPaymentMode().equalsIgnoreCase(paymentMode))
-                .collect(Collectors.toList());
+        if (viewModel == null) { showSnackbar("No data"); return; }
+
+        // A filtered export is a subset, so only a full export carries the cashbook's opening balance
+        boolean fullExport = (entryType == null || entryType.equals("All"))
+                && (paymentMode == null || paymentMode.equals("All"));
+        if (fullExport) {
+            withIndexes(() -> exportRange(startDate, endDate, entryType, paymentMode,
+                    cashbookIndexes.getBalance().getBalanceAt(startDate - 1)));
+        } else {
+            exportRange(startDate, endDate, entryType, paymentMode, null);
+        }
+    }
 
+    private void exportRange(long startDate, long endDate, String entryType, String paymentMode, Double openingBalance) {
+        // Only the requested date range is downloaded; type and mode are filtered locally
+        viewModel.loadTransactionsInRange(startDate, endDate, rangeTransactions -> {
+            List<TransactionModel> exportList = rangeTransactions.stream()
+                    .filter(t -> entryType == null || entryType.equals("All") || entryType.equalsIgnoreCase(t.getType()))
+                    .filter(t -> paymentMode == null || paymentMode.equals("All") || paymentMode.equalsIgnoreCase(t.getPaymentMode()))
+                    .collect(Collectors.toList());
+            writeReport(exportList, startDate, endDate, openingBalance);
+        });
+    }
+
+    private void writeReport(List<TransactionModel> exportList, long startDate, long endDate, Double openingBalance) {
         if (exportList.isEmpty()) { showSnackbar("No matching transactions"); return; }
-        PdfReportGenerator.generateReport(this, exportList, currentCashbookName, startDate, endDate);
+        PdfReportGenerator.generateReport(this, exportList, currentCashbookName, startDate, endDate, openingBalance);
     }
 
     private boolean checkPermissions() {
@@ -469,8 +646,8 @@ public class TransactionActivity extends AppCompatActivity {
         // This triggers a refresh of the list using the current search query.
         binding.swipeRefreshLayout.setOnRefreshListener(() -> {
             if (viewModel != null) {
-                String currentQuery = searchBinding.searchEditText.getText().toString();
-                viewModel.filter(currentQuery, 0, 0, "All", null, null);
+                // Same path as typing, so the refreshed list keeps the close matches
+                viewModel.search(searchBinding.searchEditText.getText().toString());
             } else {
                 binding.swipeRefreshLayout.setRefreshing(false);
             }
@@ -481,25 +658,34 @@ public class TransactionActivity extends AppCompatActivity {
             intent.putExtra("cashbook_id", currentCashbookId);
             startActivity(intent);
         });
-        pieChartBinding.monthBackwardButton.setOnClickListener(v -> {
-            currentMonthCalendar.add(Calendar.MONTH, -1);
-            displayDataForCurrentMonth();
-        });
-        pieChartBinding.monthForwardButton.setOnClickListener(v -> {
-            currentMonthCalendar.add(Calendar.MONTH, 1);
-            displayDataForCurrentMonth();
-        });
+        pieChartBinding.monthBackwardButton.setOnClickListener(v -> showMonth(-1));
+        pieChartBinding.monthForwardButton.setOnClickListener(v -> showMonth(1));
         pieChartBinding.togglePieChartButton.setOnClickListener(v -> {
             boolean visible = pieChartBinding.pieChart.getVisibility() == View.VISIBLE;
             setChartVisibility(!visible);
             getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit().putBoolean(KEY_SHOW_CHART, !visible).apply();
         });
+        summaryBinding.balanceCard.setOnClickListener(v -> {
+            Intent intent = new Intent(this, BalanceHistoryActivity.class);
+            intent.putExtra(Constants.EXTRA_CASHBOOK_ID, currentCashbookId);
+            intent.putExtra(BalanceHistoryActivity.EXTRA_END_DATE, getMonthEnd());
+            startActivity(intent);
+        });
         binding.downloadReportButton.setOnClickListener(v -> {
-            if(allTransactions.isEmpty()){ showSnackbar("No data"); return; }
-            downloadLauncher.launch(new Intent(this, DownloadOptionsActivity.class));
+            Intent intent = new Intent(this, DownloadOptionsActivity.class);
+            intent.putExtra(Constants.EXTRA_CASHBOOK_ID, currentCashbookId);
+            downloadLauncher.launch(intent);
         });
     }
 
+    private void showMonth(int offset) {
+        currentMonthCalendar.add(Calendar.MONTH, offset);
+        // Paged rows were picked for the month shown before; the next page or the range load replaces them
+        pagedRowsShown = 0;
+        displayDataForCurrentMonth();
+        loadCurrentMonth();
+    }
+
     private void setupBottomNavigation() {
         bottomNavBinding.btnTransactions.setSelected(true);
         bottomNavBinding.btnHome.setOnClickListener(v -> {
@@ -536,9 +722,12 @@ public class TransactionActivity extends AppCompatActivity {
             if (newId != null && !newId.equals(currentCashbookId)) {
                 currentCashbookId = newId;
                 currentCashbookName = newName;
+                // A recreated activity (e.g. after rotation) reopens the cashbook switched to
+                getIntent().putExtra("cashbook_id", newId);
                 showSnackbar("Switched to: " + newName);
                 getSharedPreferences("AppPrefs", Context.MODE_PRIVATE).edit().putString("active_cashbook_id_" + currentUser.getUid(), newId).apply();
                 initViewModel();
+                resetIndexes();
                 observeViewModel();
             }
         }
@@ -546,6 +735,9 @@ public class TransactionActivity extends AppCompatActivity {
 
     private void setupTransactionFragment() {
         transactionFragment = TransactionItemFragment.newInstance(new ArrayList<>());
+        transactionFragment.setOnLoadMoreListener(() -> {
+            if (viewModel != null && !viewModel.isRangeLoaded()) viewModel.loadNextPage();
+        });
         transactionFragment.setOnItemClickListener(new TransactionAdapter.OnItemClickListener() {
             @Override public void onItemClick(TransactionModel transaction) {
                 Intent intent = new Intent(TransactionActivity.this, TransactionDetailsActivity.class);
@@ -595,6 +787,12 @@ public class TransactionActivity extends AppCompatActivity {
         pieChartBinding.togglePieChartButton.setText(show ? "Hide Pie Chart" : "Show Pie Chart");
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (indexSubscription != null) indexSubscription.unsubscribe();
+    }
+
     private void showSnackbar(String msg) {
         View anchor = (bottomNavBinding != null) ? bottomNavBinding.getRoot() : null;
         SnackbarHelper.show(this, msg, anchor);
@@ -17,6 +17,7 @@ import androidx.lifecycle.ViewModelProvider;
 import com.google.android.material.button.MaterialButton;
 import com.phynix.artham.models.TransactionModel;
 import com.phynix.artham.utils.SnackbarHelper;
+import com.phynix.artham.utils.TagUtils;
 import com.phynix.artham.utils.ThemeManager; // [NEW IMPORT]
 import com.phynix.artham.viewmodels.TransactionViewModel;
 import com.phynix.artham.viewmodels.TransactionViewModelFactory;
@@ -138,11 +139,11 @@ public class TransactionDetailsActivity extends AppCompatActivity {
             detailParty.setText(transaction.getPartyName());
         }
 
-        if (transaction.getTags() == null || transaction.getTags().isEmpty()) {
+        if (transaction.getTagList().isEmpty()) {
             if (tagsSection != null) tagsSection.setVisibility(View.GONE);
         } else {
             if (tagsSection != null) tagsSection.setVisibility(View.VISIBLE);
-            detailTags.setText(transaction.getTags().toString().replace("[", "").replace("]", ""));
+            detailTags.setText(TagUtils.join(transaction.getTagList()));
         }
 
         MaterialButton btnEdit = findViewById(R.id.btnEditTransaction);
@@ -25,11 +25,18 @@ import java.util.List;
 public class TransactionItemFragment extends Fragment {
 
     private static final String TAG = "TransactionItemFragment";
+    // Request the next page when the user is this many rows from the end
+    private static final int LOAD_MORE_THRESHOLD = 10;
     private RecyclerView transactionRecyclerView;
     private TransactionAdapter transactionAdapter;
     private List<TransactionModel> transactionList;
     private TransactionAdapter.OnItemClickListener clickListener;
 
+    // Infinite scroll
+    private OnLoadMoreListener loadMoreListener;
+    private boolean hasMoreItems = false;
+    private boolean isLoadingMore = false;
+
     // [FIX] Added views from the layout
     private LinearLayout emptyStateLayout;
     private LinearLayout loadingLayout;
@@ -37,6 +44,10 @@ public class TransactionItemFragment extends Fragment {
     private TextView emptyStateText;
 
 
+    public interface OnLoadMoreListener {
+        void onLoadMore();
+    }
+
     public static TransactionItemFragment newInstance(ArrayList<TransactionModel> transactions) {
         TransactionItemFragment fragment = new TransactionItemFragment();
         Bundle args = new Bundle();
@@ -97,6 +108,19 @@ public class TransactionItemFragment extends Fragment {
         transactionAdapter = new TransactionAdapter(transactionList, clickListener);
         transactionRecyclerView.setAdapter(transactionAdapter);
 
+        transactionRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0 || loadMoreListener == null || !hasMoreItems || isLoadingMore) return;
+
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= layoutManager.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    isLoadingMore = true;
+                    loadMoreListener.onLoadMore();
+                }
+            }
+        });
+
         // Update empty state
         updateEmptyState();
 
@@ -106,6 +130,7 @@ public class TransactionItemFragment extends Fragment {
     public void updateTransactions(List<TransactionModel> newTransactions) {
         if (newTransactions != null) {
             this.transactionList = newTransactions;
+            isLoadingMore = false;
 
             if (transactionAdapter != null) {
                 transactionAdapter.updateTransactions(newTransactions);
@@ -115,6 +140,33 @@ public class TransactionItemFragment extends Fragment {
         }
     }
 
+    /**
+     * Appends an older page delivered by the {@link OnLoadMoreListener}.
+     */
+    public void appendTransactions(List<TransactionModel> olderTransactions) {
+        isLoadingMore = false;
+        if (olderTransactions == null || olderTransactions.isEmpty()) return;
+
+        transactionList = transactionList != null ? new ArrayList<>(transactionList) : new ArrayList<>();
+        transactionList.addAll(olderTransactions);
+        if (transactionAdapter != null) {
+            transactionAdapter.appendTransactions(olderTransactions);
+            updateEmptyState();
+        }
+    }
+
+    /**
+     * Enables infinite scroll; the listener is called when the user nears the end of the list.
+     */
+    public void setOnLoadMoreListener(OnLoadMoreListener listener) {
+        this.loadMoreListener = listener;
+    }
+
+    public void setHasMoreItems(boolean hasMoreItems) {
+        this.hasMoreItems = hasMoreItems;
+        if (!hasMoreItems) isLoadingMore = false;
+    }
+
     private void updateEmptyState() {
         if (transactionList == null || transactionList.isEmpty()) {
             emptyStateLayout.setVisibility(View.VISIBLE);
@@ -0,0 +1,110 @@
+package com.phynix.artham.adapters;
+
+import android.app.Application;
+import android.content.Context;
+import android.widget.ArrayAdapter;
+import android.widget.Filter;
+
+import androidx.annotation.NonNull;
+
+import com.phynix.artham.db.DataRepository;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.index.CashbookIndexes;
+import com.phynix.artham.index.IndexRegistry;
+import com.phynix.artham.index.PartyTrie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Party name completions for an AutoCompleteTextView, ranked by the cashbook's {@link PartyTrie}.
+ * <p>
+ * The trie is main-thread only, so the lookup happens when the filter publishes its results
+ * (on the main thread) rather than in the background filtering step.
+ */
+public class PartySuggestionAdapter extends ArrayAdapter<String> {
+
+    private PartyTrie partyTrie;
+    private final List<String> suggestions = new ArrayList<>();
+
+    public PartySuggestionAdapter(@NonNull Context context) {
+        super(context, android.R.layout.simple_dropdown_item_1line);
+    }
+
+    /**
+     * Sets the trie to complete from; until then there are no suggestions.
+     */
+    public void setPartyTrie(PartyTrie partyTrie) {
+        this.partyTrie = partyTrie;
+    }
+
+    /**
+     * Completes from the cashbook's live trie when its indexes are already observed. Otherwise
+     * the trie is built from the facet counts, one small read instead of indexing the whole
+     * history for an entry form.
+     */
+    public Subscription attach(Application application, String cashbookId) {
+        IndexRegistry registry = IndexRegistry.getInstance(application);
+        if (registry.isObserved(cashbookId)) {
+            return registry.observe(cashbookId, new SubscriptionHub.Observer<CashbookIndexes>() {
+                @Override
+                public void onChanged(CashbookIndexes indexes) {
+                    setPartyTrie(indexes.getParties());
+                }
+
+                @Override
+                public void onError(String error) {
+                    // Typing a party still works, just without suggestions
+                }
+            });
+        }
+
+        boolean[] active = {true};
+        DataRepository.getInstance(application).getFacets(cashbookId, facets -> {
+            if (!active[0]) return;
+            PartyTrie trie = new PartyTrie();
+            trie.resetCounts(facets.getParties());
+            setPartyTrie(trie);
+        }, error -> {
+            // Same as above: no suggestions
+        });
+        return () -> active[0] = false;
+    }
+
+    @Override
+    public int getCount() {
+        return suggestions.size();
+    }
+
+    @Override
+    public String getItem(int position) {
+        return suggestions.get(position);
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return new Filter() {
+            @Override
+            protected FilterResults performFiltering(CharSequence constraint) {
+                FilterResults results = new FilterResults();
+                results.values = constraint;
+                return results;
+            }
+
+            @Override
+            protected void publishResults(CharSequence constraint, FilterResults results) {
+                suggestions.clear();
+                if (partyTrie != null && constraint != null) {
+                    suggestions.addAll(partyTrie.suggest(constraint.toString(), PartyTrie.TOP_K));
+                }
+                if (suggestions.isEmpty()) {
+                    notifyDataSetInvalidated();
+                } else {
+                    notifyDataSetChanged();
+                }
+            }
+        };
+    }
+}
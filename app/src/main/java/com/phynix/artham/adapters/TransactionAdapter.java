@@ -97,6 +97,17 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
         diffResult.dispatchUpdatesTo(this);
     }
 
+    /**
+     * Appends an older page to the end of the list without diffing the rows already shown.
+     */
+    public void appendTransactions(List<TransactionModel> olderTransactions) {
+        if (olderTransactions == null || olderTransactions.isEmpty()) return;
+
+        int start = transactionList.size();
+        transactionList.addAll(olderTransactions);
+        notifyItemRangeInserted(start, olderTransactions.size());
+    }
+
     class TransactionViewHolder extends RecyclerView.ViewHolder {
         // Core Views
         TextView categoryTextView, amountTextView, dateTextView, paymentModeTextView, remarkTextView;
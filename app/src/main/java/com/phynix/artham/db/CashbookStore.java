@@ -0,0 +1,66 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.CashbookFacets;
+import com.phynix.artham.models.CashbookModel;
+import com.phynix.artham.models.CashbookSummary;
+
+import java.util.List;
+
+/**
+ * CashbookStore - Cashbook headers, their summaries and the account they belong to.
+ * See {@link TransactionStore} for the implementations.
+ */
+public interface CashbookStore {
+
+    boolean isUserAuthenticated();
+
+    String getCurrentUserId();
+
+    /**
+     * Prepares the account before its first read (the Firebase store migrates older schemas here).
+     * The callback receives true if anything had to be changed. Stores run this themselves before
+     * their first read, so calling it is only needed to wait for the migration explicitly.
+     */
+    void ensureSchema(DataRepository.DataCallback<Boolean> callback, DataRepository.ErrorCallback errorCallback);
+
+    void getCashbooks(DataRepository.DataCallback<List<CashbookModel>> callback, DataRepository.ErrorCallback errorCallback);
+
+    /**
+     * Delivers the header now and after every change; null once the cashbook no longer exists.
+     */
+    Subscription subscribeToCashbook(String cashbookId, DataRepository.DataCallback<CashbookModel> callback,
+                                     DataRepository.ErrorCallback errorCallback);
+
+    default void createNewCashbook(String name, DataRepository.DataCallback<String> callback, DataRepository.ErrorCallback errorCallback) {
+        createNewCashbook(name, null, callback, errorCallback);
+    }
+
+    void createNewCashbook(String name, String description, DataRepository.DataCallback<String> callback,
+                           DataRepository.ErrorCallback errorCallback);
+
+    /**
+     * Removes the cashbook together with its transactions and summary.
+     */
+    void deleteCashbook(String cashbookId, DataRepository.DataCallback<Boolean> callback, DataRepository.ErrorCallback errorCallback);
+
+    void duplicateCashbook(String originalCashbookId, String newName, DataRepository.DataCallback<String> callback,
+                           DataRepository.ErrorCallback errorCallback);
+
+    /**
+     * Distinct parties, tags, payment modes and categories of the cashbook with their use counts,
+     * without reading its transactions.
+     */
+    void getFacets(String cashbookId, DataRepository.DataCallback<CashbookFacets> callback,
+                   DataRepository.ErrorCallback errorCallback);
+
+    /**
+     * Recounts the summary and facets from the cashbook's transactions and stores them.
+     */
+    void recalculateSummary(String cashbookId, DataRepository.DataCallback<CashbookSummary> callback,
+                            DataRepository.ErrorCallback errorCallback);
+
+    /**
+     * The cashbook currently on screen; stores may use it to decide what to keep available offline.
+     */
+    void setActiveCashbook(String cashbookId);
+}
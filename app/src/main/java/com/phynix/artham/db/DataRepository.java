@@ -5,32 +5,60 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.phynix.artham.models.CashbookFacets;
 import com.phynix.artham.models.CashbookModel;
+import com.phynix.artham.models.CashbookSummary;
 import com.phynix.artham.models.TransactionModel;
 import com.phynix.artham.utils.Constants;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.ChildEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * DataRepository - Centralized data access layer for CashFlow app
  * Handles Firebase (authenticated users) operations ONLY.
  */
-public class DataRepository {
+public class DataRepository implements TransactionStore, CashbookStore {
 
     private static final String TAG = "DataRepository";
+    private static final String LEGACY_MIRROR_DATABASE = "transaction_mirror.db";
+
+    private static final int PHASE_WAITING = 0;
+    private static final int PHASE_DECODING = 1;
+    private static final int PHASE_LIVE = 2;
     private static volatile DataRepository INSTANCE;
 
     private final DatabaseReference rootRef;
     private final FirebaseAuth mAuth;
+    private final SyncPolicy syncPolicy;
+    private volatile String schemaCheckedForUser;
+    // Requests that arrived while the schema check was running; guarded by itself
+    private final List<SchemaWaiter> schemaWaiters = new ArrayList<>();
+    private String schemaCheckRunningForUser;
+    private final SnapshotDecoder decoder = SnapshotDecoder.getInstance();
+    private final AtomicInteger nextStreamId = new AtomicInteger();
+    // Decode key of each live subscribeToTransactions listener, released when it is removed
+    private final Map<ValueEventListener, String> valueStreamKeys = new ConcurrentHashMap<>();
+    // Cashbooks whose summary holds a full recount, so increments can build on it
+    private final Set<String> countedSummaries = Collections.synchronizedSet(new HashSet<>());
 
     public interface DataCallback<T> {
         void onCallback(T data);
@@ -40,9 +68,23 @@ public class DataRepository {
         void onError(String error);
     }
 
+    /**
+     * Receives incremental transaction updates from {@link #subscribeToTransactionChanges}.
+     * Children delivered during the initial sync are batched into a single
+     * {@link #onInitialLoad} call; every later change arrives as one delta.
+     */
+    public interface TransactionChangeCallback {
+        void onInitialLoad(SortedTransactionIndex index);
+
+        void onTransactionChanged(TransactionDelta delta, SortedTransactionIndex index);
+    }
+
     private DataRepository(Application application) {
         mAuth = FirebaseAuth.getInstance();
         rootRef = FirebaseDatabase.getInstance().getReference();
+        syncPolicy = new SyncPolicy(rootRef);
+        // An earlier build kept a SQLite copy of opened cashbooks; reads now come from the indexes
+        application.deleteDatabase(LEGACY_MIRROR_DATABASE);
     }
 
     public static DataRepository getInstance(Application application) {
@@ -63,19 +105,145 @@ public class DataRepository {
     private DatabaseReference getUserDatabaseRef() {
         FirebaseUser currentUser = mAuth.getCurrentUser();
         if (currentUser != null) {
-            DatabaseReference userRef = rootRef.child(Constants.NODE_USERS).child(currentUser.getUid());
-            // Keep this data synced for offline usage
-            userRef.keepSynced(true);
-            return userRef;
+            // Offline mirroring is scoped by SyncPolicy, not applied to the whole user tree
+            syncPolicy.setUser(currentUser.getUid());
+            return rootRef.child(Constants.NODE_USERS).child(currentUser.getUid());
         }
+        syncPolicy.setUser(null);
         return null;
     }
 
+    /**
+     * Controls which cashbooks are kept synced for offline use.
+     */
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    @Override
+    public void setActiveCashbook(String cashbookId) {
+        syncPolicy.setActiveCashbook(cashbookId);
+
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase == null || cashbookId == null) return;
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> setActiveCashbook(cashbookId), null);
+            return;
+        }
+        // Opening a cashbook is when an uncounted or overdue summary gets recounted
+        checkSummary(userDatabase, cashbookId, counted -> {
+            if (!counted) recalculateSummary(cashbookId, null,
+                    error -> Log.w(TAG, "Summary recount failed for " + cashbookId + ": " + error));
+        });
+    }
+
+    // --- SCHEMA METHODS ---
+
+    /**
+     * Makes sure the signed-in user's data is on the current schema before anything reads it.
+     * Checked once per process; the callback receives true if a migration was performed.
+     * Concurrent calls share one check.
+     * <p>
+     * Every read and write below waits for this itself (see {@link #isSchemaReady}), so whichever
+     * screen opens first, nothing touches the v2+ paths before the migration.
+     */
+    @Override
+    public void ensureSchema(DataCallback<Boolean> callback, ErrorCallback errorCallback) {
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase == null) {
+            if (errorCallback != null) errorCallback.onError("User not authenticated");
+            return;
+        }
+
+        String userId = userDatabase.getKey();
+        boolean ready;
+        boolean start = false;
+        synchronized (schemaWaiters) {
+            ready = userId != null && userId.equals(schemaCheckedForUser);
+            if (!ready) {
+                schemaWaiters.add(new SchemaWaiter(callback, errorCallback));
+                start = userId != null && !userId.equals(schemaCheckRunningForUser);
+                if (start) schemaCheckRunningForUser = userId;
+            }
+        }
+        if (ready) {
+            callback.onCallback(false);
+            return;
+        }
+        if (!start) return;
+
+        SchemaMigration.run(userDatabase,
+                migrated -> finishSchemaCheck(userId, migrated, null),
+                error -> finishSchemaCheck(userId, false, error));
+    }
+
+    private void finishSchemaCheck(String userId, boolean migrated, String error) {
+        List<SchemaWaiter> waiters;
+        synchronized (schemaWaiters) {
+            if (error == null) {
+                schemaCheckedForUser = userId;
+            } else if (userId.equals(schemaCheckedForUser)) {
+                // A migration write was rejected after readers were let through; check again on the next read
+                schemaCheckedForUser = null;
+            }
+            if (userId.equals(schemaCheckRunningForUser)) schemaCheckRunningForUser = null;
+            waiters = new ArrayList<>(schemaWaiters);
+            schemaWaiters.clear();
+        }
+        for (SchemaWaiter waiter : waiters) {
+            if (error == null) waiter.callback.onCallback(migrated);
+            else if (waiter.errorCallback != null) waiter.errorCallback.onError(error);
+        }
+    }
+
+    /**
+     * True if the signed-in user's tree is known to be on the current schema. Otherwise the caller
+     * defers itself through {@link #ensureSchema}. Signed out counts as ready, so each method
+     * reports that itself.
+     */
+    private boolean isSchemaReady() {
+        String userId = getCurrentUserId();
+        return userId == null || userId.equals(schemaCheckedForUser);
+    }
+
+    private static final class SchemaWaiter {
+        final DataCallback<Boolean> callback;
+        final ErrorCallback errorCallback;
+
+        SchemaWaiter(DataCallback<Boolean> callback, ErrorCallback errorCallback) {
+            this.callback = callback;
+            this.errorCallback = errorCallback;
+        }
+    }
+
+    /**
+     * Returned for a subscription requested before the schema check finished; it attaches once
+     * the check is done, unless it was unsubscribed first.
+     */
+    private static final class PendingSubscription implements Subscription {
+        private Subscription attached;
+        private boolean cancelled;
+
+        void attach(Subscription subscription) {
+            if (subscription == null) return;
+            if (cancelled) subscription.unsubscribe();
+            else attached = subscription;
+        }
+
+        @Override
+        public void unsubscribe() {
+            cancelled = true;
+            if (attached != null) attached.unsubscribe();
+            attached = null;
+        }
+    }
+
     // --- TRANSACTION METHODS ---
 
     /**
      * Subscribes to real-time transaction updates for a specific cashbook.
-     * Returns the ValueEventListener so it can be removed by the ViewModel when switching cashbooks.
+     * Returns the ValueEventListener; pass it to {@link #unsubscribeFromTransactions} when switching
+     * cashbooks.
      */
     public ValueEventListener subscribeToTransactions(String cashbookId, DataCallback<List<TransactionModel>> callback, ErrorCallback errorCallback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
@@ -84,27 +252,12 @@ public class DataRepository {
             return null;
         }
 
+        String decodeKey = "value/" + cashbookId + "/" + nextStreamId.incrementAndGet();
         ValueEventListener listener = new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                try {
-                    List<TransactionModel> transactions = new ArrayList<>();
-                    for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                        TransactionModel transaction = snapshot.getValue(TransactionModel.class);
-                        if (transaction != null) {
-                            transaction.setTransactionId(snapshot.getKey());
-                            transactions.add(transaction);
-                        }
-                    }
-                    // Sort by timestamp, newest first
-                    Collections.sort(transactions, (t1, t2) ->
-                            Long.compare(t2.getTimestamp(), t1.getTimestamp()));
-
-                    callback.onCallback(transactions);
-                } catch (Exception e) {
-                    Log.e(TAG, "Error processing Firebase transactions", e);
-                    if (errorCallback != null) errorCallback.onError("Failed to process transaction data");
-                }
+                // Latest-wins: a burst of updates only decodes the newest snapshot
+                decoder.decode(decodeKey, dataSnapshot, ModelDecoder::decodeTransactions, callback, errorCallback);
             }
 
             @Override
@@ -114,12 +267,142 @@ public class DataRepository {
             }
         };
 
-        userDatabase.child(Constants.NODE_CASHBOOKS).child(cashbookId).child(Constants.NODE_TRANSACTIONS)
+        transactionsRef(userDatabase, cashbookId)
                 .addValueEventListener(listener);
+        valueStreamKeys.put(listener, decodeKey);
 
         return listener;
     }
 
+    /**
+     * Removes a listener returned by {@link #subscribeToTransactions}, dropping any decode still
+     * in flight for it.
+     */
+    public void unsubscribeFromTransactions(String cashbookId, ValueEventListener listener) {
+        if (listener == null) return;
+        decoder.release(valueStreamKeys.remove(listener));
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase != null && cashbookId != null) {
+            transactionsRef(userDatabase, cashbookId).removeEventListener(listener);
+        }
+    }
+
+    /**
+     * Subscribes to a cashbook's transactions through a ChildEventListener.
+     * Unlike {@link #subscribeToTransactions}, each add/edit/delete only decodes the affected
+     * child and updates a sorted in-memory index, instead of re-delivering the whole node.
+     * Unsubscribing removes the listener.
+     */
+    @Override
+    public Subscription subscribeToTransactionChanges(String cashbookId, TransactionChangeCallback callback, ErrorCallback errorCallback) {
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase == null || cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("User not authenticated or cashbook missing.");
+            return null;
+        }
+
+        if (!isSchemaReady()) {
+            PendingSubscription pending = new PendingSubscription();
+            ensureSchema(migrated -> pending.attach(subscribeToTransactionChanges(cashbookId, callback, errorCallback)), errorCallback);
+            return pending;
+        }
+
+        DatabaseReference transactionsRef = transactionsRef(userDatabase, cashbookId);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        // WAITING: initial children are skipped, the full value snapshot below carries them.
+        // DECODING: that snapshot is being decoded off the main thread; child events are queued.
+        // LIVE: each child event is applied to the index as it arrives.
+        int[] phase = {PHASE_WAITING};
+        List<Runnable> queuedEvents = new ArrayList<>();
+        // Set on unsubscribe; a decode finishing afterwards must not touch the callback
+        boolean[] cancelled = {false};
+
+        ChildEventListener listener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                dispatch(() -> apply(snapshot));
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+                dispatch(() -> apply(snapshot));
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                dispatch(() -> {
+                    TransactionDelta delta = index.remove(snapshot.getKey());
+                    if (delta != null) callback.onTransactionChanged(delta, index);
+                });
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {
+                // Ordering is maintained by the index itself
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                Log.e(TAG, "Firebase transaction child listener cancelled", databaseError.toException());
+                if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+            }
+
+            private void dispatch(Runnable event) {
+                if (phase[0] == PHASE_LIVE) event.run();
+                else if (phase[0] == PHASE_DECODING) queuedEvents.add(event);
+            }
+
+            private void apply(DataSnapshot snapshot) {
+                try {
+                    TransactionModel transaction = ModelDecoder.decodeTransaction(snapshot);
+                    if (transaction == null) return;
+                    callback.onTransactionChanged(index.upsert(transaction), index);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error processing transaction " + snapshot.getKey(), e);
+                }
+            }
+        };
+
+        transactionsRef.addChildEventListener(listener);
+
+        // Value events are raised after the child events for the same sync, so this snapshot holds
+        // exactly the initial children. It is decoded and sorted in one pass on the decoder pool.
+        transactionsRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                if (cancelled[0]) return;
+                phase[0] = PHASE_DECODING;
+                decoder.decode(null, dataSnapshot, ModelDecoder::decodeTransactions, transactions -> {
+                    if (cancelled[0]) return;
+                    index.resetTo(transactions);
+                    phase[0] = PHASE_LIVE;
+                    callback.onInitialLoad(index);
+                    for (Runnable event : queuedEvents) event.run();
+                    queuedEvents.clear();
+                }, error -> {
+                    // Without the initial load the queued events have no base to apply to
+                    phase[0] = PHASE_WAITING;
+                    queuedEvents.clear();
+                    transactionsRef.removeEventListener(listener);
+                    if (!cancelled[0] && errorCallback != null) errorCallback.onError(error);
+                });
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+            }
+        });
+
+        return () -> {
+            cancelled[0] = true;
+            phase[0] = PHASE_WAITING;
+            queuedEvents.clear();
+            transactionsRef.removeEventListener(listener);
+        };
+    }
+
+    @Override
     public void getAllTransactions(String cashbookId, DataCallback<List<TransactionModel>> callback, ErrorCallback errorCallback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
         if (userDatabase == null || cashbookId == null) {
@@ -128,26 +411,107 @@ public class DataRepository {
             return;
         }
 
-        userDatabase.child(Constants.NODE_CASHBOOKS).child(cashbookId).child(Constants.NODE_TRANSACTIONS)
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> getAllTransactions(cashbookId, callback, errorCallback), errorCallback);
+            return;
+        }
+
+        transactionsRef(userDatabase, cashbookId)
                 .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                        try {
-                            List<TransactionModel> transactions = new ArrayList<>();
-                            for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                                TransactionModel transaction = snapshot.getValue(TransactionModel.class);
-                                if (transaction != null) {
-                                    transaction.setTransactionId(snapshot.getKey());
-                                    transactions.add(transaction);
-                                }
-                            }
-                            Collections.sort(transactions, (t1, t2) ->
-                                    Long.compare(t2.getTimestamp(), t1.getTimestamp()));
-                            callback.onCallback(transactions);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error processing Firebase transactions", e);
-                            if (errorCallback != null) errorCallback.onError("Failed to process transaction data");
-                        }
+                        decoder.decode(null, dataSnapshot, ModelDecoder::decodeTransactions, callback, errorCallback);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError databaseError) {
+                        callback.onCallback(new ArrayList<>());
+                        if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Fetches one page of transactions ordered by timestamp, newest first.
+     * @param before cursor from the previous page, or null for the most recent page
+     */
+    @Override
+    public void getTransactionsPage(String cashbookId, TransactionPage.Cursor before, int pageSize,
+                                    DataCallback<TransactionPage> callback, ErrorCallback errorCallback) {
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase == null || cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("User not authenticated or cashbook missing.");
+            callback.onCallback(TransactionPage.empty());
+            return;
+        }
+
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> getTransactionsPage(cashbookId, before, pageSize, callback, errorCallback), errorCallback);
+            return;
+        }
+
+        Query query = transactionsRef(userDatabase, cashbookId)
+                .orderByChild(Constants.FIELD_TIMESTAMP);
+        if (before != null) {
+            query = query.endBefore(before.getTimestamp(), before.getKey());
+        }
+        // One extra row tells us whether an older page exists
+        query.limitToLast(pageSize + 1).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                decoder.decode(null, dataSnapshot, snapshot -> {
+                    List<TransactionModel> transactions = ModelDecoder.decodeTransactions(snapshot);
+
+                    boolean hasMore = transactions.size() > pageSize;
+                    if (hasMore) {
+                        transactions = new ArrayList<>(transactions.subList(0, pageSize));
+                    }
+
+                    TransactionPage.Cursor next = null;
+                    if (!transactions.isEmpty()) {
+                        TransactionModel oldest = transactions.get(transactions.size() - 1);
+                        next = new TransactionPage.Cursor(oldest.getTimestamp(), oldest.getTransactionId());
+                    }
+                    return new TransactionPage(transactions, next, hasMore);
+                }, callback, errorCallback);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                callback.onCallback(TransactionPage.empty());
+                if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Fetches only the transactions whose timestamp falls in [startTime, endTime], newest first.
+     * Relies on the ".indexOn": "timestamp" rule in database.rules.json so the filtering happens
+     * on the server instead of after downloading the whole history.
+     */
+    @Override
+    public void getTransactionsInRange(String cashbookId, long startTime, long endTime,
+                                       DataCallback<List<TransactionModel>> callback, ErrorCallback errorCallback) {
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase == null || cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("User not authenticated or cashbook missing.");
+            callback.onCallback(new ArrayList<>());
+            return;
+        }
+
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> getTransactionsInRange(cashbookId, startTime, endTime, callback, errorCallback), errorCallback);
+            return;
+        }
+
+        transactionsRef(userDatabase, cashbookId)
+                .orderByChild(Constants.FIELD_TIMESTAMP)
+                .startAt(startTime)
+                .endAt(endTime)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                        decoder.decode(null, dataSnapshot, ModelDecoder::decodeTransactions, callback, errorCallback);
                     }
 
                     @Override
@@ -158,6 +522,7 @@ public class DataRepository {
                 });
     }
 
+    @Override
     public void addTransaction(String cashbookId, TransactionModel transaction, DataCallback<Boolean> callback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
         if (userDatabase == null || cashbookId == null) {
@@ -165,25 +530,30 @@ public class DataRepository {
             return;
         }
 
-        DatabaseReference transactionsRef = userDatabase.child(Constants.NODE_CASHBOOKS).child(cashbookId).child(Constants.NODE_TRANSACTIONS);
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> addTransaction(cashbookId, transaction, callback), error -> {
+                if (callback != null) callback.onCallback(false);
+            });
+            return;
+        }
+
+        DatabaseReference transactionsRef = transactionsRef(userDatabase, cashbookId);
         String transactionId = transactionsRef.push().getKey();
 
         if (transactionId != null) {
             transaction.setTransactionId(transactionId);
-            transactionsRef.child(transactionId)
-                    .setValue(transaction)
-                    .addOnSuccessListener(aVoid -> {
-                        if (callback != null) callback.onCallback(true);
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Error adding transaction", e);
-                        if (callback != null) callback.onCallback(false);
-                    });
+
+            checkSummary(userDatabase, cashbookId, counted -> {
+                Map<String, Object> updates = transactionUpdates(cashbookId, counted, null, transaction);
+                updates.put(transactionPath(cashbookId, transactionId), transaction);
+                writeTransactionUpdates(userDatabase, cashbookId, counted, updates, "Error adding transaction", callback);
+            });
         } else {
             if (callback != null) callback.onCallback(false);
         }
     }
 
+    @Override
     public void updateTransaction(String cashbookId, TransactionModel transaction, DataCallback<Boolean> callback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
         if (userDatabase == null || cashbookId == null || transaction.getTransactionId() == null) {
@@ -191,18 +561,36 @@ public class DataRepository {
             return;
         }
 
-        userDatabase.child(Constants.NODE_CASHBOOKS).child(cashbookId).child(Constants.NODE_TRANSACTIONS)
-                .child(transaction.getTransactionId())
-                .setValue(transaction)
-                .addOnSuccessListener(aVoid -> {
-                    if (callback != null) callback.onCallback(true);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error updating transaction", e);
-                    if (callback != null) callback.onCallback(false);
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> updateTransaction(cashbookId, transaction, callback), error -> {
+                if (callback != null) callback.onCallback(false);
+            });
+            return;
+        }
+
+        String path = transactionPath(cashbookId, transaction.getTransactionId());
+        // The stored version is needed to turn the edit into summary increments
+        userDatabase.child(path).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                TransactionModel previous = ModelDecoder.decodeTransaction(snapshot);
+
+                checkSummary(userDatabase, cashbookId, counted -> {
+                    Map<String, Object> updates = transactionUpdates(cashbookId, counted, previous, transaction);
+                    updates.put(path, transaction);
+                    writeTransactionUpdates(userDatabase, cashbookId, counted, updates, "Error updating transaction", callback);
                 });
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                Log.e(TAG, "Error reading transaction before update", databaseError.toException());
+                if (callback != null) callback.onCallback(false);
+            }
+        });
     }
 
+    @Override
     public void deleteTransaction(String cashbookId, String transactionId, DataCallback<Boolean> callback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
         if (userDatabase == null || cashbookId == null || transactionId == null) {
@@ -210,19 +598,252 @@ public class DataRepository {
             return;
         }
 
-        userDatabase.child(Constants.NODE_CASHBOOKS).child(cashbookId).child(Constants.NODE_TRANSACTIONS).child(transactionId)
-                .removeValue()
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> deleteTransaction(cashbookId, transactionId, callback), error -> {
+                if (callback != null) callback.onCallback(false);
+            });
+            return;
+        }
+
+        String path = transactionPath(cashbookId, transactionId);
+        userDatabase.child(path).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                TransactionModel previous = ModelDecoder.decodeTransaction(snapshot);
+                if (previous == null) {
+                    // Already gone; nothing to subtract from the summary
+                    if (callback != null) callback.onCallback(true);
+                    return;
+                }
+
+                checkSummary(userDatabase, cashbookId, counted -> {
+                    Map<String, Object> updates = transactionUpdates(cashbookId, counted, previous, null);
+                    updates.put(path, null);
+                    writeTransactionUpdates(userDatabase, cashbookId, counted, updates, "Error deleting transaction", callback);
+                });
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                Log.e(TAG, "Error reading transaction before delete", databaseError.toException());
+                if (callback != null) callback.onCallback(false);
+            }
+        });
+    }
+
+    // --- SUMMARY METHODS ---
+
+    /**
+     * Reads the cashbook's facets node only. Goes through {@link #checkSummary} like a write, so a
+     * cashbook whose summary is due starts its recount, which also rebuilds the facets; one that was
+     * never counted is recounted first, as it has no facets node to read yet.
+     */
+    @Override
+    public void getFacets(String cashbookId, DataCallback<CashbookFacets> callback, ErrorCallback errorCallback) {
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase == null || cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("User not authenticated or cashbook missing.");
+            return;
+        }
+
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> getFacets(cashbookId, callback, errorCallback), errorCallback);
+            return;
+        }
+
+        checkSummary(userDatabase, cashbookId, counted -> {
+            if (counted) {
+                readFacets(userDatabase, cashbookId, callback, errorCallback);
+                return;
+            }
+            recalculateSummary(cashbookId, summary -> readFacets(userDatabase, cashbookId, callback, errorCallback), error -> {
+                Log.w(TAG, "Facet recount failed for " + cashbookId + ": " + error);
+                readFacets(userDatabase, cashbookId, callback, errorCallback);
+            });
+        });
+    }
+
+    private static void readFacets(DatabaseReference userDatabase, String cashbookId,
+                                   DataCallback<CashbookFacets> callback, ErrorCallback errorCallback) {
+        userDatabase.child(Constants.NODE_FACETS).child(cashbookId)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                        callback.onCallback(FacetUpdates.decode(dataSnapshot));
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError databaseError) {
+                        Log.e(TAG, "Error reading facets", databaseError.toException());
+                        if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Repair job: recounts a cashbook's summary and facets from its transactions and overwrites the
+     * stored nodes, stamping the summary's {@code verifiedAt}. Runs for cashbooks whose summary was
+     * never counted and, every {@link Constants#SUMMARY_RECOUNT_INTERVAL_MS}, for the rest, so any
+     * drift from increments is undone; it also clears facet values whose count has dropped to 0.
+     */
+    @Override
+    public void recalculateSummary(String cashbookId, DataCallback<CashbookSummary> callback, ErrorCallback errorCallback) {
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase == null || cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("User not authenticated or cashbook missing.");
+            return;
+        }
+
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> recalculateSummary(cashbookId, callback, errorCallback), errorCallback);
+            return;
+        }
+
+        transactionsRef(userDatabase, cashbookId)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                        List<TransactionModel> transactions = ModelDecoder.decodeTransactions(dataSnapshot);
+                        CashbookSummary summary = summarize(transactions);
+                        Map<String, Object> updates = new HashMap<>();
+                        updates.put(Constants.NODE_SUMMARIES + "/" + cashbookId, summary);
+                        updates.put(Constants.NODE_FACETS + "/" + cashbookId, FacetUpdates.toNode(CashbookFacets.of(transactions)));
+                        userDatabase.updateChildren(updates)
+                                .addOnSuccessListener(aVoid -> {
+                                    countedSummaries.add(cashbookId);
+                                    if (callback != null) callback.onCallback(summary);
+                                })
+                                .addOnFailureListener(e -> {
+                                    Log.e(TAG, "Error writing recalculated summary", e);
+                                    if (errorCallback != null) errorCallback.onError("Failed to update summary");
+                                });
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError databaseError) {
+                        Log.e(TAG, "Error recalculating summary", databaseError.toException());
+                        if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+                    }
+                });
+    }
+
+    // Since schema v2 transactions live in a tree parallel to the cashbook headers
+    private static DatabaseReference transactionsRef(DatabaseReference userDatabase, String cashbookId) {
+        return userDatabase.child(Constants.NODE_TRANSACTIONS).child(cashbookId);
+    }
+
+    private static String transactionPath(String cashbookId, String transactionId) {
+        return Constants.NODE_TRANSACTIONS + "/" + cashbookId + "/" + transactionId;
+    }
+
+    /**
+     * The summary and facet increments for one transaction change, written in the same atomic
+     * multi-path update as the transaction. Left out while the summary is not counted: increments
+     * into a missing summary would create a partial one.
+     * <p>
+     * Edits and deletes take {@code previous} from a read just before the write, so two devices
+     * editing the same row at once can both subtract the same old value. A Firebase transaction
+     * would close that gap but does not survive an offline restart; the periodic recount (see
+     * {@link #checkSummary}) undoes such drift instead.
+     */
+    private static Map<String, Object> transactionUpdates(String cashbookId, boolean counted,
+                                                          TransactionModel previous, TransactionModel current) {
+        if (!counted) return new HashMap<>();
+        Map<String, Object> updates = summaryUpdates(cashbookId, previous, current);
+        updates.putAll(FacetUpdates.increments(cashbookId, previous, current));
+        return updates;
+    }
+
+    private void writeTransactionUpdates(DatabaseReference userDatabase, String cashbookId, boolean counted,
+                                         Map<String, Object> updates, String failure, DataCallback<Boolean> callback) {
+        userDatabase.updateChildren(updates)
                 .addOnSuccessListener(aVoid -> {
+                    // Without increments, the summary and facets are rebuilt from the transactions
+                    if (!counted) recalculateSummary(cashbookId, null,
+                            error -> Log.w(TAG, "Summary recount failed for " + cashbookId + ": " + error));
                     if (callback != null) callback.onCallback(true);
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error deleting transaction", e);
+                    Log.e(TAG, failure, e);
                     if (callback != null) callback.onCallback(false);
                 });
     }
 
+    /**
+     * Tells whether a cashbook's summary holds a full recount ({@code verifiedAt} set) that
+     * increments can build on. Checked once per cashbook and process. A counted summary that is
+     * due for its periodic recount still counts; the recount is started alongside.
+     */
+    private void checkSummary(DatabaseReference userDatabase, String cashbookId, DataCallback<Boolean> callback) {
+        if (countedSummaries.contains(cashbookId)) {
+            callback.onCallback(true);
+            return;
+        }
+
+        userDatabase.child(Constants.NODE_SUMMARIES).child(cashbookId).child(Constants.FIELD_VERIFIED_AT)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                        Long verifiedAt = dataSnapshot.getValue(Long.class);
+                        boolean counted = verifiedAt != null && verifiedAt > 0;
+                        if (counted) {
+                            countedSummaries.add(cashbookId);
+                            if (CashbookSummary.needsRecount(verifiedAt, System.currentTimeMillis())) {
+                                recalculateSummary(cashbookId, null,
+                                        error -> Log.w(TAG, "Summary recount failed for " + cashbookId + ": " + error));
+                            }
+                        }
+                        callback.onCallback(counted);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError databaseError) {
+                        // Treated as uncounted: the write goes without increments and a recount follows
+                        Log.w(TAG, "Could not read summary state", databaseError.toException());
+                        callback.onCallback(false);
+                    }
+                });
+    }
+
+    /**
+     * Builds the increments that move a cashbook's summary from {@code previous} to {@code current}.
+     * Either side may be null for an add or a delete.
+     */
+    private static Map<String, Object> summaryUpdates(String cashbookId, TransactionModel previous, TransactionModel current) {
+        double inDelta = 0, outDelta = 0;
+        long countDelta = 0;
+
+        if (previous != null) {
+            if (isIncome(previous)) inDelta -= previous.getAmount();
+            else outDelta -= previous.getAmount();
+            countDelta--;
+        }
+        if (current != null) {
+            if (isIncome(current)) inDelta += current.getAmount();
+            else outDelta += current.getAmount();
+            countDelta++;
+        }
+
+        String base = Constants.NODE_SUMMARIES + "/" + cashbookId + "/";
+        Map<String, Object> updates = new HashMap<>();
+        if (inDelta != 0) updates.put(base + Constants.FIELD_TOTAL_IN, ServerValue.increment(inDelta));
+        if (outDelta != 0) updates.put(base + Constants.FIELD_TOTAL_OUT, ServerValue.increment(outDelta));
+        if (countDelta != 0) updates.put(base + Constants.FIELD_COUNT, ServerValue.increment(countDelta));
+        updates.put(base + Constants.FIELD_LAST_MODIFIED, ServerValue.TIMESTAMP);
+        return updates;
+    }
+
+    private static CashbookSummary summarize(Collection<TransactionModel> transactions) {
+        return CashbookSummary.of(transactions, System.currentTimeMillis());
+    }
+
+    private static boolean isIncome(TransactionModel transaction) {
+        return Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType());
+    }
+
     // --- CASHBOOK METHODS ---
 
+    @Override
     public void getCashbooks(DataCallback<List<CashbookModel>> callback, ErrorCallback errorCallback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
         if (userDatabase == null) {
@@ -230,19 +851,16 @@ public class DataRepository {
             return;
         }
 
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> getCashbooks(callback, errorCallback), errorCallback);
+            return;
+        }
+
         userDatabase.child(Constants.NODE_CASHBOOKS).addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
                 try {
-                    List<CashbookModel> cashbooks = new ArrayList<>();
-                    for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                        CashbookModel cashbook = snapshot.getValue(CashbookModel.class);
-                        if (cashbook != null) {
-                            cashbook.setCashbookId(snapshot.getKey());
-                            cashbooks.add(cashbook);
-                        }
-                    }
-                    callback.onCallback(cashbooks);
+                    callback.onCallback(ModelDecoder.decodeCashbooks(dataSnapshot));
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing cashbooks", e);
                     if (errorCallback != null) errorCallback.onError("Failed to process cashbook data");
@@ -257,7 +875,8 @@ public class DataRepository {
         });
     }
 
-    public void createNewCashbook(String name, DataCallback<String> callback, ErrorCallback errorCallback) {
+    @Override
+    public void createNewCashbook(String name, String description, DataCallback<String> callback, ErrorCallback errorCallback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
         if (userDatabase == null) {
             if (errorCallback != null) errorCallback.onError("User not authenticated");
@@ -265,6 +884,11 @@ public class DataRepository {
             return;
         }
 
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> createNewCashbook(name, description, callback, errorCallback), errorCallback);
+            return;
+        }
+
         if (name == null || name.trim().isEmpty()) {
             if (errorCallback != null) errorCallback.onError("Cashbook name cannot be empty");
             if (callback != null) callback.onCallback(null);
@@ -273,13 +897,20 @@ public class DataRepository {
 
         String cashbookId = userDatabase.child(Constants.NODE_CASHBOOKS).push().getKey();
         if (cashbookId != null) {
+            long now = System.currentTimeMillis();
             CashbookModel newCashbook = new CashbookModel(cashbookId, name.trim());
+            newCashbook.setDescription(description);
             newCashbook.setUserId(userDatabase.getKey());
-            newCashbook.setCreatedDate(System.currentTimeMillis());
-            newCashbook.setLastModified(System.currentTimeMillis());
+            newCashbook.setCreatedDate(now);
+            newCashbook.setLastModified(now);
 
-            userDatabase.child(Constants.NODE_CASHBOOKS).child(cashbookId).setValue(newCashbook)
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(Constants.NODE_CASHBOOKS + "/" + cashbookId, newCashbook);
+            updates.put(Constants.NODE_SUMMARIES + "/" + cashbookId, summarize(Collections.<TransactionModel>emptyList()));
+
+            userDatabase.updateChildren(updates)
                     .addOnSuccessListener(aVoid -> {
+                        countedSummaries.add(cashbookId);
                         if (callback != null) callback.onCallback(cashbookId);
                     })
                     .addOnFailureListener(e -> {
@@ -293,6 +924,7 @@ public class DataRepository {
         }
     }
 
+    @Override
     public void deleteCashbook(String cashbookId, DataCallback<Boolean> callback, ErrorCallback errorCallback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
         if (userDatabase == null || cashbookId == null) {
@@ -301,7 +933,19 @@ public class DataRepository {
             return;
         }
 
-        userDatabase.child(Constants.NODE_CASHBOOKS).child(cashbookId).removeValue()
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> deleteCashbook(cashbookId, callback, errorCallback), errorCallback);
+            return;
+        }
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(Constants.NODE_CASHBOOKS + "/" + cashbookId, null);
+        updates.put(Constants.NODE_TRANSACTIONS + "/" + cashbookId, null);
+        updates.put(Constants.NODE_SUMMARIES + "/" + cashbookId, null);
+        updates.put(Constants.NODE_FACETS + "/" + cashbookId, null);
+        countedSummaries.remove(cashbookId);
+
+        userDatabase.updateChildren(updates)
                 .addOnSuccessListener(aVoid -> {
                     if (callback != null) callback.onCallback(true);
                 })
@@ -312,6 +956,48 @@ public class DataRepository {
                 });
     }
 
+    /**
+     * Listens to a single cashbook header (name, description, flags).
+     * Unsubscribing removes the listener.
+     */
+    @Override
+    public Subscription subscribeToCashbook(String cashbookId, DataCallback<CashbookModel> callback, ErrorCallback errorCallback) {
+        DatabaseReference userDatabase = getUserDatabaseRef();
+        if (userDatabase == null || cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("User not authenticated or cashbook missing.");
+            return null;
+        }
+
+        if (!isSchemaReady()) {
+            PendingSubscription pending = new PendingSubscription();
+            ensureSchema(migrated -> pending.attach(subscribeToCashbook(cashbookId, callback, errorCallback)), errorCallback);
+            return pending;
+        }
+
+        ValueEventListener listener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                try {
+                    callback.onCallback(ModelDecoder.decodeCashbook(dataSnapshot));
+                } catch (Exception e) {
+                    Log.e(TAG, "Error processing cashbook " + cashbookId, e);
+                    if (errorCallback != null) errorCallback.onError("Failed to process cashbook data");
+                }
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                Log.e(TAG, "Firebase cashbook listener cancelled", databaseError.toException());
+                if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+            }
+        };
+
+        DatabaseReference cashbookRef = userDatabase.child(Constants.NODE_CASHBOOKS).child(cashbookId);
+        cashbookRef.addValueEventListener(listener);
+        return () -> cashbookRef.removeEventListener(listener);
+    }
+
+    @Override
     public void duplicateCashbook(String originalCashbookId, String newName, DataCallback<String> callback, ErrorCallback errorCallback) {
         DatabaseReference userDatabase = getUserDatabaseRef();
         if (userDatabase == null || originalCashbookId == null || newName == null) {
@@ -320,11 +1006,16 @@ public class DataRepository {
             return;
         }
 
+        if (!isSchemaReady()) {
+            ensureSchema(migrated -> duplicateCashbook(originalCashbookId, newName, callback, errorCallback), errorCallback);
+            return;
+        }
+
         userDatabase.child(Constants.NODE_CASHBOOKS).child(originalCashbookId)
                 .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                        CashbookModel originalCashbook = dataSnapshot.getValue(CashbookModel.class);
+                        CashbookModel originalCashbook = ModelDecoder.decodeCashbook(dataSnapshot);
                         if (originalCashbook != null) {
                             String newCashbookId = userDatabase.child(Constants.NODE_CASHBOOKS).push().getKey();
                             if (newCashbookId != null) {
@@ -334,15 +1025,7 @@ public class DataRepository {
                                 originalCashbook.setLastModified(System.currentTimeMillis());
                                 originalCashbook.setCreatedDate(System.currentTimeMillis());
 
-                                userDatabase.child(Constants.NODE_CASHBOOKS).child(newCashbookId).setValue(originalCashbook)
-                                        .addOnSuccessListener(aVoid -> {
-                                            if (callback != null) callback.onCallback(newCashbookId);
-                                        })
-                                        .addOnFailureListener(e -> {
-                                            Log.e(TAG, "Error duplicating cashbook", e);
-                                            if (errorCallback != null) errorCallback.onError("Failed to duplicate cashbook");
-                                            if (callback != null) callback.onCallback(null);
-                                        });
+                                copyCashbookTransactions(userDatabase, originalCashbookId, originalCashbook, callback, errorCallback);
                             } else {
                                 if (errorCallback != null) errorCallback.onError("Failed to generate new cashbook ID");
                                 if (callback != null) callback.onCallback(null);
@@ -362,13 +1045,52 @@ public class DataRepository {
                 });
     }
 
+    private void copyCashbookTransactions(DatabaseReference userDatabase, String originalCashbookId, CashbookModel newCashbook,
+                                          DataCallback<String> callback, ErrorCallback errorCallback) {
+        String newCashbookId = newCashbook.getCashbookId();
+        transactionsRef(userDatabase, originalCashbookId).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                Map<String, TransactionModel> transactions = new HashMap<>();
+                for (TransactionModel transaction : ModelDecoder.decodeTransactions(dataSnapshot)) {
+                    transactions.put(transaction.getTransactionId(), transaction);
+                }
+
+                Map<String, Object> updates = new HashMap<>();
+                updates.put(Constants.NODE_CASHBOOKS + "/" + newCashbookId, newCashbook);
+                updates.put(Constants.NODE_TRANSACTIONS + "/" + newCashbookId, transactions);
+                updates.put(Constants.NODE_SUMMARIES + "/" + newCashbookId, summarize(transactions.values()));
+                updates.put(Constants.NODE_FACETS + "/" + newCashbookId, FacetUpdates.toNode(CashbookFacets.of(transactions.values())));
+
+                userDatabase.updateChildren(updates)
+                        .addOnSuccessListener(aVoid -> {
+                            if (callback != null) callback.onCallback(newCashbookId);
+                        })
+                        .addOnFailureListener(e -> {
+                            Log.e(TAG, "Error duplicating cashbook", e);
+                            if (errorCallback != null) errorCallback.onError("Failed to duplicate cashbook");
+                            if (callback != null) callback.onCallback(null);
+                        });
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                Log.e(TAG, "Error reading transactions to duplicate", databaseError.toException());
+                if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+                if (callback != null) callback.onCallback(null);
+            }
+        });
+    }
+
     // --- UTILITY METHODS ---
 
+    @Override
     public boolean isUserAuthenticated() {
         FirebaseUser currentUser = mAuth.getCurrentUser();
         return currentUser != null;
     }
 
+    @Override
     public String getCurrentUserId() {
         FirebaseUser currentUser = mAuth.getCurrentUser();
         return currentUser != null ? currentUser.getUid() : null;
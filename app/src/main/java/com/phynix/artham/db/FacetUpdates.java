@@ -0,0 +1,132 @@
+package com.phynix.artham.db;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.ServerValue;
+import com.phynix.artham.models.CashbookFacets;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the {@code facets/{cashbookId}} node (see {@link CashbookFacets}).
+ * <p>
+ * Each facet is a map from value to use count. Values become keys, so the characters Firebase
+ * forbids in keys ({@code . $ # [ ] /}, control characters) and '%' itself are percent-encoded.
+ * Transaction writes add increments to the same multi-path update as the transaction; a count
+ * that drops to 0 stays behind as 0 until the node is rebuilt, and readers skip it.
+ */
+final class FacetUpdates {
+
+    private FacetUpdates() {
+    }
+
+    /**
+     * Increments that move the facets from {@code previous} to {@code current}. Either side may be
+     * null for an add or a delete.
+     */
+    static Map<String, Object> increments(String cashbookId, TransactionModel previous, TransactionModel current) {
+        CashbookFacets delta = new CashbookFacets();
+        delta.add(previous, -1);
+        delta.add(current, 1);
+
+        String base = Constants.NODE_FACETS + "/" + cashbookId + "/";
+        Map<String, Object> updates = new HashMap<>();
+        putIncrements(updates, base + Constants.FACET_PARTIES, delta.getParties());
+        putIncrements(updates, base + Constants.FACET_TAGS, delta.getTags());
+        putIncrements(updates, base + Constants.FACET_PAYMENT_MODES, delta.getPaymentModes());
+        putIncrements(updates, base + Constants.FACET_CATEGORIES, delta.getCategories());
+        return updates;
+    }
+
+    /**
+     * The whole node for a set of facets, for rebuilding it.
+     */
+    static Map<String, Object> toNode(CashbookFacets facets) {
+        Map<String, Object> node = new HashMap<>();
+        node.put(Constants.FACET_PARTIES, encode(facets.getParties()));
+        node.put(Constants.FACET_TAGS, encode(facets.getTags()));
+        node.put(Constants.FACET_PAYMENT_MODES, encode(facets.getPaymentModes()));
+        node.put(Constants.FACET_CATEGORIES, encode(facets.getCategories()));
+        return node;
+    }
+
+    static CashbookFacets decode(DataSnapshot snapshot) {
+        return decode(snapshot.getValue());
+    }
+
+    /**
+     * Decodes the node from the plain values {@code DataSnapshot.getValue()} returns.
+     */
+    static CashbookFacets decode(Object raw) {
+        CashbookFacets facets = new CashbookFacets();
+        if (!(raw instanceof Map)) return facets;
+        Map<?, ?> node = (Map<?, ?>) raw;
+        decode(node.get(Constants.FACET_PARTIES), facets.getParties());
+        decode(node.get(Constants.FACET_TAGS), facets.getTags());
+        decode(node.get(Constants.FACET_PAYMENT_MODES), facets.getPaymentModes());
+        decode(node.get(Constants.FACET_CATEGORIES), facets.getCategories());
+        return facets;
+    }
+
+    // --- KEYS ---
+
+    static String encodeKey(String value) {
+        StringBuilder key = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '.' || c == '$' || c == '#' || c == '[' || c == ']' || c == '/' || c < 0x20 || c == 0x7F) {
+                key.append('%').append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    static String decodeKey(String key) {
+        StringBuilder value = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '%' && i + 2 < key.length()) {
+                value.append((char) Integer.parseInt(key.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    private static void putIncrements(Map<String, Object> updates, String path, Map<String, Long> deltas) {
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            updates.put(path + "/" + encodeKey(entry.getKey()), ServerValue.increment(entry.getValue()));
+        }
+    }
+
+    private static Map<String, Object> encode(Map<String, Long> counts) {
+        Map<String, Object> encoded = new HashMap<>();
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (entry.getValue() > 0) encoded.put(encodeKey(entry.getKey()), entry.getValue());
+        }
+        return encoded;
+    }
+
+    private static void decode(Object facet, Map<String, Long> into) {
+        if (facet instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) facet).entrySet()) {
+                if (entry.getValue() instanceof Number) {
+                    into.put(decodeKey(String.valueOf(entry.getKey())), ((Number) entry.getValue()).longValue());
+                }
+            }
+        } else if (facet instanceof List) {
+            // Firebase returns a node keyed mostly by small integers (e.g. parties "1", "2") as a list
+            List<?> values = (List<?>) facet;
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) instanceof Number) into.put(String.valueOf(i), ((Number) values.get(i)).longValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.phynix.artham.db;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.DateTimeUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * HomeSnapshot - What the home screen needs to paint the active cashbook, persisted as a small
+ * binary file so the next launch can show it before Firebase answers.
+ * <p>
+ * Holds the cashbook header fields shown on the balance card, the summary totals, today's
+ * transactions and the most recent {@link Constants#HOME_SNAPSHOT_RECENT_COUNT} transactions.
+ * One file per user; it is replaced atomically after each processed update.
+ */
+public final class HomeSnapshot {
+
+    private static final String TAG = "HomeSnapshot";
+    private static final int MAGIC = 0x41485331; // "AHS1"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int FLAG_TODAY = 1;
+    private static final int FLAG_RECENT = 2;
+
+    private static final int TYPE_IN = 0;
+    private static final int TYPE_OUT = 1;
+    private static final int TYPE_OTHER = 2;
+
+    private final String cashbookId;
+    private final String cashbookName;
+    private final long cashbookLastModified;
+    private final double totalIn;
+    private final double totalOut;
+    private final long savedAt;
+    private final List<TransactionModel> todayTransactions;
+    private final List<TransactionModel> recentTransactions;
+
+    public HomeSnapshot(String cashbookId, String cashbookName, long cashbookLastModified,
+                        double totalIn, double totalOut, long savedAt,
+                        List<TransactionModel> todayTransactions, List<TransactionModel> recentTransactions) {
+        this.cashbookId = cashbookId;
+        this.cashbookName = cashbookName;
+        this.cashbookLastModified = cashbookLastModified;
+        this.totalIn = totalIn;
+        this.totalOut = totalOut;
+        this.savedAt = savedAt;
+        this.todayTransactions = Collections.unmodifiableList(todayTransactions);
+        this.recentTransactions = Collections.unmodifiableList(recentTransactions);
+    }
+
+    public String getCashbookId() { return cashbookId; }
+    public String getCashbookName() { return cashbookName; }
+    public long getCashbookLastModified() { return cashbookLastModified; }
+    public double getTotalIn() { return totalIn; }
+    public double getTotalOut() { return totalOut; }
+    public long getSavedAt() { return savedAt; }
+    public List<TransactionModel> getRecentTransactions() { return recentTransactions; }
+
+    /**
+     * Today's transactions as of when the snapshot was saved.
+     * Check {@link #isSavedToday} before showing them.
+     */
+    public List<TransactionModel> getTodayTransactions() { return todayTransactions; }
+
+    public boolean isSavedToday(long now) {
+        return DateTimeUtils.isSameDay(savedAt, now);
+    }
+
+    // --- FILE STORAGE ---
+
+    /**
+     * Reads the user's snapshot, or returns null if there is none or it cannot be read.
+     * The file is a few KB, so this is cheap enough for the launch path.
+     */
+    public static HomeSnapshot load(Context context, String userId) {
+        File file = fileFor(context, userId);
+        if (file == null || !file.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+
+            String cashbookId = in.readUTF();
+            String cashbookName = readNullable(in);
+            long cashbookLastModified = in.readLong();
+            double totalIn = in.readDouble();
+            double totalOut = in.readDouble();
+            long savedAt = in.readLong();
+
+            int count = in.readInt();
+            List<TransactionModel> today = new ArrayList<>();
+            List<TransactionModel> recent = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int flags = in.readByte();
+                TransactionModel transaction = readTransaction(in);
+                if ((flags & FLAG_TODAY) != 0) today.add(transaction);
+                if ((flags & FLAG_RECENT) != 0) recent.add(transaction);
+            }
+            return new HomeSnapshot(cashbookId, cashbookName, cashbookLastModified, totalIn, totalOut, savedAt, today, recent);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Discarding unreadable home snapshot", e);
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot for a user, replacing the previous one. Call off the main thread.
+     */
+    public static void save(Context context, String userId, HomeSnapshot snapshot) {
+        File file = fileFor(context, userId);
+        if (file == null) return;
+
+        // Today's and the recent transactions mostly overlap; each is written once with flags
+        List<TransactionModel> entries = new ArrayList<>(snapshot.recentTransactions);
+        List<Integer> flags = new ArrayList<>(Collections.nCopies(entries.size(), FLAG_RECENT));
+        for (TransactionModel transaction : snapshot.todayTransactions) {
+            int index = entries.indexOf(transaction);
+            if (index >= 0) {
+                flags.set(index, FLAG_RECENT | FLAG_TODAY);
+            } else {
+                entries.add(transaction);
+                flags.add(FLAG_TODAY);
+            }
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(snapshot.cashbookId);
+            writeNullable(out, snapshot.cashbookName);
+            out.writeLong(snapshot.cashbookLastModified);
+            out.writeDouble(snapshot.totalIn);
+            out.writeDouble(snapshot.totalOut);
+            out.writeLong(snapshot.savedAt);
+
+            out.writeInt(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                out.writeByte(flags.get(i));
+                writeTransaction(out, entries.get(i));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write home snapshot", e);
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Could not replace home snapshot");
+            temp.delete();
+        }
+    }
+
+    public static void clear(Context context, String userId) {
+        File file = fileFor(context, userId);
+        if (file != null) file.delete();
+    }
+
+    private static File fileFor(Context context, String userId) {
+        if (userId == null) return null;
+        return new File(context.getFilesDir(), "home_snapshot_" + userId + ".bin");
+    }
+
+    // --- ENCODING ---
+
+    private static void writeTransaction(DataOutputStream out, TransactionModel transaction) throws IOException {
+        writeNullable(out, transaction.getTransactionId());
+        out.writeLong(transaction.getTimestamp());
+        out.writeDouble(transaction.getAmount());
+
+        String type = transaction.getType();
+        if (Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(type)) {
+            out.writeByte(TYPE_IN);
+        } else if (Constants.TRANSACTION_TYPE_OUT.equalsIgnoreCase(type)) {
+            out.writeByte(TYPE_OUT);
+        } else {
+            out.writeByte(TYPE_OTHER);
+            writeNullable(out, type);
+        }
+
+        writeNullable(out, transaction.getTransactionCategory());
+        writeNullable(out, transaction.getPaymentMode());
+        writeNullable(out, transaction.getPartyName());
+        writeNullable(out, transaction.getRemark());
+        writeNullable(out, transaction.getTags());
+        writeNullable(out, transaction.getLocation());
+        writeNullable(out, transaction.getAttachmentUri());
+    }
+
+    private static TransactionModel readTransaction(DataInputStream in) throws IOException {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setTransactionId(readNullable(in));
+        transaction.setTimestamp(in.readLong());
+        transaction.setAmount(in.readDouble());
+
+        int type = in.readByte();
+        if (type == TYPE_IN) transaction.setType(Constants.TRANSACTION_TYPE_IN);
+        else if (type == TYPE_OUT) transaction.setType(Constants.TRANSACTION_TYPE_OUT);
+        else transaction.setType(readNullable(in));
+
+        transaction.setTransactionCategory(readNullable(in));
+        transaction.setPaymentMode(readNullable(in));
+        transaction.setPartyName(readNullable(in));
+        transaction.setRemark(readNullable(in));
+        transaction.setTags(readNullable(in));
+        transaction.setLocation(readNullable(in));
+        transaction.setAttachmentUri(readNullable(in));
+        return transaction;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
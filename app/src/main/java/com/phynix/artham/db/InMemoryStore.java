@@ -0,0 +1,465 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.CashbookFacets;
+import com.phynix.artham.models.CashbookModel;
+import com.phynix.artham.models.CashbookSummary;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InMemoryStore - A complete {@link TransactionStore} and {@link CashbookStore} that lives in
+ * process, for driving the ViewModels on a plain JVM (tests, load runs, demos).
+ * <p>
+ * Behaves like the Firebase store: models are copied on the way in and out, summaries are kept
+ * in step with every write, and subscribers get an initial load followed by one delta per change.
+ * As with a Firebase listener, each subscription keeps its own index of copies, so nothing a
+ * subscriber holds is shared with the store or with other subscribers.
+ * Callbacks run synchronously on the calling thread; all methods are thread-safe.
+ */
+public class InMemoryStore implements TransactionStore, CashbookStore {
+
+    private final String userId;
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final Map<String, CashbookModel> cashbooks = new LinkedHashMap<>();
+    private final Map<String, SortedTransactionIndex> transactions = new HashMap<>();
+    private final Map<String, CashbookSummary> summaries = new HashMap<>();
+
+    private final Map<String, List<TransactionListener>> transactionListeners = new HashMap<>();
+    private final Map<String, List<DataRepository.DataCallback<CashbookModel>>> cashbookListeners = new HashMap<>();
+
+    private String activeCashbookId;
+
+    public InMemoryStore() {
+        this("local-user");
+    }
+
+    public InMemoryStore(String userId) {
+        this.userId = userId;
+    }
+
+    // --- ACCOUNT ---
+
+    @Override
+    public boolean isUserAuthenticated() {
+        return userId != null;
+    }
+
+    @Override
+    public String getCurrentUserId() {
+        return userId;
+    }
+
+    @Override
+    public void ensureSchema(DataRepository.DataCallback<Boolean> callback, DataRepository.ErrorCallback errorCallback) {
+        callback.onCallback(false);
+    }
+
+    @Override
+    public synchronized void setActiveCashbook(String cashbookId) {
+        activeCashbookId = cashbookId;
+    }
+
+    public synchronized String getActiveCashbookId() {
+        return activeCashbookId;
+    }
+
+    // --- TRANSACTIONS ---
+
+    @Override
+    public Subscription subscribeToTransactionChanges(String cashbookId, DataRepository.TransactionChangeCallback callback,
+                                                      DataRepository.ErrorCallback errorCallback) {
+        if (cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("Cashbook missing.");
+            return () -> { };
+        }
+
+        TransactionListener listener = new TransactionListener(callback);
+        synchronized (this) {
+            transactionListeners.computeIfAbsent(cashbookId, id -> new CopyOnWriteArrayList<>()).add(listener);
+            listener.index.resetTo(copies(transactionsOf(cashbookId)));
+            callback.onInitialLoad(listener.index);
+        }
+        return () -> {
+            synchronized (this) {
+                List<TransactionListener> listeners = transactionListeners.get(cashbookId);
+                if (listeners != null) listeners.remove(listener);
+            }
+        };
+    }
+
+    @Override
+    public void getAllTransactions(String cashbookId, DataRepository.DataCallback<List<TransactionModel>> callback,
+                                   DataRepository.ErrorCallback errorCallback) {
+        List<TransactionModel> result;
+        synchronized (this) {
+            result = copies(transactionsOf(cashbookId));
+        }
+        callback.onCallback(result);
+    }
+
+    @Override
+    public void getTransactionsPage(String cashbookId, TransactionPage.Cursor before, int pageSize,
+                                    DataRepository.DataCallback<TransactionPage> callback, DataRepository.ErrorCallback errorCallback) {
+        List<TransactionModel> page = new ArrayList<>();
+        boolean hasMore = false;
+        synchronized (this) {
+            for (TransactionModel transaction : transactionsOf(cashbookId)) {
+                if (before != null && !isOlderThan(transaction, before)) continue;
+                if (page.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                page.add(copy(transaction));
+            }
+        }
+
+        TransactionPage.Cursor next = null;
+        if (!page.isEmpty()) {
+            TransactionModel oldest = page.get(page.size() - 1);
+            next = new TransactionPage.Cursor(oldest.getTimestamp(), oldest.getTransactionId());
+        }
+        callback.onCallback(new TransactionPage(page, next, hasMore));
+    }
+
+    @Override
+    public void getTransactionsInRange(String cashbookId, long startTime, long endTime,
+                                       DataRepository.DataCallback<List<TransactionModel>> callback,
+                                       DataRepository.ErrorCallback errorCallback) {
+        List<TransactionModel> result = new ArrayList<>();
+        synchronized (this) {
+            for (TransactionModel transaction : transactionsOf(cashbookId)) {
+                if (transaction.getTimestamp() >= startTime && transaction.getTimestamp() <= endTime) {
+                    result.add(copy(transaction));
+                }
+            }
+        }
+        callback.onCallback(result);
+    }
+
+    @Override
+    public void addTransaction(String cashbookId, TransactionModel transaction, DataRepository.DataCallback<Boolean> callback) {
+        if (cashbookId == null || transaction == null) {
+            if (callback != null) callback.onCallback(false);
+            return;
+        }
+
+        synchronized (this) {
+            transaction.setTransactionId(newId());
+            TransactionModel stored = copy(transaction);
+            adjustSummary(cashbookId, null, stored);
+            publish(cashbookId, indexFor(cashbookId).upsert(stored));
+        }
+        if (callback != null) callback.onCallback(true);
+    }
+
+    @Override
+    public void updateTransaction(String cashbookId, TransactionModel transaction, DataRepository.DataCallback<Boolean> callback) {
+        if (cashbookId == null || transaction == null || transaction.getTransactionId() == null) {
+            if (callback != null) callback.onCallback(false);
+            return;
+        }
+
+        synchronized (this) {
+            SortedTransactionIndex index = indexFor(cashbookId);
+            TransactionModel stored = copy(transaction);
+            adjustSummary(cashbookId, index.get(stored.getTransactionId()), stored);
+            publish(cashbookId, index.upsert(stored));
+        }
+        if (callback != null) callback.onCallback(true);
+    }
+
+    @Override
+    public void deleteTransaction(String cashbookId, String transactionId, DataRepository.DataCallback<Boolean> callback) {
+        if (cashbookId == null || transactionId == null) {
+            if (callback != null) callback.onCallback(false);
+            return;
+        }
+
+        synchronized (this) {
+            SortedTransactionIndex index = transactions.get(cashbookId);
+            TransactionDelta delta = index != null ? index.remove(transactionId) : null;
+            if (delta != null) {
+                adjustSummary(cashbookId, delta.getPrevious(), null);
+                publish(cashbookId, delta);
+            }
+        }
+        if (callback != null) callback.onCallback(true);
+    }
+
+    // --- CASHBOOKS ---
+
+    @Override
+    public void getCashbooks(DataRepository.DataCallback<List<CashbookModel>> callback, DataRepository.ErrorCallback errorCallback) {
+        List<CashbookModel> result = new ArrayList<>();
+        synchronized (this) {
+            for (CashbookModel cashbook : cashbooks.values()) {
+                result.add(copy(cashbook));
+            }
+        }
+        callback.onCallback(result);
+    }
+
+    @Override
+    public Subscription subscribeToCashbook(String cashbookId, DataRepository.DataCallback<CashbookModel> callback,
+                                            DataRepository.ErrorCallback errorCallback) {
+        if (cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("Cashbook missing.");
+            return () -> { };
+        }
+
+        synchronized (this) {
+            cashbookListeners.computeIfAbsent(cashbookId, id -> new CopyOnWriteArrayList<>()).add(callback);
+            CashbookModel cashbook = cashbooks.get(cashbookId);
+            callback.onCallback(cashbook != null ? copy(cashbook) : null);
+        }
+        return () -> {
+            synchronized (this) {
+                List<DataRepository.DataCallback<CashbookModel>> listeners = cashbookListeners.get(cashbookId);
+                if (listeners != null) listeners.remove(callback);
+            }
+        };
+    }
+
+    @Override
+    public void createNewCashbook(String name, String description, DataRepository.DataCallback<String> callback,
+                                  DataRepository.ErrorCallback errorCallback) {
+        if (name == null || name.trim().isEmpty()) {
+            if (errorCallback != null) errorCallback.onError("Cashbook name cannot be empty");
+            if (callback != null) callback.onCallback(null);
+            return;
+        }
+
+        String cashbookId;
+        synchronized (this) {
+            cashbookId = newId();
+            CashbookModel cashbook = new CashbookModel(cashbookId, name.trim());
+            cashbook.setDescription(description);
+            cashbook.setUserId(userId);
+            putCashbook(cashbook);
+            summaries.put(cashbookId, summarize(new ArrayList<>()));
+        }
+        if (callback != null) callback.onCallback(cashbookId);
+    }
+
+    /**
+     * Stores a header as-is (including its id), e.g. to seed a test scenario.
+     */
+    public void putCashbook(CashbookModel cashbook) {
+        synchronized (this) {
+            cashbooks.put(cashbook.getCashbookId(), copy(cashbook));
+            notifyCashbook(cashbook.getCashbookId());
+        }
+    }
+
+    @Override
+    public void deleteCashbook(String cashbookId, DataRepository.DataCallback<Boolean> callback, DataRepository.ErrorCallback errorCallback) {
+        if (cashbookId == null) {
+            if (errorCallback != null) errorCallback.onError("Invalid request");
+            if (callback != null) callback.onCallback(false);
+            return;
+        }
+
+        synchronized (this) {
+            cashbooks.remove(cashbookId);
+            summaries.remove(cashbookId);
+            SortedTransactionIndex index = transactions.remove(cashbookId);
+            if (index != null) {
+                for (TransactionModel transaction : index.snapshot()) {
+                    publish(cashbookId, index.remove(transaction.getTransactionId()));
+                }
+            }
+            notifyCashbook(cashbookId);
+        }
+        if (callback != null) callback.onCallback(true);
+    }
+
+    @Override
+    public void duplicateCashbook(String originalCashbookId, String newName, DataRepository.DataCallback<String> callback,
+                                  DataRepository.ErrorCallback errorCallback) {
+        String newCashbookId;
+        synchronized (this) {
+            CashbookModel original = originalCashbookId != null ? cashbooks.get(originalCashbookId) : null;
+            if (original == null || newName == null) {
+                if (errorCallback != null) errorCallback.onError("Original cashbook not found");
+                if (callback != null) callback.onCallback(null);
+                return;
+            }
+
+            newCashbookId = newId();
+            CashbookModel duplicate = copy(original);
+            duplicate.setCashbookId(newCashbookId);
+            duplicate.setName(newName.trim());
+            duplicate.setCurrent(false);
+            duplicate.setCreatedDate(System.currentTimeMillis());
+            duplicate.setLastModified(System.currentTimeMillis());
+            putCashbook(duplicate);
+
+            SortedTransactionIndex copyIndex = indexFor(newCashbookId);
+            for (TransactionModel transaction : transactionsOf(originalCashbookId)) {
+                copyIndex.upsert(copy(transaction));
+            }
+            summaries.put(newCashbookId, summarize(copyIndex.snapshot()));
+        }
+        if (callback != null) callback.onCallback(newCashbookId);
+    }
+
+    @Override
+    public void getFacets(String cashbookId, DataRepository.DataCallback<CashbookFacets> callback,
+                          DataRepository.ErrorCallback errorCallback) {
+        CashbookFacets facets;
+        synchronized (this) {
+            // Everything is in memory already, so there is no stored node to keep in step
+            facets = CashbookFacets.of(transactionsOf(cashbookId));
+        }
+        callback.onCallback(facets);
+    }
+
+    @Override
+    public void recalculateSummary(String cashbookId, DataRepository.DataCallback<CashbookSummary> callback,
+                                   DataRepository.ErrorCallback errorCallback) {
+        CashbookSummary summary;
+        synchronized (this) {
+            summary = summarize(transactionsOf(cashbookId));
+            summaries.put(cashbookId, summary);
+        }
+        if (callback != null) callback.onCallback(summary);
+    }
+
+    public synchronized CashbookSummary getSummary(String cashbookId) {
+        CashbookSummary summary = summaries.get(cashbookId);
+        if (summary == null) return null;
+        CashbookSummary copy = new CashbookSummary(summary.getTotalIn(), summary.getTotalOut(), summary.getCount(), summary.getLastModified());
+        copy.setVerifiedAt(summary.getVerifiedAt());
+        return copy;
+    }
+
+    // --- INTERNALS (callers hold the lock) ---
+
+    private String newId() {
+        return "mem-" + nextId.incrementAndGet();
+    }
+
+    private SortedTransactionIndex indexFor(String cashbookId) {
+        return transactions.computeIfAbsent(cashbookId, id -> new SortedTransactionIndex());
+    }
+
+    private List<TransactionModel> transactionsOf(String cashbookId) {
+        SortedTransactionIndex index = transactions.get(cashbookId);
+        return index != null ? index.snapshot() : new ArrayList<>();
+    }
+
+    /**
+     * Replays a change of the store's index on every subscriber's own index, with a fresh copy.
+     */
+    private void publish(String cashbookId, TransactionDelta delta) {
+        List<TransactionListener> listeners = transactionListeners.get(cashbookId);
+        if (listeners == null || delta == null) return;
+        for (TransactionListener listener : listeners) {
+            TransactionDelta own = delta.getTransaction() != null
+                    ? listener.index.upsert(copy(delta.getTransaction()))
+                    : listener.index.remove(delta.getPrevious().getTransactionId());
+            if (own != null) listener.callback.onTransactionChanged(own, listener.index);
+        }
+    }
+
+    private void notifyCashbook(String cashbookId) {
+        List<DataRepository.DataCallback<CashbookModel>> listeners = cashbookListeners.get(cashbookId);
+        if (listeners == null) return;
+        CashbookModel cashbook = cashbooks.get(cashbookId);
+        for (DataRepository.DataCallback<CashbookModel> listener : listeners) {
+            listener.onCallback(cashbook != null ? copy(cashbook) : null);
+        }
+    }
+
+    private void adjustSummary(String cashbookId, TransactionModel previous, TransactionModel current) {
+        CashbookSummary summary = summaries.get(cashbookId);
+        if (summary == null) {
+            summary = new CashbookSummary(0, 0, 0, 0);
+            summaries.put(cashbookId, summary);
+        }
+        if (previous != null) {
+            if (isIncome(previous)) summary.setTotalIn(summary.getTotalIn() - previous.getAmount());
+            else summary.setTotalOut(summary.getTotalOut() - previous.getAmount());
+            summary.setCount(summary.getCount() - 1);
+        }
+        if (current != null) {
+            if (isIncome(current)) summary.setTotalIn(summary.getTotalIn() + current.getAmount());
+            else summary.setTotalOut(summary.getTotalOut() + current.getAmount());
+            summary.setCount(summary.getCount() + 1);
+        }
+        summary.setLastModified(System.currentTimeMillis());
+    }
+
+    // Applied under the same lock as the transactions, so always exact
+    private static CashbookSummary summarize(List<TransactionModel> transactions) {
+        return CashbookSummary.of(transactions, System.currentTimeMillis());
+    }
+
+    private static boolean isIncome(TransactionModel transaction) {
+        return Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType());
+    }
+
+    private static boolean isOlderThan(TransactionModel transaction, TransactionPage.Cursor cursor) {
+        TransactionModel probe = new TransactionModel();
+        probe.setTimestamp(cursor.getTimestamp());
+        probe.setTransactionId(cursor.getKey());
+        return SortedTransactionIndex.NEWEST_FIRST.compare(transaction, probe) > 0;
+    }
+
+    private static List<TransactionModel> copies(List<TransactionModel> source) {
+        List<TransactionModel> result = new ArrayList<>(source.size());
+        for (TransactionModel transaction : source) result.add(copy(transaction));
+        return result;
+    }
+
+    private static final class TransactionListener {
+        final DataRepository.TransactionChangeCallback callback;
+        final SortedTransactionIndex index = new SortedTransactionIndex();
+
+        TransactionListener(DataRepository.TransactionChangeCallback callback) {
+            this.callback = callback;
+        }
+    }
+
+    private static TransactionModel copy(TransactionModel source) {
+        TransactionModel copy = new TransactionModel();
+        copy.setTransactionId(source.getTransactionId());
+        copy.setTransactionCategory(source.getTransactionCategory());
+        copy.setPartyName(source.getPartyName());
+        copy.setAmount(source.getAmount());
+        copy.setType(source.getType());
+        copy.setPaymentMode(source.getPaymentMode());
+        copy.setRemark(source.getRemark());
+        copy.setTimestamp(source.getTimestamp());
+        copy.setTags(source.getTags());
+        copy.setLocation(source.getLocation());
+        copy.setAttachmentUri(source.getAttachmentUri());
+        return copy;
+    }
+
+    private static CashbookModel copy(CashbookModel source) {
+        CashbookModel copy = new CashbookModel();
+        copy.setCashbookId(source.getCashbookId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setTotalBalance(source.getTotalBalance());
+        copy.setTransactionCount(source.getTransactionCount());
+        copy.setCreatedDate(source.getCreatedDate());
+        copy.setLastModified(source.getLastModified());
+        copy.setActive(source.isActive());
+        copy.setCurrent(source.isCurrent());
+        copy.setFavorite(source.isFavorite());
+        copy.setUserId(source.getUserId());
+        copy.setCurrency(source.getCurrency());
+        return copy;
+    }
+}
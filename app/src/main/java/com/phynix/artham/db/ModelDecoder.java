@@ -0,0 +1,132 @@
+package com.phynix.artham.db;
+
+import com.google.firebase.database.DataSnapshot;
+import com.phynix.artham.models.CashbookModel;
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ModelDecoder - Reflection-free mapping from Firebase values to the app models.
+ * <p>
+ * {@code DataSnapshot.getValue(Class)} goes through CustomClassMapper, which inspects the class
+ * and builds a child snapshot per field on every call. Here a list is read with one
+ * {@code getValue()} on the parent node, and every field is copied straight from the returned
+ * maps. Property names match what CustomClassMapper writes, so both paths read the same data.
+ * Values of an unexpected type fall back to the field default instead of throwing.
+ */
+public final class ModelDecoder {
+
+    private ModelDecoder() {
+    }
+
+    // --- TRANSACTIONS ---
+
+    /**
+     * Decodes every child of a transactions node, newest first.
+     */
+    public static List<TransactionModel> decodeTransactions(DataSnapshot parent) {
+        return decodeTransactions(parent.getValue());
+    }
+
+    /**
+     * Decodes the value of a transactions node as returned by {@code DataSnapshot.getValue()}.
+     */
+    static List<TransactionModel> decodeTransactions(Object raw) {
+        List<TransactionModel> transactions = new ArrayList<>();
+        if (raw instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) raw).entrySet()) {
+                TransactionModel transaction = toTransaction(String.valueOf(entry.getKey()), entry.getValue());
+                if (transaction != null) transactions.add(transaction);
+            }
+        }
+        Collections.sort(transactions, SortedTransactionIndex.NEWEST_FIRST);
+        return transactions;
+    }
+
+    /**
+     * Decodes a single transaction node; the id is taken from the snapshot key.
+     */
+    public static TransactionModel decodeTransaction(DataSnapshot snapshot) {
+        return toTransaction(snapshot.getKey(), snapshot.getValue());
+    }
+
+    static TransactionModel toTransaction(String key, Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> fields = (Map<?, ?>) raw;
+
+        TransactionModel transaction = new TransactionModel();
+        transaction.setTransactionId(key);
+        transaction.setTransactionCategory(asString(fields.get("transactionCategory")));
+        transaction.setPartyName(asString(fields.get("partyName")));
+        transaction.setAmount(asDouble(fields.get("amount")));
+        transaction.setType(asString(fields.get("type")));
+        transaction.setPaymentMode(asString(fields.get("paymentMode")));
+        transaction.setRemark(asString(fields.get("remark")));
+        transaction.setTimestamp(asLong(fields.get("timestamp")));
+        transaction.setTags(asString(fields.get("tags")));
+        transaction.setLocation(asString(fields.get("location")));
+        transaction.setAttachmentUri(asString(fields.get("attachmentUri")));
+        return transaction;
+    }
+
+    // --- CASHBOOKS ---
+
+    /**
+     * Decodes every child of a cashbooks node, in key order.
+     */
+    public static List<CashbookModel> decodeCashbooks(DataSnapshot parent) {
+        List<CashbookModel> cashbooks = new ArrayList<>();
+        for (DataSnapshot snapshot : parent.getChildren()) {
+            CashbookModel cashbook = decodeCashbook(snapshot);
+            if (cashbook != null) cashbooks.add(cashbook);
+        }
+        return cashbooks;
+    }
+
+    /**
+     * Decodes a cashbook header; the id is taken from the snapshot key.
+     * Only header fields are read, so v1 nodes that still nest transactions are not walked.
+     */
+    public static CashbookModel decodeCashbook(DataSnapshot snapshot) {
+        if (!snapshot.exists() || !snapshot.hasChildren()) return null;
+
+        CashbookModel cashbook = new CashbookModel();
+        cashbook.setCashbookId(snapshot.getKey());
+        cashbook.setName(asString(snapshot.child("name").getValue()));
+        cashbook.setDescription(asString(snapshot.child("description").getValue()));
+        cashbook.setTotalBalance(asDouble(snapshot.child("totalBalance").getValue()));
+        cashbook.setTransactionCount((int) asLong(snapshot.child("transactionCount").getValue()));
+        cashbook.setCreatedDate(asLong(snapshot.child("createdDate").getValue()));
+        cashbook.setLastModified(asLong(snapshot.child("lastModified").getValue()));
+        cashbook.setActive(asBoolean(snapshot.child("active").getValue()));
+        cashbook.setCurrent(asBoolean(snapshot.child("current").getValue()));
+        cashbook.setFavorite(asBoolean(snapshot.child("favorite").getValue()));
+        cashbook.setUserId(asString(snapshot.child("userId").getValue()));
+        cashbook.setCurrency(asString(snapshot.child("currency").getValue()));
+        return cashbook;
+    }
+
+    // --- VALUE CONVERSION ---
+
+    private static String asString(Object value) {
+        if (value == null || value instanceof String) return (String) value;
+        if (value instanceof Map || value instanceof List) return null;
+        return String.valueOf(value);
+    }
+
+    private static double asDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static boolean asBoolean(Object value) {
+        return value instanceof Boolean && (Boolean) value;
+    }
+}
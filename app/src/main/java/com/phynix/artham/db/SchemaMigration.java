@@ -0,0 +1,156 @@
+package com.phynix.artham.db;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+import com.phynix.artham.models.CashbookFacets;
+import com.phynix.artham.models.CashbookSummary;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upgrades a user's tree to {@link Constants#SCHEMA_VERSION}.
+ * <p>
+ * v1 -> v2 moves {@code cashbooks/{id}/transactions} to {@code transactions/{id}} so that listing
+ * cashbooks only downloads headers. Summaries are rebuilt from the moved data. Each cashbook moves
+ * in its own multi-path update, which keeps every write within the client's size limit and each
+ * cashbook either fully moved or untouched; the version is bumped only once all of them are
+ * acknowledged. A failed run keeps the old version, and the next one picks up the cashbooks that
+ * still have legacy transactions.
+ * <p>
+ * v2 -> v3 backfills {@code facets/{id}} from each cashbook's transactions, one cashbook per update
+ * in the same way. A v1 tree gets its facets while it is being moved.
+ * <p>
+ * The callback fires as soon as the updates are issued: the local cache applies them right away,
+ * so readers don't wait for the server round trip (which never completes while offline). A write
+ * the server rejects later is reported to the error callback.
+ */
+final class SchemaMigration {
+
+    private static final String TAG = "SchemaMigration";
+
+    private SchemaMigration() {
+    }
+
+    static void run(DatabaseReference userDatabase, DataRepository.DataCallback<Boolean> callback, DataRepository.ErrorCallback errorCallback) {
+        userDatabase.child(Constants.NODE_SCHEMA_VERSION).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long version = snapshot.getValue(Long.class);
+                if (version != null && version >= Constants.SCHEMA_VERSION) {
+                    callback.onCallback(false);
+                    return;
+                }
+                if (version != null && version == 2) {
+                    migrateToV3(userDatabase, callback, errorCallback);
+                } else {
+                    migrateToV2(userDatabase, callback, errorCallback);
+                }
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                Log.e(TAG, "Error reading schema version", databaseError.toException());
+                if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+            }
+        });
+    }
+
+    private static void migrateToV2(DatabaseReference userDatabase, DataRepository.DataCallback<Boolean> callback, DataRepository.ErrorCallback errorCallback) {
+        userDatabase.child(Constants.NODE_CASHBOOKS).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                List<Map<String, Object>> writes = new ArrayList<>();
+                for (DataSnapshot cashbook : dataSnapshot.getChildren()) {
+                    DataSnapshot legacyTransactions = cashbook.child(Constants.NODE_TRANSACTIONS);
+                    if (!legacyTransactions.exists()) continue;
+
+                    String cashbookId = cashbook.getKey();
+                    List<TransactionModel> transactions = ModelDecoder.decodeTransactions(legacyTransactions);
+                    Map<String, Object> updates = new HashMap<>();
+                    // Raw values are copied as-is so no field is lost to model mapping
+                    updates.put(Constants.NODE_TRANSACTIONS + "/" + cashbookId, legacyTransactions.getValue());
+                    updates.put(Constants.NODE_CASHBOOKS + "/" + cashbookId + "/" + Constants.NODE_TRANSACTIONS, null);
+                    updates.put(Constants.NODE_SUMMARIES + "/" + cashbookId, CashbookSummary.of(transactions, System.currentTimeMillis()));
+                    updates.put(Constants.NODE_FACETS + "/" + cashbookId, FacetUpdates.toNode(CashbookFacets.of(transactions)));
+                    writes.add(updates);
+                }
+                writeAll(userDatabase, writes, "Migrated", errorCallback);
+                callback.onCallback(true);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                Log.e(TAG, "Error reading cashbooks for migration", databaseError.toException());
+                if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+            }
+        });
+    }
+
+    private static void migrateToV3(DatabaseReference userDatabase, DataRepository.DataCallback<Boolean> callback, DataRepository.ErrorCallback errorCallback) {
+        userDatabase.child(Constants.NODE_TRANSACTIONS).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
+                List<Map<String, Object>> writes = new ArrayList<>();
+                for (DataSnapshot cashbookTransactions : dataSnapshot.getChildren()) {
+                    CashbookFacets facets = CashbookFacets.of(ModelDecoder.decodeTransactions(cashbookTransactions));
+                    Map<String, Object> updates = new HashMap<>();
+                    updates.put(Constants.NODE_FACETS + "/" + cashbookTransactions.getKey(), FacetUpdates.toNode(facets));
+                    writes.add(updates);
+                }
+                writeAll(userDatabase, writes, "Built facets for", errorCallback);
+                callback.onCallback(true);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError databaseError) {
+                Log.e(TAG, "Error reading transactions for migration", databaseError.toException());
+                if (errorCallback != null) errorCallback.onError(databaseError.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Issues one update per cashbook, then the version bump once every one is acknowledged. The
+     * first failure goes to {@code errorCallback}, and the version is left as it was.
+     */
+    private static void writeAll(DatabaseReference userDatabase, List<Map<String, Object>> writes, String action,
+                                 DataRepository.ErrorCallback errorCallback) {
+        AtomicInteger remaining = new AtomicInteger(writes.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        Runnable bumpVersion = () -> userDatabase.child(Constants.NODE_SCHEMA_VERSION).setValue(Constants.SCHEMA_VERSION)
+                .addOnSuccessListener(aVoid -> Log.i(TAG, action + " " + writes.size() + " cashbooks, schema v" + Constants.SCHEMA_VERSION))
+                .addOnFailureListener(e -> fail(failed, e, errorCallback));
+
+        if (writes.isEmpty()) {
+            bumpVersion.run();
+            return;
+        }
+        for (Map<String, Object> updates : writes) {
+            userDatabase.updateChildren(updates)
+                    .addOnSuccessListener(aVoid -> {
+                        if (remaining.decrementAndGet() == 0 && !failed.get()) bumpVersion.run();
+                    })
+                    .addOnFailureListener(e -> fail(failed, e, errorCallback));
+        }
+    }
+
+    private static void fail(AtomicBoolean failed, Exception e, DataRepository.ErrorCallback errorCallback) {
+        Log.e(TAG, "Schema migration failed", e);
+        if (failed.compareAndSet(false, true) && errorCallback != null) {
+            errorCallback.onError("Schema migration failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.phynix.artham.db;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SnapshotDecoder - Runs the reflective DataSnapshot -> model mapping (and any sorting) on a small
+ * bounded pool, then delivers the finished result on the main thread.
+ * <p>
+ * Work submitted under a stream key is conflated latest-wins: while a snapshot for a key is still
+ * waiting, a newer one replaces it instead of queueing behind it, and a result that is overtaken
+ * while decoding is dropped rather than delivered. Pass a null key for one-shot reads that must
+ * always be answered, and {@link #release} a key once its stream ends.
+ */
+final class SnapshotDecoder {
+
+    private static final String TAG = "SnapshotDecoder";
+    private static final int POOL_SIZE = 2;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static volatile SnapshotDecoder INSTANCE;
+
+    interface Decoder<T> {
+        T decode(DataSnapshot snapshot) throws Exception;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Jobs waiting to start, at most one per key
+    private final Map<String, Job<?>> pending = new ConcurrentHashMap<>();
+    // Latest generation submitted per key, used to drop results that were overtaken mid-decode
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private SnapshotDecoder() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "snapshot-decoder-" + threadCount.incrementAndGet());
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    static SnapshotDecoder getInstance() {
+        if (INSTANCE == null) {
+            synchronized (SnapshotDecoder.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new SnapshotDecoder();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Decodes {@code snapshot} off the main thread and hands the result to {@code callback} on the
+     * main thread. Failures go to {@code errorCallback}, also on the main thread.
+     */
+    <T> void decode(String key, DataSnapshot snapshot, Decoder<T> decoder,
+                    DataRepository.DataCallback<T> callback, DataRepository.ErrorCallback errorCallback) {
+        if (key == null) {
+            submit(new Job<>(null, 0, snapshot, decoder, callback, errorCallback));
+            return;
+        }
+
+        long generation = generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        Job<T> job = new Job<>(key, generation, snapshot, decoder, callback, errorCallback);
+        // A job still waiting for this key is simply superseded; only a fresh slot needs a task
+        if (pending.put(key, job) == null) {
+            submit(() -> {
+                Job<?> latest = pending.remove(key);
+                if (latest != null) latest.run();
+            });
+        }
+    }
+
+    /**
+     * Forgets a stream key: a waiting snapshot is dropped, and a result still decoding for it is
+     * never delivered.
+     */
+    void release(String key) {
+        if (key == null) return;
+        pending.remove(key);
+        generations.remove(key);
+    }
+
+    private void submit(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Only reachable if more than QUEUE_CAPACITY distinct reads pile up at once
+            Log.e(TAG, "Decode queue full, running on caller", e);
+            task.run();
+        }
+    }
+
+    private boolean isStale(String key, long generation) {
+        if (key == null) return false;
+        // A keyed job's generation is registered before it runs, so a missing key was released
+        AtomicLong latest = generations.get(key);
+        return latest == null || latest.get() != generation;
+    }
+
+    private final class Job<T> implements Runnable {
+        private final String key;
+        private final long generation;
+        private final DataSnapshot snapshot;
+        private final Decoder<T> decoder;
+        private final DataRepository.DataCallback<T> callback;
+        private final DataRepository.ErrorCallback errorCallback;
+
+        Job(String key, long generation, DataSnapshot snapshot, Decoder<T> decoder,
+            DataRepository.DataCallback<T> callback, DataRepository.ErrorCallback errorCallback) {
+            this.key = key;
+            this.generation = generation;
+            this.snapshot = snapshot;
+            this.decoder = decoder;
+            this.callback = callback;
+            this.errorCallback = errorCallback;
+        }
+
+        @Override
+        public void run() {
+            if (isStale(key, generation)) return;
+            try {
+                T result = decoder.decode(snapshot);
+                mainHandler.post(() -> {
+                    if (!isStale(key, generation)) callback.onCallback(result);
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error decoding snapshot" + (key != null ? " for " + key : ""), e);
+                if (errorCallback != null) {
+                    mainHandler.post(() -> errorCallback.onError("Failed to process transaction data"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SortedTransactionIndex - In-memory, newest-first view of one cashbook's transactions.
+ * Lookups by id are O(1) and positions are found by binary search, so applying a single
+ * child event never re-sorts the whole list.
+ * <p>
+ * The rows are kept in one array so that positions and {@link #snapshot} stay cheap. An add or
+ * remove therefore shifts the rows after it, an O(n) copy that is a single memmove of references
+ * (tens of microseconds at 100k rows); an edit overwrites its slot and only shifts the rows
+ * between its old and new position, none when the timestamp is unchanged.
+ */
+public class SortedTransactionIndex {
+
+    /**
+     * Newest first; ties broken by id, highest first. This is the exact reverse of Firebase's
+     * (timestamp, key) ordering, so a page cursor taken from the last row skips nothing.
+     */
+    public static final Comparator<TransactionModel> NEWEST_FIRST = (t1, t2) -> {
+        int byTime = Long.compare(t2.getTimestamp(), t1.getTimestamp());
+        if (byTime != 0) return byTime;
+        String id1 = t1.getTransactionId() != null ? t1.getTransactionId() : "";
+        String id2 = t2.getTransactionId() != null ? t2.getTransactionId() : "";
+        return id2.compareTo(id1);
+    };
+
+    private final List<TransactionModel> ordered = new ArrayList<>();
+    private final Map<String, TransactionModel> byId = new HashMap<>();
+
+    /**
+     * Inserts or replaces a transaction.
+     * @return the resulting ADDED or CHANGED delta
+     */
+    public TransactionDelta upsert(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        TransactionModel previous = byId.put(id, transaction);
+        if (previous == null) {
+            int position = insertionPoint(transaction);
+            ordered.add(position, transaction);
+            return TransactionDelta.added(transaction, position);
+        }
+
+        int previousPosition = indexOf(previous);
+        // Searched with the old value still in place, so slots after it are one too far
+        int point = insertionPoint(transaction);
+        int position = point > previousPosition ? point - 1 : point;
+        ordered.set(previousPosition, transaction);
+        if (position != previousPosition) {
+            // Rotate only the rows between the two slots by one
+            int from = Math.min(position, previousPosition);
+            int to = Math.max(position, previousPosition) + 1;
+            Collections.rotate(ordered.subList(from, to), position < previousPosition ? 1 : -1);
+        }
+        return TransactionDelta.changed(transaction, previous, position, previousPosition);
+    }
+
+    /**
+     * Removes a transaction by id.
+     * @return the REMOVED delta, or null if the id was unknown
+     */
+    public TransactionDelta remove(String transactionId) {
+        TransactionModel previous = byId.remove(transactionId);
+        if (previous == null) return null;
+
+        int previousPosition = indexOf(previous);
+        ordered.remove(previousPosition);
+        return TransactionDelta.removed(previous, previousPosition);
+    }
+
+    /**
+     * Replaces the contents in one step.
+     * @param sorted transactions already in {@link #NEWEST_FIRST} order
+     */
+    public void resetTo(List<TransactionModel> sorted) {
+        clear();
+        ordered.addAll(sorted);
+        for (TransactionModel transaction : sorted) {
+            byId.put(transaction.getTransactionId(), transaction);
+        }
+    }
+
+    public TransactionModel get(String transactionId) {
+        return byId.get(transactionId);
+    }
+
+    public int size() {
+        return ordered.size();
+    }
+
+    public void clear() {
+        ordered.clear();
+        byId.clear();
+    }
+
+    /** Immutable copy of the current newest-first list. */
+    public List<TransactionModel> snapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(ordered));
+    }
+
+    private int indexOf(TransactionModel transaction) {
+        // The element is known to be present, so binarySearch returns its exact slot
+        return Collections.binarySearch(ordered, transaction, NEWEST_FIRST);
+    }
+
+    private int insertionPoint(TransactionModel transaction) {
+        int index = Collections.binarySearch(ordered, transaction, NEWEST_FIRST);
+        return index >= 0 ? index : -(index + 1);
+    }
+}
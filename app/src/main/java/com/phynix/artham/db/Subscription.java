@@ -0,0 +1,9 @@
+package com.phynix.artham.db;
+
+/**
+ * Handle for a live listener; call {@link #unsubscribe()} to stop receiving updates.
+ * Calling it more than once has no further effect.
+ */
+public interface Subscription {
+    void unsubscribe();
+}
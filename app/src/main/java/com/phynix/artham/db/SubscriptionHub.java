@@ -0,0 +1,219 @@
+package com.phynix.artham.db;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.phynix.artham.models.CashbookModel;
+import com.phynix.artham.utils.Constants;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SubscriptionHub - Shares one live Firebase listener per cashbook path between all screens.
+ * <p>
+ * The first observer of a path attaches the listener; later observers are replayed the latest
+ * value and then receive the same updates. The listener is removed when the last observer
+ * unsubscribes. Each update is decoded once and handed to every observer as the same object;
+ * a change is delivered as its delta plus a list that is only copied if someone reads it.
+ * <p>
+ * Firebase delivers callbacks on the main thread, and subscribe/unsubscribe must be called
+ * from the main thread as well.
+ */
+public final class SubscriptionHub {
+
+    private static final String TAG = "SubscriptionHub";
+    private static volatile SubscriptionHub INSTANCE;
+
+    private final TransactionStore transactionStore;
+    private final CashbookStore cashbookStore;
+    private final Map<String, Channel<?>> channels = new HashMap<>();
+
+    public interface Observer<T> {
+        void onChanged(T value);
+
+        void onError(String error);
+    }
+
+    public SubscriptionHub(TransactionStore transactionStore, CashbookStore cashbookStore) {
+        this.transactionStore = transactionStore;
+        this.cashbookStore = cashbookStore;
+    }
+
+    public static SubscriptionHub getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (SubscriptionHub.class) {
+                if (INSTANCE == null) {
+                    DataRepository repository = DataRepository.getInstance(application);
+                    INSTANCE = new SubscriptionHub(repository, repository);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Observes all transactions of a cashbook. The first value is a full load; later values
+     * carry the {@link TransactionDelta} that produced them.
+     */
+    public Subscription observeTransactions(String cashbookId, Observer<TransactionSnapshot> observer) {
+        String key = channelKey(Constants.NODE_TRANSACTIONS, cashbookId);
+        return subscribe(key, () -> new TransactionChannel(key, cashbookId), observer);
+    }
+
+    /**
+     * Observes a cashbook header. Delivers null if the cashbook does not exist.
+     */
+    public Subscription observeCashbook(String cashbookId, Observer<CashbookModel> observer) {
+        String key = channelKey(Constants.NODE_CASHBOOKS, cashbookId);
+        return subscribe(key, () -> new CashbookChannel(key, cashbookId), observer);
+    }
+
+    /**
+     * Number of observers currently sharing the transactions listener of a cashbook.
+     */
+    public int getObserverCount(String cashbookId) {
+        Channel<?> channel = channels.get(channelKey(Constants.NODE_TRANSACTIONS, cashbookId));
+        return channel != null ? channel.observers.size() : 0;
+    }
+
+    private String channelKey(String node, String cashbookId) {
+        return cashbookStore.getCurrentUserId() + "/" + node + "/" + cashbookId;
+    }
+
+    private interface ChannelFactory<T> {
+        Channel<T> create();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Subscription subscribe(String key, ChannelFactory<T> factory, Observer<T> observer) {
+        Channel<T> channel = (Channel<T>) channels.get(key);
+        boolean created = channel == null;
+        if (created) {
+            channel = factory.create();
+            channels.put(key, channel);
+        }
+
+        channel.observers.add(observer);
+        if (created) {
+            channel.attach();
+        } else if (channel.hasValue) {
+            observer.onChanged(channel.replay(channel.latest));
+        }
+
+        Channel<T> subscribed = channel;
+        boolean[] active = {true};
+        return () -> {
+            if (!active[0]) return;
+            active[0] = false;
+            subscribed.observers.remove(observer);
+            if (subscribed.observers.isEmpty() && channels.get(key) == subscribed) {
+                channels.remove(key);
+                subscribed.detach();
+                Log.d(TAG, "Released listener for " + key);
+            }
+        };
+    }
+
+    private abstract static class Channel<T> {
+        final String key;
+        final List<Observer<T>> observers = new CopyOnWriteArrayList<>();
+        T latest;
+        boolean hasValue;
+
+        Channel(String key) {
+            this.key = key;
+        }
+
+        abstract void attach();
+
+        abstract void detach();
+
+        /**
+         * What a late subscriber receives in place of the latest value.
+         */
+        T replay(T value) {
+            return value;
+        }
+
+        void publish(T value) {
+            latest = value;
+            hasValue = true;
+            for (Observer<T> observer : observers) {
+                observer.onChanged(value);
+            }
+        }
+
+        void fail(String error) {
+            for (Observer<T> observer : observers) {
+                observer.onError(error);
+            }
+        }
+    }
+
+    private final class TransactionChannel extends Channel<TransactionSnapshot> {
+        private final String cashbookId;
+        private Subscription listener;
+        private long version = 0;
+
+        TransactionChannel(String key, String cashbookId) {
+            super(key);
+            this.cashbookId = cashbookId;
+        }
+
+        @Override
+        void attach() {
+            listener = transactionStore.subscribeToTransactionChanges(cashbookId,
+                    new DataRepository.TransactionChangeCallback() {
+                        @Override
+                        public void onInitialLoad(SortedTransactionIndex index) {
+                            publish(new TransactionSnapshot(cashbookId, index.snapshot(), null, ++version));
+                        }
+
+                        @Override
+                        public void onTransactionChanged(TransactionDelta delta, SortedTransactionIndex index) {
+                            // The list is built from the previous one only if an observer reads it
+                            publish(latest != null
+                                    ? new TransactionSnapshot(latest, delta, ++version)
+                                    : new TransactionSnapshot(cashbookId, index.snapshot(), delta, ++version));
+                        }
+                    },
+                    this::fail);
+        }
+
+        @Override
+        void detach() {
+            if (listener != null) listener.unsubscribe();
+            listener = null;
+        }
+
+        @Override
+        TransactionSnapshot replay(TransactionSnapshot value) {
+            // A late subscriber never saw the earlier deltas, so it starts from a full load
+            return value.asFullLoad();
+        }
+    }
+
+    private final class CashbookChannel extends Channel<CashbookModel> {
+        private final String cashbookId;
+        private Subscription listener;
+
+        CashbookChannel(String key, String cashbookId) {
+            super(key);
+            this.cashbookId = cashbookId;
+        }
+
+        @Override
+        void attach() {
+            listener = cashbookStore.subscribeToCashbook(cashbookId, this::publish, this::fail);
+        }
+
+        @Override
+        void detach() {
+            if (listener != null) listener.unsubscribe();
+            listener = null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.phynix.artham.db;
+
+import android.util.Log;
+
+import com.google.firebase.database.DatabaseReference;
+import com.phynix.artham.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SyncPolicy - Decides which parts of the user's tree Firebase keeps mirrored offline.
+ * <p>
+ * Always synced: the cashbook headers and their summaries, which are small and drive the
+ * switcher. Transactions are synced only for the active cashbook. Everything else is fetched on
+ * demand and released from the sync set as soon as it stops being in scope.
+ */
+public final class SyncPolicy {
+
+    private static final String TAG = "SyncPolicy";
+
+    private final DatabaseReference rootRef;
+    // Paths currently kept synced, relative to the database root
+    private final Map<String, DatabaseReference> syncedScopes = new HashMap<>();
+
+    private String userId;
+    private String activeCashbookId;
+
+    SyncPolicy(DatabaseReference rootRef) {
+        this.rootRef = rootRef;
+    }
+
+    /**
+     * Switches the policy to another signed-in user (or none), releasing the previous user's scopes.
+     */
+    synchronized void setUser(String userId) {
+        if (userId == null ? this.userId == null : userId.equals(this.userId)) return;
+        this.userId = userId;
+        activeCashbookId = null;
+        apply();
+    }
+
+    public synchronized void setActiveCashbook(String cashbookId) {
+        activeCashbookId = cashbookId;
+        apply();
+    }
+
+    /**
+     * Paths currently kept synced, for debugging.
+     */
+    public synchronized List<String> getSyncedScopes() {
+        List<String> scopes = new ArrayList<>(syncedScopes.keySet());
+        scopes.sort(null);
+        return scopes;
+    }
+
+    private void apply() {
+        Set<String> desired = new LinkedHashSet<>();
+        if (userId != null) {
+            String userPath = Constants.NODE_USERS + "/" + userId + "/";
+            desired.add(userPath + Constants.NODE_CASHBOOKS);
+            desired.add(userPath + Constants.NODE_SUMMARIES);
+            if (activeCashbookId != null) {
+                desired.add(userPath + Constants.NODE_TRANSACTIONS + "/" + activeCashbookId);
+            }
+        }
+
+        syncedScopes.entrySet().removeIf(scope -> {
+            if (desired.contains(scope.getKey())) return false;
+            scope.getValue().keepSynced(false);
+            return true;
+        });
+        for (String path : desired) {
+            if (!syncedScopes.containsKey(path)) {
+                DatabaseReference ref = rootRef.child(path);
+                ref.keepSynced(true);
+                syncedScopes.put(path, ref);
+            }
+        }
+
+        Log.d(TAG, "Synced scopes: " + syncedScopes.keySet());
+    }
+}
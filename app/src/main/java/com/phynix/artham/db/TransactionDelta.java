@@ -0,0 +1,62 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.TransactionModel;
+
+/**
+ * TransactionDelta - A single incremental change to a cashbook's transaction list.
+ * Positions refer to the newest-first ordering kept by {@link SortedTransactionIndex}.
+ */
+public final class TransactionDelta {
+
+    public enum Type {
+        ADDED,
+        CHANGED,
+        REMOVED
+    }
+
+    private final Type type;
+    private final TransactionModel transaction;
+    private final TransactionModel previous;
+    private final int position;
+    private final int previousPosition;
+
+    private TransactionDelta(Type type, TransactionModel transaction, TransactionModel previous,
+                             int position, int previousPosition) {
+        this.type = type;
+        this.transaction = transaction;
+        this.previous = previous;
+        this.position = position;
+        this.previousPosition = previousPosition;
+    }
+
+    static TransactionDelta added(TransactionModel transaction, int position) {
+        return new TransactionDelta(Type.ADDED, transaction, null, position, -1);
+    }
+
+    static TransactionDelta changed(TransactionModel transaction, TransactionModel previous,
+                                    int position, int previousPosition) {
+        return new TransactionDelta(Type.CHANGED, transaction, previous, position, previousPosition);
+    }
+
+    static TransactionDelta removed(TransactionModel previous, int previousPosition) {
+        return new TransactionDelta(Type.REMOVED, null, previous, -1, previousPosition);
+    }
+
+    public Type getType() { return type; }
+
+    /** The new value. Null for REMOVED. */
+    public TransactionModel getTransaction() { return transaction; }
+
+    /** The value before the change. Null for ADDED. */
+    public TransactionModel getPrevious() { return previous; }
+
+    /** Position of the new value. -1 for REMOVED. */
+    public int getPosition() { return position; }
+
+    /** Position of the old value. -1 for ADDED. */
+    public int getPreviousPosition() { return previousPosition; }
+
+    public boolean isMove() {
+        return type == Type.CHANGED && position != previousPosition;
+    }
+}
@@ -0,0 +1,46 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TransactionPage - One newest-first slice of a cashbook's history, returned by
+ * {@link DataRepository#getTransactionsPage}. Pass {@link #getNextCursor()} back in to fetch
+ * the next (older) page.
+ */
+public final class TransactionPage {
+
+    /** Position in the timestamp ordering; the key breaks ties between equal timestamps. */
+    public static final class Cursor {
+        private final long timestamp;
+        private final String key;
+
+        public Cursor(long timestamp, String key) {
+            this.timestamp = timestamp;
+            this.key = key;
+        }
+
+        public long getTimestamp() { return timestamp; }
+        public String getKey() { return key; }
+    }
+
+    private final List<TransactionModel> transactions;
+    private final Cursor nextCursor;
+    private final boolean hasMore;
+
+    TransactionPage(List<TransactionModel> transactions, Cursor nextCursor, boolean hasMore) {
+        this.transactions = Collections.unmodifiableList(transactions);
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    static TransactionPage empty() {
+        return new TransactionPage(Collections.emptyList(), null, false);
+    }
+
+    public List<TransactionModel> getTransactions() { return transactions; }
+    public Cursor getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return hasMore; }
+}
@@ -0,0 +1,162 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * TransactionSnapshot - An immutable view of one cashbook's transactions at a point in time.
+ * A single instance is shared by every observer of {@link SubscriptionHub}, so the list must
+ * not be modified and the models in it should be treated as read-only.
+ * <p>
+ * A snapshot produced by a delta does not copy the list. It keeps the previous snapshot and its
+ * delta, and builds its own list the first time an element is read. Observers that only fold the
+ * delta into their own state never pay for a copy of the history. Any chain of unread snapshots
+ * is cut after {@link #MAX_PENDING_DELTAS} deltas.
+ */
+public final class TransactionSnapshot {
+
+    // Longest chain of deltas a snapshot may wait on before its list is built eagerly
+    private static final int MAX_PENDING_DELTAS = 64;
+
+    private final String cashbookId;
+    private final TransactionDelta delta;
+    private final long version;
+    private final int size;
+    private final List<TransactionModel> view = new LazyList();
+
+    // Built list, or null until first read; until then previous + delta describe it. Written in
+    // that order (list first, then previous cleared) so a reader never sees both null.
+    private volatile List<TransactionModel> transactions;
+    private volatile TransactionSnapshot previous;
+    private final int pendingDeltas;
+
+    TransactionSnapshot(String cashbookId, List<TransactionModel> transactions, TransactionDelta delta, long version) {
+        this.cashbookId = cashbookId;
+        this.transactions = transactions;
+        this.delta = delta;
+        this.version = version;
+        this.size = transactions.size();
+        this.pendingDeltas = 0;
+    }
+
+    /**
+     * The snapshot after {@code delta} was applied to {@code previous}; its list is built lazily.
+     */
+    TransactionSnapshot(TransactionSnapshot previous, TransactionDelta delta, long version) {
+        this.cashbookId = previous.cashbookId;
+        this.delta = delta;
+        this.version = version;
+        this.size = previous.size
+                + (delta.getTransaction() != null ? 1 : 0)
+                - (delta.getPrevious() != null ? 1 : 0);
+        this.previous = previous;
+        this.pendingDeltas = previous.transactions != null ? 1 : previous.pendingDeltas + 1;
+        if (pendingDeltas >= MAX_PENDING_DELTAS) materialize();
+    }
+
+    public String getCashbookId() {
+        return cashbookId;
+    }
+
+    /**
+     * Newest first, unmodifiable. {@code size()} is free; the first element read builds the list.
+     */
+    public List<TransactionModel> getTransactions() {
+        return view;
+    }
+
+    /**
+     * The change that produced this snapshot, or null for a full load.
+     */
+    public TransactionDelta getDelta() {
+        return delta;
+    }
+
+    /**
+     * Increases by one for every change delivered on the same subscription.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isFullLoad() {
+        return delta == null;
+    }
+
+    TransactionSnapshot asFullLoad() {
+        return delta == null ? this : new TransactionSnapshot(cashbookId, materialize(), null, version);
+    }
+
+    private synchronized List<TransactionModel> materialize() {
+        List<TransactionModel> built = transactions;
+        if (built != null) return built;
+
+        // Walk back to the nearest built list, then replay the deltas since, oldest first
+        Deque<TransactionDelta> deltas = new ArrayDeque<>();
+        TransactionSnapshot snapshot = this;
+        List<TransactionModel> base;
+        while (true) {
+            TransactionSnapshot before = snapshot.previous;
+            base = snapshot.transactions;
+            if (base != null) break;
+            deltas.push(snapshot.delta);
+            snapshot = before;
+        }
+
+        List<TransactionModel> list = new ArrayList<>(base);
+        for (TransactionDelta change : deltas) {
+            if (change.getPrevious() != null) list.remove(change.getPreviousPosition());
+            if (change.getTransaction() != null) list.add(change.getPosition(), change.getTransaction());
+        }
+        built = Collections.unmodifiableList(list);
+        transactions = built;
+        previous = null;
+        return built;
+    }
+
+    private final class LazyList extends AbstractList<TransactionModel> implements RandomAccess {
+        private List<TransactionModel> list;
+
+        private List<TransactionModel> list() {
+            List<TransactionModel> result = list;
+            if (result == null) {
+                result = materialize();
+                list = result;
+            }
+            return result;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public TransactionModel get(int index) {
+            return list().get(index);
+        }
+
+        @Override
+        public Iterator<TransactionModel> iterator() {
+            return list().iterator();
+        }
+
+        @Override
+        public Object[] toArray() {
+            return list().toArray();
+        }
+
+        @Override
+        public <T> T[] toArray(T[] array) {
+            return list().toArray(array);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.List;
+
+/**
+ * TransactionStore - Read/write access to the transactions of a cashbook.
+ * <p>
+ * {@link DataRepository} is the Firebase-backed implementation used by the app;
+ * {@link InMemoryStore} keeps everything in process for JVM tests and load runs.
+ * Lists are always delivered newest first.
+ */
+public interface TransactionStore {
+
+    /**
+     * Delivers the current transactions once through {@link DataRepository.TransactionChangeCallback#onInitialLoad},
+     * then one delta per add, edit or delete until the subscription is removed.
+     */
+    Subscription subscribeToTransactionChanges(String cashbookId, DataRepository.TransactionChangeCallback callback,
+                                               DataRepository.ErrorCallback errorCallback);
+
+    void getAllTransactions(String cashbookId, DataRepository.DataCallback<List<TransactionModel>> callback,
+                            DataRepository.ErrorCallback errorCallback);
+
+    /**
+     * @param before cursor from the previous page, or null for the most recent page
+     */
+    void getTransactionsPage(String cashbookId, TransactionPage.Cursor before, int pageSize,
+                             DataRepository.DataCallback<TransactionPage> callback, DataRepository.ErrorCallback errorCallback);
+
+    /**
+     * Transactions whose timestamp falls in [startTime, endTime].
+     */
+    void getTransactionsInRange(String cashbookId, long startTime, long endTime,
+                                DataRepository.DataCallback<List<TransactionModel>> callback, DataRepository.ErrorCallback errorCallback);
+
+    /**
+     * Assigns a new id to {@code transaction} and stores it.
+     */
+    void addTransaction(String cashbookId, TransactionModel transaction, DataRepository.DataCallback<Boolean> callback);
+
+    void updateTransaction(String cashbookId, TransactionModel transaction, DataRepository.DataCallback<Boolean> callback);
+
+    void deleteTransaction(String cashbookId, String transactionId, DataRepository.DataCallback<Boolean> callback);
+}
@@ -28,12 +28,13 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 import com.phynix.artham.R;
 import com.phynix.artham.adapters.CashbookAdapter;
+import com.phynix.artham.db.ModelDecoder;
+import com.phynix.artham.index.CashbookSearch;
 import com.phynix.artham.models.CashbookModel;
 import com.phynix.artham.utils.ErrorHandler;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class CashbookSwitchDialog extends DialogFragment {
 
@@ -49,6 +50,7 @@ public class CashbookSwitchDialog extends DialogFragment {
 
     private CashbookAdapter adapter;
     private final List<CashbookModel> allCashbooks = new ArrayList<>();
+    private final CashbookSearch cashbookSearch = new CashbookSearch(true);
     private String currentCashbookId;
 
     private OnCashbookSelectedListener listener;
@@ -195,9 +197,8 @@ public class CashbookSwitchDialog extends DialogFragment {
 
                         for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
                             try {
-                                CashbookModel cashbook = snapshot.getValue(CashbookModel.class);
+                                CashbookModel cashbook = ModelDecoder.decodeCashbook(snapshot);
                                 if (cashbook != null) {
-                                    cashbook.setCashbookId(snapshot.getKey());
                                     // Set 'current' status for visual checkmark in adapter
                                     cashbook.setCurrent(cashbook.getCashbookId().equals(currentCashbookId));
                                     allCashbooks.add(cashbook);
@@ -207,6 +208,7 @@ public class CashbookSwitchDialog extends DialogFragment {
                             }
                         }
 
+                        cashbookSearch.setCashbooks(allCashbooks);
                         showLoading(false);
                         if (allCashbooks.isEmpty()) {
                             showEmptyState(true);
@@ -227,30 +229,8 @@ public class CashbookSwitchDialog extends DialogFragment {
     }
 
     private void filterCashbooks(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            adapter.updateCashbooks(allCashbooks);
-            return;
-        }
-
-        String lowerQuery = query.toLowerCase().trim();
-
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            List<CashbookModel> filtered = allCashbooks.stream()
-                    .filter(cashbook -> (cashbook.getName() != null && cashbook.getName().toLowerCase().contains(lowerQuery)) ||
-                            (cashbook.getDescription() != null && cashbook.getDescription().toLowerCase().contains(lowerQuery)))
-                    .collect(Collectors.toList());
-            adapter.updateCashbooks(filtered);
-        } else {
-            // Fallback for older Android versions
-            List<CashbookModel> filtered = new ArrayList<>();
-            for (CashbookModel cashbook : allCashbooks) {
-                if ((cashbook.getName() != null && cashbook.getName().toLowerCase().contains(lowerQuery)) ||
-                        (cashbook.getDescription() != null && cashbook.getDescription().toLowerCase().contains(lowerQuery))) {
-                    filtered.add(cashbook);
-                }
-            }
-            adapter.updateCashbooks(filtered);
-        }
+        // Names and descriptions were normalized once on load; typing narrows the previous matches
+        adapter.updateCashbooks(cashbookSearch.search(query));
     }
 
     private void showLoading(boolean show) {
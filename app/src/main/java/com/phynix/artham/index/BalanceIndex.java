@@ -0,0 +1,187 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.DateTimeUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BalanceIndex - Running balance of one cashbook, answering "balance at time t" and "net flow
+ * in [a, b]" without walking the history.
+ * <p>
+ * The net amount of each local epoch day is kept in a Fenwick tree, so the balance at the end of
+ * any day is an O(log d) prefix query for d days, and an add, edit or delete is an O(log d) point
+ * update wherever its day falls - a back-dated entry costs the same as today's. A query inside a
+ * day adds that day's earlier transactions, found by binary search in the newest-first list.
+ * The day range keeps headroom on both sides and is only rebuilt when an entry lands outside it.
+ * <p>
+ * Not thread-safe; {@link IndexRegistry} uses it from the main thread.
+ */
+public final class BalanceIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Day of slot 0; slots cover [baseDay, baseDay + capacity)
+    private long baseDay;
+    private boolean empty = true;
+    private double[] dayNet = new double[0];
+    // 1-based Fenwick tree over dayNet
+    private double[] tree = new double[1];
+
+    // Newest first, for the part of a day before a given time
+    private List<TransactionModel> transactions = Collections.emptyList();
+
+    /**
+     * Rebuilds the index from a full, newest-first list.
+     */
+    public void reset(List<TransactionModel> newestFirst) {
+        transactions = newestFirst;
+        empty = newestFirst.isEmpty();
+        if (empty) {
+            dayNet = new double[0];
+            tree = new double[1];
+            return;
+        }
+
+        // Newest first: the last row holds the oldest day
+        long minDay = DateTimeUtils.toEpochDay(newestFirst.get(newestFirst.size() - 1).getTimestamp());
+        long maxDay = DateTimeUtils.toEpochDay(newestFirst.get(0).getTimestamp());
+        allocate(minDay, maxDay, null);
+        for (TransactionModel transaction : newestFirst) {
+            dayNet[slotOf(transaction)] += signedAmount(transaction);
+        }
+        buildTree();
+    }
+
+    /**
+     * Applies one change.
+     * @param newestFirst the list after the change
+     */
+    public void apply(TransactionDelta delta, List<TransactionModel> newestFirst) {
+        transactions = newestFirst;
+        if (delta.getPrevious() != null) add(delta.getPrevious(), -1);
+        if (delta.getTransaction() != null) add(delta.getTransaction(), 1);
+    }
+
+    /**
+     * Balance after every transaction at or before {@code millis}.
+     */
+    public double getBalanceAt(long millis) {
+        if (empty) return 0;
+        long day = DateTimeUtils.toEpochDay(millis);
+        double balance = getClosingBalance(day - 1);
+
+        // Same-day transactions up to millis: skip the later ones, then sum until the day changes
+        int low = 0, high = transactions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactions.get(mid).getTimestamp() > millis) low = mid + 1;
+            else high = mid;
+        }
+        long dayStart = DateTimeUtils.startOfDay(millis);
+        for (int i = low; i < transactions.size(); i++) {
+            TransactionModel transaction = transactions.get(i);
+            if (transaction.getTimestamp() < dayStart) break;
+            balance += signedAmount(transaction);
+        }
+        return balance;
+    }
+
+    /**
+     * Net amount (in minus out) of the transactions in [fromMillis, toMillis].
+     */
+    public double getNetFlow(long fromMillis, long toMillis) {
+        if (toMillis < fromMillis) return 0;
+        return getBalanceAt(toMillis) - getBalanceAt(fromMillis - 1);
+    }
+
+    /**
+     * Balance at the end of a local day.
+     */
+    public double getClosingBalance(long epochDay) {
+        if (empty || epochDay < baseDay) return 0;
+        return prefix((int) Math.min(dayNet.length - 1, epochDay - baseDay));
+    }
+
+    /**
+     * Closing balance of every day in [fromDay, toDay], one entry per day.
+     */
+    public double[] getDailyBalances(long fromDay, long toDay) {
+        if (toDay < fromDay) return new double[0];
+        double[] balances = new double[(int) (toDay - fromDay + 1)];
+        double balance = getClosingBalance(fromDay - 1);
+        for (int i = 0; i < balances.length; i++) {
+            long slot = fromDay + i - baseDay;
+            if (!empty && slot >= 0 && slot < dayNet.length) balance += dayNet[(int) slot];
+            balances[i] = balance;
+        }
+        return balances;
+    }
+
+    private void add(TransactionModel transaction, int sign) {
+        long day = DateTimeUtils.toEpochDay(transaction.getTimestamp());
+        if (empty) {
+            allocate(day, day, null);
+            buildTree();
+            empty = false;
+        } else if (day < baseDay || day >= baseDay + dayNet.length) {
+            // Outside the headroom: re-centre the range, keeping the day totals
+            allocate(Math.min(day, baseDay), Math.max(day, baseDay + dayNet.length - 1), dayNet);
+            buildTree();
+        }
+
+        int slot = (int) (day - baseDay);
+        double amount = sign * signedAmount(transaction);
+        dayNet[slot] += amount;
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += amount;
+        }
+    }
+
+    private double prefix(int slot) {
+        double sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sizes the arrays for [minDay, maxDay] with room to grow on both sides, copying
+     * {@code previous} (indexed from the old base day) into place.
+     */
+    private void allocate(long minDay, long maxDay, double[] previous) {
+        int span = (int) (maxDay - minDay + 1);
+        int capacity = Math.max(INITIAL_CAPACITY, span * 2);
+        long newBase = minDay - (capacity - span) / 2;
+
+        double[] days = new double[capacity];
+        if (previous != null) {
+            System.arraycopy(previous, 0, days, (int) (baseDay - newBase), previous.length);
+        }
+        baseDay = newBase;
+        dayNet = days;
+        tree = new double[capacity + 1];
+    }
+
+    private void buildTree() {
+        // Linear-time construction: push each node's sum to its parent
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += dayNet[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) tree[parent] += tree[i];
+        }
+    }
+
+    private int slotOf(TransactionModel transaction) {
+        return (int) (DateTimeUtils.toEpochDay(transaction.getTimestamp()) - baseDay);
+    }
+
+    private static double signedAmount(TransactionModel transaction) {
+        return Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType())
+                ? transaction.getAmount() : -transaction.getAmount();
+    }
+}
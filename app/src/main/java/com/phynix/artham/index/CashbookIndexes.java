@@ -0,0 +1,162 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.TransactionSnapshot;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * CashbookIndexes - The derived indexes of one cashbook, kept in step with its live transactions.
+ * <p>
+ * Built once from a full load, then updated from each delta. {@link #getVersion()} is the
+ * {@link TransactionSnapshot} version the indexes reflect, so callers can key caches on it.
+ * <p>
+ * {@link IndexRegistry} builds an instance on a background thread and hands it to the main thread
+ * once built; from then on deltas are applied on the main thread. Main-thread code reads freely.
+ * Any other thread reads inside {@link #read}. The main thread never waits for such a reader:
+ * {@link #tryUpdate} gives up while one is active, and the registry retries once it is done.
+ */
+public final class CashbookIndexes {
+
+    private final String cashbookId;
+    private final RollupIndex rollup = new RollupIndex();
+    private final BalanceIndex balance = new BalanceIndex();
+    private final CategoryCube categories = new CategoryCube();
+    private final TextSearchIndex search = new TextSearchIndex();
+    private final FilterBitmapIndex filters = new FilterBitmapIndex();
+    private final TagIndex tags = new TagIndex();
+    private final PartyTrie parties = new PartyTrie();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final FilterResultCache filterResults = new FilterResultCache(Constants.FILTER_CACHE_SIZE);
+    private List<TransactionModel> transactions = Collections.emptyList();
+    private long version = -1;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Run when the last reader leaves; guarded by itself
+    private final List<Runnable> afterReads = new ArrayList<>();
+
+    CashbookIndexes(String cashbookId) {
+        this.cashbookId = cashbookId;
+    }
+
+    /**
+     * Applies a hub update. Full loads, and any gap in the version sequence, rebuild everything.
+     */
+    void update(TransactionSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            apply(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a hub update unless a {@link #read} is in progress on another thread.
+     * @return false if nothing was applied; see {@link #whenNotReading}
+     */
+    boolean tryUpdate(TransactionSnapshot snapshot) {
+        if (!lock.writeLock().tryLock()) return false;
+        try {
+            apply(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Runs {@code action} once no {@link #read} is in progress: right away if none is, otherwise
+     * on the reader's thread as the last one returns.
+     */
+    void whenNotReading(Runnable action) {
+        synchronized (afterReads) {
+            if (lock.getReadLockCount() > 0) {
+                afterReads.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    private void apply(TransactionSnapshot snapshot) {
+        transactions = snapshot.getTransactions();
+        if (snapshot.isFullLoad() || snapshot.getVersion() != version + 1) {
+            rollup.reset(transactions);
+            balance.reset(transactions);
+            categories.reset(transactions);
+            search.reset(transactions);
+            filters.reset(transactions);
+            tags.reset(transactions);
+            parties.reset(transactions);
+            trigrams.reset(transactions);
+        } else {
+            rollup.apply(snapshot.getDelta());
+            balance.apply(snapshot.getDelta(), transactions);
+            categories.apply(snapshot.getDelta());
+            search.apply(snapshot.getDelta());
+            filters.apply(snapshot.getDelta(), transactions);
+            tags.apply(snapshot.getDelta());
+            parties.apply(snapshot.getDelta());
+            trigrams.apply(snapshot.getDelta());
+        }
+        version = snapshot.getVersion();
+    }
+
+    /**
+     * Runs {@code reader} against a consistent version of the indexes, for use off the main thread.
+     */
+    public <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+            runAfterReads();
+        }
+    }
+
+    private void runAfterReads() {
+        List<Runnable> actions;
+        synchronized (afterReads) {
+            if (afterReads.isEmpty() || lock.getReadLockCount() > 0) return;
+            actions = new ArrayList<>(afterReads);
+            afterReads.clear();
+        }
+        for (Runnable action : actions) action.run();
+    }
+
+    public String getCashbookId() { return cashbookId; }
+
+    public long getVersion() { return version; }
+
+    /**
+     * The cashbook's transactions at {@link #getVersion()}, newest first.
+     */
+    public List<TransactionModel> getTransactions() { return transactions; }
+
+    public RollupIndex getRollup() { return rollup; }
+
+    public BalanceIndex getBalance() { return balance; }
+
+    public CategoryCube getCategories() { return categories; }
+
+    public TextSearchIndex getSearch() { return search; }
+
+    public FilterBitmapIndex getFilters() { return filters; }
+
+    public TagIndex getTags() { return tags; }
+
+    public PartyTrie getParties() { return parties; }
+
+    public TrigramIndex getTrigrams() { return trigrams; }
+
+    /**
+     * Recent {@link FilterPlanner} results, valid for {@link #getVersion()}.
+     */
+    public FilterResultCache getFilterResults() { return filterResults; }
+}
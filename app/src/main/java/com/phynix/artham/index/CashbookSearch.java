@@ -0,0 +1,132 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.models.CashbookModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * CashbookSearch - Substring search over the user's cashbooks for the switch screens.
+ * <p>
+ * Each cashbook's searchable text (its name, and optionally its description) is normalized once
+ * with {@link TextSearchIndex#normalize} when the list is set, not on every keystroke. The last
+ * query's matches are kept: a query containing the previous one can only match a subset of them,
+ * so typing further narrows that subset instead of rescanning every cashbook, and repeating a
+ * query (a chip or sort change) costs nothing.
+ * <p>
+ * Not thread-safe; used from the main thread.
+ */
+public final class CashbookSearch {
+
+    private final boolean includeDescription;
+    private final List<Entry> entries = new ArrayList<>();
+
+    private String lastQuery = "";
+    private List<Entry> lastMatches = entries;
+
+    /**
+     * @param includeDescription match descriptions as well as names
+     */
+    public CashbookSearch(boolean includeDescription) {
+        this.includeDescription = includeDescription;
+    }
+
+    /**
+     * Replaces the searchable cashbooks, in the order results should keep.
+     */
+    public void setCashbooks(Collection<CashbookModel> cashbooks) {
+        entries.clear();
+        for (CashbookModel cashbook : cashbooks) {
+            String key = TextSearchIndex.normalize(cashbook.getName());
+            if (includeDescription) {
+                // A separator no query contains, so a match cannot span name and description
+                key = key + '\u0000' + TextSearchIndex.normalize(cashbook.getDescription());
+            }
+            entries.add(new Entry(cashbook, key));
+        }
+        lastQuery = "";
+        lastMatches = entries;
+    }
+
+    /**
+     * The cashbooks whose text contains the query, ignoring case; all of them for a blank query.
+     * The list is the caller's to modify.
+     */
+    public List<CashbookModel> search(String query) {
+        String key = TextSearchIndex.normalize(query).trim();
+        List<Entry> candidates = !lastQuery.isEmpty() && key.contains(lastQuery) ? lastMatches : entries;
+
+        List<Entry> matches;
+        if (key.equals(lastQuery)) {
+            matches = lastMatches;
+        } else if (key.isEmpty()) {
+            matches = entries;
+        } else {
+            matches = new ArrayList<>();
+            for (Entry entry : candidates) {
+                if (entry.key.contains(key)) matches.add(entry);
+            }
+        }
+        lastQuery = key;
+        lastMatches = matches;
+
+        List<CashbookModel> result = new ArrayList<>(matches.size());
+        for (Entry entry : matches) result.add(entry.cashbook);
+        return result;
+    }
+
+    /**
+     * The current cashbook first, then the given sort order ("name_asc", "name_desc", "oldest",
+     * "most_transactions", "balance_high", "balance_low", or "recent", the default), in one
+     * comparator so the list is sorted once.
+     */
+    public static Comparator<CashbookModel> comparator(String sortOrder) {
+        Comparator<CashbookModel> order;
+        switch (sortOrder == null ? "recent" : sortOrder) {
+            case "name_asc":
+                order = (c1, c2) -> compareNames(c1, c2);
+                break;
+            case "name_desc":
+                order = (c1, c2) -> compareNames(c2, c1);
+                break;
+            case "oldest":
+                order = (c1, c2) -> Long.compare(c1.getCreatedDate(), c2.getCreatedDate());
+                break;
+            case "most_transactions":
+                order = (c1, c2) -> Integer.compare(c2.getTransactionCount(), c1.getTransactionCount());
+                break;
+            case "balance_high":
+                order = (c1, c2) -> Double.compare(c2.getTotalBalance(), c1.getTotalBalance());
+                break;
+            case "balance_low":
+                order = (c1, c2) -> Double.compare(c1.getTotalBalance(), c2.getTotalBalance());
+                break;
+            case "recent":
+            default:
+                order = (c1, c2) -> Long.compare(c2.getLastModified(), c1.getLastModified());
+                break;
+        }
+        return (c1, c2) -> {
+            if (c1.isCurrent() != c2.isCurrent()) return c1.isCurrent() ? -1 : 1;
+            return order.compare(c1, c2);
+        };
+    }
+
+    private static int compareNames(CashbookModel c1, CashbookModel c2) {
+        String name1 = c1.getName() != null ? c1.getName() : "";
+        String name2 = c2.getName() != null ? c2.getName() : "";
+        return name1.compareToIgnoreCase(name2);
+    }
+
+    private static final class Entry {
+        final CashbookModel cashbook;
+        final String key;
+
+        Entry(CashbookModel cashbook, String key) {
+            this.cashbook = cashbook;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.DateTimeUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * CategoryCube - Amount per (month, type, category) of one cashbook, shared by every category
+ * breakdown (the transaction screen's pie, expense analytics).
+ * <p>
+ * A delta adjusts at most two cells. Each month slice counts its own changes, and the sorted
+ * category map handed out for it is memoized against that count, so switching months or
+ * redrawing a chart reuses the previous result unless that month actually changed. The
+ * all-months view is memoized against the cube's overall version the same way.
+ * <p>
+ * Months are local calendar months, keyed as {@code year * 12 + month} with a zero-based month
+ * like {@link java.util.Calendar#MONTH}. Not thread-safe; {@link IndexRegistry} uses it from the
+ * main thread.
+ */
+public final class CategoryCube {
+
+    /** Label for transactions without a category; the entry form's default category and its chart color use it too. */
+    public static final String UNCATEGORIZED = "Other";
+
+    private static final int IN = 0;
+    private static final int OUT = 1;
+
+    private final TreeMap<Integer, MonthSlice> months = new TreeMap<>();
+    private long version;
+
+    // All-months view per type, valid while memoVersion matches version
+    private final Object[] monthlyMemo = new Object[2];
+    private final long[] monthlyMemoVersion = {-1, -1};
+
+    public void reset(Collection<TransactionModel> transactions) {
+        months.clear();
+        for (TransactionModel transaction : transactions) {
+            add(transaction, 1);
+        }
+        version++;
+    }
+
+    public void apply(TransactionDelta delta) {
+        if (delta.getPrevious() != null) add(delta.getPrevious(), -1);
+        if (delta.getTransaction() != null) add(delta.getTransaction(), 1);
+        version++;
+    }
+
+    /**
+     * Category totals of one month and type, largest first. The map is shared and unmodifiable.
+     */
+    public Map<String, Double> getCategoryTotals(int monthKey, String type) {
+        MonthSlice slice = months.get(monthKey);
+        if (slice == null) return Collections.emptyMap();
+        return slice.sorted(typeIndex(type));
+    }
+
+    /**
+     * Sum of one month and type.
+     */
+    public double getTotal(int monthKey, String type) {
+        MonthSlice slice = months.get(monthKey);
+        return slice == null ? 0 : slice.types[typeIndex(type)].total;
+    }
+
+    /**
+     * Category totals of every month that has the given type, oldest month first, keyed
+     * "yyyy-MM". The map is shared and unmodifiable.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<String, Double>> getMonthlyTotals(String type) {
+        int index = typeIndex(type);
+        if (monthlyMemoVersion[index] == version) {
+            return (Map<String, Map<String, Double>>) monthlyMemo[index];
+        }
+
+        Map<String, Map<String, Double>> result = new LinkedHashMap<>();
+        for (Map.Entry<Integer, MonthSlice> entry : months.entrySet()) {
+            Map<String, Double> categories = entry.getValue().sorted(index);
+            if (!categories.isEmpty()) result.put(formatMonth(entry.getKey()), categories);
+        }
+        Map<String, Map<String, Double>> memo = Collections.unmodifiableMap(result);
+        monthlyMemo[index] = memo;
+        monthlyMemoVersion[index] = version;
+        return memo;
+    }
+
+    /**
+     * Changes applied so far; moves on every reset and delta.
+     */
+    public long getVersion() { return version; }
+
+    // --- MONTH KEYS ---
+
+    public static int monthKey(int year, int month) {
+        return year * 12 + month;
+    }
+
+    /**
+     * Local calendar month of a timestamp.
+     */
+    public static int monthKeyOf(long millis) {
+        // Civil-from-days on the local epoch day; avoids a Calendar per transaction
+        long z = DateTimeUtils.toEpochDay(millis) + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9); // 1..12
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return monthKey((int) year, month - 1);
+    }
+
+    public static String formatMonth(int monthKey) {
+        return String.format(Locale.US, "%04d-%02d", Math.floorDiv(monthKey, 12), Math.floorMod(monthKey, 12) + 1);
+    }
+
+    /**
+     * Groups an arbitrary list the same way the cube does, for views that show a filtered subset.
+     * Largest first.
+     */
+    public static Map<String, Double> categoryTotalsOf(Collection<TransactionModel> transactions, String type) {
+        int index = typeIndex(type);
+        Map<String, Double> totals = new HashMap<>();
+        for (TransactionModel transaction : transactions) {
+            if (typeIndex(transaction.getType()) != index) continue;
+            totals.merge(categoryOf(transaction), transaction.getAmount(), Double::sum);
+        }
+        return sortDescending(totals);
+    }
+
+    // --- INTERNALS ---
+
+    private void add(TransactionModel transaction, int sign) {
+        int key = monthKeyOf(transaction.getTimestamp());
+        MonthSlice slice = months.get(key);
+        if (slice == null) {
+            if (sign < 0) return;
+            slice = new MonthSlice();
+            months.put(key, slice);
+        }
+        slice.add(typeIndex(transaction.getType()), categoryOf(transaction), sign, transaction.getAmount());
+        if (slice.isEmpty()) months.remove(key);
+    }
+
+    private static int typeIndex(String type) {
+        return Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(type) ? IN : OUT;
+    }
+
+    private static String categoryOf(TransactionModel transaction) {
+        String category = transaction.getTransactionCategory();
+        return (category == null || category.isEmpty()) ? UNCATEGORIZED : category;
+    }
+
+    private static Map<String, Double> sortDescending(Map<String, Double> totals) {
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        Map<String, Double> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : entries) sorted.put(entry.getKey(), entry.getValue());
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    private static final class Cell {
+        double amount;
+        int count;
+    }
+
+    private static final class MonthSlice {
+        final TypeSlice[] types = {new TypeSlice(), new TypeSlice()};
+
+        void add(int type, String category, int sign, double amount) {
+            TypeSlice slice = types[type];
+            Cell cell = slice.cells.get(category);
+            if (cell == null) {
+                if (sign < 0) return;
+                cell = new Cell();
+                slice.cells.put(category, cell);
+            }
+            cell.amount += sign * amount;
+            cell.count += sign;
+            // Drop empty cells so a removed category disappears instead of lingering at ~0
+            if (cell.count <= 0) slice.cells.remove(category);
+            slice.total += sign * amount;
+            if (slice.cells.isEmpty()) slice.total = 0;
+            slice.modCount++;
+        }
+
+        boolean isEmpty() {
+            return types[IN].cells.isEmpty() && types[OUT].cells.isEmpty();
+        }
+
+        Map<String, Double> sorted(int type) {
+            TypeSlice slice = types[type];
+            if (slice.memoModCount != slice.modCount) {
+                Map<String, Double> totalsByCategory = new HashMap<>();
+                for (Map.Entry<String, Cell> entry : slice.cells.entrySet()) {
+                    totalsByCategory.put(entry.getKey(), entry.getValue().amount);
+                }
+                slice.memo = sortDescending(totalsByCategory);
+                slice.memoModCount = slice.modCount;
+            }
+            return slice.memo;
+        }
+    }
+
+    // One type (IN or OUT) of a month
+    private static final class TypeSlice {
+        final Map<String, Cell> cells = new HashMap<>();
+        double total;
+        int modCount;
+        // Sorted view of cells, valid while memoModCount matches modCount
+        Map<String, Double> memo;
+        int memoModCount = -1;
+    }
+}
@@ -0,0 +1,215 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * FilterBitmapIndex - One {@link OrdinalBitmap} per category, payment mode, type and party name,
+ * for the multi-select filters.
+ * <p>
+ * Every transaction gets a small ordinal that stays fixed while it exists (an edit keeps it, a
+ * delete frees it for the next add), so a delta only flips bits in the bitmaps of the old and new
+ * values. {@link #criteria} unions the bitmaps of the values picked within each filter and
+ * intersects across filters; a date range is a slice of the newest-first list found by binary
+ * search. {@link FilterPlanner} decides which of them to walk.
+ * <p>
+ * Values match exactly, except types, which ignore case like the rest of the app.
+ * Not thread-safe; {@link IndexRegistry} changes it on the main thread, and other threads read it
+ * under {@link CashbookIndexes#read}.
+ */
+public final class FilterBitmapIndex {
+
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private TransactionModel[] byOrdinal = new TransactionModel[16];
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private int nextOrdinal;
+
+    private final Map<String, OrdinalBitmap> byCategory = new HashMap<>();
+    private final Map<String, OrdinalBitmap> byPaymentMode = new HashMap<>();
+    private final Map<String, OrdinalBitmap> byType = new HashMap<>();
+    private final Map<String, OrdinalBitmap> byParty = new HashMap<>();
+
+    // Newest first, for date slices
+    private List<TransactionModel> transactions = new ArrayList<>();
+
+    public void reset(List<TransactionModel> newestFirst) {
+        ordinalsById.clear();
+        Arrays.fill(byOrdinal, null);
+        freeCount = 0;
+        nextOrdinal = 0;
+        byCategory.clear();
+        byPaymentMode.clear();
+        byType.clear();
+        byParty.clear();
+        transactions = newestFirst;
+        for (TransactionModel transaction : newestFirst) {
+            add(transaction);
+        }
+    }
+
+    /**
+     * Applies one change.
+     * @param newestFirst the list after the change
+     */
+    public void apply(TransactionDelta delta, List<TransactionModel> newestFirst) {
+        transactions = newestFirst;
+        if (delta.getPrevious() != null) remove(delta.getPrevious());
+        if (delta.getTransaction() != null) add(delta.getTransaction());
+    }
+
+    /**
+     * The transactions in [startDate, endDate], newest first, as a read-only view.
+     */
+    public List<TransactionModel> slice(long startDate, long endDate) {
+        int from = firstAtOrBefore(endDate);
+        return Collections.unmodifiableList(transactions.subList(from, firstBefore(startDate, from)));
+    }
+
+    /**
+     * Number of transactions in [startDate, endDate], by binary search.
+     */
+    public int countInRange(long startDate, long endDate) {
+        int from = firstAtOrBefore(endDate);
+        return firstBefore(startDate, from) - from;
+    }
+
+    /**
+     * The transactions in a result of {@link #criteria}, in no particular order.
+     */
+    public List<TransactionModel> select(OrdinalBitmap criteria) {
+        List<TransactionModel> result = new ArrayList<>(criteria.cardinality());
+        criteria.forEach(ordinal -> result.add(byOrdinal[ordinal]));
+        return result;
+    }
+
+    /**
+     * The ordinals matching every given filter, or null when no filter restricts anything.
+     * @param entryType  "All" or null for any type
+     * @param categories any of these categories; null or empty for any
+     * @param paymentModes any of these payment modes; null or empty for any
+     * @param parties    any of these party names; null or empty for any
+     */
+    public OrdinalBitmap criteria(String entryType, Collection<String> categories, Collection<String> paymentModes,
+                                  Collection<String> parties) {
+        OrdinalBitmap criteria = null;
+        if (entryType != null && !"All".equalsIgnoreCase(entryType)) {
+            criteria = intersect(criteria, union(byType, Collections.singletonList(typeKey(entryType))));
+        }
+        criteria = intersect(criteria, union(byCategory, categories));
+        criteria = intersect(criteria, union(byPaymentMode, paymentModes));
+        criteria = intersect(criteria, union(byParty, parties));
+        return criteria;
+    }
+
+    /**
+     * Whether an indexed transaction is in a result of {@link #criteria}; null criteria match
+     * everything.
+     */
+    public boolean matches(OrdinalBitmap criteria, TransactionModel transaction) {
+        if (criteria == null) return true;
+        Integer ordinal = ordinalsById.get(transaction.getTransactionId());
+        return ordinal != null && criteria.contains(ordinal);
+    }
+
+    // --- QUERY HELPERS ---
+
+    /**
+     * Union of the bitmaps of the given values; null when no values are given.
+     */
+    private static OrdinalBitmap union(Map<String, OrdinalBitmap> bitmaps, Collection<String> values) {
+        if (values == null || values.isEmpty()) return null;
+        OrdinalBitmap union = new OrdinalBitmap();
+        for (String value : values) {
+            OrdinalBitmap bitmap = bitmaps.get(value);
+            if (bitmap != null) union = OrdinalBitmap.or(union, bitmap);
+        }
+        return union;
+    }
+
+    private static OrdinalBitmap intersect(OrdinalBitmap a, OrdinalBitmap b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return OrdinalBitmap.and(a, b);
+    }
+
+    private int firstAtOrBefore(long millis) {
+        int low = 0, high = transactions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactions.get(mid).getTimestamp() > millis) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int firstBefore(long millis, int from) {
+        int low = from, high = transactions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactions.get(mid).getTimestamp() >= millis) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // --- ORDINALS ---
+
+    private void add(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        if (id == null) return;
+        Integer existing = ordinalsById.get(id);
+        if (existing != null) remove(byOrdinal[existing]);
+
+        int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+        if (ordinal >= byOrdinal.length) byOrdinal = Arrays.copyOf(byOrdinal, byOrdinal.length * 2);
+        byOrdinal[ordinal] = transaction;
+        ordinalsById.put(id, ordinal);
+
+        set(byCategory, transaction.getTransactionCategory(), ordinal, true);
+        set(byPaymentMode, transaction.getPaymentMode(), ordinal, true);
+        set(byType, typeKey(transaction.getType()), ordinal, true);
+        set(byParty, transaction.getPartyName(), ordinal, true);
+    }
+
+    private void remove(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        Integer ordinal = id != null ? ordinalsById.remove(id) : null;
+        if (ordinal == null) return;
+        // Clear by the indexed copy's values; the caller's copy may be a different object
+        TransactionModel indexed = byOrdinal[ordinal];
+        byOrdinal[ordinal] = null;
+        if (freeCount == freeOrdinals.length) freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        freeOrdinals[freeCount++] = ordinal;
+
+        set(byCategory, indexed.getTransactionCategory(), ordinal, false);
+        set(byPaymentMode, indexed.getPaymentMode(), ordinal, false);
+        set(byType, typeKey(indexed.getType()), ordinal, false);
+        set(byParty, indexed.getPartyName(), ordinal, false);
+    }
+
+    private static void set(Map<String, OrdinalBitmap> bitmaps, String value, int ordinal, boolean present) {
+        if (value == null) return;
+        if (present) {
+            bitmaps.computeIfAbsent(value, v -> new OrdinalBitmap()).add(ordinal);
+        } else {
+            OrdinalBitmap bitmap = bitmaps.get(value);
+            if (bitmap == null) return;
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) bitmaps.remove(value);
+        }
+    }
+
+    private static String typeKey(String type) {
+        return type == null ? null : type.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,140 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FilterPlanner - Evaluates a {@link FilterQuery} against a cashbook's indexes.
+ * <p>
+ * Every part of the query that an index can answer gets a cheap size estimate: the date range
+ * by binary search, the type/category/payment mode/party filters by their combined bitmap's
+ * cardinality, the text by the postings under its longest word, the tags by their postings.
+ * The smallest one drives: only its rows are visited, and the other parts are checked per row as
+ * residuals, cheapest first. A query with no constraints returns every transaction.
+ * <p>
+ * Runs on the main thread, or elsewhere inside {@link CashbookIndexes#read}.
+ */
+public final class FilterPlanner {
+
+    /** The index that produces the candidate rows. */
+    public enum Driver { ALL, DATE_RANGE, BITMAP, TEXT, TAGS }
+
+    private FilterPlanner() {
+    }
+
+    /**
+     * The chosen driver, its estimated row count, and the filters' bitmap if any.
+     */
+    public static final class Plan {
+        private final Driver driver;
+        private final int estimate;
+        private final OrdinalBitmap criteria;
+
+        Plan(Driver driver, int estimate, OrdinalBitmap criteria) {
+            this.driver = driver;
+            this.estimate = estimate;
+            this.criteria = criteria;
+        }
+
+        public Driver getDriver() { return driver; }
+
+        public int getEstimate() { return estimate; }
+
+        @Override
+        public String toString() {
+            return driver + " (~" + estimate + " rows)";
+        }
+    }
+
+    public static Plan plan(CashbookIndexes indexes, FilterQuery query) {
+        FilterBitmapIndex filters = indexes.getFilters();
+        OrdinalBitmap criteria = filters.criteria(query.getEntryType(), query.getCategories(),
+                query.getPaymentModes(), query.getParties());
+
+        Driver driver = Driver.ALL;
+        int estimate = indexes.getTransactions().size();
+        if (query.hasDateRange()) {
+            int rows = filters.countInRange(query.getStartDate(), query.getEndDate());
+            if (rows < estimate) {
+                driver = Driver.DATE_RANGE;
+                estimate = rows;
+            }
+        }
+        if (criteria != null && criteria.cardinality() < estimate) {
+            driver = Driver.BITMAP;
+            estimate = criteria.cardinality();
+        }
+        if (!query.getWords().isEmpty()) {
+            int rows = indexes.getSearch().estimate(query.getWords());
+            // The estimate is an upper bound that may exceed the row count; without a better driver
+            // the text still drives, as its per-row check is the slowest
+            if (rows < estimate || driver == Driver.ALL) {
+                driver = Driver.TEXT;
+                estimate = rows;
+            }
+        }
+        if (!query.getTagKeys().isEmpty()) {
+            int rows = indexes.getTags().count(query.getTagKeys());
+            if (rows < estimate || driver == Driver.ALL) {
+                driver = Driver.TAGS;
+                estimate = rows;
+            }
+        }
+        return new Plan(driver, estimate, criteria);
+    }
+
+    /**
+     * The transactions matching the query, in no particular order.
+     */
+    public static List<TransactionModel> execute(CashbookIndexes indexes, FilterQuery query) {
+        return execute(indexes, query, plan(indexes, query));
+    }
+
+    public static List<TransactionModel> execute(CashbookIndexes indexes, FilterQuery query, Plan plan) {
+        FilterBitmapIndex filters = indexes.getFilters();
+        TextSearchIndex search = indexes.getSearch();
+        TagIndex tags = indexes.getTags();
+
+        List<TransactionModel> candidates;
+        switch (plan.driver) {
+            case DATE_RANGE:
+                candidates = filters.slice(query.getStartDate(), query.getEndDate());
+                break;
+            case BITMAP:
+                candidates = filters.select(plan.criteria);
+                break;
+            case TEXT:
+                candidates = search.match(query.getWords());
+                break;
+            case TAGS:
+                candidates = tags.match(query.getTagKeys());
+                break;
+            default:
+                candidates = indexes.getTransactions();
+                break;
+        }
+
+        boolean checkDate = plan.driver != Driver.DATE_RANGE && query.hasDateRange();
+        boolean checkCriteria = plan.driver != Driver.BITMAP && plan.criteria != null;
+        boolean checkTags = plan.driver != Driver.TAGS && !query.getTagKeys().isEmpty();
+        boolean checkText = plan.driver != Driver.TEXT && !query.getWords().isEmpty();
+        if (!checkDate && !checkCriteria && !checkTags && !checkText) {
+            // Slices and the full list are views of the shared snapshot; the rest are fresh lists
+            boolean shared = plan.driver == Driver.DATE_RANGE || plan.driver == Driver.ALL;
+            return shared ? new ArrayList<>(candidates) : candidates;
+        }
+
+        List<TransactionModel> result = new ArrayList<>();
+        for (TransactionModel transaction : candidates) {
+            long timestamp = transaction.getTimestamp();
+            if (checkDate && (timestamp < query.getStartDate() || timestamp > query.getEndDate())) continue;
+            if (checkCriteria && !filters.matches(plan.criteria, transaction)) continue;
+            if (checkTags && !tags.hasAny(transaction, query.getTagKeys())) continue;
+            if (checkText && !search.containsWords(transaction, query.getWords())) continue;
+            result.add(transaction);
+        }
+        return result;
+    }
+}
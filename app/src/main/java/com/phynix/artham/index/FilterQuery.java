@@ -0,0 +1,160 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.TagUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * FilterQuery - One transaction filter: text, date range, type, and any-of sets of categories,
+ * payment modes, parties and tags.
+ * <p>
+ * Immutable, and normalized on construction (text tokenized, type upper-cased, tags reduced to
+ * {@link TagUtils#key}s, value lists turned into sets), so two queries selecting the same rows are
+ * equal and can share a {@link FilterResultCache} entry. {@link FilterPlanner} evaluates it
+ * against the indexes; {@link #matches} is the same rule for lists that are not indexed.
+ */
+public final class FilterQuery {
+
+    private final String text;
+    private final List<String> words;
+    private final long startDate;
+    private final long endDate;
+    private final String entryType;
+    private final Set<String> categories;
+    private final Set<String> paymentModes;
+    private final Set<String> parties;
+    private final Set<String> tagKeys;
+
+    /**
+     * @param text         every word must be a prefix of a word in the transaction; null or blank for any
+     * @param startDate    inclusive; 0/0 for any date
+     * @param endDate      inclusive
+     * @param entryType    "All" or null for any type
+     * @param categories   any of these; null or empty for any (likewise payment modes, parties, tags)
+     */
+    public FilterQuery(String text, long startDate, long endDate, String entryType,
+                       Collection<String> categories, Collection<String> paymentModes,
+                       Collection<String> parties, Collection<String> tags) {
+        this.text = text == null ? "" : text.trim();
+        this.words = Collections.unmodifiableList(TextSearchIndex.tokenize(this.text));
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.entryType = entryType == null || "All".equalsIgnoreCase(entryType) ? null : entryType.toUpperCase(Locale.ROOT);
+        this.categories = setOf(categories);
+        this.paymentModes = setOf(paymentModes);
+        this.parties = setOf(parties);
+
+        Set<String> keys = new HashSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag != null) keys.add(TagUtils.key(tag));
+            }
+        }
+        this.tagKeys = Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * This query over [startDate, endDate] instead of its own dates.
+     */
+    public FilterQuery withDateRange(long startDate, long endDate) {
+        return new FilterQuery(this, startDate, endDate);
+    }
+
+    private FilterQuery(FilterQuery query, long startDate, long endDate) {
+        this.text = query.text;
+        this.words = query.words;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.entryType = query.entryType;
+        this.categories = query.categories;
+        this.paymentModes = query.paymentModes;
+        this.parties = query.parties;
+        this.tagKeys = query.tagKeys;
+    }
+
+    public String getText() { return text; }
+
+    /** {@link TextSearchIndex#tokenize} form of the text; empty for any. */
+    public List<String> getWords() { return words; }
+
+    public long getStartDate() { return startDate; }
+
+    public long getEndDate() { return endDate; }
+
+    public boolean hasDateRange() { return !(startDate == 0 && endDate == 0); }
+
+    /** Upper-cased type, or null for any. */
+    public String getEntryType() { return entryType; }
+
+    public Set<String> getCategories() { return categories; }
+
+    public Set<String> getPaymentModes() { return paymentModes; }
+
+    public Set<String> getParties() { return parties; }
+
+    public Set<String> getTagKeys() { return tagKeys; }
+
+    /**
+     * Whether a transaction passes every part of the query, checked field by field.
+     */
+    public boolean matches(TransactionModel transaction) {
+        if (hasDateRange() && (transaction.getTimestamp() < startDate || transaction.getTimestamp() > endDate)) return false;
+        if (entryType != null && !entryType.equalsIgnoreCase(transaction.getType())) return false;
+        if (!categories.isEmpty() && !categories.contains(transaction.getTransactionCategory())) return false;
+        if (!paymentModes.isEmpty() && !paymentModes.contains(transaction.getPaymentMode())) return false;
+        if (!parties.isEmpty() && !parties.contains(transaction.getPartyName())) return false;
+        if (!tagKeys.isEmpty() && !hasAnyTag(transaction)) return false;
+        return words.isEmpty() || TextSearchIndex.matches(transaction, words);
+    }
+
+    private boolean hasAnyTag(TransactionModel transaction) {
+        for (String tag : transaction.getTagList()) {
+            if (tagKeys.contains(TagUtils.key(tag))) return true;
+        }
+        return false;
+    }
+
+    private static Set<String> setOf(Collection<String> values) {
+        Set<String> set = new HashSet<>();
+        if (values != null) {
+            for (String value : values) {
+                if (value != null) set.add(value);
+            }
+        }
+        return set.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FilterQuery)) return false;
+        FilterQuery other = (FilterQuery) o;
+        return startDate == other.startDate
+                && endDate == other.endDate
+                && words.equals(other.words)
+                && Objects.equals(entryType, other.entryType)
+                && categories.equals(other.categories)
+                && paymentModes.equals(other.paymentModes)
+                && parties.equals(other.parties)
+                && tagKeys.equals(other.tagKeys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(words, startDate, endDate, entryType, categories, paymentModes, parties, tagKeys);
+    }
+
+    @Override
+    public String toString() {
+        return "FilterQuery{text='" + text + "', dates=" + startDate + ".." + endDate + ", type=" + entryType
+                + ", categories=" + categories + ", paymentModes=" + paymentModes + ", parties=" + parties
+                + ", tags=" + tagKeys + "}";
+    }
+}
@@ -0,0 +1,50 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FilterResultCache - The most recently used filter results of one cashbook, so switching back
+ * to a filter applied moments ago costs a lookup.
+ * <p>
+ * Entries belong to one {@link CashbookIndexes#getVersion()}; any change to the cashbook moves the
+ * version on and empties the cache, and results computed for an older version are not stored.
+ * Results are shared between callers and must not be modified.
+ * <p>
+ * Not thread-safe; used from the main thread.
+ */
+public final class FilterResultCache {
+
+    private final Map<FilterQuery, List<TransactionModel>> results;
+    private long version = -1;
+
+    public FilterResultCache(int capacity) {
+        // Access order, so the eldest entry is the least recently used
+        results = new LinkedHashMap<FilterQuery, List<TransactionModel>>(capacity + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FilterQuery, List<TransactionModel>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * The cached result of the query at {@code version}, or null.
+     */
+    public List<TransactionModel> get(FilterQuery query, long version) {
+        if (version != this.version) return null;
+        return results.get(query);
+    }
+
+    public void put(FilterQuery query, long version, List<TransactionModel> result) {
+        if (version < this.version) return;
+        if (version > this.version) {
+            results.clear();
+            this.version = version;
+        }
+        results.put(query, result);
+    }
+}
@@ -0,0 +1,240 @@
+package com.phynix.artham.index;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.db.TransactionSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IndexRegistry - Shares one {@link CashbookIndexes} per cashbook between all screens.
+ * <p>
+ * The first observer of a cashbook subscribes to its transactions through the
+ * {@link SubscriptionHub}. Full loads (and any gap in the versions) are indexed from scratch on a
+ * background thread into a new {@link CashbookIndexes}, which replaces the published one on the
+ * main thread; deltas that arrive meanwhile are replayed on it first. Later deltas are applied on
+ * the main thread, where they cost only the changed rows. While a background filter is reading
+ * the indexes, deltas queue up instead of blocking the main thread, and are applied together once
+ * it is done. Observers are told after every change; later observers get the current indexes
+ * right away. The indexes are dropped when the last observer unsubscribes.
+ * <p>
+ * Observing a cashbook downloads and indexes its whole history, so screens that can make do
+ * with a month or the summaries attach only once they need more, or when
+ * {@link #isObserved} says the indexes are already there.
+ * <p>
+ * Like the hub, this must be used from the main thread.
+ */
+public final class IndexRegistry {
+
+    private static final String TAG = "IndexRegistry";
+    private static volatile IndexRegistry INSTANCE;
+
+    // Shared by every registry; its thread exits when idle
+    private static final ThreadPoolExecutor BUILDER = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "index-builder");
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+
+    static {
+        BUILDER.allowCoreThreadTimeOut(true);
+    }
+
+    private final SubscriptionHub subscriptionHub;
+    private final Executor builder;
+    private final Executor mainThread;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public IndexRegistry(SubscriptionHub subscriptionHub) {
+        this(subscriptionHub, BUILDER, new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * @param builder    runs full builds
+     * @param mainThread runs on the thread this registry is used from
+     */
+    IndexRegistry(SubscriptionHub subscriptionHub, Executor builder, Executor mainThread) {
+        this.subscriptionHub = subscriptionHub;
+        this.builder = builder;
+        this.mainThread = mainThread;
+    }
+
+    public static IndexRegistry getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (IndexRegistry.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new IndexRegistry(SubscriptionHub.getInstance(application));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Observes the indexes of a cashbook. The observer is called once the first full load is
+     * indexed and after every change. A rebuild passes a new {@link CashbookIndexes} instance, so
+     * keep the latest one rather than the first.
+     */
+    public Subscription observe(String cashbookId, SubscriptionHub.Observer<CashbookIndexes> observer) {
+        Entry entry = entries.get(cashbookId);
+        boolean created = entry == null;
+        if (created) {
+            entry = new Entry(cashbookId);
+            entries.put(cashbookId, entry);
+        }
+
+        entry.observers.add(observer);
+        if (created) {
+            entry.attach();
+        } else if (entry.indexes != null) {
+            observer.onChanged(entry.indexes);
+        }
+
+        Entry subscribed = entry;
+        boolean[] active = {true};
+        return () -> {
+            if (!active[0]) return;
+            active[0] = false;
+            subscribed.observers.remove(observer);
+            if (subscribed.observers.isEmpty() && entries.get(cashbookId) == subscribed) {
+                entries.remove(cashbookId);
+                subscribed.detach();
+                Log.d(TAG, "Released indexes for " + cashbookId);
+            }
+        };
+    }
+
+    /**
+     * Whether the cashbook already has observers, so another one shares their indexes instead
+     * of starting a download and a build.
+     */
+    public boolean isObserved(String cashbookId) {
+        return entries.containsKey(cashbookId);
+    }
+
+    private final class Entry {
+        final String cashbookId;
+        final List<SubscriptionHub.Observer<CashbookIndexes>> observers = new CopyOnWriteArrayList<>();
+        Subscription upstream;
+        // Published indexes; null until the first build lands
+        CashbookIndexes indexes;
+        // Bumped per build, so only the latest one is published
+        int buildGeneration;
+        boolean building;
+        boolean released;
+        // Deltas not applied yet: received while a build runs, replayed on its result, or while a
+        // background reader held the published indexes
+        final List<TransactionSnapshot> pending = new ArrayList<>();
+        // A retry is scheduled for when the current readers are done
+        boolean waitingForReaders;
+
+        Entry(String cashbookId) {
+            this.cashbookId = cashbookId;
+        }
+
+        void attach() {
+            upstream = subscriptionHub.observeTransactions(cashbookId,
+                    new SubscriptionHub.Observer<TransactionSnapshot>() {
+                        @Override
+                        public void onChanged(TransactionSnapshot snapshot) {
+                            receive(snapshot);
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            for (SubscriptionHub.Observer<CashbookIndexes> observer : observers) {
+                                observer.onError(error);
+                            }
+                        }
+                    });
+        }
+
+        void receive(TransactionSnapshot snapshot) {
+            if (building && !snapshot.isFullLoad()) {
+                pending.add(snapshot);
+            } else if (indexes == null || snapshot.isFullLoad() || snapshot.getVersion() != nextVersion()) {
+                build(snapshot);
+            } else {
+                pending.add(snapshot);
+                drain();
+            }
+        }
+
+        // Version the next delta must carry to follow the published indexes and the queued deltas
+        long nextVersion() {
+            return (pending.isEmpty() ? indexes.getVersion() : pending.get(pending.size() - 1).getVersion()) + 1;
+        }
+
+        /**
+         * Applies the queued deltas to the published indexes, unless a background reader holds
+         * them; then it runs again once the reader is done.
+         */
+        void drain() {
+            if (building || released || indexes == null) return;
+            boolean applied = false;
+            while (!pending.isEmpty()) {
+                if (!indexes.tryUpdate(pending.get(0))) {
+                    if (!waitingForReaders) {
+                        waitingForReaders = true;
+                        indexes.whenNotReading(() -> mainThread.execute(() -> {
+                            waitingForReaders = false;
+                            drain();
+                        }));
+                    }
+                    break;
+                }
+                pending.remove(0);
+                applied = true;
+            }
+            if (applied) publish();
+        }
+
+        void build(TransactionSnapshot snapshot) {
+            int generation = ++buildGeneration;
+            building = true;
+            pending.clear();
+            builder.execute(() -> {
+                long start = System.nanoTime();
+                CashbookIndexes built = new CashbookIndexes(cashbookId);
+                built.update(snapshot);
+                Log.d(TAG, "Indexed " + snapshot.getTransactions().size() + " transactions of " + cashbookId
+                        + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                mainThread.execute(() -> {
+                    if (generation != buildGeneration || released) return; // Superseded or released
+                    building = false;
+                    for (TransactionSnapshot delta : pending) built.update(delta);
+                    pending.clear();
+                    indexes = built;
+                    publish();
+                });
+            });
+        }
+
+        void publish() {
+            for (SubscriptionHub.Observer<CashbookIndexes> observer : observers) {
+                observer.onChanged(indexes);
+            }
+        }
+
+        void detach() {
+            if (upstream != null) upstream.unsubscribe();
+            upstream = null;
+            released = true;
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PartyTrie - Party names of one cashbook in a character trie, with how many transactions use
+ * each, for ranked prefix completion.
+ * <p>
+ * Names are compared in {@link TextSearchIndex#normalize} form, so case and composition do not
+ * split a party in two; suggestions show the spelling most recently written. Every node memoizes
+ * its {@link #TOP_K} most used names below it. A delta changes one or two counts and only marks
+ * the nodes on those names' paths stale, so a completion is a walk down the prefix plus, at
+ * worst, re-merging the children's memos along one path.
+ * <p>
+ * Not thread-safe; {@link IndexRegistry} uses it from the main thread.
+ */
+public final class PartyTrie {
+
+    /** Suggestions memoized per node; longer lists are collected from the subtree. */
+    public static final int TOP_K = 8;
+
+    private static final Comparator<Node> MOST_USED = (a, b) -> {
+        if (a.uses != b.uses) return Integer.compare(b.uses, a.uses);
+        return a.key.compareTo(b.key);
+    };
+
+    private Node root = new Node(null, "");
+    private final Map<String, String> keysById = new HashMap<>();
+
+    public void reset(Collection<TransactionModel> transactions) {
+        root = new Node(null, "");
+        keysById.clear();
+        for (TransactionModel transaction : transactions) {
+            add(transaction);
+        }
+    }
+
+    /**
+     * Rebuilds the trie from use counts per party name, such as the cashbook's facets. It then
+     * knows no transactions, so deltas can add uses but not take them away; replace it instead.
+     */
+    public void resetCounts(Map<String, Long> uses) {
+        root = new Node(null, "");
+        keysById.clear();
+        for (Map.Entry<String, Long> entry : uses.entrySet()) {
+            String key = keyOf(entry.getKey());
+            Long count = entry.getValue();
+            if (key.isEmpty() || count == null || count <= 0) continue;
+            Node node = path(key);
+            node.uses += count.intValue();
+            node.label = entry.getKey().trim();
+            node.invalidate();
+        }
+    }
+
+    public void apply(TransactionDelta delta) {
+        if (delta.getPrevious() != null) remove(delta.getPrevious());
+        if (delta.getTransaction() != null) add(delta.getTransaction());
+    }
+
+    /**
+     * Party names starting with {@code prefix} (every name for an empty prefix), most used first,
+     * then alphabetically.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        Node node = find(TextSearchIndex.normalize(prefix).trim());
+        List<String> labels = new ArrayList<>();
+        if (node == null || limit <= 0) return labels;
+
+        Node[] ranked;
+        if (limit <= TOP_K) {
+            ranked = node.top();
+        } else {
+            List<Node> all = new ArrayList<>();
+            node.collect(all);
+            all.sort(MOST_USED);
+            ranked = all.toArray(new Node[0]);
+        }
+        for (int i = 0; i < ranked.length && i < limit; i++) {
+            labels.add(ranked[i].label);
+        }
+        return labels;
+    }
+
+    /**
+     * Transactions using the party, 0 for an unknown name.
+     */
+    public int getUses(String partyName) {
+        Node node = find(keyOf(partyName));
+        return node == null ? 0 : node.uses;
+    }
+
+    // --- NODES ---
+
+    private void add(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        if (id == null) return;
+        if (keysById.containsKey(id)) remove(transaction);
+
+        String key = keyOf(transaction.getPartyName());
+        if (key.isEmpty()) return;
+        Node node = path(key);
+        node.uses++;
+        node.label = transaction.getPartyName().trim();
+        node.invalidate();
+        keysById.put(id, key);
+    }
+
+    private void remove(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        String key = id != null ? keysById.remove(id) : null;
+        if (key == null) return;
+        Node node = find(key);
+        if (node == null) return;
+        node.uses--;
+        node.invalidate();
+        // Drop branches that no longer lead to a name
+        while (node != root && node.uses <= 0 && node.childCount == 0) {
+            Node parent = node.parent;
+            parent.removeChild(node);
+            node = parent;
+        }
+    }
+
+    // Node of the key, creating the missing ones on the way
+    private Node path(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i), key.substring(0, i + 1));
+        }
+        return node;
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.get(key.charAt(i));
+        }
+        return node;
+    }
+
+    private static String keyOf(String partyName) {
+        return TextSearchIndex.normalize(partyName).trim();
+    }
+
+    private static final class Node {
+        final Node parent;
+        final String key;
+        String label;
+        int uses;
+
+        // Children sorted by character
+        char[] chars = new char[0];
+        Node[] children = new Node[0];
+        int childCount;
+
+        Node[] top;
+
+        Node(Node parent, String key) {
+            this.parent = parent;
+            this.key = key;
+        }
+
+        Node get(char c) {
+            int index = Arrays.binarySearch(chars, 0, childCount, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node child(char c, String childKey) {
+            int index = Arrays.binarySearch(chars, 0, childCount, c);
+            if (index >= 0) return children[index];
+            index = -index - 1;
+            if (childCount == chars.length) {
+                int grown = Math.max(2, childCount * 2);
+                chars = Arrays.copyOf(chars, grown);
+                children = Arrays.copyOf(children, grown);
+            }
+            System.arraycopy(chars, index, chars, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            Node node = new Node(this, childKey);
+            chars[index] = c;
+            children[index] = node;
+            childCount++;
+            return node;
+        }
+
+        void removeChild(Node node) {
+            int index = Arrays.binarySearch(chars, 0, childCount, node.key.charAt(node.key.length() - 1));
+            if (index < 0) return;
+            System.arraycopy(chars, index + 1, chars, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+            invalidate();
+        }
+
+        void invalidate() {
+            for (Node node = this; node != null; node = node.parent) {
+                node.top = null;
+            }
+        }
+
+        /**
+         * The TOP_K most used names in this subtree, merged from the children's memos.
+         */
+        Node[] top() {
+            if (top != null) return top;
+            List<Node> candidates = new ArrayList<>();
+            if (uses > 0) candidates.add(this);
+            for (int i = 0; i < childCount; i++) {
+                candidates.addAll(Arrays.asList(children[i].top()));
+            }
+            candidates.sort(MOST_USED);
+            top = candidates.subList(0, Math.min(TOP_K, candidates.size())).toArray(new Node[0]);
+            return top;
+        }
+
+        void collect(List<Node> into) {
+            if (uses > 0) into.add(this);
+            for (int i = 0; i < childCount; i++) children[i].collect(into);
+        }
+    }
+}
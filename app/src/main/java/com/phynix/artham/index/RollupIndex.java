@@ -0,0 +1,217 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.DateTimeUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * RollupIndex - Per-day in/out/count buckets of one cashbook, with prefix sums for range totals.
+ * <p>
+ * Days are local epoch days ({@link DateTimeUtils#toEpochDay}) stored densely from the oldest
+ * transaction's day. A change touches one bucket in O(1) and invalidates the prefix sums from
+ * that day on; they are extended lazily on the next query, so edits to recent days (the common
+ * case) cost almost nothing. Any day, week, month or custom range is then two prefix lookups.
+ * <p>
+ * Not thread-safe; {@link IndexRegistry} uses it from the main thread.
+ */
+public final class RollupIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Totals over a range of days.
+     */
+    public static final class Totals {
+        public static final Totals EMPTY = new Totals(0, 0, 0);
+
+        private final double totalIn;
+        private final double totalOut;
+        private final int count;
+
+        Totals(double totalIn, double totalOut, int count) {
+            this.totalIn = totalIn;
+            this.totalOut = totalOut;
+            this.count = count;
+        }
+
+        public double getTotalIn() { return totalIn; }
+        public double getTotalOut() { return totalOut; }
+        public double getBalance() { return totalIn - totalOut; }
+        public int getCount() { return count; }
+    }
+
+    // Day of slot 0; slots cover [baseDay, baseDay + capacity)
+    private long baseDay;
+    private boolean empty = true;
+    private double[] dayIn = new double[0];
+    private double[] dayOut = new double[0];
+    private int[] dayCount = new int[0];
+
+    // cumX[i] = sum of dayX[0..i]; valid for i <= validPrefix
+    private double[] cumIn = new double[0];
+    private double[] cumOut = new double[0];
+    private long[] cumCount = new long[0];
+    private int validPrefix = -1;
+    private int lastUsedSlot = -1;
+
+    /**
+     * Rebuilds all buckets from scratch.
+     */
+    public void reset(Collection<TransactionModel> transactions) {
+        empty = true;
+        dayIn = new double[0];
+        dayOut = new double[0];
+        dayCount = new int[0];
+        cumIn = new double[0];
+        cumOut = new double[0];
+        cumCount = new long[0];
+        validPrefix = -1;
+        lastUsedSlot = -1;
+
+        if (transactions.isEmpty()) return;
+        long minDay = Long.MAX_VALUE, maxDay = Long.MIN_VALUE;
+        for (TransactionModel transaction : transactions) {
+            long day = DateTimeUtils.toEpochDay(transaction.getTimestamp());
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+        }
+        ensureRange(minDay, maxDay);
+        for (TransactionModel transaction : transactions) {
+            add(transaction, 1);
+        }
+    }
+
+    public void apply(TransactionDelta delta) {
+        if (delta.getPrevious() != null) add(delta.getPrevious(), -1);
+        if (delta.getTransaction() != null) add(delta.getTransaction(), 1);
+    }
+
+    /**
+     * Totals of a single local day.
+     */
+    public Totals getDay(long epochDay) {
+        return getRange(epochDay, epochDay);
+    }
+
+    /**
+     * Totals over the inclusive day range [fromDay, toDay].
+     */
+    public Totals getRange(long fromDay, long toDay) {
+        if (empty || toDay < fromDay) return Totals.EMPTY;
+        int from = (int) Math.max(0, fromDay - baseDay);
+        int to = (int) Math.min(lastUsedSlot, toDay - baseDay);
+        if (from > to) return Totals.EMPTY;
+
+        extendPrefix(to);
+        double totalIn = cumIn[to];
+        double totalOut = cumOut[to];
+        long count = cumCount[to];
+        if (from > 0) {
+            totalIn -= cumIn[from - 1];
+            totalOut -= cumOut[from - 1];
+            count -= cumCount[from - 1];
+        }
+        return new Totals(totalIn, totalOut, (int) count);
+    }
+
+    /**
+     * Totals over the days touched by [startMillis, endMillis], e.g. a picker range that starts at
+     * 00:00 and ends at 23:59:59.
+     */
+    public Totals getRangeMillis(long startMillis, long endMillis) {
+        return getRange(DateTimeUtils.toEpochDay(startMillis), DateTimeUtils.toEpochDay(endMillis));
+    }
+
+    /**
+     * Totals of everything up to and including {@code epochDay}.
+     */
+    public Totals getUpTo(long epochDay) {
+        return empty ? Totals.EMPTY : getRange(baseDay, epochDay);
+    }
+
+    /**
+     * Oldest day with a bucket, or {@link Long#MIN_VALUE} if the cashbook is empty.
+     */
+    public long getFirstDay() {
+        return empty ? Long.MIN_VALUE : baseDay;
+    }
+
+    /**
+     * Newest day with a bucket, or {@link Long#MIN_VALUE} if the cashbook is empty.
+     */
+    public long getLastDay() {
+        return empty ? Long.MIN_VALUE : baseDay + lastUsedSlot;
+    }
+
+    private void add(TransactionModel transaction, int sign) {
+        long day = DateTimeUtils.toEpochDay(transaction.getTimestamp());
+        ensureRange(day, day);
+        int slot = (int) (day - baseDay);
+
+        if (Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType())) {
+            dayIn[slot] += sign * transaction.getAmount();
+        } else {
+            dayOut[slot] += sign * transaction.getAmount();
+        }
+        dayCount[slot] += sign;
+        lastUsedSlot = Math.max(lastUsedSlot, slot);
+        validPrefix = Math.min(validPrefix, slot - 1);
+    }
+
+    private void extendPrefix(int to) {
+        for (int i = validPrefix + 1; i <= to; i++) {
+            cumIn[i] = dayIn[i] + (i > 0 ? cumIn[i - 1] : 0);
+            cumOut[i] = dayOut[i] + (i > 0 ? cumOut[i - 1] : 0);
+            cumCount[i] = dayCount[i] + (i > 0 ? cumCount[i - 1] : 0);
+        }
+        validPrefix = Math.max(validPrefix, to);
+    }
+
+    /**
+     * Grows the arrays so that [fromDay, toDay] have slots, shifting when an older day appears.
+     */
+    private void ensureRange(long fromDay, long toDay) {
+        if (empty) {
+            baseDay = fromDay;
+            empty = false;
+            allocate(Math.max(INITIAL_CAPACITY, (int) (toDay - fromDay + 1)), 0);
+            return;
+        }
+
+        if (fromDay < baseDay) {
+            int shift = (int) (baseDay - fromDay);
+            allocate(dayIn.length + shift, shift);
+            baseDay = fromDay;
+            lastUsedSlot += shift;
+            validPrefix = -1; // Every prefix now starts from a different day
+        }
+
+        int needed = (int) (toDay - baseDay + 1);
+        if (needed > dayIn.length) {
+            allocate(Math.max(needed, dayIn.length * 2), 0);
+        }
+    }
+
+    private void allocate(int capacity, int shift) {
+        dayIn = grow(dayIn, capacity, shift);
+        dayOut = grow(dayOut, capacity, shift);
+        int[] counts = new int[capacity];
+        System.arraycopy(dayCount, 0, counts, shift, dayCount.length);
+        dayCount = counts;
+
+        // Prefix sums keep their slots when growing at the end; a shift invalidates them anyway
+        cumIn = Arrays.copyOf(cumIn, capacity);
+        cumOut = Arrays.copyOf(cumOut, capacity);
+        cumCount = Arrays.copyOf(cumCount, capacity);
+    }
+
+    private static double[] grow(double[] source, int capacity, int shift) {
+        double[] result = new double[capacity];
+        System.arraycopy(source, 0, result, shift, source.length);
+        return result;
+    }
+}
@@ -0,0 +1,206 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.DateTimeUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SummaryAggregator - Running totals for the home screen, kept up to date from transaction deltas.
+ * <p>
+ * A full load is summed once; after that each add/change/remove adjusts the totals in O(1) and
+ * today's list in O(log k + k) for k transactions today. "Today" is an epoch-day bucket in the
+ * device time zone. When the day changes, {@link #rollover} rebuilds the bucket with a binary
+ * search over the newest-first list instead of a full scan.
+ * <p>
+ * The newest {@link Constants#HOME_SNAPSHOT_RECENT_COUNT} transactions are kept the same way, so
+ * a delta does not read the list; only a delete inside them reads the row that moves up.
+ * <p>
+ * Not thread-safe; use it from a single thread.
+ */
+public final class SummaryAggregator {
+
+    private double totalIn;
+    private double totalOut;
+    private int count;
+
+    private long todayEpochDay = Long.MIN_VALUE;
+    private double todayIn;
+    private double todayOut;
+    // Newest first, like the cashbook list
+    private final List<TransactionModel> todayTransactions = new ArrayList<>();
+
+    private final int recentLimit;
+    // The first min(recentLimit, count) rows of the list
+    private final List<TransactionModel> recentTransactions = new ArrayList<>();
+
+    // Latest newest-first list, kept for rebuilding today's bucket at midnight
+    private List<TransactionModel> transactions = Collections.emptyList();
+
+    public SummaryAggregator() {
+        this(Constants.HOME_SNAPSHOT_RECENT_COUNT);
+    }
+
+    /**
+     * @param recentLimit how many of the newest transactions {@link #getRecentTransactions} keeps
+     */
+    public SummaryAggregator(int recentLimit) {
+        this.recentLimit = recentLimit;
+    }
+
+    /**
+     * Recomputes everything from a full, newest-first list.
+     */
+    public void reset(List<TransactionModel> newestFirst, long now) {
+        transactions = newestFirst;
+        totalIn = 0;
+        totalOut = 0;
+        for (TransactionModel transaction : newestFirst) {
+            if (isIncome(transaction)) totalIn += transaction.getAmount();
+            else totalOut += transaction.getAmount();
+        }
+        count = newestFirst.size();
+        recentTransactions.clear();
+        recentTransactions.addAll(newestFirst.subList(0, Math.min(recentLimit, count)));
+        rebuildToday(now);
+    }
+
+    /**
+     * Applies one change.
+     * @param newestFirst the list after the change, kept for the next rollover
+     */
+    public void apply(TransactionDelta delta, List<TransactionModel> newestFirst) {
+        transactions = newestFirst;
+        TransactionModel previous = delta.getPrevious();
+        TransactionModel current = delta.getTransaction();
+
+        if (previous != null) {
+            add(previous, -1);
+            count--;
+            if (DateTimeUtils.toEpochDay(previous.getTimestamp()) == todayEpochDay) removeToday(previous);
+            removeRecent(previous);
+        }
+        if (current != null) {
+            add(current, 1);
+            count++;
+            if (DateTimeUtils.toEpochDay(current.getTimestamp()) == todayEpochDay) addToday(current);
+            addRecent(current);
+        }
+        // A delete inside the recent rows lets the next one up; only then is the list read
+        for (int i = recentTransactions.size(); i < Math.min(recentLimit, count); i++) {
+            recentTransactions.add(newestFirst.get(i));
+        }
+    }
+
+    /**
+     * Moves the "today" bucket to the day containing {@code now}.
+     * @return true if the day changed
+     */
+    public boolean rollover(long now) {
+        if (DateTimeUtils.toEpochDay(now) == todayEpochDay) return false;
+        rebuildToday(now);
+        return true;
+    }
+
+    /**
+     * Milliseconds from {@code now} until the next local midnight.
+     */
+    public static long millisUntilRollover(long now) {
+        return Math.max(0, DateTimeUtils.startOfNextDay(now) - now);
+    }
+
+    public double getTotalIn() { return totalIn; }
+    public double getTotalOut() { return totalOut; }
+    public double getBalance() { return totalIn - totalOut; }
+    public int getCount() { return count; }
+
+    public double getTodayIn() { return todayIn; }
+    public double getTodayOut() { return todayOut; }
+    public double getTodayBalance() { return todayIn - todayOut; }
+
+    /**
+     * A copy of today's transactions, newest first.
+     */
+    public List<TransactionModel> getTodayTransactions() {
+        return new ArrayList<>(todayTransactions);
+    }
+
+    /**
+     * A copy of the newest transactions, at most the limit given on construction.
+     */
+    public List<TransactionModel> getRecentTransactions() {
+        return new ArrayList<>(recentTransactions);
+    }
+
+    private void add(TransactionModel transaction, int sign) {
+        if (isIncome(transaction)) totalIn += sign * transaction.getAmount();
+        else totalOut += sign * transaction.getAmount();
+    }
+
+    private void rebuildToday(long now) {
+        todayEpochDay = DateTimeUtils.toEpochDay(now);
+        todayIn = 0;
+        todayOut = 0;
+        todayTransactions.clear();
+
+        long dayStart = DateTimeUtils.startOfDay(now);
+        long dayEnd = DateTimeUtils.startOfNextDay(now);
+        // The list is sorted by timestamp descending: skip everything from later days, then take
+        // rows until the first one from an earlier day
+        int low = 0, high = transactions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactions.get(mid).getTimestamp() >= dayEnd) low = mid + 1;
+            else high = mid;
+        }
+        for (int i = low; i < transactions.size(); i++) {
+            TransactionModel transaction = transactions.get(i);
+            if (transaction.getTimestamp() < dayStart) break;
+            todayTransactions.add(transaction);
+            if (isIncome(transaction)) todayIn += transaction.getAmount();
+            else todayOut += transaction.getAmount();
+        }
+    }
+
+    private void addToday(TransactionModel transaction) {
+        int position = Collections.binarySearch(todayTransactions, transaction, SortedTransactionIndex.NEWEST_FIRST);
+        todayTransactions.add(position < 0 ? -position - 1 : position, transaction);
+        if (isIncome(transaction)) todayIn += transaction.getAmount();
+        else todayOut += transaction.getAmount();
+    }
+
+    private void removeToday(TransactionModel transaction) {
+        int position = Collections.binarySearch(todayTransactions, transaction, SortedTransactionIndex.NEWEST_FIRST);
+        if (position < 0) return;
+        todayTransactions.remove(position);
+        if (isIncome(transaction)) todayIn -= transaction.getAmount();
+        else todayOut -= transaction.getAmount();
+    }
+
+    private void removeRecent(TransactionModel transaction) {
+        int position = Collections.binarySearch(recentTransactions, transaction, SortedTransactionIndex.NEWEST_FIRST);
+        if (position >= 0) recentTransactions.remove(position);
+    }
+
+    /**
+     * Called with {@link #count} already including the transaction.
+     */
+    private void addRecent(TransactionModel transaction) {
+        int size = recentTransactions.size();
+        // Rows missing after a delete are refilled from the list, which may hold newer ones than this
+        boolean holdsAll = size == count - 1;
+        if (!holdsAll && (size == 0 || SortedTransactionIndex.NEWEST_FIRST.compare(transaction, recentTransactions.get(size - 1)) > 0)) return;
+        int position = Collections.binarySearch(recentTransactions, transaction, SortedTransactionIndex.NEWEST_FIRST);
+        recentTransactions.add(position < 0 ? -position - 1 : position, transaction);
+        if (recentTransactions.size() > recentLimit) recentTransactions.remove(recentTransactions.size() - 1);
+    }
+
+    private static boolean isIncome(TransactionModel transaction) {
+        return Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType());
+    }
+}
@@ -0,0 +1,144 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.TagUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TagIndex - Transactions by tag, for the tag filter and tag suggestions.
+ * <p>
+ * Tags are compared by {@link TagUtils#key}. Each transaction's tags come from
+ * {@link TransactionModel#getTagList()}, parsed once, and an add, edit or delete only touches the
+ * postings of that transaction's tags. A tag filter costs the number of matching transactions.
+ * <p>
+ * Not thread-safe; {@link IndexRegistry} changes it on the main thread, and other threads read it
+ * under {@link CashbookIndexes#read}.
+ */
+public final class TagIndex {
+
+    // Tag key -> the tag's postings, sorted by key for prefix lookups
+    private final TreeMap<String, Tag> tags = new TreeMap<>();
+    private final Map<String, String[]> keysById = new HashMap<>();
+
+    public void reset(Collection<TransactionModel> transactions) {
+        tags.clear();
+        keysById.clear();
+        for (TransactionModel transaction : transactions) {
+            add(transaction);
+        }
+    }
+
+    public void apply(TransactionDelta delta) {
+        if (delta.getPrevious() != null) remove(delta.getPrevious());
+        if (delta.getTransaction() != null) add(delta.getTransaction());
+    }
+
+    /**
+     * Transactions carrying any of the given tags, in no particular order.
+     */
+    public List<TransactionModel> match(Collection<String> tagNames) {
+        List<TransactionModel> result = new ArrayList<>();
+        if (tagNames == null) return result;
+        Set<String> seen = new HashSet<>();
+        for (String name : tagNames) {
+            Tag tag = tags.get(TagUtils.key(name));
+            if (tag == null) continue;
+            for (TransactionModel transaction : tag.transactions.values()) {
+                if (seen.add(transaction.getTransactionId())) result.add(transaction);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Upper bound on {@link #match}'s result size: the postings of the given tags.
+     */
+    public int count(Collection<String> tagNames) {
+        int count = 0;
+        if (tagNames == null) return count;
+        for (String name : tagNames) {
+            Tag tag = tags.get(TagUtils.key(name));
+            if (tag != null) count += tag.transactions.size();
+        }
+        return count;
+    }
+
+    /**
+     * Whether an indexed transaction carries any of the given tag keys.
+     */
+    public boolean hasAny(TransactionModel transaction, Set<String> tagKeys) {
+        String[] keys = keysById.get(transaction.getTransactionId());
+        if (keys == null) return false;
+        for (String key : keys) {
+            if (tagKeys.contains(key)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tags starting with {@code prefix} (any tag for an empty prefix), most used first.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = prefix == null ? "" : TagUtils.key(prefix);
+        List<Tag> candidates = new ArrayList<>(
+                tags.subMap(key, true, key + Character.MAX_VALUE, false).values());
+        candidates.sort((a, b) -> Integer.compare(b.transactions.size(), a.transactions.size()));
+
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < candidates.size() && i < limit; i++) {
+            labels.add(candidates.get(i).label);
+        }
+        return labels;
+    }
+
+    // --- POSTINGS ---
+
+    private void add(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        if (id == null) return;
+        if (keysById.containsKey(id)) remove(transaction);
+
+        List<String> names = transaction.getTagList();
+        if (names.isEmpty()) return;
+        String[] keys = new String[names.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = TagUtils.key(names.get(i));
+            Tag tag = tags.get(keys[i]);
+            if (tag == null) {
+                tag = new Tag();
+                tags.put(keys[i], tag);
+            }
+            // Suggestions show the spelling most recently written
+            tag.label = names.get(i);
+            tag.transactions.put(id, transaction);
+        }
+        keysById.put(id, keys);
+    }
+
+    private void remove(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        String[] keys = id != null ? keysById.remove(id) : null;
+        if (keys == null) return;
+        for (String key : keys) {
+            Tag tag = tags.get(key);
+            if (tag == null) continue;
+            tag.transactions.remove(id);
+            if (tag.transactions.isEmpty()) tags.remove(key);
+        }
+    }
+
+    private static final class Tag {
+        String label;
+        final Map<String, TransactionModel> transactions = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,222 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TextSearchIndex - Inverted index from word prefixes to transactions, over category, party
+ * name, remark and tags.
+ * <p>
+ * Text is NFKC-normalized and lower-cased before it is split into words, so full-width,
+ * compatibility and differently composed forms match, and combining marks stay inside their word
+ * (Devanagari vowel signs and virama are marks, not separators). A query matches a transaction
+ * when every query word is a prefix of one of its words. The words are kept sorted, so a prefix
+ * is a range lookup; a search costs roughly the number of matching words and transactions, not
+ * the size of the history. Adds, edits and deletes only touch the words of that transaction.
+ * <p>
+ * Not thread-safe; {@link IndexRegistry} changes it on the main thread, and other threads read it
+ * under {@link CashbookIndexes#read}.
+ */
+public final class TextSearchIndex {
+
+    // Word -> ids of the transactions containing it
+    private final TreeMap<String, Set<String>> postings = new TreeMap<>();
+    private final Map<String, TransactionModel> transactionsById = new HashMap<>();
+    private final Map<String, String[]> wordsById = new HashMap<>();
+
+    public void reset(Collection<TransactionModel> transactions) {
+        postings.clear();
+        transactionsById.clear();
+        wordsById.clear();
+        for (TransactionModel transaction : transactions) {
+            add(transaction);
+        }
+    }
+
+    public void apply(TransactionDelta delta) {
+        if (delta.getPrevious() != null) remove(delta.getPrevious());
+        if (delta.getTransaction() != null) add(delta.getTransaction());
+    }
+
+    /**
+     * Transactions matching every word of the query, newest first. A query without words matches
+     * nothing.
+     */
+    public List<TransactionModel> search(String query) {
+        List<TransactionModel> result = match(query);
+        result.sort(SortedTransactionIndex.NEWEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Like {@link #search} but in no particular order, so the sort can happen off the main thread.
+     */
+    public List<TransactionModel> match(String query) {
+        return match(tokenize(query));
+    }
+
+    /**
+     * {@link #match} for already tokenized query words.
+     */
+    public List<TransactionModel> match(List<String> queryWords) {
+        if (queryWords.isEmpty()) return new ArrayList<>();
+
+        // Start from the longest word, usually the most selective, and check the rest per candidate
+        String first = longest(queryWords);
+        List<TransactionModel> result = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Set<String> ids : postings.subMap(first, true, first + Character.MAX_VALUE, false).values()) {
+            for (String id : ids) {
+                if (!seen.add(id)) continue;
+                if (containsAll(wordsById.get(id), queryWords)) result.add(transactionsById.get(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Upper bound on the number of matches for tokenized query words, without collecting them:
+     * the postings under the longest word's prefix.
+     */
+    public int estimate(List<String> queryWords) {
+        if (queryWords.isEmpty()) return 0;
+        String first = longest(queryWords);
+        int count = 0;
+        for (Set<String> ids : postings.subMap(first, true, first + Character.MAX_VALUE, false).values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    /**
+     * {@link #matches} for an indexed transaction, using its stored words.
+     */
+    public boolean containsWords(TransactionModel transaction, List<String> queryWords) {
+        return containsAll(wordsById.get(transaction.getTransactionId()), queryWords);
+    }
+
+    private static String longest(List<String> queryWords) {
+        String longest = queryWords.get(0);
+        for (String word : queryWords) {
+            if (word.length() > longest.length()) longest = word;
+        }
+        return longest;
+    }
+
+    // --- TEXT HANDLING ---
+
+    /**
+     * NFKC, lower case, and no zero-width joiners (they only affect how Indic text is drawn).
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return normalized.replace("\u200C", "").replace("\u200D", "");
+    }
+
+    /**
+     * Normalized words of a text, without duplicates, in order of appearance.
+     */
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            if (isWordChar(codePoint)) {
+                if (start < 0) start = i;
+            } else if (start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) words.add(normalized.substring(start));
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Whether a transaction matches already tokenized query words; the same rule as
+     * {@link #search}, for lists that are not indexed.
+     */
+    public static boolean matches(TransactionModel transaction, List<String> queryWords) {
+        return containsAll(wordsOf(transaction), queryWords);
+    }
+
+    private static boolean isWordChar(int codePoint) {
+        if (Character.isLetterOrDigit(codePoint)) return true;
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    private static String[] wordsOf(TransactionModel transaction) {
+        StringBuilder text = new StringBuilder();
+        append(text, transaction.getTransactionCategory());
+        append(text, transaction.getPartyName());
+        append(text, transaction.getRemark());
+        append(text, transaction.getTags());
+        return tokenize(text.toString()).toArray(new String[0]);
+    }
+
+    private static void append(StringBuilder text, String field) {
+        if (field != null) text.append(field).append(' ');
+    }
+
+    private static boolean containsAll(String[] words, List<String> queryWords) {
+        if (words == null) return false;
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // --- POSTINGS ---
+
+    private void add(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        if (id == null) return;
+        if (wordsById.containsKey(id)) remove(transactionsById.get(id));
+
+        String[] words = wordsOf(transaction);
+        transactionsById.put(id, transaction);
+        wordsById.put(id, words);
+        for (String word : words) {
+            postings.computeIfAbsent(word, w -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        String[] words = id != null ? wordsById.remove(id) : null;
+        if (words == null) return;
+        transactionsById.remove(id);
+        for (String word : words) {
+            Set<String> ids = postings.get(word);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) postings.remove(word);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * TrigramIndex - Fuzzy search over party name, remark and category, tolerant of misspellings.
+ * <p>
+ * The index is over the cashbook's distinct words ({@link TextSearchIndex#tokenize} form), which
+ * are far fewer than its transactions. Each word is split into trigrams, padded as "  word " so
+ * beginnings weigh more, and a query word is similar to an indexed word by the Dice overlap of
+ * their trigrams; a word it is a prefix of counts as an exact hit. Only words sharing enough
+ * trigrams can reach {@link #SIMILARITY_THRESHOLD}, so candidates come from the rarest trigrams'
+ * postings alone. A transaction scores the mean, over the query words, of its best word; the
+ * scores are summed into arrays by transaction ordinal and the top results kept in a bounded
+ * heap, so a search costs the matching words' postings, not the history.
+ * <p>
+ * Adds, edits and deletes only touch the words of that transaction. Changes come from the main
+ * thread; searches may also run under {@link CashbookIndexes#read} and share the scratch arrays, so
+ * {@link #search} is synchronized.
+ */
+public final class TrigramIndex {
+
+    /** Lowest similarity, for a word and for a transaction's score, that counts as a match. */
+    public static final float SIMILARITY_THRESHOLD = 0.4f;
+
+    // Word -> its trigrams and transactions, sorted for prefix lookups
+    private final TreeMap<String, Word> words = new TreeMap<>();
+    // Trigram -> words containing it
+    private final Map<Long, Set<Word>> postings = new HashMap<>();
+
+    // Ordinals as in FilterBitmapIndex: fixed while a transaction exists, reused after a delete
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private TransactionModel[] byOrdinal = new TransactionModel[16];
+    private String[][] wordsByOrdinal = new String[16][];
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private int nextOrdinal;
+
+    // Scratch space for search, by ordinal; all zero between searches
+    private float[] wordScores = new float[16];
+    private float[] totalScores = new float[16];
+    private int[] wordTouched = new int[16];
+    private int wordTouchedCount;
+    private int[] totalTouched = new int[16];
+    private int totalTouchedCount;
+
+    public void reset(Collection<TransactionModel> transactions) {
+        words.clear();
+        postings.clear();
+        ordinalsById.clear();
+        Arrays.fill(byOrdinal, null);
+        Arrays.fill(wordsByOrdinal, null);
+        freeCount = 0;
+        nextOrdinal = 0;
+        for (TransactionModel transaction : transactions) {
+            add(transaction);
+        }
+    }
+
+    public void apply(TransactionDelta delta) {
+        if (delta.getPrevious() != null) remove(delta.getPrevious());
+        if (delta.getTransaction() != null) add(delta.getTransaction());
+    }
+
+    /**
+     * Up to {@code limit} transactions similar to the query, best match first and newest first
+     * among equals.
+     * @param accept transactions it rejects are left out before ranking; null accepts all
+     */
+    public synchronized List<TransactionModel> search(String query, int limit, Predicate<TransactionModel> accept) {
+        List<String> queryWords = TextSearchIndex.tokenize(query);
+        if (queryWords.isEmpty() || limit <= 0) return new ArrayList<>();
+        ensureScratch();
+
+        // Sum, per transaction, its best similarity to each query word
+        for (String queryWord : queryWords) {
+            for (Map.Entry<Word, Float> match : similarWords(queryWord).entrySet()) {
+                float similarity = match.getValue();
+                match.getKey().ordinals.forEach(ordinal -> {
+                    if (wordScores[ordinal] == 0) wordTouched[wordTouchedCount++] = ordinal;
+                    if (similarity > wordScores[ordinal]) wordScores[ordinal] = similarity;
+                });
+            }
+            for (int i = 0; i < wordTouchedCount; i++) {
+                int ordinal = wordTouched[i];
+                if (totalScores[ordinal] == 0) totalTouched[totalTouchedCount++] = ordinal;
+                totalScores[ordinal] += wordScores[ordinal];
+                wordScores[ordinal] = 0;
+            }
+            wordTouchedCount = 0;
+        }
+
+        // Min-heap of the best hits so far; the root is the first to go
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, (a, b) -> Hit.RANKING.compare(b, a));
+        for (int i = 0; i < totalTouchedCount; i++) {
+            int ordinal = totalTouched[i];
+            float score = totalScores[ordinal] / queryWords.size();
+            totalScores[ordinal] = 0;
+            if (score < SIMILARITY_THRESHOLD) continue;
+            TransactionModel transaction = byOrdinal[ordinal];
+            // Most matches tie on score, so check against the weakest kept hit before allocating
+            if (top.size() == limit && Hit.rank(score, transaction, top.peek()) >= 0) continue;
+            if (accept != null && !accept.test(transaction)) continue;
+            top.add(new Hit(transaction, score));
+            if (top.size() > limit) top.poll();
+        }
+        totalTouchedCount = 0;
+
+        List<Hit> hits = new ArrayList<>(top);
+        Collections.sort(hits, Hit.RANKING);
+        List<TransactionModel> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) result.add(hit.transaction);
+        return result;
+    }
+
+    // --- MATCHING ---
+
+    /**
+     * Indexed words similar to a query word, with their similarity.
+     */
+    private Map<Word, Float> similarWords(String queryWord) {
+        Map<Word, Float> matches = new HashMap<>();
+        for (Word word : words.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false).values()) {
+            matches.put(word, 1f);
+        }
+
+        long[] grams = trigrams(queryWord);
+        // Dice >= t needs at least t * n / (2 - t) shared trigrams (n = the query's), so every
+        // match holds one of the rarest (n - that + 1), and its own count lies within a bounded range
+        double ratio = SIMILARITY_THRESHOLD / (2 - SIMILARITY_THRESHOLD);
+        int minShared = Math.max(1, (int) Math.ceil(ratio * grams.length));
+        int minLength = (int) Math.ceil(ratio * grams.length);
+        int maxLength = (int) (grams.length / ratio);
+        Long[] byRarity = new Long[grams.length];
+        for (int i = 0; i < grams.length; i++) byRarity[i] = grams[i];
+        Arrays.sort(byRarity, (a, b) -> Integer.compare(postingSize(a), postingSize(b)));
+
+        for (int i = 0; i <= grams.length - minShared; i++) {
+            Set<Word> candidates = postings.get(byRarity[i]);
+            if (candidates == null) continue;
+            for (Word word : candidates) {
+                if (matches.containsKey(word)) continue;
+                if (word.grams.length < minLength || word.grams.length > maxLength) continue;
+                float similarity = dice(grams, word.grams);
+                if (similarity >= SIMILARITY_THRESHOLD) matches.put(word, similarity);
+            }
+        }
+        return matches;
+    }
+
+    private int postingSize(Long gram) {
+        Set<Word> posting = postings.get(gram);
+        return posting == null ? 0 : posting.size();
+    }
+
+    /**
+     * Distinct trigrams of a word padded as "  word ", three chars packed per long, sorted.
+     */
+    private static long[] trigrams(String word) {
+        String padded = "  " + word + " ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static float dice(long[] a, long[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return 2f * shared / (a.length + b.length);
+    }
+
+    private void ensureScratch() {
+        if (wordScores.length < byOrdinal.length) {
+            wordScores = new float[byOrdinal.length];
+            totalScores = new float[byOrdinal.length];
+            wordTouched = new int[byOrdinal.length];
+            totalTouched = new int[byOrdinal.length];
+        }
+    }
+
+    // --- POSTINGS ---
+
+    private static String[] wordsOf(TransactionModel transaction) {
+        StringBuilder text = new StringBuilder();
+        append(text, transaction.getPartyName());
+        append(text, transaction.getRemark());
+        append(text, transaction.getTransactionCategory());
+        return TextSearchIndex.tokenize(text.toString()).toArray(new String[0]);
+    }
+
+    private static void append(StringBuilder text, String field) {
+        if (field != null) text.append(field).append(' ');
+    }
+
+    private void add(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        if (id == null) return;
+        Integer existing = ordinalsById.get(id);
+        if (existing != null) remove(byOrdinal[existing]);
+
+        int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+        if (ordinal >= byOrdinal.length) {
+            byOrdinal = Arrays.copyOf(byOrdinal, byOrdinal.length * 2);
+            wordsByOrdinal = Arrays.copyOf(wordsByOrdinal, wordsByOrdinal.length * 2);
+        }
+        String[] texts = wordsOf(transaction);
+        byOrdinal[ordinal] = transaction;
+        wordsByOrdinal[ordinal] = texts;
+        ordinalsById.put(id, ordinal);
+
+        for (String text : texts) {
+            Word word = words.get(text);
+            if (word == null) {
+                word = new Word(trigrams(text));
+                words.put(text, word);
+                for (long gram : word.grams) {
+                    postings.computeIfAbsent(gram, g -> new HashSet<>()).add(word);
+                }
+            }
+            word.ordinals.add(ordinal);
+        }
+    }
+
+    private void remove(TransactionModel transaction) {
+        String id = transaction.getTransactionId();
+        Integer ordinal = id != null ? ordinalsById.remove(id) : null;
+        if (ordinal == null) return;
+        // Remove the indexed copy's words; the caller's copy may have different text
+        String[] texts = wordsByOrdinal[ordinal];
+        byOrdinal[ordinal] = null;
+        wordsByOrdinal[ordinal] = null;
+        if (freeCount == freeOrdinals.length) freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        freeOrdinals[freeCount++] = ordinal;
+
+        for (String text : texts) {
+            Word word = words.get(text);
+            if (word == null) continue;
+            word.ordinals.remove(ordinal);
+            if (!word.ordinals.isEmpty()) continue;
+            // Last use of the word: drop it from the vocabulary and its trigrams' postings
+            words.remove(text);
+            for (long gram : word.grams) {
+                Set<Word> posting = postings.get(gram);
+                if (posting == null) continue;
+                posting.remove(word);
+                if (posting.isEmpty()) postings.remove(gram);
+            }
+        }
+    }
+
+    private static final class Word {
+        final long[] grams;
+        final OrdinalBitmap ordinals = new OrdinalBitmap();
+
+        Word(long[] grams) {
+            this.grams = grams;
+        }
+    }
+
+    private static final class Hit {
+        // Best score first, then newest first
+        static final Comparator<Hit> RANKING = (a, b) -> rank(a.score, a.transaction, b);
+
+        static int rank(float score, TransactionModel transaction, Hit other) {
+            int byScore = Float.compare(other.score, score);
+            return byScore != 0 ? byScore : SortedTransactionIndex.NEWEST_FIRST.compare(transaction, other.transaction);
+        }
+
+        final TransactionModel transaction;
+        final float score;
+
+        Hit(TransactionModel transaction, float score) {
+            this.transaction = transaction;
+            this.score = score;
+        }
+    }
+}
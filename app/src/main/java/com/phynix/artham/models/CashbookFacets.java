@@ -0,0 +1,79 @@
+package com.phynix.artham.models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distinct parties, tags, payment modes and categories of one cashbook with how many transactions
+ * use each, stored at users/{uid}/facets/{cashbookId}. Kept in step with the transactions by
+ * DataRepository so filter screens can list the values without reading the transactions.
+ */
+public class CashbookFacets {
+
+    private final Map<String, Long> parties = new HashMap<>();
+    private final Map<String, Long> tags = new HashMap<>();
+    private final Map<String, Long> paymentModes = new HashMap<>();
+    private final Map<String, Long> categories = new HashMap<>();
+
+    public static CashbookFacets of(Collection<TransactionModel> transactions) {
+        CashbookFacets facets = new CashbookFacets();
+        if (transactions != null) {
+            for (TransactionModel transaction : transactions) {
+                facets.add(transaction, 1);
+            }
+        }
+        return facets;
+    }
+
+    /**
+     * Adds (sign 1) or removes (sign -1) one transaction's values. Null is ignored.
+     */
+    public void add(TransactionModel transaction, long sign) {
+        if (transaction == null) return;
+        count(parties, transaction.getPartyName(), sign);
+        for (String tag : transaction.getTagList()) {
+            count(tags, tag, sign);
+        }
+        count(paymentModes, transaction.getPaymentMode(), sign);
+        count(categories, transaction.getTransactionCategory(), sign);
+    }
+
+    /** Party name -> uses. Values may be 0 or less for names no longer used. */
+    public Map<String, Long> getParties() { return parties; }
+
+    public Map<String, Long> getTags() { return tags; }
+
+    public Map<String, Long> getPaymentModes() { return paymentModes; }
+
+    public Map<String, Long> getCategories() { return categories; }
+
+    /**
+     * The values still in use, most used first, then alphabetically.
+     */
+    public static List<String> mostUsed(Map<String, Long> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (entry.getValue() > 0) entries.add(entry);
+        }
+        entries.sort((a, b) -> {
+            int byUses = Long.compare(b.getValue(), a.getValue());
+            return byUses != 0 ? byUses : a.getKey().compareTo(b.getKey());
+        });
+        List<String> values = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : entries) values.add(entry.getKey());
+        return values;
+    }
+
+    private static void count(Map<String, Long> counts, String value, long sign) {
+        if (value == null) return;
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) return;
+        long uses = counts.getOrDefault(trimmed, 0L) + sign;
+        // An add and a remove of the same value cancel out entirely
+        if (uses == 0) counts.remove(trimmed);
+        else counts.put(trimmed, uses);
+    }
+}
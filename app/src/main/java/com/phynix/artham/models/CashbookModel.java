@@ -1,12 +1,16 @@
 package com.phynix.artham.models;
 
+import com.google.firebase.database.IgnoreExtraProperties;
+
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
+/**
+ * Lightweight cashbook header stored at {@code cashbooks/{id}}.
+ * Transactions live in the sibling {@code transactions/{id}} tree and are never part of this model;
+ * extra properties are ignored so v1 data that still nests them deserializes cleanly.
+ */
+@IgnoreExtraProperties
 public class CashbookModel implements Serializable {
     private String cashbookId;
     private String name;
@@ -21,14 +25,10 @@ public class CashbookModel implements Serializable {
     private String userId;
     private String currency;
 
-    // Use Map to handle Firebase's JSON structure for lists/objects correctly
-    private Map<String, TransactionModel> transactions;
-
     // --- Constructors ---
 
     // Empty constructor required for Firebase DataSnapshot.getValue()
     public CashbookModel() {
-        this.transactions = new HashMap<>();
         this.isCurrent = false;
         this.totalBalance = 0.0;
         this.transactionCount = 0;
@@ -47,7 +47,6 @@ public class CashbookModel implements Serializable {
         this.isCurrent = false;
         this.isFavorite = false;
         this.currency = "INR";
-        this.transactions = new HashMap<>();
     }
 
     // --- IDs ---
@@ -69,27 +68,6 @@ public class CashbookModel implements Serializable {
         this.cashbookId = id;
     }
 
-    // --- Transactions (Map Handling) ---
-
-    public Map<String, TransactionModel> getTransactions() {
-        if (transactions == null) {
-            transactions = new HashMap<>();
-        }
-        return transactions;
-    }
-
-    public void setTransactions(Map<String, TransactionModel> transactions) {
-        this.transactions = transactions;
-    }
-
-    // Helper to get a List for RecyclerView Adapters
-    public List<TransactionModel> getTransactionList() {
-        if (transactions == null) {
-            return new ArrayList<>();
-        }
-        return new ArrayList<>(transactions.values());
-    }
-
     // --- Basic Fields ---
 
     public String getName() {
@@ -0,0 +1,86 @@
+package com.phynix.artham.models;
+
+import com.google.firebase.database.Exclude;
+import com.phynix.artham.utils.Constants;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Denormalized totals for one cashbook, stored at users/{uid}/summaries/{cashbookId}.
+ * Kept in step with the transactions by DataRepository so lists of cashbooks never need
+ * to read the transactions themselves.
+ * <p>
+ * {@code verifiedAt} is set only by a full recount; increments never touch it. A summary without
+ * it was built by increments alone (or never existed) and must be recounted before it is trusted.
+ */
+public class CashbookSummary implements Serializable {
+    private double totalIn;
+    private double totalOut;
+    private long count;
+    private long lastModified;
+    private long verifiedAt;
+
+    // Empty constructor required for Firebase DataSnapshot.getValue()
+    public CashbookSummary() {
+    }
+
+    public CashbookSummary(double totalIn, double totalOut, long count, long lastModified) {
+        this.totalIn = totalIn;
+        this.totalOut = totalOut;
+        this.count = count;
+        this.lastModified = lastModified;
+    }
+
+    public double getTotalIn() { return totalIn; }
+    public void setTotalIn(double totalIn) { this.totalIn = totalIn; }
+
+    public double getTotalOut() { return totalOut; }
+    public void setTotalOut(double totalOut) { this.totalOut = totalOut; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getLastModified() { return lastModified; }
+    public void setLastModified(long lastModified) { this.lastModified = lastModified; }
+
+    /** When the totals were last recounted from the transactions; 0 if never. */
+    public long getVerifiedAt() { return verifiedAt; }
+    public void setVerifiedAt(long verifiedAt) { this.verifiedAt = verifiedAt; }
+
+    /**
+     * A full recount of the given transactions, verified at {@code now}. Every row counts, whatever
+     * its amount; the repository's recounts, the in-memory store and the schema migration all use it.
+     */
+    public static CashbookSummary of(Collection<TransactionModel> transactions, long now) {
+        double totalIn = 0, totalOut = 0;
+        long count = 0;
+        if (transactions != null) {
+            for (TransactionModel transaction : transactions) {
+                if (transaction == null) continue;
+                count++;
+                if (Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType())) totalIn += transaction.getAmount();
+                else totalOut += transaction.getAmount();
+            }
+        }
+        CashbookSummary summary = new CashbookSummary(totalIn, totalOut, count, now);
+        summary.setVerifiedAt(now);
+        return summary;
+    }
+
+    /**
+     * True if the totals were never recounted, or not within {@link Constants#SUMMARY_RECOUNT_INTERVAL_MS}.
+     */
+    public boolean needsRecount(long now) {
+        return needsRecount(verifiedAt, now);
+    }
+
+    public static boolean needsRecount(long verifiedAt, long now) {
+        return verifiedAt <= 0 || now - verifiedAt > Constants.SUMMARY_RECOUNT_INTERVAL_MS;
+    }
+
+    @Exclude
+    public double getBalance() {
+        return totalIn - totalOut;
+    }
+}
@@ -1,6 +1,10 @@
 package com.phynix.artham.models;
 
+import com.google.firebase.database.Exclude;
+import com.phynix.artham.utils.TagUtils;
+
 import java.io.Serializable;
+import java.util.List;
 
 public class TransactionModel implements Serializable {
     private String transactionId;
@@ -17,6 +21,9 @@ public class TransactionModel implements Serializable {
     private String location;
     private String attachmentUri;
 
+    // Parsed form of tags, built on first use
+    private transient List<String> tagList;
+
     public TransactionModel() {
         // Default constructor required for Firebase
     }
@@ -49,7 +56,19 @@ public class TransactionModel implements Serializable {
 
     // [NEW GETTERS/SETTERS]
     public String getTags() { return tags; }
-    public void setTags(String tags) { this.tags = tags; }
+    public void setTags(String tags) {
+        this.tags = tags;
+        this.tagList = null;
+    }
+
+    /**
+     * The individual tags, parsed once per tags value.
+     */
+    @Exclude
+    public List<String> getTagList() {
+        if (tagList == null) tagList = TagUtils.parse(tags);
+        return tagList;
+    }
 
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
@@ -6,6 +6,48 @@ public class Constants {
     public static final String NODE_USERS = "users";
     public static final String NODE_CASHBOOKS = "cashbooks";
     public static final String NODE_TRANSACTIONS = "transactions";
+    public static final String NODE_SUMMARIES = "summaries";
+    public static final String NODE_FACETS = "facets";
+    public static final String NODE_SCHEMA_VERSION = "schemaVersion";
+
+    // --- Schema ---
+    // v1: transactions nested under cashbooks/{id}/transactions
+    // v2: cashbook headers only under cashbooks/{id}, transactions under transactions/{cashbookId}
+    // v3: distinct values with use counts under facets/{cashbookId}
+    public static final int SCHEMA_VERSION = 3;
+
+    // --- Firebase Fields ---
+    public static final String FIELD_TIMESTAMP = "timestamp";
+    public static final String FIELD_TOTAL_IN = "totalIn";
+    public static final String FIELD_TOTAL_OUT = "totalOut";
+    public static final String FIELD_COUNT = "count";
+    public static final String FIELD_LAST_MODIFIED = "lastModified";
+    public static final String FIELD_VERIFIED_AT = "verifiedAt";
+
+    // --- Facets (children of facets/{cashbookId}) ---
+    public static final String FACET_PARTIES = "parties";
+    public static final String FACET_TAGS = "tags";
+    public static final String FACET_PAYMENT_MODES = "paymentModes";
+    public static final String FACET_CATEGORIES = "categories";
+
+    // --- Summaries ---
+    // Summaries and facets are recounted from the transactions this often, undoing any drift
+    public static final long SUMMARY_RECOUNT_INTERVAL_MS = 7L * 24 * 60 * 60 * 1000;
+
+    // --- Paging ---
+    public static final int TRANSACTION_PAGE_SIZE = 50;
+
+    // --- Search ---
+    public static final long FILTER_DEBOUNCE_MS = 150;
+    // Close matches shown after the exact ones in the search bar's results
+    public static final int FUZZY_SEARCH_LIMIT = 20;
+    // Recent filter results kept per cashbook until it changes
+    public static final int FILTER_CACHE_SIZE = 8;
+
+    // --- Home Snapshot ---
+    public static final int HOME_SNAPSHOT_RECENT_COUNT = 20;
+    // Shortest gap between two writes of the snapshot file while updates stream in
+    public static final long HOME_SNAPSHOT_SAVE_INTERVAL_MS = 5000;
 
     // --- Transaction Types ---
     public static final String TRANSACTION_TYPE_IN = "IN";
@@ -1,8 +1,10 @@
 package com.phynix.artham.utils;
 
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 public class DateTimeUtils {
@@ -66,4 +68,50 @@ public class DateTimeUtils {
         SimpleDateFormat sdf = new SimpleDateFormat(pattern, Locale.getDefault());
         return sdf.format(new Date(timestamp));
     }
-}
\ No newline at end of file
+
+    /**
+     * Check whether two timestamps fall on the same local calendar day
+     * @param first Unix timestamp in milliseconds
+     * @param second Unix timestamp in milliseconds
+     * @return true if both are on the same day in the device time zone
+     */
+    public static boolean isSameDay(long first, long second) {
+        return toEpochDay(first) == toEpochDay(second);
+    }
+
+    /**
+     * Local calendar day of a timestamp, counted in days since 1970-01-01
+     * @param timestamp Unix timestamp in milliseconds
+     * @return Day number in the device time zone; consecutive days differ by exactly 1
+     */
+    public static long toEpochDay(long timestamp) {
+        return Math.floorDiv(timestamp + TimeZone.getDefault().getOffset(timestamp), TimeUnit.DAYS.toMillis(1));
+    }
+
+    /**
+     * Local midnight at the start of the day containing a timestamp
+     * @param timestamp Unix timestamp in milliseconds
+     * @return Unix timestamp of that midnight in milliseconds
+     */
+    public static long startOfDay(long timestamp) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timestamp);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Local midnight at the end of the day containing a timestamp
+     * @param timestamp Unix timestamp in milliseconds
+     * @return Unix timestamp of the next midnight in milliseconds
+     */
+    public static long startOfNextDay(long timestamp) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(startOfDay(timestamp));
+        calendar.add(Calendar.DAY_OF_YEAR, 1);
+        return calendar.getTimeInMillis();
+    }
+}
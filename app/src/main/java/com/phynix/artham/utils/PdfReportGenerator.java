@@ -29,6 +29,7 @@ import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfPageEventHelper;
 import com.itextpdf.text.pdf.PdfWriter;
 import com.phynix.artham.R;
+import com.phynix.artham.db.SortedTransactionIndex;
 import com.phynix.artham.models.TransactionModel;
 
 import java.io.ByteArrayOutputStream;
@@ -36,7 +37,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
@@ -46,6 +47,10 @@ public class PdfReportGenerator {
 
     private static final String TAG = "PdfReportGenerator";
 
+    // Reverse of the list order, so rows sharing a timestamp are summed in the same order the
+    // cashbook's balance index and screens use
+    static final Comparator<TransactionModel> OLDEST_FIRST = SortedTransactionIndex.NEWEST_FIRST.reversed();
+
     // Colors
     private static final BaseColor MODE_TEAL = new BaseColor(1, 136, 159);
     private static final BaseColor TEXT_BLACK = BaseColor.BLACK;
@@ -65,6 +70,16 @@ public class PdfReportGenerator {
     private static final Font fontTotal = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD, TEXT_BLACK);
 
     public static void generateReport(Context context, List<TransactionModel> transactions, String cashbookName, long startDate, long endDate) {
+        generateReport(context, transactions, cashbookName, startDate, endDate, null);
+    }
+
+    /**
+     * @param transactions   rows in any order; they are listed oldest first
+     * @param openingBalance cashbook balance just before startDate, or null when the rows are a
+     *                       filtered subset and the running balance should start from zero
+     */
+    public static void generateReport(Context context, List<TransactionModel> transactions, String cashbookName,
+                                      long startDate, long endDate, Double openingBalance) {
         Document document = new Document(PageSize.A4, 36, 36, 36, 50);
         String fileName = "Artham_Report_" + System.currentTimeMillis() + ".pdf";
 
@@ -97,17 +112,19 @@ public class PdfReportGenerator {
 
             document.open();
 
-            // 1. Sort Ascending
-            Collections.sort(transactions, Comparator.comparingLong(TransactionModel::getTimestamp));
+            // 1. Sort Ascending (a copy; callers pass their newest-first lists)
+            List<TransactionModel> rows = new ArrayList<>(transactions);
+            rows.sort(OLDEST_FIRST);
 
             // 2. Pre-calculate Totals
             double totalIn = 0;
             double totalOut = 0;
-            for (TransactionModel t : transactions) {
+            for (TransactionModel t : rows) {
                 if ("IN".equalsIgnoreCase(t.getType())) totalIn += t.getAmount();
                 else totalOut += t.getAmount();
             }
-            double finalBalance = totalIn - totalOut;
+            double opening = openingBalance != null ? openingBalance : 0;
+            double finalBalance = opening + totalIn - totalOut;
 
             // 3. Add Header
             addHeader(document, context, cashbookName, startDate, endDate);
@@ -115,7 +132,7 @@ public class PdfReportGenerator {
             document.add(new Paragraph(" "));
 
             // 4. Add Transaction Table
-            addTransactionTable(document, transactions);
+            addTransactionTable(document, rows, openingBalance);
 
             document.add(new Paragraph(" "));
 
@@ -125,7 +142,7 @@ public class PdfReportGenerator {
             document.add(new Paragraph(" "));
 
             // 6. Add Total Count at the very bottom
-            addTotalCount(document, transactions.size());
+            addTotalCount(document, rows.size());
 
             document.close();
             outputStream.close();
@@ -174,7 +191,23 @@ public class PdfReportGenerator {
         document.add(pDuration);
     }
 
-    private static void addTransactionTable(Document document, List<TransactionModel> transactions) throws Exception {
+    /**
+     * Balance column of the transaction table: the balance after each row, for rows sorted
+     * {@link #OLDEST_FIRST}.
+     */
+    static double[] runningBalances(List<TransactionModel> oldestFirst, Double openingBalance) {
+        double[] balances = new double[oldestFirst.size()];
+        double runningBalance = openingBalance != null ? openingBalance : 0;
+        for (int i = 0; i < balances.length; i++) {
+            TransactionModel t = oldestFirst.get(i);
+            if ("IN".equalsIgnoreCase(t.getType())) runningBalance += t.getAmount();
+            else runningBalance -= t.getAmount();
+            balances[i] = runningBalance;
+        }
+        return balances;
+    }
+
+    private static void addTransactionTable(Document document, List<TransactionModel> transactions, Double openingBalance) throws Exception {
         PdfPTable table = new PdfPTable(6);
         table.setWidthPercentage(100);
         table.setWidths(new float[]{2, 3, 2, 2, 2, 2});
@@ -188,11 +221,23 @@ public class PdfReportGenerator {
         }
 
         SimpleDateFormat sdf = new SimpleDateFormat("dd MMM yy", Locale.getDefault());
-        double runningBalance = 0;
 
-        for (TransactionModel t : transactions) {
-            if ("IN".equalsIgnoreCase(t.getType())) runningBalance += t.getAmount();
-            else runningBalance -= t.getAmount();
+        if (openingBalance != null) {
+            PdfPCell openingCell = new PdfPCell(new Phrase("Opening Balance", fontTotal));
+            openingCell.setColspan(5);
+            openingCell.setPadding(6);
+            openingCell.setHorizontalAlignment(Element.ALIGN_LEFT);
+            openingCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+            openingCell.setBackgroundColor(TOTAL_ROW_BG);
+            table.addCell(openingCell);
+            addColoredCell(table, formatCurrency(openingBalance), openingBalance >= 0 ? COLOR_GREEN : COLOR_RED,
+                    Element.ALIGN_RIGHT, TOTAL_ROW_BG, true);
+        }
+
+        double[] balances = runningBalances(transactions, openingBalance);
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionModel t = transactions.get(i);
+            double runningBalance = balances[i];
 
             addCell(table, sdf.format(new Date(t.getTimestamp())), fontNormal, Element.ALIGN_LEFT, BaseColor.WHITE);
 
@@ -0,0 +1,64 @@
+package com.phynix.artham.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * TagUtils - Parsing and canonical form of a transaction's free-form tags.
+ * <p>
+ * Tags are separated by commas or '#', and may contain spaces ("office rent"). They are stored in
+ * canonical form - trimmed, single-spaced, without duplicates, joined by ", " - so that
+ * {@link #parse} is a plain split for anything written by the app. Older entries may still hold
+ * a list's {@code toString()} ("[a, b]"), which parses the same way.
+ */
+public final class TagUtils {
+
+    public static final String SEPARATOR = ", ";
+
+    private TagUtils() {}
+
+    /**
+     * The distinct tags of a raw tags string, in order of appearance. Duplicates are detected
+     * case-insensitively; the first spelling wins.
+     */
+    public static List<String> parse(String raw) {
+        if (raw == null || raw.trim().isEmpty()) return Collections.emptyList();
+        List<String> tags = new ArrayList<>();
+        Set<String> keys = new LinkedHashSet<>();
+        for (String part : raw.split("[,#\\[\\]]")) {
+            String tag = part.trim().replaceAll("\\s+", " ");
+            if (!tag.isEmpty() && keys.add(key(tag))) tags.add(tag);
+        }
+        return tags;
+    }
+
+    /**
+     * Canonical form of a raw tags string, for storing. Null when there are no tags.
+     */
+    public static String normalize(String raw) {
+        List<String> tags = parse(raw);
+        return tags.isEmpty() ? null : join(tags);
+    }
+
+    public static String join(Collection<String> tags) {
+        StringBuilder joined = new StringBuilder();
+        for (String tag : tags) {
+            if (joined.length() > 0) joined.append(SEPARATOR);
+            joined.append(tag);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Comparison key of a tag: NFKC and lower case, so "GST", "gst" and full-width forms match.
+     */
+    public static String key(String tag) {
+        return Normalizer.normalize(tag.trim(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+}
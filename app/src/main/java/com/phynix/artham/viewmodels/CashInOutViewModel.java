@@ -8,12 +8,13 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.phynix.artham.db.DataRepository;
+import com.phynix.artham.db.TransactionStore;
 import com.phynix.artham.models.TransactionModel;
 import com.phynix.artham.utils.Constants;
 
 public class CashInOutViewModel extends AndroidViewModel {
 
-    private final DataRepository repository;
+    private final TransactionStore repository;
 
     // LiveData for UI State
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
@@ -21,8 +22,12 @@ public class CashInOutViewModel extends AndroidViewModel {
     private final MutableLiveData<Boolean> operationSuccess = new MutableLiveData<>();
 
     public CashInOutViewModel(@NonNull Application application) {
+        this(application, DataRepository.getInstance(application));
+    }
+
+    public CashInOutViewModel(@NonNull Application application, TransactionStore store) {
         super(application);
-        repository = DataRepository.getInstance(application);
+        repository = store;
     }
 
     // --- Getters for LiveData ---
@@ -5,12 +5,20 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.phynix.artham.db.TransactionStore;
+
 public class CashInOutViewModelFactory implements ViewModelProvider.Factory {
 
     private final Application application;
+    private final TransactionStore store;
 
     public CashInOutViewModelFactory(Application application) {
+        this(application, null);
+    }
+
+    public CashInOutViewModelFactory(Application application, TransactionStore store) {
         this.application = application;
+        this.store = store;
     }
 
     @NonNull
@@ -18,7 +26,9 @@ public class CashInOutViewModelFactory implements ViewModelProvider.Factory {
     @SuppressWarnings("unchecked")
     public <T extends ViewModel> T create(@NonNull Class<T> modelClass) {
         if (modelClass.isAssignableFrom(CashInOutViewModel.class)) {
-            return (T) new CashInOutViewModel(application);
+            return (T) (store != null
+                    ? new CashInOutViewModel(application, store)
+                    : new CashInOutViewModel(application));
         }
         throw new IllegalArgumentException("Unknown ViewModel class: " + modelClass.getName());
     }
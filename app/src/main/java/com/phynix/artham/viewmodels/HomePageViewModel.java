@@ -9,29 +9,42 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.phynix.artham.db.CashbookStore;
 import com.phynix.artham.db.DataRepository;
+import com.phynix.artham.db.HomeSnapshot;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.db.TransactionSnapshot;
+import com.phynix.artham.index.SummaryAggregator;
 import com.phynix.artham.models.CashbookModel;
 import com.phynix.artham.models.TransactionModel;
 import com.phynix.artham.models.Users;
 import com.phynix.artham.utils.Constants;
 
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class HomePageViewModel extends AndroidViewModel {
 
     private static final String TAG = "HomePageViewModel";
 
-    private final DataRepository repository;
-    private final ExecutorService executorService;
+    private final CashbookStore repository;
+    private final SubscriptionHub subscriptionHub;
+    // Single worker thread: owns the aggregator and runs the midnight rollover
+    private final ScheduledExecutorService executorService;
+    private final SummaryAggregator aggregator = new SummaryAggregator();
+    private long aggregatedVersion = -1;
+    private ScheduledFuture<?> rolloverTask;
+    // Snapshot writes are throttled on the worker: the newest one waits for the interval to pass
+    private HomeSnapshot unsavedSnapshot;
+    private ScheduledFuture<?> saveTask;
+    private long lastSavedAt;
     private String currentUserId;
-    private String currentCashbookId;
+    private volatile String currentCashbookId;
 
     // --- Data Sources ---
     private final MutableLiveData<List<TransactionModel>> transactions = new MutableLiveData<>();
@@ -47,22 +60,35 @@ public class HomePageViewModel extends AndroidViewModel {
     private final MutableLiveData<Double> todayExpense = new MutableLiveData<>(0.0);
     private final MutableLiveData<Double> todayBalance = new MutableLiveData<>(0.0);
     private final MutableLiveData<List<TransactionModel>> todaysTransactions = new MutableLiveData<>();
+    private final MutableLiveData<List<TransactionModel>> recentTransactions = new MutableLiveData<>();
 
     // --- State ---
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
 
     // --- Listeners for Cleanup ---
-    private ValueEventListener activeTransactionListener;
-    private DatabaseReference activeTransactionRef;
+    private Subscription transactionSubscription;
 
     public HomePageViewModel(@NonNull Application application) {
+        this(application, DataRepository.getInstance(application), SubscriptionHub.getInstance(application));
+    }
+
+    /**
+     * Builds the ViewModel over any cashbook store, e.g. an {@link com.phynix.artham.db.InMemoryStore}.
+     */
+    public HomePageViewModel(@NonNull Application application, CashbookStore store, SubscriptionHub subscriptionHub) {
         super(application);
-        repository = DataRepository.getInstance(application);
-        executorService = Executors.newSingleThreadExecutor();
+        this.repository = store;
+        this.subscriptionHub = subscriptionHub;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        // Shutting down drops the rollover and the delayed save; onCleared flushes the save itself
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executorService = executor;
 
         if (repository.isUserAuthenticated()) {
             currentUserId = repository.getCurrentUserId();
+            restoreSnapshot();
+            // The store migrates older accounts before its first read
             loadCashbooks();
         } else {
             errorMessage.setValue("User not logged in.");
@@ -85,6 +111,7 @@ public class HomePageViewModel extends AndroidViewModel {
     public LiveData<Double> getCurrentBalance() { return currentBalance; }
     public LiveData<Double> getTodayBalance() { return todayBalance; }
     public LiveData<List<TransactionModel>> getTodaysTransactions() { return todaysTransactions; }
+    public LiveData<List<TransactionModel>> getRecentTransactions() { return recentTransactions; }
 
     public String getCurrentCashbookId() { return currentCashbookId; }
 
@@ -120,12 +147,11 @@ public class HomePageViewModel extends AndroidViewModel {
     public void switchCashbook(String cashbookId) {
         if (cashbookId == null) return;
 
-        if (activeTransactionListener != null && activeTransactionRef != null) {
-            activeTransactionRef.removeEventListener(activeTransactionListener);
-        }
+        detachTransactionListener();
 
         currentCashbookId = cashbookId;
         saveActiveCashbookIdToPrefs(cashbookId);
+        repository.setActiveCashbook(cashbookId);
 
         List<CashbookModel> currentList = cashbooks.getValue();
         if (currentList != null) {
@@ -139,67 +165,139 @@ public class HomePageViewModel extends AndroidViewModel {
 
         isLoading.setValue(true);
 
-        activeTransactionRef = FirebaseDatabase.getInstance().getReference()
-                .child(Constants.NODE_USERS)
-                .child(currentUserId)
-                .child(Constants.NODE_CASHBOOKS)
-                .child(cashbookId)
-                .child(Constants.NODE_TRANSACTIONS);
-
-        activeTransactionListener = repository.subscribeToTransactions(cashbookId,
-                this::processTransactions,
-                error -> {
-                    errorMessage.setValue(error);
-                    isLoading.setValue(false);
-                }
-        );
+        transactionSubscription = subscriptionHub.observeTransactions(cashbookId,
+                new SubscriptionHub.Observer<TransactionSnapshot>() {
+                    @Override
+                    public void onChanged(TransactionSnapshot snapshot) {
+                        processTransactions(cashbookId, snapshot);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        errorMessage.setValue(error);
+                        isLoading.setValue(false);
+                    }
+                });
+    }
+
+    private void detachTransactionListener() {
+        if (transactionSubscription != null) {
+            transactionSubscription.unsubscribe();
+            transactionSubscription = null;
+        }
     }
 
-    private void processTransactions(List<TransactionModel> rawData) {
+    /**
+     * Folds one hub update into the running totals on the worker thread. Full loads (and any gap
+     * in the version sequence) are summed from scratch; everything else is a single delta.
+     */
+    private void processTransactions(String cashbookId, TransactionSnapshot snapshot) {
+        CashbookModel cashbook = activeCashbook.getValue();
         executorService.execute(() -> {
-            double in = 0, out = 0;
-            double tIn = 0, tOut = 0;
-            List<TransactionModel> todayList = new ArrayList<>();
+            if (!cashbookId.equals(currentCashbookId)) return; // Switched away while queued
 
-            for (TransactionModel t : rawData) {
-                double amount = t.getAmount();
-                boolean isIncome = Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(t.getType());
+            List<TransactionModel> rawData = snapshot.getTransactions();
+            long now = System.currentTimeMillis();
+            if (snapshot.isFullLoad() || snapshot.getVersion() != aggregatedVersion + 1) {
+                aggregator.reset(rawData, now);
+            } else {
+                aggregator.apply(snapshot.getDelta(), rawData);
+            }
+            aggregatedVersion = snapshot.getVersion();
+            scheduleRollover(now);
 
-                if (isIncome) in += amount;
-                else out += amount;
+            transactions.postValue(rawData);
+            publishTotals();
+            isLoading.postValue(false);
 
-                if (isToday(t.getTimestamp())) {
-                    todayList.add(t);
-                    if (isIncome) tIn += amount;
-                    else tOut += amount;
-                }
-            }
+            // Persisted for the next cold start
+            List<TransactionModel> recent = aggregator.getRecentTransactions();
+            recentTransactions.postValue(recent);
+            saveSnapshot(new HomeSnapshot(cashbookId,
+                    cashbook != null ? cashbook.getName() : null,
+                    cashbook != null ? cashbook.getLastModified() : 0,
+                    aggregator.getTotalIn(), aggregator.getTotalOut(), now,
+                    aggregator.getTodayTransactions(), recent), now);
+        });
+    }
 
-            double finalIn = in;
-            double finalOut = out;
-            double finalTIn = tIn;
-            double finalTOut = tOut;
+    /**
+     * Writes the snapshot at most once per {@link Constants#HOME_SNAPSHOT_SAVE_INTERVAL_MS}; a burst
+     * of updates writes only its last state. Worker thread only.
+     */
+    private void saveSnapshot(HomeSnapshot snapshot, long now) {
+        unsavedSnapshot = snapshot;
+        if (saveTask != null) return;
+        long wait = lastSavedAt + Constants.HOME_SNAPSHOT_SAVE_INTERVAL_MS - now;
+        if (wait <= 0) {
+            flushSnapshot();
+        } else {
+            saveTask = executorService.schedule(this::flushSnapshot, wait, TimeUnit.MILLISECONDS);
+        }
+    }
 
-            transactions.postValue(rawData);
-            totalIncome.postValue(finalIn);
-            totalExpense.postValue(finalOut);
-            currentBalance.postValue(finalIn - finalOut);
+    private void flushSnapshot() {
+        saveTask = null;
+        if (unsavedSnapshot == null) return;
+        HomeSnapshot.save(getApplication(), currentUserId, unsavedSnapshot);
+        unsavedSnapshot = null;
+        lastSavedAt = System.currentTimeMillis();
+    }
 
-            todayIncome.postValue(finalTIn);
-            todayExpense.postValue(finalTOut);
-            todayBalance.postValue(finalTIn - finalTOut);
-            todaysTransactions.postValue(todayList);
+    private void publishTotals() {
+        totalIncome.postValue(aggregator.getTotalIn());
+        totalExpense.postValue(aggregator.getTotalOut());
+        currentBalance.postValue(aggregator.getBalance());
 
-            isLoading.postValue(false);
-        });
+        todayIncome.postValue(aggregator.getTodayIn());
+        todayExpense.postValue(aggregator.getTodayOut());
+        todayBalance.postValue(aggregator.getTodayBalance());
+        todaysTransactions.postValue(aggregator.getTodayTransactions());
+    }
+
+    /**
+     * Arms a single task at the next local midnight that moves "today" to the new day.
+     */
+    private void scheduleRollover(long now) {
+        if (rolloverTask != null && !rolloverTask.isDone()) return;
+        rolloverTask = executorService.schedule(() -> {
+            rolloverTask = null;
+            long time = System.currentTimeMillis();
+            if (aggregator.rollover(time)) publishTotals();
+            scheduleRollover(time);
+        }, SummaryAggregator.millisUntilRollover(now) + 1, TimeUnit.MILLISECONDS);
     }
 
-    private boolean isToday(long timestamp) {
-        Calendar tCal = Calendar.getInstance();
-        tCal.setTimeInMillis(timestamp);
-        Calendar now = Calendar.getInstance();
-        return tCal.get(Calendar.YEAR) == now.get(Calendar.YEAR) &&
-                tCal.get(Calendar.DAY_OF_YEAR) == now.get(Calendar.DAY_OF_YEAR);
+    /**
+     * Paints the cashbook saved by the previous session so the home screen is filled before
+     * Firebase answers. The live listener overwrites every value once it delivers.
+     */
+    private void restoreSnapshot() {
+        HomeSnapshot snapshot = HomeSnapshot.load(getApplication(), currentUserId);
+        if (snapshot == null) return;
+
+        currentCashbookId = snapshot.getCashbookId();
+        CashbookModel cashbook = new CashbookModel(snapshot.getCashbookId(), snapshot.getCashbookName());
+        cashbook.setLastModified(snapshot.getCashbookLastModified());
+        activeCashbook.setValue(cashbook);
+
+        totalIncome.setValue(snapshot.getTotalIn());
+        totalExpense.setValue(snapshot.getTotalOut());
+        currentBalance.setValue(snapshot.getTotalIn() - snapshot.getTotalOut());
+
+        // Yesterday's list is not today's; the live data fills it in
+        List<TransactionModel> todayList = snapshot.isSavedToday(System.currentTimeMillis())
+                ? new ArrayList<>(snapshot.getTodayTransactions()) : new ArrayList<>();
+        double tIn = 0, tOut = 0;
+        for (TransactionModel t : todayList) {
+            if (Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(t.getType())) tIn += t.getAmount();
+            else tOut += t.getAmount();
+        }
+        todayIncome.setValue(tIn);
+        todayExpense.setValue(tOut);
+        todayBalance.setValue(tIn - tOut);
+        todaysTransactions.setValue(todayList);
+        recentTransactions.setValue(new ArrayList<>(snapshot.getRecentTransactions()));
     }
 
     private void saveActiveCashbookIdToPrefs(String cashbookId) {
@@ -215,8 +313,9 @@ public class HomePageViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
-        if (activeTransactionListener != null && activeTransactionRef != null) {
-            activeTransactionRef.removeEventListener(activeTransactionListener);
-        }
+        detachTransactionListener();
+        // Runs after any queued update, then the worker stops
+        executorService.execute(this::flushSnapshot);
+        executorService.shutdown();
     }
 }
\ No newline at end of file
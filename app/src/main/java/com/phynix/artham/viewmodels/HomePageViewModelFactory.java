@@ -5,12 +5,27 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.phynix.artham.db.CashbookStore;
+import com.phynix.artham.db.SubscriptionHub;
+
 public class HomePageViewModelFactory implements ViewModelProvider.Factory {
 
     private final Application application;
+    private final CashbookStore store;
+    private final SubscriptionHub subscriptionHub;
 
     public HomePageViewModelFactory(Application application) {
+        this(application, null, null);
+    }
+
+    public HomePageViewModelFactory(Application application, CashbookStore store, SubscriptionHub subscriptionHub) {
+        if (store != null && subscriptionHub == null) {
+            // The default hub listens to DataRepository, so it would never see this store's data
+            throw new IllegalArgumentException("A custom store needs a SubscriptionHub over that store");
+        }
         this.application = application;
+        this.store = store;
+        this.subscriptionHub = subscriptionHub;
     }
 
     @NonNull
@@ -18,7 +33,9 @@ public class HomePageViewModelFactory implements ViewModelProvider.Factory {
     @SuppressWarnings("unchecked")
     public <T extends ViewModel> T create(@NonNull Class<T> modelClass) {
         if (modelClass.isAssignableFrom(HomePageViewModel.class)) {
-            return (T) new HomePageViewModel(application);
+            return (T) (store != null
+                    ? new HomePageViewModel(application, store, subscriptionHub)
+                    : new HomePageViewModel(application));
         }
         throw new IllegalArgumentException("Unknown ViewModel class: " + modelClass.getName());
     }
@@ -1,6 +1,8 @@
 package com.phynix.artham.viewmodels;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -9,18 +11,36 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.phynix.artham.db.DataRepository;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.db.TransactionPage;
+import com.phynix.artham.db.TransactionStore;
+import com.phynix.artham.db.TransactionSnapshot;
+import com.phynix.artham.index.CashbookIndexes;
+import com.phynix.artham.index.FilterPlanner;
+import com.phynix.artham.index.FilterQuery;
+import com.phynix.artham.index.IndexRegistry;
+import com.phynix.artham.index.TrigramIndex;
 import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class TransactionViewModel extends AndroidViewModel {
 
     private static final String TAG = "TransactionViewModel";
 
-    private final DataRepository repository;
+    private final TransactionStore repository;
+    private final SubscriptionHub subscriptionHub;
     private final String cashbookId;
 
     // LiveData for reactive UI updates
@@ -29,17 +49,75 @@ public class TransactionViewModel extends AndroidViewModel {
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
 
+    // Paged history (newest first), used to paint the list before the full load completes
+    private final MutableLiveData<List<TransactionModel>> pagedTransactions = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> hasMorePages = new MutableLiveData<>(true);
+    private final List<TransactionModel> loadedPages = new ArrayList<>();
+    private TransactionPage.Cursor nextPageCursor;
+    // Read by loadNextPage; the LiveData is posted and may lag behind
+    private boolean morePages = true;
+    private boolean isPageLoading = false;
+    // Bumped by loadFirstPage so a page still in flight from before is dropped
+    private int pageGeneration = 0;
+    private volatile boolean historyLoaded = false;
+    // The rows of the current date range have arrived; reset by every new range load
+    private volatile boolean rangeLoaded = false;
+
+    // Date range currently held in allTransactions; 0/0 means the whole history
+    private long rangeStart = 0;
+    private long rangeEnd = 0;
+    private int loadGeneration = 0;
+
+    // Whole-history mode shares the cashbook's live listener with other screens
+    private Subscription historySubscription;
+    // Last filter the user applied, re-run when live updates replace the list
+    private Consumer<List<TransactionModel>> activeFilter;
+
+    // Search and filters go through the cashbook's shared indexes once they are built. Indexing
+    // downloads the whole cashbook, so they are only observed from the first filter on.
+    private final IndexRegistry indexRegistry;
+    private Subscription indexSubscription;
+    private CashbookIndexes searchIndexes;
+
+    // Filter pipeline: typing is debounced on the main thread, the filtering runs on filterExecutor,
+    // and a result is only published if no newer request arrived meanwhile
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService filterExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger filterGeneration = new AtomicInteger();
+    private Future<?> runningFilter;
+    private Runnable pendingSearch;
+    // The list filters start from; set directly on load, unlike allTransactions which is posted
+    private List<TransactionModel> loadedTransactions = new ArrayList<>();
+
     public TransactionViewModel(@NonNull Application application, String cashbookId) {
+        this(application, cashbookId, DataRepository.getInstance(application),
+                SubscriptionHub.getInstance(application), IndexRegistry.getInstance(application));
+    }
+
+    /**
+     * Builds the ViewModel over any transaction store, e.g. an {@link com.phynix.artham.db.InMemoryStore}.
+     */
+    public TransactionViewModel(@NonNull Application application, String cashbookId,
+                                TransactionStore store, SubscriptionHub subscriptionHub) {
+        this(application, cashbookId, store, subscriptionHub, new IndexRegistry(subscriptionHub));
+    }
+
+    public TransactionViewModel(@NonNull Application application, String cashbookId,
+                                TransactionStore store, SubscriptionHub subscriptionHub, IndexRegistry indexRegistry) {
         super(application);
-        this.repository = DataRepository.getInstance(application);
+        this.repository = store;
+        this.subscriptionHub = subscriptionHub;
         this.cashbookId = cashbookId;
+        this.indexRegistry = indexRegistry;
 
         Log.d(TAG, "TransactionViewModel initialized, cashbook: " + cashbookId);
 
+        // Another screen already paid for the indexes, so sharing them is free
+        if (cashbookId != null && indexRegistry.isObserved(cashbookId)) observeIndexes();
+
         allTransactions.setValue(new ArrayList<>());
         filteredTransactions.setValue(new ArrayList<>());
-
-        loadTransactions();
+        // Nothing is loaded until a screen asks for a range (see setDateRange / refreshTransactions)
     }
 
     // --- Public Getters for LiveData ---
@@ -64,7 +142,92 @@ public class TransactionViewModel extends AndroidViewModel {
     }
 
     /**
-     * Loads transactions from repository
+     * True once the full history has been delivered. A date-range load does not count.
+     */
+    public boolean isHistoryLoaded() {
+        return historyLoaded;
+    }
+
+    /**
+     * True once the rows of the current date range (the whole history for 0/0) have been
+     * delivered, after which paging is no longer needed for that range.
+     */
+    public boolean isRangeLoaded() {
+        return rangeLoaded;
+    }
+
+    public LiveData<List<TransactionModel>> getPagedTransactions() {
+        return pagedTransactions;
+    }
+
+    public LiveData<Boolean> getHasMorePages() {
+        return hasMorePages;
+    }
+
+    /**
+     * Starts paging from the most recent transaction, discarding any pages already loaded.
+     */
+    public void loadFirstPage() {
+        loadedPages.clear();
+        nextPageCursor = null;
+        morePages = true;
+        isPageLoading = false;
+        pageGeneration++;
+        hasMorePages.setValue(true);
+        loadNextPage();
+    }
+
+    /**
+     * Fetches the next older page. Ignored while a page is in flight or when history is exhausted.
+     */
+    public void loadNextPage() {
+        if (cashbookId == null || isPageLoading || !morePages) return;
+
+        isPageLoading = true;
+        int generation = pageGeneration;
+        repository.getTransactionsPage(cashbookId, nextPageCursor, Constants.TRANSACTION_PAGE_SIZE,
+                page -> {
+                    if (generation != pageGeneration) return;
+                    isPageLoading = false;
+                    loadedPages.addAll(page.getTransactions());
+                    nextPageCursor = page.getNextCursor();
+                    morePages = page.hasMore();
+                    hasMorePages.postValue(morePages);
+                    pagedTransactions.postValue(new ArrayList<>(loadedPages));
+                },
+                error -> {
+                    if (generation != pageGeneration) return;
+                    isPageLoading = false;
+                    Log.e(TAG, "Error loading transaction page: " + error);
+                    errorMessage.postValue(error);
+                }
+        );
+    }
+
+    /**
+     * Restricts the loaded data to [startDate, endDate] and fetches only that range from the server.
+     * Pass 0/0 to load the whole history.
+     */
+    public void setDateRange(long startDate, long endDate) {
+        rangeStart = startDate;
+        rangeEnd = endDate;
+        loadTransactions();
+    }
+
+    /**
+     * Fetches an arbitrary range without touching the loaded data, e.g. for report exports.
+     */
+    public void loadTransactionsInRange(long startDate, long endDate, DataRepository.DataCallback<List<TransactionModel>> callback) {
+        if (cashbookId == null) {
+            errorMessage.postValue("Error: No cashbook selected.");
+            callback.onCallback(new ArrayList<>());
+            return;
+        }
+        repository.getTransactionsInRange(cashbookId, startDate, endDate, callback, errorMessage::postValue);
+    }
+
+    /**
+     * Loads transactions for the current range from repository
      */
     private void loadTransactions() {
         Log.d(TAG, "Loading transactions...");
@@ -76,25 +239,73 @@ public class TransactionViewModel extends AndroidViewModel {
             return;
         }
 
-        repository.getAllTransactions(cashbookId,
-                transactions -> {
-                    Log.d(TAG, "Transactions loaded successfully: " + transactions.size() + " items");
-                    allTransactions.postValue(transactions);
-                    filteredTransactions.postValue(transactions); // Initially, show all
-                    isLoading.postValue(false);
-                },
-                error -> {
-                    Log.e(TAG, "Error loading transactions: " + error);
-                    errorMessage.postValue(error);
-                    isLoading.postValue(false);
-                    allTransactions.postValue(new ArrayList<>());
-                    filteredTransactions.postValue(new ArrayList<>());
+        int generation = ++loadGeneration;
+        boolean wholeHistory = rangeStart == 0 && rangeEnd == 0;
+        rangeLoaded = false;
+        releaseHistorySubscription();
+        cancelFilters();
+        activeFilter = null;
+
+        DataRepository.DataCallback<List<TransactionModel>> onLoaded = transactions -> {
+            if (generation != loadGeneration) return; // A newer range was requested meanwhile
+            Log.d(TAG, "Transactions loaded successfully: " + transactions.size() + " items");
+            if (wholeHistory) historyLoaded = true;
+            rangeLoaded = true;
+            loadedTransactions = transactions;
+            allTransactions.postValue(transactions);
+            filteredTransactions.postValue(transactions); // Initially, show all
+            isLoading.postValue(false);
+        };
+        DataRepository.ErrorCallback onError = error -> {
+            if (generation != loadGeneration) return;
+            Log.e(TAG, "Error loading transactions: " + error);
+            errorMessage.postValue(error);
+            isLoading.postValue(false);
+            loadedTransactions = new ArrayList<>();
+            allTransactions.postValue(new ArrayList<>());
+            filteredTransactions.postValue(new ArrayList<>());
+        };
+
+        if (wholeHistory) {
+            historySubscription = subscriptionHub.observeTransactions(cashbookId, new SubscriptionHub.Observer<TransactionSnapshot>() {
+                @Override
+                public void onChanged(TransactionSnapshot snapshot) {
+                    if (snapshot.isFullLoad() || !rangeLoaded) {
+                        onLoaded.onCallback(snapshot.getTransactions());
+                    } else {
+                        onLiveUpdate(snapshot.getTransactions());
+                    }
                 }
-        );
+
+                @Override
+                public void onError(String error) {
+                    onError.onError(error);
+                }
+            });
+        } else {
+            repository.getTransactionsInRange(cashbookId, rangeStart, rangeEnd, onLoaded, onError);
+        }
+    }
+
+    private void onLiveUpdate(List<TransactionModel> transactions) {
+        loadedTransactions = transactions;
+        allTransactions.postValue(transactions);
+        if (activeFilter != null) {
+            activeFilter.accept(transactions);
+        } else {
+            filteredTransactions.postValue(transactions);
+        }
+    }
+
+    private void releaseHistorySubscription() {
+        if (historySubscription != null) {
+            historySubscription.unsubscribe();
+            historySubscription = null;
+        }
     }
 
     /**
-     * Refreshes transactions by reloading from repository
+     * Refreshes transactions by reloading the current range from repository
      */
     public void refreshTransactions() {
         Log.d(TAG, "Refreshing transactions...");
@@ -150,75 +361,265 @@ public class TransactionViewModel extends AndroidViewModel {
     }
 
     /**
-     * Filters transactions based on multiple criteria
+     * Search-bar entry point. Waits until typing pauses for {@link Constants#FILTER_DEBOUNCE_MS},
+     * then filters by the text alone; an empty text clears the filters. Once the indexes are built,
+     * the exact matches are followed by up to {@link Constants#FUZZY_SEARCH_LIMIT} close matches,
+     * best first, so misspelled parties and remarks are still found.
      */
+    public void search(String query) {
+        cancelPendingSearch();
+        filterGeneration.incrementAndGet(); // Results for earlier text are no longer wanted
+        pendingSearch = () -> {
+            pendingSearch = null;
+            if (query == null || query.trim().isEmpty()) {
+                clearFilters();
+            } else {
+                filter(new FilterQuery(query, 0, 0, null, null, null, null, null), true);
+            }
+        };
+        mainHandler.postDelayed(pendingSearch, Constants.FILTER_DEBOUNCE_MS);
+    }
+
     public void filter(String query, long startDate, long endDate, String entryType,
                        List<String> categories, List<String> paymentModes) {
+        filter(query, startDate, endDate, entryType, categories, paymentModes, null);
+    }
 
-        List<TransactionModel> originalList = allTransactions.getValue();
-        if (originalList == null) {
-            Log.w(TAG, "No transactions to filter");
-            filteredTransactions.postValue(new ArrayList<>());
+    /**
+     * Filters transactions based on multiple criteria; see {@link #filter(FilterQuery)}.
+     * @param tags keeps transactions carrying any of these tags; null or empty for any
+     */
+    public void filter(String query, long startDate, long endDate, String entryType,
+                       List<String> categories, List<String> paymentModes, List<String> tags) {
+        filter(new FilterQuery(query, startDate, endDate, entryType, categories, paymentModes, null, tags));
+    }
+
+    /**
+     * Filters transactions by a query. Call from the main thread; the work itself runs in the
+     * background and replaces any filter still in progress. Once the indexes are built,
+     * {@link FilterPlanner} picks the index to start from, and recent results are reused until
+     * the cashbook changes.
+     */
+    public void filter(FilterQuery query) {
+        filter(query, false);
+    }
+
+    private void filter(FilterQuery query, boolean fuzzy) {
+        observeIndexes();
+        // An explicit filter supersedes text still waiting in the debounce
+        cancelPendingSearch();
+        activeFilter = transactions -> applyFilters(transactions, query, fuzzy);
+
+        if (query.hasDateRange() && searchIndexes == null && !isLoadedRangeCovering(query.getStartDate(), query.getEndDate()) && cashbookId != null) {
+            // The requested dates are not in memory: let the server select them, then filter the rest here
+            Log.d(TAG, "Fetching date range for filter: " + query.getStartDate() + " - " + query.getEndDate());
+            int generation = cancelFilters();
+            repository.getTransactionsInRange(cashbookId, query.getStartDate(), query.getEndDate(),
+                    transactions -> {
+                        if (generation != filterGeneration.get()) return;
+                        applyFilters(transactions, query, fuzzy);
+                    },
+                    errorMessage::postValue);
             return;
         }
 
-        Log.d(TAG, "Applying filters - Query: " + query + ", Type: " + entryType);
+        applyFilters(loadedTransactions, query, fuzzy);
+    }
 
-        try {
-            String searchQuery = (query != null) ? query.toLowerCase(Locale.getDefault()).trim() : "";
-            List<String> safeCategories = (categories != null) ? categories : new ArrayList<>();
-            List<String> safePaymentModes = (paymentModes != null) ? paymentModes : new ArrayList<>();
+    /**
+     * Starts observing the shared indexes, once. Until the first build lands, filters scan the
+     * loaded list; the active filter is then re-run on the indexes.
+     */
+    private void observeIndexes() {
+        if (indexSubscription != null || cashbookId == null) return;
+        indexSubscription = indexRegistry.observe(cashbookId, new SubscriptionHub.Observer<CashbookIndexes>() {
+            @Override
+            public void onChanged(CashbookIndexes indexes) {
+                boolean first = searchIndexes == null;
+                searchIndexes = indexes;
+                if (first && activeFilter != null) activeFilter.accept(loadedTransactions);
+            }
 
-            List<TransactionModel> filteredList = originalList.stream()
-                    .filter(transaction -> {
-                        if (transaction == null) return false;
+            @Override
+            public void onError(String error) {
+                // Filters fall back to scanning the loaded list
+            }
+        });
+    }
 
-                        // Search Query Filter
-                        boolean matchesSearch = searchQuery.isEmpty() ||
-                                (transaction.getTransactionCategory() != null &&
-                                        transaction.getTransactionCategory().toLowerCase(Locale.getDefault()).contains(searchQuery)) ||
-                                (transaction.getPartyName() != null &&
-                                        transaction.getPartyName().toLowerCase(Locale.getDefault()).contains(searchQuery)) ||
-                                (transaction.getRemark() != null &&
-                                        transaction.getRemark().toLowerCase(Locale.getDefault()).contains(searchQuery));
+    private boolean isLoadedRangeCovering(long startDate, long endDate) {
+        if (rangeStart == 0 && rangeEnd == 0) return historyLoaded;
+        return rangeLoaded && startDate >= rangeStart && endDate <= rangeEnd;
+    }
 
-                        // Date Filter (0 means no filter)
-                        boolean matchesDate = (startDate == 0 && endDate == 0) ||
-                                (transaction.getTimestamp() >= startDate && transaction.getTimestamp() <= endDate);
+    /**
+     * Runs the query through the indexes when they are built (see {@link #applyIndexedFilter}),
+     * otherwise checks every row of the list on {@link #filterExecutor}.
+     * @param fuzzy appends close matches from the trigram index after the exact ones
+     */
+    private void applyFilters(List<TransactionModel> originalList, FilterQuery query, boolean fuzzy) {
+        boolean indexed = searchIndexes != null;
+        if (originalList == null && !indexed) {
+            Log.w(TAG, "No transactions to filter");
+            filteredTransactions.postValue(new ArrayList<>());
+            return;
+        }
 
-                        // Entry Type Filter
-                        boolean matchesEntryType = "All".equalsIgnoreCase(entryType) || (entryType == null) ||
-                                (entryType.equalsIgnoreCase(transaction.getType()));
+        Log.d(TAG, "Applying filters - " + query);
+        int generation = cancelFilters();
+        if (indexed) {
+            applyIndexedFilter(generation, query, fuzzy);
+            return;
+        }
 
-                        // Category Filter
-                        boolean matchesCategory = safeCategories.isEmpty() ||
-                                safeCategories.contains(transaction.getTransactionCategory());
+        runningFilter = filterExecutor.submit(() -> {
+            List<TransactionModel> filteredList;
+            try {
+                filteredList = new ArrayList<>();
+                for (int i = 0; i < originalList.size(); i++) {
+                    // Stop early once a newer request has replaced this one
+                    if ((i & 511) == 0 && (Thread.currentThread().isInterrupted() || generation != filterGeneration.get())) {
+                        return;
+                    }
+                    TransactionModel transaction = originalList.get(i);
+                    if (transaction != null && query.matches(transaction)) filteredList.add(transaction);
+                }
+                Log.d(TAG, "Filter applied: " + filteredList.size() + " transactions match criteria");
+            } catch (Exception e) {
+                Log.e(TAG, "Error applying filters", e);
+                filteredList = originalList; // On error, show all
+            }
 
-                        // Payment Mode Filter
-                        boolean matchesPaymentMode = safePaymentModes.isEmpty() ||
-                                safePaymentModes.contains(transaction.getPaymentMode());
+            publishFilterResult(generation, filteredList);
+        });
+    }
 
-                        return matchesSearch && matchesDate && matchesEntryType && matchesCategory && matchesPaymentMode;
-                    })
-                    .collect(Collectors.toList());
+    /**
+     * Reuses the cashbook's cached result when there is one; otherwise evaluates the query with
+     * {@link FilterPlanner}, and the close matches, on {@link #filterExecutor} under
+     * {@link CashbookIndexes#read}, then sorts outside the lock. The indexes cover the whole
+     * cashbook, so without a date filter the query is kept to the loaded range.
+     */
+    private void applyIndexedFilter(int generation, FilterQuery query, boolean fuzzy) {
+        CashbookIndexes indexes = searchIndexes;
+        FilterQuery scoped = query.hasDateRange() ? query : query.withDateRange(rangeStart, rangeEnd);
+        long start = rangeStart;
+        long end = rangeEnd;
+        boolean withCloseMatches = fuzzy && !scoped.getWords().isEmpty();
+
+        List<TransactionModel> cached = indexes.getFilterResults().get(scoped, indexes.getVersion());
+        if (cached != null && !withCloseMatches) {
+            publishFilterResult(generation, cached);
+            return;
+        }
+
+        runningFilter = filterExecutor.submit(() -> {
+            if (generation != filterGeneration.get()) return;
+            IndexedResult result = indexes.read(() -> {
+                long version = indexes.getVersion();
+                List<TransactionModel> exact = cached;
+                if (exact == null) {
+                    FilterPlanner.Plan plan = FilterPlanner.plan(indexes, scoped);
+                    Log.d(TAG, "Filter plan: " + plan);
+                    exact = FilterPlanner.execute(indexes, scoped, plan);
+                }
+                List<TransactionModel> closeMatches = withCloseMatches
+                        ? selectCloseMatches(indexes.getTrigrams(), scoped.getText(), exact, start, end)
+                        : new ArrayList<>();
+                return new IndexedResult(version, exact, closeMatches);
+            });
+
+            if (cached == null) {
+                result.exact.sort(SortedTransactionIndex.NEWEST_FIRST);
+                // Cached before the generation check: the result is still right for its version
+                mainHandler.post(() -> indexes.getFilterResults().put(scoped, result.version, result.exact));
+            }
+            publishFilterResult(generation, withCloseMatches(result.exact, result.closeMatches));
+        });
+    }
 
-            Log.d(TAG, "Filter applied: " + filteredList.size() + " transactions match criteria");
-            filteredTransactions.postValue(filteredList);
+    private static final class IndexedResult {
+        final long version;
+        final List<TransactionModel> exact;
+        final List<TransactionModel> closeMatches;
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error applying filters", e);
-            filteredTransactions.postValue(originalList); // On error, show all
+        IndexedResult(long version, List<TransactionModel> exact, List<TransactionModel> closeMatches) {
+            this.version = version;
+            this.exact = exact;
+            this.closeMatches = closeMatches;
         }
     }
 
+    /**
+     * The trigram index's best matches for the query that are not among the exact matches, kept
+     * to [start, end] unless both are 0.
+     */
+    private static List<TransactionModel> selectCloseMatches(TrigramIndex trigrams, String query,
+                                                             List<TransactionModel> exactMatches, long start, long end) {
+        Set<String> exactIds = new HashSet<>();
+        for (TransactionModel transaction : exactMatches) exactIds.add(transaction.getTransactionId());
+        boolean anyDate = start == 0 && end == 0;
+        return trigrams.search(query, Constants.FUZZY_SEARCH_LIMIT, transaction ->
+                !exactIds.contains(transaction.getTransactionId())
+                        && (anyDate || (transaction.getTimestamp() >= start && transaction.getTimestamp() <= end)));
+    }
+
+    /**
+     * Close matches keep their ranking after the exact ones; the exact list may be cached, so
+     * it is copied rather than extended.
+     */
+    private static List<TransactionModel> withCloseMatches(List<TransactionModel> exact, List<TransactionModel> closeMatches) {
+        if (closeMatches.isEmpty()) return exact;
+        List<TransactionModel> result = new ArrayList<>(exact.size() + closeMatches.size());
+        result.addAll(exact);
+        result.addAll(closeMatches);
+        return result;
+    }
+
+    private void publishFilterResult(int generation, List<TransactionModel> result) {
+        // Generations only move on the main thread, so checking there cannot race a newer request
+        mainHandler.post(() -> {
+            if (generation == filterGeneration.get()) filteredTransactions.postValue(result);
+        });
+    }
+
     public void clearFilters() {
         Log.d(TAG, "Clearing all filters");
-        List<TransactionModel> originalList = allTransactions.getValue();
-        if (originalList != null) {
-            filteredTransactions.postValue(originalList);
+        cancelPendingSearch();
+        cancelFilters();
+        activeFilter = null;
+        if (loadedTransactions != null) {
+            filteredTransactions.postValue(loadedTransactions);
+        }
+    }
+
+    /**
+     * Invalidates the filter in progress, if any.
+     * @return the generation of the request that replaces it
+     */
+    private int cancelFilters() {
+        int generation = filterGeneration.incrementAndGet();
+        if (runningFilter != null) {
+            runningFilter.cancel(true);
+            runningFilter = null;
+        }
+        return generation;
+    }
+
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
         }
     }
 
+    /**
+     * True while a search or filter from {@link #filter} is applied to the list.
+     */
+    public boolean isFiltering() {
+        return activeFilter != null;
+    }
+
     public String getCashbookId() {
         return cashbookId;
     }
@@ -226,6 +627,10 @@ public class TransactionViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
+        releaseHistorySubscription();
+        if (indexSubscription != null) indexSubscription.unsubscribe();
+        cancelPendingSearch();
+        filterExecutor.shutdownNow();
         Log.d(TAG, "TransactionViewModel cleared");
     }
 }
\ No newline at end of file
@@ -5,13 +5,28 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.db.TransactionStore;
+
 public class TransactionViewModelFactory implements ViewModelProvider.Factory {
     private final Application application;
     private final String cashbookId;
+    private final TransactionStore store;
+    private final SubscriptionHub subscriptionHub;
 
     public TransactionViewModelFactory(Application application, String cashbookId) {
+        this(application, cashbookId, null, null);
+    }
+
+    public TransactionViewModelFactory(Application application, String cashbookId,
+                                       TransactionStore store, SubscriptionHub subscriptionHub) {
+        if (store != null && subscriptionHub == null) {
+            throw new IllegalArgumentException("A custom store needs a SubscriptionHub over that store");
+        }
         this.application = application;
         this.cashbookId = cashbookId;
+        this.store = store;
+        this.subscriptionHub = subscriptionHub;
     }
 
     @NonNull
@@ -20,7 +35,9 @@ public class TransactionViewModelFactory implements ViewModelProvider.Factory {
         if (modelClass.isAssignableFrom(TransactionViewModel.class)) {
             // [FIX] Passes the cashbookId to the ViewModel
             // noinspection unchecked
-            return (T) new TransactionViewModel(application, cashbookId);
+            return (T) (store != null
+                    ? new TransactionViewModel(application, cashbookId, store, subscriptionHub)
+                    : new TransactionViewModel(application, cashbookId));
         }
         throw new IllegalArgumentException("Unknown ViewModel class");
     }
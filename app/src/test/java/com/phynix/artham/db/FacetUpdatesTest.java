@@ -0,0 +1,79 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.CashbookFacets;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FacetUpdatesTest {
+
+    // Every character Firebase forbids in keys, plus the escape character itself
+    private static final String[] AWKWARD = {"A.B Traders", "$ales", "#1 Shop", "[draft]", "in/out", "50% off",
+            "tab\there", "del\u007f", "plain", "Ünïcödé"};
+
+    @Test
+    public void keysRoundTrip() {
+        for (String value : AWKWARD) {
+            String key = FacetUpdates.encodeKey(value);
+            for (char forbidden : ".$#[]/\t\u007f".toCharArray()) {
+                assertFalse(key, key.indexOf(forbidden) >= 0);
+            }
+            assertEquals(value, FacetUpdates.decodeKey(key));
+        }
+    }
+
+    @Test
+    public void nodeRoundTripsThroughPlainValues() {
+        Random random = new Random(37);
+        List<TransactionModel> transactions = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            TransactionModel transaction = new TransactionModel();
+            transaction.setPartyName(AWKWARD[random.nextInt(AWKWARD.length)]);
+            transaction.setPaymentMode(random.nextBoolean() ? "Cash" : "Online");
+            transaction.setTransactionCategory(AWKWARD[random.nextInt(AWKWARD.length)]);
+            transaction.setTags(random.nextBoolean() ? "work,50% off" : null);
+            transactions.add(transaction);
+        }
+        CashbookFacets facets = CashbookFacets.of(transactions);
+
+        CashbookFacets decoded = FacetUpdates.decode(FacetUpdates.toNode(facets));
+        assertEquals(facets.getParties(), decoded.getParties());
+        assertEquals(facets.getTags(), decoded.getTags());
+        assertEquals(facets.getPaymentModes(), decoded.getPaymentModes());
+        assertEquals(facets.getCategories(), decoded.getCategories());
+    }
+
+    @Test
+    public void countsAtZeroAreNotWritten() {
+        CashbookFacets facets = new CashbookFacets();
+        facets.getParties().put("Gone", 0L);
+        facets.getParties().put("Kept", 2L);
+
+        CashbookFacets decoded = FacetUpdates.decode(FacetUpdates.toNode(facets));
+        assertEquals(1, decoded.getParties().size());
+        assertEquals(Long.valueOf(2), decoded.getParties().get("Kept"));
+    }
+
+    @Test
+    public void integerKeysReadBackAsAList() {
+        // What getValue() returns for parties named 0, 1 and 2
+        Map<String, Object> node = new HashMap<>();
+        node.put(Constants.FACET_PARTIES, Arrays.asList(3L, null, 1L));
+
+        CashbookFacets decoded = FacetUpdates.decode(node);
+        assertEquals(2, decoded.getParties().size());
+        assertEquals(Long.valueOf(3), decoded.getParties().get("0"));
+        assertEquals(Long.valueOf(1), decoded.getParties().get("2"));
+    }
+}
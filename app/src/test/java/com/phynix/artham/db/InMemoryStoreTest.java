@@ -0,0 +1,91 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryStoreTest {
+
+    private InMemoryStore store;
+    private String cashbookId;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryStore();
+        store.createNewCashbook("Test", null, id -> cashbookId = id, null);
+    }
+
+    @Test
+    public void subscribersGetTheirOwnCopies() {
+        store.addTransaction(cashbookId, SortedTransactionIndexTest.transaction(null, 10), null);
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        store.subscribeToTransactionChanges(cashbookId, first, null);
+        store.subscribeToTransactionChanges(cashbookId, second, null);
+        assertNotSame(first.index, second.index);
+
+        // Editing what a subscriber was handed changes neither the store nor the other subscriber
+        first.index.snapshot().get(0).setRemark("changed");
+        assertNull(second.index.snapshot().get(0).getRemark());
+        assertNull(allTransactions().get(0).getRemark());
+
+        store.addTransaction(cashbookId, SortedTransactionIndexTest.transaction(null, 20), null);
+        assertEquals(2, first.index.size());
+        assertEquals(2, second.index.size());
+        assertNotSame(first.deltas.get(0).getTransaction(), second.deltas.get(0).getTransaction());
+    }
+
+    @Test
+    public void deletingACashbookEmptiesItsSubscribers() {
+        for (int i = 0; i < 5; i++) store.addTransaction(cashbookId, SortedTransactionIndexTest.transaction(null, i), null);
+        Recorder recorder = new Recorder();
+        store.subscribeToTransactionChanges(cashbookId, recorder, null);
+
+        store.deleteCashbook(cashbookId, null, null);
+        assertEquals(5, recorder.deltas.size());
+        assertEquals(0, recorder.index.size());
+        for (TransactionDelta delta : recorder.deltas) assertNull(delta.getTransaction());
+        assertTrue(allTransactions().isEmpty());
+    }
+
+    @Test
+    public void unsubscribedCallbacksHearNothing() {
+        Recorder recorder = new Recorder();
+        Subscription subscription = store.subscribeToTransactionChanges(cashbookId, recorder, null);
+        subscription.unsubscribe();
+        store.addTransaction(cashbookId, SortedTransactionIndexTest.transaction(null, 1), null);
+        assertTrue(recorder.deltas.isEmpty());
+    }
+
+    private List<TransactionModel> allTransactions() {
+        List<List<TransactionModel>> result = new ArrayList<>();
+        store.getAllTransactions(cashbookId, result::add, null);
+        return result.get(0);
+    }
+
+    private static final class Recorder implements DataRepository.TransactionChangeCallback {
+        SortedTransactionIndex index;
+        final List<TransactionDelta> deltas = new ArrayList<>();
+
+        @Override
+        public void onInitialLoad(SortedTransactionIndex index) {
+            this.index = index;
+        }
+
+        @Override
+        public void onTransactionChanged(TransactionDelta delta, SortedTransactionIndex index) {
+            assertSame(this.index, index);
+            deltas.add(delta);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModelDecoderTest {
+
+    @Test
+    public void decodesEveryRowNewestFirst() {
+        Map<String, Object> raw = TestTransactions.node(5000, new Random(7), NOW - 365 * DAY, NOW);
+        List<TransactionModel> decoded = ModelDecoder.decodeTransactions(raw);
+
+        assertEquals(raw.size(), decoded.size());
+        for (int i = 1; i < decoded.size(); i++) {
+            assertTrue(SortedTransactionIndex.NEWEST_FIRST.compare(decoded.get(i - 1), decoded.get(i)) <= 0);
+        }
+        for (TransactionModel transaction : decoded) {
+            Map<?, ?> fields = (Map<?, ?>) raw.get(transaction.getTransactionId());
+            assertEquals(fields.get("timestamp"), transaction.getTimestamp());
+            assertEquals((Double) fields.get("amount"), transaction.getAmount(), 0);
+            assertEquals(fields.get("type"), transaction.getType());
+            assertEquals(fields.get("transactionCategory"), transaction.getTransactionCategory());
+            assertEquals(fields.get("paymentMode"), transaction.getPaymentMode());
+            assertEquals(fields.get("partyName"), transaction.getPartyName());
+            assertEquals(fields.get("remark"), transaction.getRemark());
+            assertEquals(fields.get("tags"), transaction.getTags());
+        }
+    }
+
+    @Test
+    public void wholeAmountsArriveAsLongs() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("amount", 250L);
+        fields.put("timestamp", NOW);
+        TransactionModel transaction = ModelDecoder.toTransaction("-tx", fields);
+
+        assertEquals(250, transaction.getAmount(), 0);
+        assertEquals(NOW, transaction.getTimestamp());
+        assertNull(transaction.getTags());
+    }
+
+    @Test
+    public void skipsChildrenThatAreNotObjects() {
+        Map<String, Object> raw = TestTransactions.node(3, new Random(1), NOW - DAY, NOW);
+        raw.put("-broken", "not a transaction");
+        assertEquals(3, ModelDecoder.decodeTransactions(raw).size());
+    }
+}
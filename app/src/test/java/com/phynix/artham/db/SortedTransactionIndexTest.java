@@ -0,0 +1,114 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SortedTransactionIndexTest {
+
+    @Test
+    public void randomUpsertsAndRemovesMatchASortedList() {
+        Random random = new Random(42);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        List<TransactionModel> expected = new ArrayList<>();
+
+        for (int step = 0; step < 5000; step++) {
+            String id = "t" + random.nextInt(300);
+            int existing = find(expected, id);
+            if (existing >= 0 && random.nextInt(4) == 0) {
+                TransactionDelta delta = index.remove(id);
+                assertEquals(existing, delta.getPreviousPosition());
+                expected.remove(existing);
+            } else {
+                // Few distinct timestamps, so many rows tie and edits often keep their slot
+                TransactionModel transaction = transaction(id, random.nextInt(40));
+                TransactionDelta delta = index.upsert(transaction);
+                if (existing >= 0) expected.remove(existing);
+                expected.add(transaction);
+                expected.sort(SortedTransactionIndex.NEWEST_FIRST);
+                assertEquals(existing, delta.getPreviousPosition());
+                assertEquals(expected.indexOf(transaction), delta.getPosition());
+            }
+            assertEquals(expected, index.snapshot());
+        }
+    }
+
+    @Test
+    public void editWithoutTimeChangeKeepsItsPosition() {
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        index.upsert(transaction("a", 3));
+        index.upsert(transaction("b", 2));
+        index.upsert(transaction("c", 1));
+
+        TransactionDelta delta = index.upsert(transaction("b", 2));
+        assertEquals(TransactionDelta.Type.CHANGED, delta.getType());
+        assertEquals(1, delta.getPosition());
+        assertEquals(1, delta.getPreviousPosition());
+        assertNull(index.remove("missing"));
+    }
+
+    @Test
+    public void pagingWithTiedTimestampsSkipsNothing() {
+        // Firebase orders by (timestamp, key) ascending; a page is the last rows before the cursor
+        List<TransactionModel> server = new ArrayList<>();
+        server.add(transaction("a", 1));
+        server.add(transaction("b", 1));
+        server.add(transaction("c", 2));
+        for (int i = 0; i < 50; i++) server.add(transaction("k" + (char) ('a' + i % 26) + i, 3 + i / 7));
+
+        for (int pageSize = 1; pageSize <= 6; pageSize++) {
+            List<TransactionModel> seen = new ArrayList<>();
+            TransactionModel cursor = null;
+            while (true) {
+                List<TransactionModel> before = new ArrayList<>();
+                for (TransactionModel transaction : server) {
+                    if (cursor == null || ascending(transaction, cursor) < 0) before.add(transaction);
+                }
+                before.sort(SortedTransactionIndexTest::ascending);
+                List<TransactionModel> page = new ArrayList<>(before.subList(Math.max(0, before.size() - pageSize - 1), before.size()));
+                // As DataRepository.getTransactionsPage: newest first, the extra row dropped
+                page.sort(SortedTransactionIndex.NEWEST_FIRST);
+                boolean hasMore = page.size() > pageSize;
+                if (hasMore) page = page.subList(0, pageSize);
+                seen.addAll(page);
+                if (!hasMore) break;
+                cursor = page.get(page.size() - 1);
+            }
+            List<TransactionModel> expected = new ArrayList<>(server);
+            expected.sort(SortedTransactionIndex.NEWEST_FIRST);
+            assertEquals("page size " + pageSize, ids(expected), ids(seen));
+        }
+    }
+
+    private static int ascending(TransactionModel t1, TransactionModel t2) {
+        int byTime = Long.compare(t1.getTimestamp(), t2.getTimestamp());
+        return byTime != 0 ? byTime : t1.getTransactionId().compareTo(t2.getTransactionId());
+    }
+
+    private static List<String> ids(List<TransactionModel> transactions) {
+        List<String> ids = new ArrayList<>();
+        for (TransactionModel transaction : transactions) ids.add(transaction.getTransactionId());
+        return ids;
+    }
+
+    private static int find(List<TransactionModel> transactions, String id) {
+        for (int i = 0; i < transactions.size(); i++) {
+            if (transactions.get(i).getTransactionId().equals(id)) return i;
+        }
+        return -1;
+    }
+
+    static TransactionModel transaction(String id, long timestamp) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setTransactionId(id);
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
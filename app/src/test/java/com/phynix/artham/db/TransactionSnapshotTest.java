@@ -0,0 +1,58 @@
+package com.phynix.artham.db;
+
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionSnapshotTest {
+
+    @Test
+    public void lazySnapshotsMatchTheIndexAtTheirVersion() {
+        Random random = new Random(7);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        for (int i = 0; i < 100; i++) index.upsert(SortedTransactionIndexTest.transaction("t" + i, random.nextInt(50)));
+
+        TransactionSnapshot latest = new TransactionSnapshot("cb", index.snapshot(), null, 1);
+        List<TransactionSnapshot> snapshots = new ArrayList<>();
+        List<List<TransactionModel>> expected = new ArrayList<>();
+        for (int step = 0; step < 1000; step++) {
+            String id = "t" + random.nextInt(150);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(SortedTransactionIndexTest.transaction(id, random.nextInt(50)));
+            latest = new TransactionSnapshot(latest, delta, latest.getVersion() + 1);
+            assertEquals(index.size(), latest.getTransactions().size());
+            snapshots.add(latest);
+            expected.add(index.snapshot());
+        }
+
+        // Read in random order, so some lists are built from older built ones and some from far back
+        for (int i = 0; i < 300; i++) {
+            int pick = random.nextInt(snapshots.size());
+            assertEquals(expected.get(pick), new ArrayList<>(snapshots.get(pick).getTransactions()));
+        }
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(expected.get(i), snapshots.get(i).getTransactions());
+        }
+    }
+
+    @Test
+    public void fullLoadKeepsTheContents() {
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        index.upsert(SortedTransactionIndexTest.transaction("a", 1));
+        TransactionSnapshot first = new TransactionSnapshot("cb", index.snapshot(), null, 1);
+        TransactionSnapshot second = new TransactionSnapshot(first, index.upsert(SortedTransactionIndexTest.transaction("b", 2)), 2);
+
+        TransactionSnapshot replay = second.asFullLoad();
+        assertTrue(replay.isFullLoad());
+        assertEquals(2, replay.getVersion());
+        assertEquals(index.snapshot(), replay.getTransactions());
+    }
+}
@@ -0,0 +1,107 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.DateTimeUtils;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static org.junit.Assert.assertEquals;
+
+public class BalanceIndexTest {
+
+    @Test
+    public void balanceAtAfterDeltasMatchesASum() {
+        Random random = new Random(61);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        BalanceIndex balance = new BalanceIndex();
+        balance.reset(index.snapshot());
+
+        for (int step = 0; step < 4000; step++) {
+            String id = "t" + random.nextInt(300);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            List<TransactionModel> transactions = index.snapshot();
+            balance.apply(delta, transactions);
+
+            for (int query = 0; query < 3; query++) {
+                long at = NOW - 800 * DAY + (long) (random.nextDouble() * 900 * DAY);
+                assertEquals("step " + step, balanceAt(transactions, at), balance.getBalanceAt(at), 1e-6);
+            }
+            // Exactly at a transaction, where same-time rows all count
+            if (!transactions.isEmpty()) {
+                long at = transactions.get(random.nextInt(transactions.size())).getTimestamp();
+                assertEquals("at " + at, balanceAt(transactions, at), balance.getBalanceAt(at), 1e-6);
+            }
+            long during = NOW - random.nextInt(800) * DAY;
+            assertEquals("closing " + during, balanceAt(transactions, DateTimeUtils.startOfNextDay(during) - 1),
+                    balance.getClosingBalance(DateTimeUtils.toEpochDay(during)), 1e-6);
+        }
+    }
+
+    @Test
+    public void netFlowAndDailyBalancesMatchASum() {
+        Random random = new Random(67);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        BalanceIndex balance = new BalanceIndex();
+        balance.reset(index.snapshot());
+        for (int step = 0; step < 2000; step++) {
+            String id = "t" + random.nextInt(200);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            balance.apply(delta, index.snapshot());
+        }
+        List<TransactionModel> transactions = index.snapshot();
+
+        for (int query = 0; query < 200; query++) {
+            long from = NOW - 800 * DAY + (long) (random.nextDouble() * 900 * DAY);
+            long to = from + (long) (random.nextDouble() * 60 * DAY);
+            assertEquals(balanceAt(transactions, to) - balanceAt(transactions, from - 1),
+                    balance.getNetFlow(from, to), 1e-6);
+        }
+
+        // Closing balances of consecutive days, including days before the first entry
+        long today = DateTimeUtils.toEpochDay(NOW);
+        double[] daily = balance.getDailyBalances(today - 800, today + 40);
+        for (int i = 0; i < daily.length; i++) {
+            assertEquals("day " + (today - 800 + i), balance.getClosingBalance(today - 800 + i), daily[i], 1e-6);
+        }
+
+        // A rebuild lands on the same balances as the deltas
+        BalanceIndex rebuilt = new BalanceIndex();
+        rebuilt.reset(transactions);
+        for (int i = 0; i < daily.length; i++) {
+            assertEquals(rebuilt.getClosingBalance(today - 800 + i), daily[i], 1e-6);
+        }
+    }
+
+    private static double balanceAt(List<TransactionModel> transactions, long millis) {
+        double balance = 0;
+        for (TransactionModel transaction : transactions) {
+            if (transaction.getTimestamp() > millis) continue;
+            balance += Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType())
+                    ? transaction.getAmount() : -transaction.getAmount();
+        }
+        return balance;
+    }
+
+    // Mostly the last year, with some entries back-dated two years or dated ahead, past the
+    // headroom the day range keeps on either side
+    private static TransactionModel transaction(String id, Random random) {
+        switch (random.nextInt(20)) {
+            case 0: return TestTransactions.random(id, random, NOW - 730 * DAY, NOW - 365 * DAY);
+            case 1: return TestTransactions.random(id, random, NOW, NOW + 30 * DAY);
+            default: return TestTransactions.random(id, random, NOW - 365 * DAY, NOW);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.models.CashbookModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class CashbookSearchTest {
+
+    private static final String[] PARTS = {"Shop", "HOME", "café", "Office", "Travel", "ÉTÉ", "rent", "Kirana", "  ", "2024"};
+    private static final String[] SORTS = {"name_asc", "name_desc", "oldest", "most_transactions", "balance_high",
+            "balance_low", "recent", null};
+
+    @Test
+    public void typedQueriesMatchAScan() {
+        Random random = new Random(59);
+        for (boolean includeDescription : new boolean[]{false, true}) {
+            CashbookSearch search = new CashbookSearch(includeDescription);
+            List<CashbookModel> cashbooks = cashbooks(random, 300);
+            search.setCashbooks(cashbooks);
+
+            String query = "";
+            for (int step = 0; step < 5000; step++) {
+                int action = random.nextInt(10);
+                if (action < 5) {
+                    query += randomChar(random); // Typing narrows
+                } else if (action < 8 && !query.isEmpty()) {
+                    query = query.substring(0, query.length() - 1); // Backspace widens
+                } else if (action == 8) {
+                    query = random.nextBoolean() ? "" : PARTS[random.nextInt(PARTS.length)]; // Pasted or cleared
+                } else {
+                    cashbooks = cashbooks(random, 1 + random.nextInt(300)); // The list changes under the query
+                    search.setCashbooks(cashbooks);
+                }
+                assertEquals(query, scan(cashbooks, query, includeDescription), search.search(query));
+            }
+        }
+    }
+
+    @Test
+    public void comparatorMatchesSortThenPin() {
+        Random random = new Random(61);
+        for (String sort : SORTS) {
+            List<CashbookModel> cashbooks = cashbooks(random, 200);
+            cashbooks.get(random.nextInt(cashbooks.size())).setCurrent(true);
+
+            List<CashbookModel> onePass = new ArrayList<>(cashbooks);
+            Collections.sort(onePass, CashbookSearch.comparator(sort));
+            // The two passes the switch screens used to make: the chosen order, then a stable "current first"
+            List<CashbookModel> twoPass = new ArrayList<>(cashbooks);
+            Collections.sort(twoPass, (c1, c2) -> CashbookSearch.comparator(sort).compare(unpinned(c1), unpinned(c2)));
+            Collections.sort(twoPass, (c1, c2) -> Boolean.compare(c2.isCurrent(), c1.isCurrent()));
+            assertEquals(String.valueOf(sort), twoPass, onePass);
+        }
+    }
+
+    private static List<CashbookModel> scan(List<CashbookModel> cashbooks, String query, boolean includeDescription) {
+        String key = TextSearchIndex.normalize(query).trim();
+        List<CashbookModel> matches = new ArrayList<>();
+        for (CashbookModel cashbook : cashbooks) {
+            boolean match = TextSearchIndex.normalize(cashbook.getName()).contains(key)
+                    || (includeDescription && TextSearchIndex.normalize(cashbook.getDescription()).contains(key));
+            if (match) matches.add(cashbook);
+        }
+        return matches;
+    }
+
+    // A copy that is never current, so the comparator applies only the sort order
+    private static CashbookModel unpinned(CashbookModel cashbook) {
+        CashbookModel copy = new CashbookModel(cashbook.getCashbookId(), cashbook.getName());
+        copy.setCreatedDate(cashbook.getCreatedDate());
+        copy.setLastModified(cashbook.getLastModified());
+        copy.setTransactionCount(cashbook.getTransactionCount());
+        copy.setTotalBalance(cashbook.getTotalBalance());
+        copy.setCurrent(false);
+        return copy;
+    }
+
+    private static char randomChar(Random random) {
+        String part = PARTS[random.nextInt(PARTS.length)];
+        return part.charAt(random.nextInt(part.length()));
+    }
+
+    private static List<CashbookModel> cashbooks(Random random, int count) {
+        List<CashbookModel> cashbooks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CashbookModel cashbook = new CashbookModel("c" + i, random.nextInt(20) == 0 ? null : words(random));
+            cashbook.setDescription(random.nextInt(3) == 0 ? null : words(random));
+            cashbook.setCreatedDate(random.nextInt(1000));
+            cashbook.setLastModified(random.nextInt(1000));
+            cashbook.setTransactionCount(random.nextInt(50));
+            cashbook.setTotalBalance(random.nextInt(2000) - 1000);
+            cashbooks.add(cashbook);
+        }
+        return cashbooks;
+    }
+
+    private static String words(Random random) {
+        return PARTS[random.nextInt(PARTS.length)] + " " + PARTS[random.nextInt(PARTS.length)];
+    }
+}
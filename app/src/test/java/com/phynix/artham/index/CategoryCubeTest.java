@@ -0,0 +1,129 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CategoryCubeTest {
+
+    private static final String[] TYPES = {Constants.TRANSACTION_TYPE_IN, Constants.TRANSACTION_TYPE_OUT};
+
+    @Test
+    public void cellsAfterDeltasMatchAGrouping() {
+        Random random = new Random(71);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        CategoryCube cube = new CategoryCube();
+        cube.reset(index.snapshot());
+
+        for (int step = 0; step < 4000; step++) {
+            // Few ids over a few months, so months and cells empty out often
+            String id = "t" + random.nextInt(60);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            cube.apply(delta);
+            if (step % 10 != 0) continue;
+
+            Map<Integer, List<TransactionModel>> byMonth = new TreeMap<>();
+            for (TransactionModel transaction : index.snapshot()) {
+                byMonth.computeIfAbsent(CategoryCube.monthKeyOf(transaction.getTimestamp()), key -> new ArrayList<>())
+                        .add(transaction);
+            }
+            int firstMonth = CategoryCube.monthKeyOf(NOW - 150 * DAY);
+            for (String type : TYPES) {
+                for (int month = firstMonth; month <= firstMonth + 6; month++) {
+                    List<TransactionModel> rows = byMonth.getOrDefault(month, new ArrayList<>());
+                    Map<String, Double> expected = group(rows, type);
+                    assertTotals(type + " " + month, expected, cube.getCategoryTotals(month, type));
+                    double total = 0;
+                    for (double amount : expected.values()) total += amount;
+                    assertEquals(total, cube.getTotal(month, type), 1e-6);
+                }
+
+                // Only months that still have rows of the type are listed
+                Map<String, Map<String, Double>> monthly = cube.getMonthlyTotals(type);
+                TreeSet<String> expectedMonths = new TreeSet<>();
+                for (Map.Entry<Integer, List<TransactionModel>> entry : byMonth.entrySet()) {
+                    Map<String, Double> expected = group(entry.getValue(), type);
+                    if (expected.isEmpty()) continue;
+                    String key = CategoryCube.formatMonth(entry.getKey());
+                    expectedMonths.add(key);
+                    assertTotals(type + " " + key, expected, monthly.get(key));
+                }
+                assertEquals(expectedMonths, new TreeSet<>(monthly.keySet()));
+                assertEquals(new ArrayList<>(expectedMonths), new ArrayList<>(monthly.keySet()));
+            }
+        }
+    }
+
+    @Test
+    public void removingTheLastRowOfAMonthDropsIt() {
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        CategoryCube cube = new CategoryCube();
+        cube.reset(index.snapshot());
+        TransactionModel only = new TransactionModel();
+        only.setTransactionId("only");
+        only.setTimestamp(NOW);
+        only.setType(Constants.TRANSACTION_TYPE_OUT);
+        only.setAmount(12.5);
+        cube.apply(index.upsert(only));
+        int month = CategoryCube.monthKeyOf(NOW);
+
+        Map<String, Double> before = cube.getCategoryTotals(month, Constants.TRANSACTION_TYPE_OUT);
+        assertEquals(12.5, before.get(CategoryCube.UNCATEGORIZED), 1e-9);
+        assertFalse(cube.getMonthlyTotals(Constants.TRANSACTION_TYPE_OUT).isEmpty());
+
+        cube.apply(index.remove("only"));
+        assertTrue(cube.getCategoryTotals(month, Constants.TRANSACTION_TYPE_OUT).isEmpty());
+        assertEquals(0, cube.getTotal(month, Constants.TRANSACTION_TYPE_OUT), 0);
+        assertTrue(cube.getMonthlyTotals(Constants.TRANSACTION_TYPE_OUT).isEmpty());
+    }
+
+    private static Map<String, Double> group(List<TransactionModel> rows, String type) {
+        Map<String, Double> totals = new HashMap<>();
+        for (TransactionModel transaction : rows) {
+            boolean in = Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType());
+            if (in != Constants.TRANSACTION_TYPE_IN.equals(type)) continue;
+            String category = transaction.getTransactionCategory();
+            if (category == null || category.isEmpty()) category = CategoryCube.UNCATEGORIZED;
+            totals.merge(category, transaction.getAmount(), Double::sum);
+        }
+        return totals;
+    }
+
+    // Same categories and amounts, largest first; ties may come in any order
+    private static void assertTotals(String message, Map<String, Double> expected, Map<String, Double> actual) {
+        assertEquals(message, new TreeSet<>(expected.keySet()), new TreeSet<>(actual.keySet()));
+        double previous = Double.POSITIVE_INFINITY;
+        for (Map.Entry<String, Double> entry : actual.entrySet()) {
+            assertEquals(message + " " + entry.getKey(), expected.get(entry.getKey()), entry.getValue(), 1e-6);
+            assertTrue(message, entry.getValue() <= previous + 1e-6);
+            previous = entry.getValue();
+        }
+    }
+
+    // About five months; one in eight without a category
+    private static TransactionModel transaction(String id, Random random) {
+        TransactionModel transaction = TestTransactions.random(id, random, NOW - 150 * DAY, NOW);
+        if (random.nextInt(8) == 0) transaction.setTransactionCategory(random.nextBoolean() ? null : "");
+        return transaction;
+    }
+}
@@ -0,0 +1,95 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static com.phynix.artham.TestTransactions.CATEGORIES;
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.MODES;
+import static com.phynix.artham.TestTransactions.NOW;
+import static com.phynix.artham.TestTransactions.PARTIES;
+import static com.phynix.artham.TestTransactions.TYPES;
+import static com.phynix.artham.TestTransactions.apply;
+import static org.junit.Assert.assertEquals;
+
+public class FilterBitmapIndexTest {
+
+    @Test
+    public void selectionsAfterDeltasMatchAScan() {
+        Random random = new Random(17);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        for (int i = 0; i < 2000; i++) index.upsert(transaction("t" + i, random));
+        List<TransactionModel> list = new ArrayList<>(index.snapshot());
+        FilterBitmapIndex filters = new FilterBitmapIndex();
+        filters.reset(list);
+
+        for (int step = 0; step < 3000; step++) {
+            String id = "t" + random.nextInt(2500);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            apply(list, delta);
+            filters.apply(delta, list);
+            if (step % 50 != 0) continue;
+
+            FilterQuery query = randomQuery(random);
+            TreeSet<String> expected = new TreeSet<>();
+            for (TransactionModel transaction : list) {
+                if (query.matches(transaction)) expected.add(transaction.getTransactionId());
+            }
+
+            OrdinalBitmap criteria = filters.criteria(query.getEntryType(), query.getCategories(),
+                    query.getPaymentModes(), query.getParties());
+            List<TransactionModel> candidates = criteria == null ? list : filters.select(criteria);
+            TreeSet<String> actual = new TreeSet<>();
+            for (TransactionModel transaction : candidates) {
+                long timestamp = transaction.getTimestamp();
+                if (query.hasDateRange() && (timestamp < query.getStartDate() || timestamp > query.getEndDate())) continue;
+                actual.add(transaction.getTransactionId());
+            }
+            assertEquals(query.toString(), expected, actual);
+
+            // The date slice and the per-row check agree with the scan too
+            TreeSet<String> sliced = new TreeSet<>();
+            List<TransactionModel> slice = query.hasDateRange() ? filters.slice(query.getStartDate(), query.getEndDate()) : list;
+            for (TransactionModel transaction : slice) {
+                if (filters.matches(criteria, transaction)) sliced.add(transaction.getTransactionId());
+            }
+            assertEquals(query.toString(), expected, sliced);
+        }
+    }
+
+    private static FilterQuery randomQuery(Random random) {
+        String type = random.nextInt(3) == 0 ? null : TYPES[random.nextInt(TYPES.length)];
+        long start = 0, end = 0;
+        if (random.nextBoolean()) {
+            start = NOW - random.nextInt(60) * DAY;
+            end = start + random.nextInt(30) * DAY;
+        }
+        return new FilterQuery(null, start, end, type, pick(random, CATEGORIES), pick(random, MODES),
+                random.nextInt(3) == 0 ? Arrays.asList("Party " + random.nextInt(PARTIES), "Party " + random.nextInt(PARTIES)) : null,
+                null);
+    }
+
+    private static List<String> pick(Random random, String[] values) {
+        List<String> picked = new ArrayList<>();
+        for (String value : values) {
+            if (random.nextInt(3) == 0) picked.add(value);
+        }
+        return picked;
+    }
+
+    private static TransactionModel transaction(String id, Random random) {
+        return TestTransactions.random(id, random, NOW - 90 * DAY, NOW);
+    }
+}
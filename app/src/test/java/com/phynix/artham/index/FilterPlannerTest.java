@@ -0,0 +1,153 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.InMemoryStore;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.phynix.artham.TestTransactions.CATEGORIES;
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.MODES;
+import static com.phynix.artham.TestTransactions.NOW;
+import static com.phynix.artham.TestTransactions.PARTIES;
+import static com.phynix.artham.TestTransactions.TAGS;
+import static com.phynix.artham.TestTransactions.TYPES;
+import static com.phynix.artham.TestTransactions.WORDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class FilterPlannerTest {
+
+    private final Random random = new Random(53);
+    private InMemoryStore store;
+    private String cashbookId;
+    private CashbookIndexes indexes;
+    private final List<String> ids = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        store = new InMemoryStore();
+        store.createNewCashbook("Test", null, id -> cashbookId = id, null);
+        SubscriptionHub hub = new SubscriptionHub(store, store);
+        new IndexRegistry(hub, Runnable::run, Runnable::run).observe(cashbookId, new SubscriptionHub.Observer<CashbookIndexes>() {
+            @Override
+            public void onChanged(CashbookIndexes latest) {
+                indexes = latest;
+            }
+
+            @Override
+            public void onError(String error) {
+            }
+        });
+    }
+
+    @Test
+    public void executeMatchesAScanAfterRandomChanges() {
+        for (int i = 0; i < 1500; i++) add();
+
+        Set<FilterPlanner.Driver> drivers = EnumSet.noneOf(FilterPlanner.Driver.class);
+        for (int step = 0; step < 1500; step++) {
+            int change = random.nextInt(4);
+            if (change == 0 || ids.isEmpty()) {
+                add();
+            } else if (change == 1) {
+                store.deleteTransaction(cashbookId, ids.remove(random.nextInt(ids.size())), null);
+            } else {
+                TransactionModel edited = transaction();
+                edited.setTransactionId(ids.get(random.nextInt(ids.size())));
+                store.updateTransaction(cashbookId, edited, null);
+            }
+            if (step % 10 != 0) continue;
+
+            FilterQuery query = randomQuery();
+            FilterPlanner.Plan plan = FilterPlanner.plan(indexes, query);
+            drivers.add(plan.getDriver());
+            TreeSet<String> expected = new TreeSet<>();
+            for (TransactionModel transaction : indexes.getTransactions()) {
+                if (query.matches(transaction)) expected.add(transaction.getTransactionId());
+            }
+            List<TransactionModel> result = FilterPlanner.execute(indexes, query, plan);
+            assertEquals(query + " via " + plan, expected, idsOf(result));
+            assertEquals(query + " via " + plan, expected.size(), result.size());
+        }
+        assertEquals(EnumSet.allOf(FilterPlanner.Driver.class), drivers);
+    }
+
+    @Test
+    public void cachedResultsLastUntilTheNextChange() {
+        for (int i = 0; i < 50; i++) add();
+        FilterQuery query = new FilterQuery(null, 0, 0, "OUT", null, null, null, null);
+        FilterResultCache cache = indexes.getFilterResults();
+        long version = indexes.getVersion();
+        List<TransactionModel> result = FilterPlanner.execute(indexes, query);
+        cache.put(query, version, result);
+
+        // An equal query after normalization shares the entry
+        assertSame(result, cache.get(new FilterQuery("  ", 0, 0, "out", Collections.<String>emptyList(), null, null, null), version));
+
+        add();
+        assertNull(cache.get(query, indexes.getVersion()));
+        // A result computed for the older version is not stored
+        cache.put(query, indexes.getVersion(), FilterPlanner.execute(indexes, query));
+        cache.put(query, version, result);
+        assertEquals(idsOf(FilterPlanner.execute(indexes, query)), idsOf(cache.get(query, indexes.getVersion())));
+    }
+
+    private FilterQuery randomQuery() {
+        String text = null;
+        if (random.nextInt(3) == 0) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            // Whole words, prefixes and two-word queries
+            text = random.nextBoolean() ? word.substring(0, 3 + random.nextInt(word.length() - 2)) : word;
+            if (random.nextInt(3) == 0) text += " " + WORDS[random.nextInt(WORDS.length)].substring(0, 4);
+        }
+        long start = 0, end = 0;
+        if (random.nextInt(3) == 0) {
+            start = NOW - random.nextInt(365) * DAY;
+            end = start + random.nextInt(random.nextBoolean() ? 3 : 200) * DAY;
+        }
+        return new FilterQuery(text, start, end,
+                random.nextInt(3) == 0 ? TYPES[random.nextInt(TYPES.length)] : "All",
+                random.nextInt(3) == 0 ? pick(CATEGORIES) : null,
+                random.nextInt(4) == 0 ? pick(MODES) : null,
+                random.nextInt(6) == 0 ? Arrays.asList("Party " + random.nextInt(PARTIES), "Party " + random.nextInt(PARTIES)) : null,
+                random.nextInt(5) == 0 ? Collections.singletonList(TAGS[random.nextInt(TAGS.length)].toLowerCase()) : null);
+    }
+
+    private List<String> pick(String[] values) {
+        List<String> picked = new ArrayList<>();
+        for (String value : values) {
+            if (random.nextInt(3) == 0) picked.add(value);
+        }
+        return picked;
+    }
+
+    private void add() {
+        TransactionModel transaction = transaction();
+        store.addTransaction(cashbookId, transaction, null);
+        ids.add(transaction.getTransactionId());
+    }
+
+    private TransactionModel transaction() {
+        return TestTransactions.random(null, random, NOW - 365 * DAY, NOW);
+    }
+
+    private static TreeSet<String> idsOf(List<TransactionModel> transactions) {
+        TreeSet<String> ids = new TreeSet<>();
+        for (TransactionModel transaction : transactions) ids.add(transaction.getTransactionId());
+        return ids;
+    }
+}
@@ -0,0 +1,211 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.db.InMemoryStore;
+import com.phynix.artham.db.Subscription;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IndexRegistryTest {
+
+    private InMemoryStore store;
+    private SubscriptionHub hub;
+    private String cashbookId;
+    // Stand-ins for the builder thread and the main looper, run by hand
+    private final List<Runnable> builderQueue = new ArrayList<>();
+    private final List<Runnable> mainQueue = new ArrayList<>();
+    private long nextTime;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryStore();
+        hub = new SubscriptionHub(store, store);
+        store.createNewCashbook("Test", null, id -> cashbookId = id, null);
+    }
+
+    @Test
+    public void buildRunsOnTheBuilderAndLandsOnMain() throws Exception {
+        addTransactions(500);
+        Recorder recorder = new Recorder();
+        registry().observe(cashbookId, recorder);
+        assertTrue(recorder.received.isEmpty());
+        assertEquals(1, builderQueue.size());
+
+        String[] builtOn = new String[1];
+        Thread worker = new Thread(() -> {
+            builtOn[0] = Thread.currentThread().getName();
+            runAll(builderQueue);
+        }, "test-builder");
+        worker.start();
+        worker.join();
+        assertEquals("test-builder", builtOn[0]);
+        assertTrue(recorder.received.isEmpty());
+
+        runAll(mainQueue);
+        assertEquals(1, recorder.received.size());
+        assertEquals(500, recorder.latest().getTransactions().size());
+    }
+
+    @Test
+    public void deltasDuringABuildAreReplayed() {
+        addTransactions(50);
+        Recorder recorder = new Recorder();
+        registry().observe(cashbookId, recorder);
+        addTransactions(3);
+
+        runAll(builderQueue);
+        runAll(mainQueue);
+        CashbookIndexes built = recorder.latest();
+        assertEquals(53, built.getTransactions().size());
+        assertEquals(53, built.getFilters().countInRange(0, Long.MAX_VALUE));
+
+        // Once published, deltas update the same instance in place
+        addTransactions(1);
+        assertTrue(builderQueue.isEmpty());
+        assertSame(built, recorder.latest());
+        assertEquals(54, built.getTransactions().size());
+    }
+
+    @Test
+    public void deltasWaitForABackgroundReaderInsteadOfBlocking() throws Exception {
+        addTransactions(20);
+        Recorder recorder = new Recorder();
+        registry().observe(cashbookId, recorder);
+        runAll(builderQueue);
+        runAll(mainQueue);
+        CashbookIndexes indexes = recorder.latest();
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(() -> indexes.read(() -> {
+            reading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return indexes.getTransactions().size();
+        }), "test-filter");
+        reader.start();
+        reading.await();
+
+        // Returns at once even though the reader holds the indexes; the deltas are held back
+        addTransactions(2);
+        assertEquals(20, indexes.getTransactions().size());
+        assertEquals(1, recorder.received.size());
+        assertTrue(mainQueue.isEmpty());
+
+        release.countDown();
+        reader.join();
+        runAll(mainQueue);
+        assertEquals(22, indexes.getTransactions().size());
+        assertEquals(22, indexes.getFilters().countInRange(0, Long.MAX_VALUE));
+        assertEquals(2, recorder.received.size());
+
+        // With no reader left, deltas apply in place right away again
+        addTransactions(1);
+        assertEquals(23, indexes.getTransactions().size());
+        assertTrue(mainQueue.isEmpty());
+    }
+
+    @Test
+    public void laterObserversGetThePublishedIndexes() {
+        addTransactions(10);
+        IndexRegistry registry = registry();
+        Recorder first = new Recorder();
+        registry.observe(cashbookId, first);
+        runAll(builderQueue);
+        runAll(mainQueue);
+
+        Recorder second = new Recorder();
+        registry.observe(cashbookId, second);
+        assertSame(first.latest(), second.latest());
+        assertTrue(builderQueue.isEmpty());
+    }
+
+    @Test
+    public void releasedBeforeTheBuildLandsPublishesNothing() {
+        addTransactions(10);
+        IndexRegistry registry = registry();
+        Recorder recorder = new Recorder();
+        Subscription subscription = registry.observe(cashbookId, recorder);
+        subscription.unsubscribe();
+
+        runAll(builderQueue);
+        runAll(mainQueue);
+        assertTrue(recorder.received.isEmpty());
+
+        // A new observer starts over with a fresh build
+        Recorder next = new Recorder();
+        registry.observe(cashbookId, next);
+        runAll(builderQueue);
+        runAll(mainQueue);
+        assertEquals(1, next.received.size());
+    }
+
+    @Test
+    public void observedUntilTheLastObserverLeaves() {
+        IndexRegistry registry = registry();
+        assertFalse(registry.isObserved(cashbookId));
+        Subscription first = registry.observe(cashbookId, new Recorder());
+        Subscription second = registry.observe(cashbookId, new Recorder());
+        assertTrue(registry.isObserved(cashbookId));
+
+        first.unsubscribe();
+        assertTrue(registry.isObserved(cashbookId));
+        second.unsubscribe();
+        assertFalse(registry.isObserved(cashbookId));
+    }
+
+    private IndexRegistry registry() {
+        return new IndexRegistry(hub, builderQueue::add, mainQueue::add);
+    }
+
+    private static void runAll(List<Runnable> queue) {
+        while (!queue.isEmpty()) queue.remove(0).run();
+    }
+
+    // Oldest last, so each add lands at the end of the sorted list
+    private void addTransactions(int count) {
+        String[] categories = {"Food", "Rent", "Salary", "Travel"};
+        for (int i = 0; i < count; i++) {
+            TransactionModel transaction = new TransactionModel();
+            transaction.setTimestamp(2_000_000_000_000L - nextTime++ * 60_000L);
+            transaction.setType(i % 3 == 0 ? Constants.TRANSACTION_TYPE_IN : Constants.TRANSACTION_TYPE_OUT);
+            transaction.setTransactionCategory(categories[i % categories.length]);
+            transaction.setPartyName("Party " + (i % 200));
+            transaction.setRemark("Remark " + i);
+            transaction.setAmount(i % 1000);
+            store.addTransaction(cashbookId, transaction, null);
+        }
+    }
+
+    private static final class Recorder implements SubscriptionHub.Observer<CashbookIndexes> {
+        final List<CashbookIndexes> received = new ArrayList<>();
+
+        CashbookIndexes latest() {
+            return received.get(received.size() - 1);
+        }
+
+        @Override
+        public void onChanged(CashbookIndexes indexes) {
+            received.add(indexes);
+        }
+
+        @Override
+        public void onError(String error) {
+        }
+    }
+}
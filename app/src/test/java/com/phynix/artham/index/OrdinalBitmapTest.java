@@ -0,0 +1,87 @@
+package com.phynix.artham.index;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrdinalBitmapTest {
+
+    @Test
+    public void addsAndRemovesMatchATreeSet() {
+        Random random = new Random(3);
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int step = 0; step < 60_000; step++) {
+            int value = value(random);
+            if (random.nextInt(3) == 0) {
+                bitmap.remove(value);
+                expected.remove(value);
+            } else {
+                bitmap.add(value);
+                expected.add(value);
+            }
+            if (step % 5000 == 0) assertContents(expected, bitmap);
+        }
+        assertContents(expected, bitmap);
+
+        // Emptying every container drops them all
+        for (int value : new ArrayList<>(expected)) bitmap.remove(value);
+        assertEquals(0, bitmap.cardinality());
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    public void unionsAndIntersectionsMatchTreeSets() {
+        Random random = new Random(5);
+        for (int round = 0; round < 40; round++) {
+            TreeSet<Integer> a = new TreeSet<>();
+            TreeSet<Integer> b = new TreeSet<>();
+            // Densities either side of the array/bitmap container switch
+            int sizeA = random.nextInt(round % 2 == 0 ? 500 : 20_000);
+            int sizeB = random.nextInt(round % 3 == 0 ? 500 : 20_000);
+            for (int i = 0; i < sizeA; i++) a.add(value(random));
+            for (int i = 0; i < sizeB; i++) b.add(value(random));
+
+            TreeSet<Integer> union = new TreeSet<>(a);
+            union.addAll(b);
+            TreeSet<Integer> intersection = new TreeSet<>(a);
+            intersection.retainAll(b);
+
+            OrdinalBitmap bitmapA = bitmapOf(a);
+            OrdinalBitmap bitmapB = bitmapOf(b);
+            assertContents(union, OrdinalBitmap.or(bitmapA, bitmapB));
+            assertContents(intersection, OrdinalBitmap.and(bitmapA, bitmapB));
+            // The operands are left as they were
+            assertContents(a, bitmapA);
+            assertContents(b, bitmapB);
+        }
+    }
+
+    // Mostly dense in the first two containers, with a sparse tail over a few more
+    private static int value(Random random) {
+        return random.nextInt(4) == 0 ? random.nextInt(400_000) : random.nextInt(130_000);
+    }
+
+    private static OrdinalBitmap bitmapOf(TreeSet<Integer> values) {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        for (int value : values) bitmap.add(value);
+        return bitmap;
+    }
+
+    private static void assertContents(TreeSet<Integer> expected, OrdinalBitmap bitmap) {
+        assertEquals(expected.size(), bitmap.cardinality());
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        assertEquals(new ArrayList<>(expected), values);
+        for (int probe = 0; probe < 400_000; probe += 997) {
+            assertEquals(expected.contains(probe), bitmap.contains(probe));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static org.junit.Assert.assertEquals;
+
+public class PartyTrieTest {
+
+    private static final String[] WORDS = {"acme", "apex", "bharat", "bright", "city", "delta", "kumar", "star"};
+
+    @Test
+    public void completionsAfterDeltasMatchACount() {
+        Random random = new Random(29);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        PartyTrie trie = new PartyTrie();
+        trie.reset(index.snapshot());
+
+        for (int step = 0; step < 4000; step++) {
+            String id = "t" + random.nextInt(600);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, party(random, 60), random));
+            trie.apply(delta);
+            if (step % 40 != 0) continue;
+
+            String prefix = prefix(random);
+            assertEquals(prefix, expected(index.snapshot(), prefix, PartyTrie.TOP_K), trie.suggest(prefix, PartyTrie.TOP_K));
+            assertEquals(prefix, expected(index.snapshot(), prefix, 20), trie.suggest(prefix, 20));
+        }
+    }
+
+    @Test
+    public void facetCountsRankLikeTheTransactions() {
+        Random random = new Random(37);
+        List<TransactionModel> transactions = new ArrayList<>();
+        Map<String, Long> facets = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            TransactionModel transaction = transaction("t" + i, party(random, 80), random);
+            transactions.add(transaction);
+            facets.merge(transaction.getPartyName(), 1L, Long::sum);
+        }
+        PartyTrie trie = new PartyTrie();
+        trie.resetCounts(facets);
+
+        for (int i = 0; i < 50; i++) {
+            String prefix = prefix(random);
+            assertEquals(prefix, expected(transactions, prefix, PartyTrie.TOP_K), trie.suggest(prefix, PartyTrie.TOP_K));
+        }
+    }
+
+    // Most used first, then by name; names are already in normalized form
+    private static List<String> expected(List<TransactionModel> transactions, String prefix, int limit) {
+        Map<String, Integer> uses = new HashMap<>();
+        for (TransactionModel transaction : transactions) {
+            if (transaction.getPartyName().startsWith(prefix)) uses.merge(transaction.getPartyName(), 1, Integer::sum);
+        }
+        List<String> names = new ArrayList<>(uses.keySet());
+        names.sort((a, b) -> {
+            int byUses = Integer.compare(uses.get(b), uses.get(a));
+            return byUses != 0 ? byUses : a.compareTo(b);
+        });
+        return names.subList(0, Math.min(limit, names.size()));
+    }
+
+    private static String party(Random random, int distinct) {
+        int n = random.nextInt(distinct);
+        return WORDS[n % WORDS.length] + " " + n;
+    }
+
+    private static String prefix(Random random) {
+        String word = WORDS[random.nextInt(WORDS.length)];
+        int length = 1 + random.nextInt(word.length() + 2);
+        String name = word + " " + random.nextInt(10);
+        return name.substring(0, Math.min(length, name.length()));
+    }
+
+    private static TransactionModel transaction(String id, String party, Random random) {
+        TransactionModel transaction = TestTransactions.random(id, random, NOW - 700 * DAY, NOW);
+        transaction.setPartyName(party);
+        return transaction;
+    }
+}
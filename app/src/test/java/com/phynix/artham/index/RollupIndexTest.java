@@ -0,0 +1,123 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+import com.phynix.artham.utils.DateTimeUtils;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static org.junit.Assert.assertEquals;
+
+public class RollupIndexTest {
+
+    @Test
+    public void rangeTotalsAfterDeltasMatchASum() {
+        Random random = new Random(53);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        RollupIndex rollup = new RollupIndex();
+        rollup.reset(index.snapshot());
+
+        for (int step = 0; step < 4000; step++) {
+            String id = "t" + random.nextInt(300);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            rollup.apply(delta);
+
+            // A few queries per step, so lazily extended prefix sums are read between changes
+            List<TransactionModel> transactions = index.snapshot();
+            for (int query = 0; query < 3; query++) {
+                long from = DateTimeUtils.toEpochDay(NOW) - 800 + random.nextInt(900);
+                long to = from + random.nextInt(120) - 10;
+                assertTotals("step " + step, sum(transactions, from, to), rollup.getRange(from, to));
+            }
+            long day = DateTimeUtils.toEpochDay(NOW) - random.nextInt(400);
+            assertTotals("day " + day, sum(transactions, day, day), rollup.getDay(day));
+            assertTotals("up to " + day, sum(transactions, Long.MIN_VALUE, day), rollup.getUpTo(day));
+        }
+    }
+
+    @Test
+    public void rebuildMatchesTheDeltas() {
+        Random random = new Random(59);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        RollupIndex rollup = new RollupIndex();
+        rollup.reset(index.snapshot());
+        for (int step = 0; step < 2000; step++) {
+            String id = "t" + random.nextInt(200);
+            rollup.apply(index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random)));
+        }
+
+        RollupIndex rebuilt = new RollupIndex();
+        rebuilt.reset(index.snapshot());
+        long today = DateTimeUtils.toEpochDay(NOW);
+        for (long day = today - 800; day <= today + 40; day++) {
+            assertTotals("day " + day, rebuilt.getDay(day), rollup.getDay(day));
+        }
+        assertTotals("all", rebuilt.getUpTo(today + 40), rollup.getUpTo(today + 40));
+    }
+
+    @Test
+    public void millisRangesCoverWholeDays() {
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        RollupIndex rollup = new RollupIndex();
+        rollup.reset(index.snapshot());
+        long start = DateTimeUtils.startOfDay(NOW);
+        rollup.apply(index.upsert(transaction("morning", start + 1, Constants.TRANSACTION_TYPE_IN, 40)));
+        rollup.apply(index.upsert(transaction("night", start + DAY - 1, Constants.TRANSACTION_TYPE_OUT, 15)));
+        rollup.apply(index.upsert(transaction("tomorrow", start + DAY, Constants.TRANSACTION_TYPE_IN, 99)));
+
+        RollupIndex.Totals totals = rollup.getRangeMillis(start + 12 * 3_600_000L, start + 13 * 3_600_000L);
+        assertEquals(40, totals.getTotalIn(), 1e-9);
+        assertEquals(15, totals.getTotalOut(), 1e-9);
+        assertEquals(2, totals.getCount());
+    }
+
+    private static RollupIndex.Totals sum(List<TransactionModel> transactions, long fromDay, long toDay) {
+        double totalIn = 0, totalOut = 0;
+        int count = 0;
+        for (TransactionModel transaction : transactions) {
+            long day = DateTimeUtils.toEpochDay(transaction.getTimestamp());
+            if (day < fromDay || day > toDay) continue;
+            if (Constants.TRANSACTION_TYPE_IN.equalsIgnoreCase(transaction.getType())) totalIn += transaction.getAmount();
+            else totalOut += transaction.getAmount();
+            count++;
+        }
+        return new RollupIndex.Totals(totalIn, totalOut, count);
+    }
+
+    private static void assertTotals(String message, RollupIndex.Totals expected, RollupIndex.Totals actual) {
+        assertEquals(message, expected.getTotalIn(), actual.getTotalIn(), 1e-6);
+        assertEquals(message, expected.getTotalOut(), actual.getTotalOut(), 1e-6);
+        assertEquals(message, expected.getCount(), actual.getCount());
+    }
+
+    // Mostly the last year, with some entries back-dated two years or dated ahead, which move the
+    // oldest bucket or grow the range while older days are already summed
+    private static TransactionModel transaction(String id, Random random) {
+        switch (random.nextInt(20)) {
+            case 0: return TestTransactions.random(id, random, NOW - 730 * DAY, NOW - 365 * DAY);
+            case 1: return TestTransactions.random(id, random, NOW, NOW + 30 * DAY);
+            default: return TestTransactions.random(id, random, NOW - 365 * DAY, NOW);
+        }
+    }
+
+    private static TransactionModel transaction(String id, long timestamp, String type, double amount) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setTransactionId(id);
+        transaction.setTimestamp(timestamp);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        return transaction;
+    }
+}
@@ -0,0 +1,78 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static com.phynix.artham.TestTransactions.apply;
+import static org.junit.Assert.assertEquals;
+
+public class SummaryAggregatorTest {
+
+    @Test
+    public void deltasMatchARecount() {
+        Random random = new Random(13);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        List<TransactionModel> list = new ArrayList<>();
+        SummaryAggregator aggregator = new SummaryAggregator(5);
+        aggregator.reset(list, NOW);
+
+        for (int step = 0; step < 3000; step++) {
+            String id = "t" + random.nextInt(40);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            apply(list, delta);
+            aggregator.apply(delta, list);
+
+            SummaryAggregator recount = new SummaryAggregator(5);
+            recount.reset(list, NOW);
+            assertEquals(recount.getTotalIn(), aggregator.getTotalIn(), 1e-6);
+            assertEquals(recount.getTotalOut(), aggregator.getTotalOut(), 1e-6);
+            assertEquals(recount.getCount(), aggregator.getCount());
+            assertEquals(recount.getTodayIn(), aggregator.getTodayIn(), 1e-6);
+            assertEquals(recount.getTodayTransactions(), aggregator.getTodayTransactions());
+            assertEquals(recount.getRecentTransactions(), aggregator.getRecentTransactions());
+        }
+    }
+
+    @Test
+    public void deltasKeepTheHomeScreensRecentRows() {
+        Random random = new Random(21);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        for (int i = 0; i < 10_000; i++) index.upsert(transaction("t" + i, random));
+        List<TransactionModel> list = new ArrayList<>(index.snapshot());
+        SummaryAggregator aggregator = new SummaryAggregator();
+        aggregator.reset(list, NOW);
+
+        for (int i = 0; i < 5_000; i++) {
+            String id = "t" + random.nextInt(11_000);
+            TransactionDelta delta = index.get(id) != null && random.nextBoolean()
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            apply(list, delta);
+            aggregator.apply(delta, list);
+        }
+
+        SummaryAggregator recount = new SummaryAggregator();
+        recount.reset(list, NOW);
+        assertEquals(recount.getTotalIn(), aggregator.getTotalIn(), 1e-3);
+        assertEquals(recount.getRecentTransactions(), aggregator.getRecentTransactions());
+        assertEquals(Constants.HOME_SNAPSHOT_RECENT_COUNT, aggregator.getRecentTransactions().size());
+    }
+
+    // Spread over the last few days and the next one, so "today" and the newest rows both change
+    private static TransactionModel transaction(String id, Random random) {
+        return TestTransactions.random(id, random, NOW - 3 * DAY, NOW + DAY);
+    }
+}
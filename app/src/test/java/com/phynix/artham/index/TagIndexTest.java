@@ -0,0 +1,166 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.TagUtils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TagIndexTest {
+
+    private static final String[] TAGS = {"work", "monthly", "office rent", "gst", "family", "कर", "café", "fuel"};
+
+    @Test
+    public void matchesAfterDeltasMatchAScan() {
+        Random random = new Random(83);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        TagIndex tags = new TagIndex();
+        tags.reset(index.snapshot());
+        // The tags each transaction was written with, before any variant spelling
+        Map<String, Set<String>> tagsById = new HashMap<>();
+
+        for (int step = 0; step < 4000; step++) {
+            String id = "t" + random.nextInt(200);
+            TransactionDelta delta;
+            if (index.get(id) != null && random.nextInt(3) == 0) {
+                delta = index.remove(id);
+                tagsById.remove(id);
+            } else {
+                Set<String> written = new HashSet<>();
+                delta = index.upsert(transaction(id, random, written));
+                tagsById.put(id, written);
+            }
+            tags.apply(delta);
+            if (step % 20 != 0) continue;
+
+            // A filter of one to three tags, spelled any way
+            List<String> picked = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            Set<String> keys = new HashSet<>();
+            for (int n = 1 + random.nextInt(3); n > 0; n--) {
+                String tag = TAGS[random.nextInt(TAGS.length)];
+                picked.add(tag);
+                names.add(variant(tag, random));
+                keys.add(TagUtils.key(tag));
+            }
+
+            TreeSet<String> expected = new TreeSet<>();
+            for (TransactionModel transaction : index.snapshot()) {
+                Set<String> written = tagsById.get(transaction.getTransactionId());
+                boolean hit = false;
+                for (String tag : written) {
+                    if (picked.contains(tag)) hit = true;
+                }
+                if (hit) expected.add(transaction.getTransactionId());
+                assertEquals(names.toString(), hit, tags.hasAny(transaction, keys));
+            }
+            // Counted per name given, so a repeated name counts twice
+            int postings = 0;
+            for (String tag : picked) postings += uses(tagsById, tag);
+
+            List<TransactionModel> matched = tags.match(names);
+            TreeSet<String> actual = new TreeSet<>();
+            for (TransactionModel transaction : matched) actual.add(transaction.getTransactionId());
+            assertEquals(names.toString(), expected, actual);
+            assertEquals(names.toString(), expected.size(), matched.size());
+            assertEquals(names.toString(), postings, tags.count(names));
+        }
+    }
+
+    @Test
+    public void suggestionsAfterDeltasRankByUse() {
+        Random random = new Random(89);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        TagIndex tags = new TagIndex();
+        tags.reset(index.snapshot());
+        Map<String, Set<String>> tagsById = new HashMap<>();
+
+        for (int step = 0; step < 3000; step++) {
+            String id = "t" + random.nextInt(150);
+            TransactionDelta delta;
+            if (index.get(id) != null && random.nextInt(3) == 0) {
+                delta = index.remove(id);
+                tagsById.remove(id);
+            } else {
+                Set<String> written = new HashSet<>();
+                delta = index.upsert(transaction(id, random, written));
+                tagsById.put(id, written);
+            }
+            tags.apply(delta);
+            if (step % 20 != 0) continue;
+
+            String tag = TAGS[random.nextInt(TAGS.length)];
+            String prefix = variant(tag.substring(0, random.nextInt(tag.length() + 1)), random);
+            int limit = 1 + random.nextInt(TAGS.length);
+            List<String> suggested = tags.suggest(prefix, limit);
+
+            // Every used tag under the prefix, by use; ties may come in any order
+            List<Integer> expectedUses = new ArrayList<>();
+            for (String candidate : TAGS) {
+                int uses = uses(tagsById, candidate);
+                if (uses > 0 && candidate.startsWith(TagUtils.key(prefix))) expectedUses.add(uses);
+            }
+            expectedUses.sort((a, b) -> Integer.compare(b, a));
+            List<Integer> actualUses = new ArrayList<>();
+            for (String label : suggested) {
+                String key = TagUtils.key(label);
+                assertTrue(prefix + " -> " + label, key.startsWith(TagUtils.key(prefix)));
+                actualUses.add(uses(tagsById, key));
+            }
+            assertEquals(prefix, expectedUses.subList(0, Math.min(limit, expectedUses.size())), actualUses);
+        }
+    }
+
+    private static int uses(Map<String, Set<String>> tagsById, String tag) {
+        int uses = 0;
+        for (Set<String> written : tagsById.values()) {
+            if (written.contains(tag)) uses++;
+        }
+        return uses;
+    }
+
+    // Up to three tags, each spelled some equivalent way, in the stored or a hand-typed form
+    private static TransactionModel transaction(String id, Random random, Set<String> written) {
+        TransactionModel transaction = TestTransactions.random(id, random, NOW - 90 * DAY, NOW);
+        StringBuilder raw = new StringBuilder();
+        for (int n = random.nextInt(4); n > 0; n--) {
+            String tag = TAGS[random.nextInt(TAGS.length)];
+            written.add(tag);
+            raw.append(random.nextBoolean() ? ", " : " #").append(variant(tag, random));
+        }
+        transaction.setTags(raw.length() == 0 ? null : raw.toString());
+        return transaction;
+    }
+
+    private static String variant(String tag, Random random) {
+        switch (random.nextInt(4)) {
+            case 0: return tag.toUpperCase(Locale.ROOT);
+            case 1: {
+                StringBuilder fullWidth = new StringBuilder();
+                for (char c : tag.toCharArray()) {
+                    fullWidth.append(c >= '!' && c <= '~' ? (char) (c - '!' + '！') : c);
+                }
+                return fullWidth.toString();
+            }
+            case 2: return tag.isEmpty() ? tag : Character.toUpperCase(tag.charAt(0)) + tag.substring(1);
+            default: return tag;
+        }
+    }
+}
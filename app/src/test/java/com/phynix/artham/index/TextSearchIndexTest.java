@@ -0,0 +1,156 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Test;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TextSearchIndexTest {
+
+    // Words as tokenize should produce them: NFC, lower case, no joiners
+    private static final String[] WORDS = {"किराना", "दुकान", "क्षत्रिय", "श्री", "ट्रांसपोर्ट", "मिठाई", "२०२४",
+            "café", "naïve", "file", "office", "kirana", "rent", "2024"};
+
+    @Test
+    public void searchesAfterDeltasMatchAScan() {
+        Random random = new Random(73);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        TextSearchIndex search = new TextSearchIndex();
+        search.reset(index.snapshot());
+        // The words each transaction was written with, before any variant spelling
+        Map<String, Set<String>> wordsById = new HashMap<>();
+
+        for (int step = 0; step < 4000; step++) {
+            String id = "t" + random.nextInt(300);
+            TransactionDelta delta;
+            if (index.get(id) != null && random.nextInt(3) == 0) {
+                delta = index.remove(id);
+                wordsById.remove(id);
+            } else {
+                Set<String> words = new HashSet<>();
+                delta = index.upsert(transaction(id, random, words));
+                wordsById.put(id, words);
+            }
+            search.apply(delta);
+            if (step % 20 != 0) continue;
+
+            List<String> prefixes = new ArrayList<>();
+            StringBuilder query = new StringBuilder();
+            for (int n = 1 + random.nextInt(2); n > 0; n--) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+                prefixes.add(prefix);
+                query.append(variant(prefix, random)).append(random.nextBoolean() ? " " : "\u3000");
+            }
+
+            List<TransactionModel> expected = new ArrayList<>();
+            for (TransactionModel transaction : index.snapshot()) {
+                if (containsAll(wordsById.get(transaction.getTransactionId()), prefixes)) expected.add(transaction);
+            }
+            String message = prefixes + " as " + query;
+            assertEquals(message, expected, search.search(query.toString()));
+            List<String> queryWords = TextSearchIndex.tokenize(query.toString());
+            assertTrue(message, search.estimate(queryWords) >= expected.size());
+            for (TransactionModel transaction : index.snapshot()) {
+                assertEquals(message, expected.contains(transaction), TextSearchIndex.matches(transaction, queryWords));
+            }
+        }
+    }
+
+    @Test
+    public void devanagariMarksStayInsideTheirWord() {
+        assertEquals(Arrays.asList("किराना", "दुकान"), TextSearchIndex.tokenize("किराना-दुकान"));
+        assertEquals(Arrays.asList("क्षत्रिय", "श्री"), TextSearchIndex.tokenize("क्षत्रिय, श्री"));
+        assertEquals(Arrays.asList("ट्रांसपोर्ट", "२०२४"), TextSearchIndex.tokenize("ट्रांसपोर्ट २०२४"));
+    }
+
+    @Test
+    public void joinersAreIgnored() {
+        assertEquals(Arrays.asList("क्ष"), TextSearchIndex.tokenize("क्\u200Dष"));
+        assertEquals(Arrays.asList("क्ष"), TextSearchIndex.tokenize("क्\u200Cष"));
+        assertEquals(TextSearchIndex.tokenize("श्री"), TextSearchIndex.tokenize("श्\u200Dरी"));
+    }
+
+    @Test
+    public void compatibilityFormsFoldTogether() {
+        assertEquals(Arrays.asList("abc", "shop"), TextSearchIndex.tokenize("ＡＢＣ\u3000Shop"));
+        assertEquals(Arrays.asList("café"), TextSearchIndex.tokenize("Café"));
+        assertEquals(Arrays.asList("file", "2024"), TextSearchIndex.tokenize("ﬁle ２０２４"));
+        assertEquals(Arrays.asList("naïve"), TextSearchIndex.tokenize("NAÏVE naïve"));
+    }
+
+    // --- DATA ---
+
+    private static boolean containsAll(Set<String> words, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // Category, party, remark and tags made of known words, each spelled some equivalent way
+    private static TransactionModel transaction(String id, Random random, Set<String> words) {
+        TransactionModel transaction = TestTransactions.random(id, random, NOW - 90 * DAY, NOW);
+        transaction.setTransactionCategory(text(random, words, 1, " "));
+        transaction.setPartyName(random.nextInt(5) == 0 ? null : text(random, words, 2, " "));
+        transaction.setRemark(text(random, words, 1 + random.nextInt(3), random.nextBoolean() ? " " : "-"));
+        transaction.setTags(random.nextBoolean() ? text(random, words, 2, ",") : null);
+        return transaction;
+    }
+
+    private static String text(Random random, Set<String> words, int count, String separator) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            words.add(word);
+            if (i > 0) text.append(separator);
+            text.append(variant(word, random));
+        }
+        return text.toString();
+    }
+
+    // The same word as a user or keyboard might produce it
+    private static String variant(String word, Random random) {
+        switch (random.nextInt(6)) {
+            case 0: return word.toUpperCase(Locale.ROOT);
+            case 1: return fullWidth(word);
+            case 2: return Normalizer.normalize(word, Normalizer.Form.NFD);
+            case 3: return word.replace("्", random.nextBoolean() ? "्\u200D" : "्\u200C");
+            case 4: return word.replace("fi", "ﬁ");
+            default: return word;
+        }
+    }
+
+    private static String fullWidth(String word) {
+        StringBuilder result = new StringBuilder();
+        for (char c : word.toCharArray()) {
+            result.append(c >= '!' && c <= '~' ? (char) (c - '!' + '！') : c);
+        }
+        return result.toString();
+    }
+}
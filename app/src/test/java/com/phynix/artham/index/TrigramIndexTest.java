@@ -0,0 +1,144 @@
+package com.phynix.artham.index;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.phynix.artham.TestTransactions.DAY;
+import static com.phynix.artham.TestTransactions.NOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TrigramIndexTest {
+
+    private static final String[] NAMES = {"sharma", "agarwal", "krishna", "traders", "electricals", "medical",
+            "kirana", "stores", "transport", "hardware", "textiles", "enterprises", "motors", "sweets"};
+    private static final String[] REMARKS = {"advance", "balance", "payment", "invoice", "refund", "rent",
+            "salary", "diesel", "groceries", "repairs"};
+    private static final int LIMIT = 20;
+
+    @Test
+    public void searchesAfterDeltasMatchAScan() {
+        Random random = new Random(41);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        TrigramIndex trigrams = new TrigramIndex();
+        trigrams.reset(index.snapshot());
+
+        for (int step = 0; step < 3000; step++) {
+            String id = "t" + random.nextInt(800);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(3) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            trigrams.apply(delta);
+            if (step % 30 != 0) continue;
+
+            String query = misspelled(random);
+            assertEquals(query, scan(index.snapshot(), query), trigrams.search(query, LIMIT, null));
+        }
+    }
+
+    @Test
+    public void findsMisspelledParties() {
+        Random random = new Random(43);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        for (int i = 0; i < 200; i++) index.upsert(transaction("t" + i, random));
+        TransactionModel target = transaction("target", random);
+        target.setPartyName("Bhagyalakshmi Jewellers");
+        index.upsert(target);
+        TrigramIndex trigrams = new TrigramIndex();
+        trigrams.reset(index.snapshot());
+
+        assertEquals(target, trigrams.search("bhagyalaxmi jewelers", LIMIT, null).get(0));
+        assertFalse(trigrams.search("bhagyalaxmi jewelers", LIMIT, transaction -> transaction != target).contains(target));
+    }
+
+    // --- REFERENCE ---
+
+    // The index's rule applied to every transaction: per query word, 1 for a prefix of a word, else
+    // the best Dice similarity that reaches the threshold; ranked by the mean, then newest first
+    private static List<TransactionModel> scan(List<TransactionModel> transactions, String query) {
+        List<String> queryWords = TextSearchIndex.tokenize(query);
+        List<TransactionModel> matches = new ArrayList<>();
+        List<Float> scores = new ArrayList<>();
+        for (TransactionModel transaction : transactions) {
+            List<String> words = TextSearchIndex.tokenize(transaction.getPartyName() + " " + transaction.getRemark()
+                    + " " + transaction.getTransactionCategory());
+            float total = 0;
+            for (String queryWord : queryWords) {
+                float best = 0;
+                for (String word : words) {
+                    float similarity = word.startsWith(queryWord) ? 1f : dice(trigrams(queryWord), trigrams(word));
+                    if (similarity >= TrigramIndex.SIMILARITY_THRESHOLD && similarity > best) best = similarity;
+                }
+                total += best;
+            }
+            float score = total / queryWords.size();
+            if (score < TrigramIndex.SIMILARITY_THRESHOLD) continue;
+            matches.add(transaction);
+            scores.add(score);
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) order.add(i);
+        order.sort((a, b) -> {
+            int byScore = Float.compare(scores.get(b), scores.get(a));
+            return byScore != 0 ? byScore : SortedTransactionIndex.NEWEST_FIRST.compare(matches.get(a), matches.get(b));
+        });
+        List<TransactionModel> ranked = new ArrayList<>();
+        for (int i = 0; i < order.size() && i < LIMIT; i++) ranked.add(matches.get(order.get(i)));
+        return ranked;
+    }
+
+    private static long[] trigrams(String word) {
+        String padded = "  " + word + " ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().sorted().toArray();
+    }
+
+    private static float dice(long[] a, long[] b) {
+        int shared = 0;
+        for (long gram : a) {
+            if (Arrays.binarySearch(b, gram) >= 0) shared++;
+        }
+        return 2f * shared / (a.length + b.length);
+    }
+
+    // --- DATA ---
+
+    // One or two known words with a letter dropped, doubled or swapped
+    private static String misspelled(Random random) {
+        StringBuilder query = new StringBuilder(typo(NAMES[random.nextInt(NAMES.length)], random));
+        if (random.nextBoolean()) query.append(' ').append(typo(REMARKS[random.nextInt(REMARKS.length)], random));
+        return query.toString();
+    }
+
+    private static String typo(String word, Random random) {
+        int at = 1 + random.nextInt(word.length() - 2);
+        switch (random.nextInt(4)) {
+            case 0: return word.substring(0, at) + word.substring(at + 1);
+            case 1: return word.substring(0, at) + word.charAt(at) + word.substring(at);
+            case 2: return word.substring(0, at) + word.charAt(at + 1) + word.charAt(at) + word.substring(at + 2);
+            default: return word;
+        }
+    }
+
+    // Trading-style names and remarks, so close matches have near neighbours to compete with
+    private static TransactionModel transaction(String id, Random random) {
+        TransactionModel transaction = TestTransactions.random(id, random, NOW - 700 * DAY, NOW);
+        transaction.setPartyName(NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)]
+                + " " + random.nextInt(300));
+        transaction.setRemark(REMARKS[random.nextInt(REMARKS.length)] + " " + random.nextInt(1000));
+        return transaction;
+    }
+}
@@ -0,0 +1,88 @@
+package com.phynix.artham.utils;
+
+import com.phynix.artham.TestTransactions;
+import com.phynix.artham.db.SortedTransactionIndex;
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.index.BalanceIndex;
+import com.phynix.artham.models.TransactionModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PdfReportGeneratorTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    public void balanceColumnMatchesTheBalanceIndex() {
+        Random random = new Random(41);
+        SortedTransactionIndex index = new SortedTransactionIndex();
+        BalanceIndex balance = new BalanceIndex();
+        balance.reset(index.snapshot());
+
+        for (int step = 0; step < 3000; step++) {
+            String id = "t" + random.nextInt(400);
+            TransactionDelta delta = index.get(id) != null && random.nextInt(4) == 0
+                    ? index.remove(id)
+                    : index.upsert(transaction(id, random));
+            balance.apply(delta, index.snapshot());
+            if (step % 50 != 0) continue;
+
+            // A window of the history, exported the way TransactionActivity does for a full export
+            long from = START + random.nextInt(60 * 24) * HOUR;
+            long to = from + random.nextInt(30 * 24) * HOUR;
+            List<TransactionModel> rows = new ArrayList<>();
+            for (TransactionModel transaction : index.snapshot()) {
+                if (transaction.getTimestamp() >= from && transaction.getTimestamp() <= to) rows.add(transaction);
+            }
+            rows.sort(PdfReportGenerator.OLDEST_FIRST);
+            double[] column = PdfReportGenerator.runningBalances(rows, balance.getBalanceAt(from - 1));
+
+            // Rows sharing a timestamp are one point in time for the index, so compare after the last of them
+            for (int i = 0; i < rows.size(); i++) {
+                long time = rows.get(i).getTimestamp();
+                if (i + 1 < rows.size() && rows.get(i + 1).getTimestamp() == time) continue;
+                assertEquals("row " + i + " of step " + step, balance.getBalanceAt(time), column[i], 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void newestFirstInputIsListedOldestFirst() {
+        List<TransactionModel> newestFirst = new ArrayList<>();
+        newestFirst.add(transaction("c", START + 2 * HOUR, Constants.TRANSACTION_TYPE_OUT, 30));
+        newestFirst.add(transaction("b", START + HOUR, Constants.TRANSACTION_TYPE_IN, 100));
+        newestFirst.add(transaction("a", START, Constants.TRANSACTION_TYPE_OUT, 20));
+
+        List<TransactionModel> rows = new ArrayList<>(newestFirst);
+        rows.sort(PdfReportGenerator.OLDEST_FIRST);
+        double[] column = PdfReportGenerator.runningBalances(rows, 50.0);
+
+        assertEquals("a", rows.get(0).getTransactionId());
+        assertEquals(30, column[0], 1e-9);
+        assertEquals(130, column[1], 1e-9);
+        assertEquals(100, column[2], 1e-9);
+    }
+
+    // Hour-granular times over about three months, so some rows share a timestamp and many are back-dated
+    private static TransactionModel transaction(String id, Random random) {
+        TransactionModel transaction = TestTransactions.random(id, random, START, START + 90 * TestTransactions.DAY);
+        transaction.setTimestamp(transaction.getTimestamp() - (transaction.getTimestamp() - START) % HOUR);
+        return transaction;
+    }
+
+    private static TransactionModel transaction(String id, long timestamp, String type, double amount) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setTransactionId(id);
+        transaction.setTimestamp(timestamp);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        return transaction;
+    }
+}
@@ -0,0 +1,90 @@
+package com.phynix.artham.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TagUtilsTest {
+
+    private static final String[] TAGS = {"work", "monthly", "office rent", "gst", "family", "कर", "café"};
+    private static final String[] SEPARATORS = {",", ", ", " , ", "#", " #", ",#"};
+
+    @Test
+    public void parseMatchesTheFirstSpellingOfEachTag() {
+        Random random = new Random(79);
+        for (int run = 0; run < 5000; run++) {
+            // Canonical tag -> the spelling written first
+            Map<String, String> expected = new LinkedHashMap<>();
+            StringBuilder raw = new StringBuilder(random.nextInt(4) == 0 ? "#" : "");
+            int count = random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                String tag = TAGS[random.nextInt(TAGS.length)];
+                String spelling = variant(tag, random);
+                expected.putIfAbsent(tag, spelling.trim().replaceAll("\\s+", " "));
+                if (i > 0) raw.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+                raw.append(spelling);
+            }
+            // Older entries hold a list's toString()
+            String text = random.nextInt(5) == 0 ? Arrays.asList(raw.toString().split(",")).toString() : raw.toString();
+
+            List<String> parsed = TagUtils.parse(text);
+            assertEquals(text, new ArrayList<>(expected.values()), parsed);
+            List<String> keys = new ArrayList<>();
+            for (String tag : parsed) keys.add(TagUtils.key(tag));
+            assertEquals(text, new ArrayList<>(expected.keySet()), keys);
+
+            // Storing is idempotent and parses back to the same tags
+            String stored = TagUtils.normalize(text);
+            if (parsed.isEmpty()) {
+                assertNull(stored);
+                continue;
+            }
+            assertEquals(text, stored, TagUtils.normalize(stored));
+            assertEquals(text, parsed, TagUtils.parse(stored));
+        }
+    }
+
+    @Test
+    public void keysFoldCaseAndCompatibilityForms() {
+        assertEquals("gst", TagUtils.key("GST"));
+        assertEquals("gst", TagUtils.key("ＧＳＴ"));
+        assertEquals("gst", TagUtils.key("  Gst "));
+        assertEquals(TagUtils.key("café"), TagUtils.key("CAFÉ"));
+    }
+
+    @Test
+    public void legacyListStringsParseLikeTheirItems() {
+        assertEquals(Arrays.asList("work", "office rent"), TagUtils.parse("[work, office  rent, Work]"));
+        assertEquals(Collections.emptyList(), TagUtils.parse("[]"));
+        assertEquals("work, office rent", TagUtils.normalize("#work #office rent"));
+    }
+
+    // The same tag as typed: any case, full-width letters, stray or doubled spaces
+    private static String variant(String tag, Random random) {
+        switch (random.nextInt(5)) {
+            case 0: return tag.toUpperCase(Locale.ROOT);
+            case 1: return fullWidth(tag);
+            case 2: return " " + tag.replace(" ", "   ") + " ";
+            case 3: return Character.toUpperCase(tag.charAt(0)) + tag.substring(1);
+            default: return tag;
+        }
+    }
+
+    private static String fullWidth(String tag) {
+        StringBuilder result = new StringBuilder();
+        for (char c : tag.toCharArray()) {
+            result.append(c >= '!' && c <= '~' ? (char) (c - '!' + '！') : c);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.phynix.artham.viewmodels;
+
+import android.app.Application;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.phynix.artham.db.InMemoryStore;
+import com.phynix.artham.db.SubscriptionHub;
+import com.phynix.artham.models.TransactionModel;
+import com.phynix.artham.utils.Constants;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionViewModelTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private InMemoryStore store;
+    private SubscriptionHub hub;
+    private String cashbookId;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryStore();
+        hub = new SubscriptionHub(store, store);
+        store.createNewCashbook("Test", null, id -> cashbookId = id, null);
+    }
+
+    @Test
+    public void wholeHistoryFollowsLiveChanges() {
+        store.addTransaction(cashbookId, transaction(100, Constants.TRANSACTION_TYPE_IN), null);
+        store.addTransaction(cashbookId, transaction(200, Constants.TRANSACTION_TYPE_OUT), null);
+        TransactionViewModel viewModel = viewModel();
+
+        viewModel.setDateRange(0, 0);
+        assertTrue(viewModel.isHistoryLoaded());
+        assertEquals(2, viewModel.getAllTransactions().getValue().size());
+
+        viewModel.addTransaction(transaction(300, Constants.TRANSACTION_TYPE_IN));
+        List<TransactionModel> transactions = viewModel.getAllTransactions().getValue();
+        assertEquals(3, transactions.size());
+        assertEquals(300, transactions.get(0).getTimestamp());
+        assertEquals(transactions, viewModel.getFilteredTransactions().getValue());
+
+        viewModel.deleteTransaction(transactions.get(0).getTransactionId());
+        assertEquals(2, viewModel.getAllTransactions().getValue().size());
+    }
+
+    @Test
+    public void rangeLoadIsNotTheWholeHistory() {
+        for (int i = 1; i <= 10; i++) store.addTransaction(cashbookId, transaction(i * 100, Constants.TRANSACTION_TYPE_OUT), null);
+        TransactionViewModel viewModel = viewModel();
+
+        viewModel.setDateRange(300, 500);
+        assertTrue(viewModel.isRangeLoaded());
+        assertFalse(viewModel.isHistoryLoaded());
+        assertEquals(3, viewModel.getAllTransactions().getValue().size());
+    }
+
+    @Test
+    public void pagingReturnsEveryTransactionOnce() {
+        int count = Constants.TRANSACTION_PAGE_SIZE * 2 + 5;
+        // Shared timestamps, so pages are cut in the middle of ties
+        for (int i = 0; i < count; i++) store.addTransaction(cashbookId, transaction(i / 7, Constants.TRANSACTION_TYPE_IN), null);
+        TransactionViewModel viewModel = viewModel();
+
+        viewModel.loadFirstPage();
+        while (viewModel.getHasMorePages().getValue()) viewModel.loadNextPage();
+
+        Set<String> ids = new HashSet<>();
+        for (TransactionModel transaction : viewModel.getPagedTransactions().getValue()) {
+            assertTrue(ids.add(transaction.getTransactionId()));
+        }
+        assertEquals(count, ids.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void factoryRejectsAStoreWithoutItsHub() {
+        new TransactionViewModelFactory(new Application(), cashbookId, store, null);
+    }
+
+    private TransactionViewModel viewModel() {
+        return new TransactionViewModel(new Application(), cashbookId, store, hub);
+    }
+
+    private static TransactionModel transaction(long timestamp, String type) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setTimestamp(timestamp);
+        transaction.setType(type);
+        transaction.setAmount(10);
+        return transaction;
+    }
+}
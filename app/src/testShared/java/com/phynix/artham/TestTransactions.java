@@ -0,0 +1,78 @@
+package com.phynix.artham;
+
+import com.phynix.artham.db.TransactionDelta;
+import com.phynix.artham.models.TransactionModel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Random transactions and delta replay shared by the JVM tests and the device benchmarks.
+ */
+public final class TestTransactions {
+
+    public static final long NOW = 1_700_000_000_000L;
+    public static final long DAY = 24 * 60 * 60 * 1000L;
+
+    // Values the random fields are drawn from, for tests that build queries over them.
+    // "in" checks that the type is matched without regard to case.
+    public static final String[] TYPES = {"IN", "OUT", "in"};
+    public static final String[] CATEGORIES = {"Food", "Rent", "Salary", "Travel", "Bills"};
+    public static final String[] MODES = {"Cash", "Online", "Card"};
+    public static final String[] WORDS = {"advance", "balance", "diesel", "groceries", "invoice", "refund"};
+    public static final String[] TAGS = {"work", "Monthly", "family", "tax"};
+    public static final int PARTIES = 40;
+
+    private TestTransactions() {
+    }
+
+    /**
+     * A transaction with every filterable field drawn at random, timed in [from, to).
+     * @param id null to let the store assign one
+     */
+    public static TransactionModel random(String id, Random random, long from, long to) {
+        TransactionModel transaction = new TransactionModel();
+        transaction.setTransactionId(id);
+        transaction.setTimestamp(from + (long) (random.nextDouble() * (to - from)));
+        transaction.setType(TYPES[random.nextInt(TYPES.length)]);
+        transaction.setTransactionCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        transaction.setPaymentMode(MODES[random.nextInt(MODES.length)]);
+        transaction.setPartyName(random.nextInt(10) == 0 ? null : "Party " + random.nextInt(PARTIES));
+        transaction.setRemark(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+        transaction.setTags(random.nextBoolean() ? TAGS[random.nextInt(TAGS.length)] + "," + TAGS[random.nextInt(TAGS.length)] : null);
+        transaction.setAmount(random.nextInt(10_000) / 100.0);
+        return transaction;
+    }
+
+    /**
+     * A transactions node of random rows keyed "-tx0".."-tx(rows-1)", in the value shape
+     * {@code DataSnapshot.getValue()} returns: Long, Double and String fields, null ones left out.
+     */
+    public static Map<String, Object> node(int rows, Random random, long from, long to) {
+        Map<String, Object> node = new HashMap<>();
+        for (int i = 0; i < rows; i++) {
+            TransactionModel transaction = random(null, random, from, to);
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("transactionCategory", transaction.getTransactionCategory());
+            fields.put("paymentMode", transaction.getPaymentMode());
+            fields.put("type", transaction.getType());
+            fields.put("remark", transaction.getRemark());
+            fields.put("amount", transaction.getAmount());
+            fields.put("timestamp", transaction.getTimestamp());
+            if (transaction.getPartyName() != null) fields.put("partyName", transaction.getPartyName());
+            if (transaction.getTags() != null) fields.put("tags", transaction.getTags());
+            node.put("-tx" + i, fields);
+        }
+        return node;
+    }
+
+    /**
+     * Replays a delta on a plain newest-first list, as TransactionSnapshot does.
+     */
+    public static void apply(List<TransactionModel> list, TransactionDelta delta) {
+        if (delta.getPrevious() != null) list.remove(delta.getPreviousPosition());
+        if (delta.getTransaction() != null) list.add(delta.getPosition(), delta.getTransaction());
+    }
+}